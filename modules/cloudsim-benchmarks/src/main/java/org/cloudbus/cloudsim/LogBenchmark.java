@@ -0,0 +1,118 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of logging one of the per-VM messages of
+ * {@link HostDynamicWorkload#updateVmsProcessing(double)}, with the logger enabled and disabled:
+ * as it was written before, building the format by concatenation and encoding the message with
+ * {@link String#getBytes()}, and as it is written now, checking
+ * {@link Log#isLoggable(Log.Level)} first and formatting into the reused buffers of {@link Log}.
+ * The messages are written to a stream that discards them.
+ * <p>
+ * Run it from the <tt>modules/cloudsim-benchmarks</tt> folder after <tt>mvn package</tt> with
+ * <tt>java -cp target/classes:&lt;runtime classpath&gt; org.cloudbus.cloudsim.LogBenchmark</tt>.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogBenchmark {
+
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	/** Whether the logger is enabled. */
+	@Param({ "false", "true" })
+	public boolean enabled;
+
+	/** A stream that discards what is written to it. */
+	private final OutputStream output = new OutputStream() {
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+
+	};
+
+	private double clock;
+
+	private int hostId;
+
+	private int vmId;
+
+	@Setup
+	public void setUp() {
+		Log.setOutput(output);
+		Log.setDisabled(!enabled);
+		clock = 300.5;
+		hostId = 12;
+		vmId = 345;
+	}
+
+	@TearDown
+	public void tearDown() {
+		Log.setOutput(null);
+		Log.enable();
+	}
+
+	/**
+	 * Logs the message as before: the format is concatenated and the message encoded with
+	 * {@link String#getBytes()} whether or not the logger is enabled.
+	 */
+	@Benchmark
+	public void concatenatedFormat() throws IOException {
+		String format = "%.2f: [Host #" + hostId + "] VM #" + vmId + " is in migration";
+		if (!Log.isDisabled()) {
+			output.write((String.format(format, clock) + LINE_SEPARATOR).getBytes());
+		}
+	}
+
+	/**
+	 * Logs the message as it is logged now.
+	 */
+	@Benchmark
+	public void guardedFormat() {
+		if (Log.isLoggable(Log.Level.DEBUG)) {
+			Log.formatLine("%.2f: [Host #%d] VM #%d is in migration", clock, hostId, vmId);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(LogBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of reallocating the PEs of a host to its VMs, as
+ * {@link HostDynamicWorkload#updateVmsProcessing(double)} does on each update, as a function of
+ * the number of VMs of the host. The 40 VMs request more MIPS than the host has, so the
+ * {@link VmSchedulerTimeSharedOverSubscription} scales their allocations down.
+ * <p>
+ * Run it from the <tt>modules/cloudsim-benchmarks</tt> folder after <tt>mvn package</tt> with
+ * <tt>java -cp target/classes:&lt;runtime classpath&gt; org.cloudbus.cloudsim.VmSchedulerBenchmark</tt>.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VmSchedulerBenchmark {
+
+	/** The number of VMs of the host. */
+	@Param({ "10", "40" })
+	public int vms;
+
+	private VmScheduler vmScheduler;
+
+	private List<Vm> vmList;
+
+	private List<List<Double>> mipsShares;
+
+	@Setup
+	public void setUp() {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int id = 0; id < 8; id++) {
+			peList.add(new Pe(id, new PeProvisionerSimple(1000)));
+		}
+		vmScheduler = new VmSchedulerTimeSharedOverSubscription(peList);
+
+		vmList = new ArrayList<Vm>();
+		mipsShares = new ArrayList<List<Double>>();
+		for (int id = 0; id < vms; id++) {
+			Vm vm = new Vm(id, 0, 1000, 1, 512, 1000, 10000, "Xen", null);
+			vmList.add(vm);
+			mipsShares.add(Arrays.asList(100.0 + 50 * (id % 10)));
+			vmScheduler.allocatePesForVm(vm, mipsShares.get(id));
+		}
+	}
+
+	@Benchmark
+	public double reallocate() {
+		for (Vm vm : vmList) {
+			vmScheduler.deallocatePesForVm(vm);
+		}
+		for (int i = 0; i < vmList.size(); i++) {
+			vmScheduler.allocatePesForVm(vmList.get(i), mipsShares.get(i));
+		}
+		double totalAllocatedMips = 0;
+		for (Vm vm : vmList) {
+			totalAllocatedMips += vmScheduler.getTotalAllocatedMipsForVm(vm);
+		}
+		return totalAllocatedMips;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(VmSchedulerBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
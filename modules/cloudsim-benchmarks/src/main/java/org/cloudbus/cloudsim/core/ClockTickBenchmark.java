@@ -0,0 +1,122 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of {@link CloudSim#runClockTick()} as a function of the number of entities
+ * in the simulation, when a single entity receives an event at each tick and all the others
+ * are idle. Since only the entities woken up by an event are run, the cost should not depend
+ * on the number of entities.
+ * <p>
+ * Run it from the <tt>modules/cloudsim-benchmarks</tt> folder after <tt>mvn package</tt> with
+ * <tt>java -cp target/classes:&lt;runtime classpath&gt; org.cloudbus.cloudsim.core.ClockTickBenchmark</tt>.
+ * 
+ * @since CloudSim Toolkit 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockTickBenchmark {
+
+	/** The number of idle entities in the simulation. */
+	@Param({ "10", "1000", "100000" })
+	public int entities;
+
+	/**
+	 * An entity that does nothing.
+	 */
+	private static class IdleEntity extends SimEntity {
+
+		public IdleEntity(String name) {
+			super(name);
+		}
+
+		@Override
+		public void startEntity() {
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+	}
+
+	/**
+	 * An entity that sends an event to itself every time unit.
+	 */
+	private static class TickerEntity extends IdleEntity {
+
+		public TickerEntity(String name) {
+			super(name);
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), 1, 0);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			schedule(getId(), 1, 0);
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		CloudSim.init(0, null, false);
+		new TickerEntity("Ticker");
+		for (int i = 0; i < entities; i++) {
+			new IdleEntity("Idle_" + i);
+		}
+		CloudSim.runStart();
+	}
+
+	@TearDown
+	public void tearDown() {
+		CloudSim.abruptallyTerminate();
+		CloudSim.finishSimulation();
+		Log.enable();
+	}
+
+	@Benchmark
+	public boolean clockTick() {
+		return CloudSim.runClockTick();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ClockTickBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Vm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of finding a VM by id in a list of VMs, as a function of the number of VMs,
+ * with an {@link IdIndex} and by scanning the list with {@link VmList#getById(List, int)}. The
+ * {@link #createAndLookUp()} benchmark mimics the brokers, which add each created VM to a list
+ * before looking it up in the list.
+ * <p>
+ * Run it from the <tt>modules/cloudsim-benchmarks</tt> folder after <tt>mvn package</tt> with
+ * <tt>java -cp target/classes:&lt;runtime classpath&gt; org.cloudbus.cloudsim.lists.VmLookupBenchmark</tt>.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VmLookupBenchmark {
+
+	/** The number of VMs. */
+	@Param({ "1000", "100000" })
+	public int vms;
+
+	/** Whether the VMs are found with an index rather than by scanning the list. */
+	@Param({ "true", "false" })
+	public boolean indexed;
+
+	private List<Vm> vmList;
+
+	private List<Vm> createdList;
+
+	private IdIndex<Vm> index;
+
+	private IdIndex<Vm> createdIndex;
+
+	private Random random;
+
+	@Setup
+	public void setUp() {
+		vmList = new ArrayList<Vm>();
+		for (int id = 0; id < vms; id++) {
+			vmList.add(new Vm(id, 0, 1000, 1, 512, 1000, 10000, "Xen", null));
+		}
+		createdList = new ArrayList<Vm>();
+		index = VmList.createIdIndex();
+		createdIndex = VmList.createIdIndex();
+		random = new Random(19);
+	}
+
+	@Benchmark
+	public Vm lookUp() {
+		int id = random.nextInt(vms);
+		return indexed ? index.get(vmList, id) : VmList.getById(vmList, id);
+	}
+
+	@Benchmark
+	public Vm createAndLookUp() {
+		if (createdList.size() == vms) {
+			createdList.clear();
+		}
+		Vm vm = vmList.get(createdList.size());
+		createdList.add(vm);
+		return indexed ? createdIndex.get(createdList, vm.getId()) : VmList.getById(createdList, vm.getId());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(VmLookupBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of calculating the delays between all the nodes of a BRITE topology, as a
+ * function of the number of nodes, against the cost of adding a link to a topology whose delays
+ * are calculated, which is what {@link org.cloudbus.cloudsim.NetworkTopology#addLink} used to pay
+ * for the former. The topologies are generated as by the BRITE router-level Waxman model, each
+ * new node being linked to two of the previous ones, written in the BRITE format and read with
+ * {@link GraphReaderBrite}. The links added by {@link #addLink()} accumulate over an iteration.
+ * <p>
+ * Run it from the <tt>modules/cloudsim-benchmarks</tt> folder after <tt>mvn package</tt> with
+ * <tt>java -cp target/classes:&lt;runtime classpath&gt; org.cloudbus.cloudsim.network.DelayMatrixBenchmark</tt>.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelayMatrixBenchmark {
+
+	/** The number of nodes of the topology. */
+	@Param({ "500", "1000", "2000", "5000" })
+	public int nodes;
+
+	private TopologicalGraph graph;
+
+	private DelayMatrix_Float delayMatrix;
+
+	private Random random;
+
+	@Setup
+	public void setUp() throws IOException {
+		File file = File.createTempFile("topology", ".brite");
+		try {
+			writeTopology(file, nodes, new Random(13));
+			graph = new GraphReaderBrite().readGraphFile(file.getPath());
+		} finally {
+			file.delete();
+		}
+		delayMatrix = new DelayMatrix_Float(graph, false);
+		random = new Random(17);
+	}
+
+	@Benchmark
+	public DelayMatrix_Float allPairsShortestPaths() {
+		return new DelayMatrix_Float(graph, false);
+	}
+
+	@Benchmark
+	public DelayMatrix_Float addLink() {
+		delayMatrix.addLink(random.nextInt(nodes), random.nextInt(nodes), 1 + random.nextInt(100));
+		return delayMatrix;
+	}
+
+	/**
+	 * Writes a topology in the BRITE format, with the nodes placed at random on a plane and each
+	 * new node linked to two of the previous ones, with a delay proportional to their distance.
+	 */
+	private static void writeTopology(File file, int nodes, Random random) throws IOException {
+		int[] x = new int[nodes];
+		int[] y = new int[nodes];
+		PrintWriter writer = new PrintWriter(file);
+		try {
+			writer.println("Topology: ( " + nodes + " Nodes, " + (2 * nodes - 3) + " Edges )");
+			writer.println();
+			writer.println("Nodes: ( " + nodes + " )");
+			for (int node = 0; node < nodes; node++) {
+				x[node] = random.nextInt(1000);
+				y[node] = random.nextInt(1000);
+				writer.println(node + "\t" + x[node] + "\t" + y[node] + "\t2\t2\t-1\tRT_NODE");
+			}
+			writer.println();
+			writer.println("Edges: ( " + (2 * nodes - 3) + " )");
+			int edge = 0;
+			for (int node = 1; node < nodes; node++) {
+				int first = random.nextInt(node);
+				int second = node > 1 ? (first + 1 + random.nextInt(node - 1)) % node : first;
+				for (int other : node > 1 ? new int[] { first, second } : new int[] { first }) {
+					double length = Math.hypot(x[node] - x[other], y[node] - y[other]);
+					writer.println(edge++ + "\t" + node + "\t" + other + "\t" + length + "\t"
+							+ (1 + length / 100) + "\t10.0\t-1\t-1\tE_RT\tU");
+				}
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(DelayMatrixBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
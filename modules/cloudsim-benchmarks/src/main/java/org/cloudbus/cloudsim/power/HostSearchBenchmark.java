@@ -0,0 +1,183 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of {@link PowerVmAllocationPolicyMigrationAbstract#findHostForVm(Vm, Set)}
+ * with the MAD over utilization detection, as a function of the number of hosts, when the hosts
+ * are evaluated without placing the VM on them, and when the VM is created and destroyed on each
+ * candidate host as before. The hosts and VMs are of the kinds used in the PlanetLab power
+ * experiments.
+ * <p>
+ * Run it from the <tt>modules/cloudsim-benchmarks</tt> folder after <tt>mvn package</tt> with
+ * <tt>java -cp target/classes:&lt;runtime classpath&gt; org.cloudbus.cloudsim.power.HostSearchBenchmark</tt>.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostSearchBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "100", "800" })
+	public int hosts;
+
+	/** Whether the VM is created and destroyed on each candidate host. */
+	@Param({ "false", "true" })
+	public boolean trial;
+
+	private static final int[] VM_MIPS = { 2500, 2000, 1000, 500 };
+
+	private static final int[] VM_RAM = { 870, 1740, 1740, 613 };
+
+	/**
+	 * The MAD policy as it checked a candidate host before, creating the VM on the host for the
+	 * time of the check.
+	 */
+	private static class TrialPolicy extends PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation {
+
+		public TrialPolicy(List<? extends Host> hostList, PowerVmSelectionPolicy vmSelectionPolicy,
+				double safetyParameter, PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy) {
+			super(hostList, vmSelectionPolicy, safetyParameter, fallbackVmAllocationPolicy);
+		}
+
+		@Override
+		protected boolean isHostOverUtilized(PowerHost host, Vm candidateVm) {
+			if (candidateVm == null) {
+				return super.isHostOverUtilized(host, null);
+			}
+			boolean isHostOverUtilized = true;
+			if (host.vmCreate(candidateVm)) {
+				isHostOverUtilized = super.isHostOverUtilized(host, null);
+				host.vmDestroy(candidateVm);
+			}
+			return isHostOverUtilized;
+		}
+	}
+
+	private PowerVmAllocationPolicyMigrationAbstract policy;
+
+	private Vm vm;
+
+	private Set<Host> excludedHosts;
+
+	@Setup
+	public void setUp() {
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+		Random random = new Random(11);
+		List<PowerHost> hostList = createHostList(hosts);
+		PowerVmSelectionPolicy vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
+		PowerVmAllocationPolicyMigrationAbstract fallbackPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList, vmSelectionPolicy, 0.8);
+		policy = trial
+				? new TrialPolicy(hostList, vmSelectionPolicy, 2.5, fallbackPolicy)
+				: new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(hostList, vmSelectionPolicy, 2.5,
+						fallbackPolicy);
+		for (int i = 0; i < hosts; i++) {
+			hostList.get(random.nextInt(hosts)).vmCreate(createVm(i, random));
+		}
+		// as when looking for the over utilized hosts before placing the VMs to migrate
+		for (PowerHost host : hostList) {
+			policy.isHostOverUtilized(host);
+		}
+		vm = createVm(hosts, random);
+		excludedHosts = Collections.<Host> singleton(hostList.get(0));
+	}
+
+	@TearDown
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Benchmark
+	public PowerHost findHostForVm() {
+		return policy.findHostForVm(vm, excludedHosts);
+	}
+
+	/**
+	 * Creates hosts of two PEs, half of them of 1860 MIPS and half of them of 2660 MIPS.
+	 */
+	private static List<PowerHost> createHostList(int hosts) {
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < hosts; i++) {
+			int mips = i % 2 == 0 ? 1860 : 2660;
+			List<Pe> peList = new ArrayList<Pe>();
+			peList.add(new Pe(0, new PeProvisionerSimple(mips)));
+			peList.add(new Pe(1, new PeProvisionerSimple(mips)));
+			hostList.add(new PowerHostUtilizationHistory(i, new RamProvisionerSimple(4096),
+					new BwProvisionerSimple(1000000), 1000000, peList,
+					new VmSchedulerTimeSharedOverSubscription(peList),
+					i % 2 == 0
+							? new PowerModelSpecPowerHpProLiantMl110G4Xeon3040()
+							: new PowerModelSpecPowerHpProLiantMl110G5Xeon3075()));
+		}
+		return hostList;
+	}
+
+	/**
+	 * Creates a VM of a random kind, with a random utilization history, which is too short for
+	 * the MAD to be computed for some of the VMs.
+	 */
+	private static PowerVm createVm(int id, Random random) {
+		int type = random.nextInt(VM_MIPS.length);
+		PowerVm vm = new PowerVm(id, 0, VM_MIPS[type], 1, VM_RAM[type], 100000, 2500, 1, "Xen",
+				new CloudletSchedulerDynamicWorkload(VM_MIPS[type], 1), 300);
+		int historyLength = random.nextInt(4) == 0 ? random.nextInt(12) : PowerVm.HISTORY_LENGTH;
+		for (int i = 0; i < historyLength; i++) {
+			vm.addUtilizationHistoryValue(random.nextDouble());
+		}
+		return vm;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(HostSearchBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -19,6 +19,7 @@ import org.cloudbus.cloudsim.container.schedulers.ContainerSchedulerTimeSharedOv
 import org.cloudbus.cloudsim.container.schedulers.ContainerVmSchedulerTimeSharedOverSubscription;
 import org.cloudbus.cloudsim.container.utils.IDs;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.ResultFileWriter;
 
 import java.io.*;
 import java.io.File;
@@ -336,7 +337,7 @@ public class HelperEx {
             if (!folder3.exists()) {
                 folder3.mkdir();
             }
-            File folder4 = new File(outputFolder + "/metrics");
+            File folder4 = new File(outputFolder + "/results");
             if (!folder4.exists()) {
                 folder4.mkdir();
             }
@@ -395,9 +396,6 @@ public class HelperEx {
                 data.append(String.format("%.5f", executionTimeVmReallocationStDev) + delimeter);
                 data.append(String.format("%.5f", executionTimeTotalMean) + delimeter);
                 data.append(String.format("%.5f", executionTimeTotalStDev) + delimeter);
-
-                writeMetricHistory(hosts, vmAllocationPolicy, outputFolder + "/metrics/" + experimentName
-                        + "_metric");
             }
 
             data.append("\n");
@@ -407,6 +405,8 @@ public class HelperEx {
                     + experimentName + "_time_before_host_shutdown.csv");
             writeDataColumn(timeBeforeContainerMigration, outputFolder + "/time_before_vm_migration/"
                     + experimentName + "_time_before_vm_migration.csv");
+            writeResultFile(datacenter, vms, containers, lastClock, outputFolder + "/results/" + experimentName
+                    + ".bin");
 
         } else {
             Log.setDisabled(false);
@@ -825,6 +825,60 @@ public class HelperEx {
         }
     }
 
+    /**
+     * Writes the state histories of the hosts, VMs and containers, their migrations, the energy
+     * consumed and the metric histories of the VM allocation policy into a single result file,
+     * which can be converted into CSV files by
+     * {@link org.cloudbus.cloudsim.examples.power.Helper#convertResultFile(String, String)}.
+     *
+     * @param datacenter the datacenter
+     * @param vms        the vms
+     * @param containers the containers
+     * @param lastClock  the last clock
+     * @param outputPath the output path
+     */
+    public static void writeResultFile(
+            PowerContainerDatacenter datacenter,
+            List<ContainerVm> vms,
+            List<Container> containers,
+            double lastClock,
+            String outputPath) {
+        try {
+            ResultFileWriter writer = new ResultFileWriter(outputPath);
+            try {
+                for (ContainerHost host : datacenter.<ContainerHost>getHostList()) {
+                    writer.writeHostStateHistory(host.getId(),
+                            ((ContainerHostDynamicWorkload) host).getStateHistory());
+                }
+                for (ContainerVm vm : vms) {
+                    writer.writeVmStateHistory(vm.getId(), vm.getStateHistory());
+                }
+                for (Container container : containers) {
+                    writer.writeContainerStateHistory(container.getId(), container.getStateHistory());
+                }
+                writer.writeEnergy(lastClock, datacenter.getPower());
+                if (datacenter.getVmAllocationPolicy() instanceof PowerContainerVmAllocationPolicyMigrationAbstract) {
+                    PowerContainerVmAllocationPolicyMigrationAbstract vmAllocationPolicy =
+                            (PowerContainerVmAllocationPolicyMigrationAbstract) datacenter.getVmAllocationPolicy();
+                    for (ContainerHost host : datacenter.<ContainerHost>getHostList()) {
+                        if (vmAllocationPolicy.getTimeHistory().containsKey(host.getId())) {
+                            writer.writeMetricHistory(
+                                    host.getId(),
+                                    vmAllocationPolicy.getTimeHistory().get(host.getId()),
+                                    vmAllocationPolicy.getUtilizationHistory().get(host.getId()),
+                                    vmAllocationPolicy.getMetricHistory().get(host.getId()));
+                        }
+                    }
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(0);
+        }
+    }
+
     /**
      * Prints the metric history.
      *
@@ -1096,6 +1150,13 @@ public class HelperEx {
         writeDataColumn(timeBeforeHostShutdown, beforShutDown+"/"+ experimentName + "_time_before_host_shutdown.csv");
         writeDataColumn(timeBeforeContainerMigration, beforeMigrate+"/"+experimentName+ "_time_before_vm_migration.csv");
 
+        String results = outputFolder + "/results/" + experimentName.substring(0, index);
+        File folder4 = new File(results);
+        if (!folder4.exists() && !folder4.mkdirs()) {
+            throw new IllegalStateException("Couldn't create dir: " + folder4);
+        }
+        writeResultFile(datacenter, vms, containers, lastClock, results + "/" + experimentName + ".bin");
+
 
 
 
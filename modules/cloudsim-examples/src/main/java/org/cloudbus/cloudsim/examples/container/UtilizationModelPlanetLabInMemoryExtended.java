@@ -36,14 +36,13 @@ public class UtilizationModelPlanetLabInMemoryExtended extends UtilizationModelP
 
     public double calUtilization(double time) {
 //        Log.print(time);
-        double[] data = super.getData();
         if (time % getSchedulingInterval() == 0) {
-            return data[(int) time / (int) getSchedulingInterval()];
+            return getSample((int) time / (int) getSchedulingInterval());
         }
         int time1 = (int) Math.floor(time / getSchedulingInterval());
         int time2 = (int) Math.ceil(time / getSchedulingInterval());
-        double utilization1 = data[time1];
-        double utilization2 = data[time2];
+        double utilization1 = getSample(time1);
+        double utilization2 = getSample(time2);
         double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
         double utilization = utilization1 + delta * (time - time1 * getSchedulingInterval());
 
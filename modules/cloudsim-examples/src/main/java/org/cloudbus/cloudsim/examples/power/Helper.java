@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -33,10 +34,23 @@ import org.cloudbus.cloudsim.power.PowerHost;
 import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
 import org.cloudbus.cloudsim.power.PowerVm;
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationInterQuartileRange;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegression;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegressionRobust;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyRandomSelection;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.ResultFile;
+import org.cloudbus.cloudsim.util.ResultFileWriter;
 
 /**
  * The Class Helper.
@@ -233,6 +247,133 @@ public class Helper {
 		return timeBeforeVmMigration;
 	}
 
+	/**
+	 * Creates the vm allocation policy.
+	 * 
+	 * @param vmAllocationPolicyName the vm allocation policy name
+	 * @param vmSelectionPolicy the vm selection policy, may be null if not used by the policy
+	 * @param parameter the parameter
+	 * @param hostList the host list
+	 * @return the vm allocation policy, or null if the name is unknown
+	 */
+	public static VmAllocationPolicy createVmAllocationPolicy(
+			String vmAllocationPolicyName,
+			PowerVmSelectionPolicy vmSelectionPolicy,
+			double parameter,
+			List<PowerHost> hostList) {
+		VmAllocationPolicy vmAllocationPolicy = null;
+		if (vmAllocationPolicyName.equals("iqr")) {
+			PowerVmAllocationPolicyMigrationAbstract fallbackVmSelectionPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					0.7);
+			vmAllocationPolicy = new PowerVmAllocationPolicyMigrationInterQuartileRange(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					fallbackVmSelectionPolicy);
+		} else if (vmAllocationPolicyName.equals("mad")) {
+			PowerVmAllocationPolicyMigrationAbstract fallbackVmSelectionPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					0.7);
+			vmAllocationPolicy = new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					fallbackVmSelectionPolicy);
+		} else if (vmAllocationPolicyName.equals("lr")) {
+			PowerVmAllocationPolicyMigrationAbstract fallbackVmSelectionPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					0.7);
+			vmAllocationPolicy = new PowerVmAllocationPolicyMigrationLocalRegression(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					Constants.SCHEDULING_INTERVAL,
+					fallbackVmSelectionPolicy);
+		} else if (vmAllocationPolicyName.equals("lrr")) {
+			PowerVmAllocationPolicyMigrationAbstract fallbackVmSelectionPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					0.7);
+			vmAllocationPolicy = new PowerVmAllocationPolicyMigrationLocalRegressionRobust(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					Constants.SCHEDULING_INTERVAL,
+					fallbackVmSelectionPolicy);
+		} else if (vmAllocationPolicyName.equals("thr")) {
+			vmAllocationPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					parameter);
+		} else if (vmAllocationPolicyName.equals("dvfs")) {
+			vmAllocationPolicy = new PowerVmAllocationPolicySimple(hostList);
+		}
+		return vmAllocationPolicy;
+	}
+
+	/**
+	 * Creates the vm selection policy.
+	 * 
+	 * @param vmSelectionPolicyName the vm selection policy name
+	 * @return the vm selection policy, or null if the name is unknown
+	 */
+	public static PowerVmSelectionPolicy createVmSelectionPolicy(String vmSelectionPolicyName) {
+		PowerVmSelectionPolicy vmSelectionPolicy = null;
+		if (vmSelectionPolicyName.equals("mc")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMaximumCorrelation(
+					new PowerVmSelectionPolicyMinimumMigrationTime());
+		} else if (vmSelectionPolicyName.equals("mmt")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
+		} else if (vmSelectionPolicyName.equals("mu")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMinimumUtilization();
+		} else if (vmSelectionPolicyName.equals("rs")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyRandomSelection();
+		}
+		return vmSelectionPolicy;
+	}
+
+	/**
+	 * Gets the main results of a finished simulation, in the order they are reported by
+	 * {@link #printResults(PowerDatacenter, List, double, String, boolean, String)}. Energy is in
+	 * kWh, times are in seconds and SLA metrics are fractions.
+	 * 
+	 * @param datacenter the datacenter
+	 * @param vms the vms
+	 * @param lastClock the last clock
+	 * @return the results, keyed by metric name
+	 */
+	public static Map<String, Double> getResults(PowerDatacenter datacenter, List<Vm> vms, double lastClock) {
+		List<Host> hosts = datacenter.getHostList();
+		Map<String, Double> slaMetrics = getSlaMetrics(vms);
+		double slaTimePerActiveHost = getSlaTimePerActiveHost(hosts);
+		double slaDegradationDueToMigration = slaMetrics.get("underallocated_migration");
+
+		List<Double> timeBeforeHostShutdown = getTimesBeforeHostShutdown(hosts);
+		List<Double> timeBeforeVmMigration = getTimesBeforeVmMigration(vms);
+
+		Map<String, Double> results = new LinkedHashMap<String, Double>();
+		results.put("hosts", (double) hosts.size());
+		results.put("vms", (double) vms.size());
+		results.put("simulation_time", lastClock);
+		results.put("energy", datacenter.getPower() / (3600 * 1000));
+		results.put("migrations", (double) datacenter.getMigrationCount());
+		results.put("sla", slaTimePerActiveHost * slaDegradationDueToMigration);
+		results.put("sla_time_per_active_host", slaTimePerActiveHost);
+		results.put("sla_degradation_due_to_migration", slaDegradationDueToMigration);
+		results.put("sla_overall", slaMetrics.get("overall"));
+		results.put("sla_average", slaMetrics.get("average"));
+		results.put("host_shutdowns", (double) timeBeforeHostShutdown.size());
+		results.put("mean_time_before_host_shutdown", timeBeforeHostShutdown.isEmpty()
+				? Double.NaN : MathUtil.mean(timeBeforeHostShutdown));
+		results.put("mean_time_before_vm_migration", timeBeforeVmMigration.isEmpty()
+				? Double.NaN : MathUtil.mean(timeBeforeVmMigration));
+		return results;
+	}
+
 	/**
 	 * Prints the results.
 	 * 
@@ -308,7 +449,7 @@ public class Helper {
 			if (!folder3.exists()) {
 				folder3.mkdir();
 			}
-			File folder4 = new File(outputFolder + "/metrics");
+			File folder4 = new File(outputFolder + "/results");
 			if (!folder4.exists()) {
 				folder4.mkdir();
 			}
@@ -366,9 +507,6 @@ public class Helper {
 				data.append(String.format("%.5f", executionTimeVmReallocationStDev) + delimeter);
 				data.append(String.format("%.5f", executionTimeTotalMean) + delimeter);
 				data.append(String.format("%.5f", executionTimeTotalStDev) + delimeter);
-
-				writeMetricHistory(hosts, vmAllocationPolicy, outputFolder + "/metrics/" + experimentName
-						+ "_metric");
 			}
 
 			data.append("\n");
@@ -378,6 +516,8 @@ public class Helper {
 					+ experimentName + "_time_before_host_shutdown.csv");
 			writeDataColumn(timeBeforeVmMigration, outputFolder + "/time_before_vm_migration/"
 					+ experimentName + "_time_before_vm_migration.csv");
+			writeResultFile(datacenter, vms, lastClock, outputFolder + "/results/" + experimentName
+					+ ".bin");
 
 		} else {
 			Log.setDisabled(false);
@@ -713,6 +853,77 @@ public class Helper {
 		}
 	}
 
+	/**
+	 * Writes the state histories of the hosts and VMs, the VM migrations, the energy consumed and
+	 * the metric histories of the VM allocation policy into a single result file.
+	 * 
+	 * @param datacenter the datacenter
+	 * @param vms the vms
+	 * @param lastClock the last clock
+	 * @param outputPath the output path
+	 * @see #convertResultFile(String, String)
+	 */
+	public static void writeResultFile(
+			PowerDatacenter datacenter,
+			List<Vm> vms,
+			double lastClock,
+			String outputPath) {
+		try {
+			ResultFileWriter writer = new ResultFileWriter(outputPath);
+			try {
+				for (Host host : datacenter.getHostList()) {
+					writer.writeHostStateHistory(host.getId(), ((HostDynamicWorkload) host).getStateHistory());
+				}
+				for (Vm vm : vms) {
+					writer.writeVmStateHistory(vm.getId(), vm.getStateHistory());
+				}
+				writer.writeEnergy(lastClock, datacenter.getPower());
+				if (datacenter.getVmAllocationPolicy() instanceof PowerVmAllocationPolicyMigrationAbstract) {
+					PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = (PowerVmAllocationPolicyMigrationAbstract) datacenter
+							.getVmAllocationPolicy();
+					for (Host host : datacenter.getHostList()) {
+						if (vmAllocationPolicy.getTimeHistory().containsKey(host.getId())) {
+							writer.writeMetricHistory(
+									host.getId(),
+									vmAllocationPolicy.getTimeHistory().get(host.getId()),
+									vmAllocationPolicy.getUtilizationHistory().get(host.getId()),
+									vmAllocationPolicy.getMetricHistory().get(host.getId()));
+						}
+					}
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * Converts each table of a result file into a CSV file of an output folder, named after the
+	 * table.
+	 * 
+	 * @param resultPath the path of the result file
+	 * @param outputFolder the output folder
+	 * @see #writeResultFile(PowerDatacenter, List, double, String)
+	 */
+	public static void convertResultFile(String resultPath, String outputFolder) {
+		File folder = new File(outputFolder);
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+		try {
+			ResultFile resultFile = new ResultFile(resultPath);
+			for (String table : resultFile.getTableNames()) {
+				resultFile.writeCsv(table, outputFolder + "/" + table + ".csv");
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+	}
+
 	/**
 	 * Prints the Cloudlet objects.
 	 * 
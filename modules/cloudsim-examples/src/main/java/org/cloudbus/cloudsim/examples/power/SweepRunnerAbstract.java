@@ -0,0 +1,396 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+
+/**
+ * The Class SweepRunnerAbstract runs a matrix of experiments (workload x VM allocation policy x
+ * VM selection policy x parameter) in parallel, each experiment in its own {@link Simulation}.
+ * Workloads are loaded once before the experiments start, so that subclasses can share them
+ * between runs. The results of all the experiments are printed as a single table, together with
+ * the wall-clock time and the number of events processed per second by each run.
+ *
+ * The {@link Log} is disabled in the threads running the experiments, and while the workloads are
+ * loaded, but not in the other threads.
+ *
+ * If you are using any algorithms, policies or workload included in the power package, please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public abstract class SweepRunnerAbstract {
+
+	/** The experiments, as {workload, vm allocation policy, vm selection policy, parameter}. */
+	private final List<String[]> experiments = new ArrayList<String[]>();
+
+	/** The names of the experiments. */
+	private final Set<String> experimentNames = new HashSet<String>();
+
+	/** The input folder. */
+	private final String inputFolder;
+
+	/** The output folder, or null if the results should not be written to a file. */
+	private final String outputFolder;
+
+	/**
+	 * Instantiates a new sweep runner.
+	 *
+	 * @param inputFolder the input folder
+	 * @param outputFolder the output folder, or null if the results should not be written to a
+	 *            file
+	 */
+	public SweepRunnerAbstract(String inputFolder, String outputFolder) {
+		this.inputFolder = inputFolder;
+		this.outputFolder = outputFolder;
+	}
+
+	/**
+	 * Adds an experiment.
+	 *
+	 * @param workload the workload
+	 * @param vmAllocationPolicy the vm allocation policy
+	 * @param vmSelectionPolicy the vm selection policy, empty if not used by the allocation policy
+	 * @param parameter the parameter, empty if not used by the allocation policy
+	 * @throws IllegalArgumentException if an experiment with the same name was already added
+	 */
+	public void addExperiment(
+			String workload,
+			String vmAllocationPolicy,
+			String vmSelectionPolicy,
+			String parameter) {
+		String name = getExperimentName(workload, vmAllocationPolicy, vmSelectionPolicy, parameter);
+		if (!experimentNames.add(name)) {
+			throw new IllegalArgumentException("Duplicate experiment: " + name);
+		}
+		experiments.add(new String[] { workload, vmAllocationPolicy, vmSelectionPolicy, parameter });
+	}
+
+	/**
+	 * Adds an experiment for every combination of the given workloads, vm allocation policies, vm
+	 * selection policies and parameters.
+	 *
+	 * @param workloads the workloads
+	 * @param vmAllocationPolicies the vm allocation policies
+	 * @param vmSelectionPolicies the vm selection policies
+	 * @param parameters the parameters
+	 */
+	public void addExperiments(
+			String[] workloads,
+			String[] vmAllocationPolicies,
+			String[] vmSelectionPolicies,
+			String[] parameters) {
+		for (String workload : workloads) {
+			for (String vmAllocationPolicy : vmAllocationPolicies) {
+				for (String vmSelectionPolicy : vmSelectionPolicies) {
+					for (String parameter : parameters) {
+						addExperiment(workload, vmAllocationPolicy, vmSelectionPolicy, parameter);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the experiments of the power examples for the given workloads: every adaptive VM
+	 * allocation policy with every VM selection policy, using the same parameters as the examples,
+	 * plus the non-migrating DVFS policy.
+	 *
+	 * @param workloads the workloads
+	 */
+	public void addDefaultExperiments(String... workloads) {
+		String[][] vmAllocationPolicies = {
+				{ "iqr", "1.5" },
+				{ "mad", "2.5" },
+				{ "lr", "1.2" },
+				{ "lrr", "1.2" },
+				{ "thr", "0.8" } };
+		String[] vmSelectionPolicies = { "mc", "mmt", "mu", "rs" };
+		for (String workload : workloads) {
+			for (String[] vmAllocationPolicy : vmAllocationPolicies) {
+				for (String vmSelectionPolicy : vmSelectionPolicies) {
+					addExperiment(workload, vmAllocationPolicy[0], vmSelectionPolicy, vmAllocationPolicy[1]);
+				}
+			}
+			addExperiment(workload, "dvfs", "", "");
+		}
+	}
+
+	/**
+	 * Runs all the experiments and prints their results. An experiment that fails is reported and
+	 * does not stop the others.
+	 *
+	 * @param numberOfThreads the number of experiments to run at the same time
+	 * @return the results of the experiments that completed, keyed by experiment name
+	 */
+	public Map<String, Map<String, Double>> run(int numberOfThreads) {
+		Set<String> workloads = new LinkedHashSet<String>();
+		for (String[] experiment : experiments) {
+			workloads.add(experiment[0]);
+		}
+		Log.setThreadDisabled(true);
+		try {
+			for (String workload : workloads) {
+				loadWorkload(inputFolder + "/" + workload);
+			}
+		} finally {
+			Log.setThreadDisabled(null);
+		}
+
+		Map<String, Future<Map<String, Double>>> futures = new LinkedHashMap<String, Future<Map<String, Double>>>();
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			for (final String[] experiment : experiments) {
+				futures.put(getExperimentName(experiment), executor.submit(new Callable<Map<String, Double>>() {
+
+					@Override
+					public Map<String, Double> call() throws Exception {
+						return runExperiment(experiment[0], experiment[1], experiment[2], experiment[3]);
+					}
+				}));
+			}
+
+			Map<String, Map<String, Double>> results = new LinkedHashMap<String, Map<String, Double>>();
+			for (Map.Entry<String, Future<Map<String, Double>>> entry : futures.entrySet()) {
+				try {
+					results.put(entry.getKey(), entry.getValue().get());
+				} catch (ExecutionException e) {
+					System.out.println("Experiment " + entry.getKey() + " failed: " + e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+
+			printResults(results);
+			if (outputFolder != null) {
+				writeResults(results);
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs a single experiment in a new simulation bound to the current thread, with the
+	 * {@link Log} disabled in this thread.
+	 *
+	 * @param workload the workload
+	 * @param vmAllocationPolicyName the vm allocation policy name
+	 * @param vmSelectionPolicyName the vm selection policy name
+	 * @param parameterName the parameter name
+	 * @return the results of the experiment
+	 * @throws Exception if the experiment cannot be set up or fails
+	 */
+	protected Map<String, Double> runExperiment(
+			String workload,
+			String vmAllocationPolicyName,
+			String vmSelectionPolicyName,
+			String parameterName) throws Exception {
+		Simulation simulation = new Simulation();
+		CloudSim.setSimulation(simulation);
+		Log.setThreadDisabled(true);
+		try {
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			DatacenterBroker broker = Helper.createBroker();
+			int brokerId = broker.getId();
+
+			List<Cloudlet> cloudletList = createCloudletList(brokerId, inputFolder + "/" + workload);
+			List<Vm> vmList = Helper.createVmList(brokerId, cloudletList.size());
+			List<PowerHost> hostList = Helper.createHostList(getNumberOfHosts());
+
+			PowerVmSelectionPolicy vmSelectionPolicy = null;
+			if (!vmSelectionPolicyName.isEmpty()) {
+				vmSelectionPolicy = Helper.createVmSelectionPolicy(vmSelectionPolicyName);
+				if (vmSelectionPolicy == null) {
+					throw new IllegalArgumentException("Unknown VM selection policy: " + vmSelectionPolicyName);
+				}
+			}
+			double parameter = 0;
+			if (!parameterName.isEmpty()) {
+				parameter = Double.valueOf(parameterName);
+			}
+			VmAllocationPolicy vmAllocationPolicy = Helper.createVmAllocationPolicy(
+					vmAllocationPolicyName,
+					vmSelectionPolicy,
+					parameter,
+					hostList);
+			if (vmAllocationPolicy == null) {
+				throw new IllegalArgumentException("Unknown VM allocation policy: " + vmAllocationPolicyName);
+			}
+
+			PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+					"Datacenter",
+					PowerDatacenter.class,
+					hostList,
+					vmAllocationPolicy);
+			datacenter.setDisableMigrations(false);
+
+			broker.submitVmList(vmList);
+			broker.submitCloudletList(cloudletList);
+
+			CloudSim.terminateSimulation(Constants.SIMULATION_LIMIT);
+			long startTime = System.nanoTime();
+			double lastClock = CloudSim.startSimulation();
+			double wallTime = (System.nanoTime() - startTime) / 1e9;
+			CloudSim.stopSimulation();
+
+			Map<String, Double> results = Helper.getResults(datacenter, vmList, lastClock);
+			long events = simulation.getNumProcessedEvents();
+			results.put("wall_time", wallTime);
+			results.put("events", (double) events);
+			results.put("events_per_second", events / wallTime);
+			return results;
+		} finally {
+			Log.setThreadDisabled(null);
+			CloudSim.setSimulation(null);
+		}
+	}
+
+	/**
+	 * Prints the results of the experiments as a table.
+	 *
+	 * @param results the results, keyed by experiment name
+	 */
+	protected void printResults(Map<String, Map<String, Double>> results) {
+		String format = "%-28s %10s %10s %10s %10s %10s %12s %10s %12s%n";
+		System.out.println();
+		System.out.printf(
+				format,
+				"Experiment",
+				"Energy",
+				"Migrations",
+				"SLA",
+				"SLATAH",
+				"PDM",
+				"Events",
+				"Wall time",
+				"Events/sec");
+		for (Map.Entry<String, Map<String, Double>> entry : results.entrySet()) {
+			Map<String, Double> result = entry.getValue();
+			System.out.printf(
+					format,
+					entry.getKey(),
+					String.format("%.2f", result.get("energy")),
+					String.format("%.0f", result.get("migrations")),
+					String.format("%.5f%%", result.get("sla") * 100),
+					String.format("%.2f%%", result.get("sla_time_per_active_host") * 100),
+					String.format("%.2f%%", result.get("sla_degradation_due_to_migration") * 100),
+					String.format("%.0f", result.get("events")),
+					String.format("%.2f s", result.get("wall_time")),
+					String.format("%.0f", result.get("events_per_second")));
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Writes the results of the experiments to a csv file in the output folder.
+	 *
+	 * @param results the results, keyed by experiment name
+	 */
+	protected void writeResults(Map<String, Map<String, Double>> results) {
+		if (results.isEmpty()) {
+			return;
+		}
+		File folder = new File(outputFolder);
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+
+		StringBuilder data = new StringBuilder();
+		String delimeter = ",";
+
+		data.append("experiment");
+		for (String metric : results.values().iterator().next().keySet()) {
+			data.append(delimeter + metric);
+		}
+		data.append("\n");
+		for (Map.Entry<String, Map<String, Double>> entry : results.entrySet()) {
+			data.append(entry.getKey());
+			for (double value : entry.getValue().values()) {
+				data.append(delimeter + value);
+			}
+			data.append("\n");
+		}
+
+		Helper.writeDataRow(data.toString(), outputFolder + "/sweep.csv");
+	}
+
+	/**
+	 * Gets the experiment name.
+	 *
+	 * @param args the args
+	 * @return the experiment name
+	 */
+	protected String getExperimentName(String... args) {
+		StringBuilder experimentName = new StringBuilder();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].isEmpty()) {
+				continue;
+			}
+			if (i != 0) {
+				experimentName.append("_");
+			}
+			experimentName.append(args[i]);
+		}
+		return experimentName.toString();
+	}
+
+	/**
+	 * Loads a workload before the experiments are started. It is called once per workload, so that
+	 * subclasses can parse the workload a single time and share it between the experiments. Does
+	 * nothing by default.
+	 *
+	 * @param inputFolder the input folder of the workload
+	 */
+	protected void loadWorkload(String inputFolder) {
+	}
+
+	/**
+	 * Creates the cloudlet list of an experiment. It is called concurrently by the experiments
+	 * running in parallel.
+	 *
+	 * @param brokerId the broker id
+	 * @param inputFolder the input folder of the workload
+	 * @return the cloudlet list
+	 * @throws Exception if the workload cannot be read
+	 */
+	protected abstract List<Cloudlet> createCloudletList(int brokerId, String inputFolder) throws Exception;
+
+	/**
+	 * Gets the number of hosts of the datacenter.
+	 *
+	 * @return the number of hosts
+	 */
+	protected abstract int getNumberOfHosts();
+
+}
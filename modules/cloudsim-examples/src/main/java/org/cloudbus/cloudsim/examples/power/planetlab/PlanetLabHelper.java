@@ -2,6 +2,7 @@ package org.cloudbus.cloudsim.examples.power.planetlab;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,6 +11,7 @@ import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.util.PlanetLabTraceStore;
 
 /**
  * A helper class for the running examples for the PlanetLab workload.
@@ -37,34 +39,90 @@ public class PlanetLabHelper {
 	 */
 	public static List<Cloudlet> createCloudletListPlanetLab(int brokerId, String inputFolderName)
 			throws FileNotFoundException {
+		return createCloudletListPlanetLab(brokerId, createUtilizationModelListPlanetLab(inputFolderName));
+	}
+
+	/**
+	 * Creates the cloudlet list planet lab, one cloudlet per utilization model. The utilization
+	 * models are only read by the cloudlets, so the same list can back several simulations.
+	 * 
+	 * @param brokerId the broker id
+	 * @param utilizationModels the cpu utilization models
+	 * @return the list
+	 */
+	public static List<Cloudlet> createCloudletListPlanetLab(
+			int brokerId,
+			List<? extends UtilizationModel> utilizationModels) {
 		List<Cloudlet> list = new ArrayList<Cloudlet>();
 
 		long fileSize = 300;
 		long outputSize = 300;
 		UtilizationModel utilizationModelNull = new UtilizationModelNull();
 
+		for (int i = 0; i < utilizationModels.size(); i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					fileSize,
+					outputSize,
+					utilizationModels.get(i),
+					utilizationModelNull,
+					utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setVmId(i);
+			list.add(cloudlet);
+		}
+
+		return list;
+	}
+
+	/**
+	 * Reads the utilization models of the PlanetLab workload, one per file of the input folder.
+	 * 
+	 * @param inputFolderName the input folder name
+	 * @return the list
+	 * @throws FileNotFoundException the file not found exception
+	 */
+	public static List<UtilizationModel> createUtilizationModelListPlanetLab(String inputFolderName)
+			throws FileNotFoundException {
+		List<UtilizationModel> list = new ArrayList<UtilizationModel>();
+
 		File inputFolder = new File(inputFolderName);
 		File[] files = inputFolder.listFiles();
 
 		for (int i = 0; i < files.length; i++) {
-			Cloudlet cloudlet = null;
+			UtilizationModel utilizationModel = null;
 			try {
-				cloudlet = new Cloudlet(
-						i,
-						Constants.CLOUDLET_LENGTH,
-						Constants.CLOUDLET_PES,
-						fileSize,
-						outputSize,
-						new UtilizationModelPlanetLabInMemory(
-								files[i].getAbsolutePath(),
-								Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull);
+				utilizationModel = new UtilizationModelPlanetLabInMemory(
+						files[i].getAbsolutePath(),
+						Constants.SCHEDULING_INTERVAL);
 			} catch (Exception e) {
 				e.printStackTrace();
 				System.exit(0);
 			}
-			cloudlet.setUserId(brokerId);
-			cloudlet.setVmId(i);
-			list.add(cloudlet);
+			list.add(utilizationModel);
+		}
+
+		return list;
+	}
+
+	/**
+	 * Creates the utilization models of a PlanetLab workload converted into a trace store by
+	 * {@link PlanetLabTraceStore#convert(String, String)}. The models read their samples from the
+	 * memory-mapped store.
+	 * 
+	 * @param tracePath the path of the trace store
+	 * @return the list
+	 * @throws IOException if the trace store cannot be opened
+	 */
+	public static List<UtilizationModel> createUtilizationModelListPlanetLabStore(String tracePath)
+			throws IOException {
+		List<UtilizationModel> list = new ArrayList<UtilizationModel>();
+
+		PlanetLabTraceStore store = PlanetLabTraceStore.open(tracePath);
+		for (int i = 0; i < store.getNumberOfTraces(); i++) {
+			list.add(store.createUtilizationModel(i, Constants.SCHEDULING_INTERVAL));
 		}
 
 		return list;
@@ -0,0 +1,102 @@
+package org.cloudbus.cloudsim.examples.power.planetlab;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.examples.power.SweepRunnerAbstract;
+
+/**
+ * Runs the PlanetLab experiments in parallel. Each workload is parsed once and its utilization
+ * models are shared, read-only, by all the experiments using it. If a workload folder has been
+ * converted into a trace store named after the folder with the {@link #TRACE_STORE_EXTENSION}
+ * extension (e.g. 20110303.trace), the store is memory-mapped instead of parsing the folder.
+ *
+ * The workloads can be given as a comma-separated list in the first argument (20110303 by
+ * default), and the number of threads in the second argument (the number of available processors
+ * by default).
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class PlanetLabSweepRunner extends SweepRunnerAbstract {
+
+	/** The extension of the trace store of a workload folder. */
+	public static final String TRACE_STORE_EXTENSION = ".trace";
+
+	/** The utilization models of the loaded workloads, keyed by input folder. */
+	private final Map<String, List<UtilizationModel>> workloads = new HashMap<String, List<UtilizationModel>>();
+
+	/**
+	 * Instantiates a new planet lab sweep runner.
+	 *
+	 * @param inputFolder the input folder
+	 * @param outputFolder the output folder, or null if the results should not be written to a
+	 *            file
+	 */
+	public PlanetLabSweepRunner(String inputFolder, String outputFolder) {
+		super(inputFolder, outputFolder);
+	}
+
+	@Override
+	protected void loadWorkload(String inputFolder) {
+		try {
+			File traceStore = new File(inputFolder + TRACE_STORE_EXTENSION);
+			if (traceStore.exists()) {
+				workloads.put(inputFolder, PlanetLabHelper.createUtilizationModelListPlanetLabStore(traceStore
+						.getPath()));
+			} else {
+				workloads.put(inputFolder, PlanetLabHelper.createUtilizationModelListPlanetLab(inputFolder));
+			}
+		} catch (Exception e) {
+			System.out.println("Cannot load the workload " + inputFolder + ": " + e);
+		}
+	}
+
+	@Override
+	protected List<Cloudlet> createCloudletList(int brokerId, String inputFolder) throws Exception {
+		List<UtilizationModel> utilizationModels = workloads.get(inputFolder);
+		if (utilizationModels == null) {
+			throw new IllegalStateException("The workload " + inputFolder + " has not been loaded");
+		}
+		return PlanetLabHelper.createCloudletListPlanetLab(brokerId, utilizationModels);
+	}
+
+	@Override
+	protected int getNumberOfHosts() {
+		return PlanetLabConstants.NUMBER_OF_HOSTS;
+	}
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		String inputFolder = PlanetLabSweepRunner.class.getClassLoader().getResource("workload/planetlab").getPath();
+		String outputFolder = "output";
+		String[] workloads = { "20110303" }; // PlanetLab workload
+		if (args.length >= 1 && !args[0].isEmpty()) {
+			workloads = args[0].split(",");
+		}
+		int numberOfThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length >= 2) {
+			numberOfThreads = Integer.parseInt(args[1]);
+		}
+
+		PlanetLabSweepRunner runner = new PlanetLabSweepRunner(inputFolder, outputFolder);
+		runner.addDefaultExperiments(workloads);
+		runner.run(numberOfThreads);
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.cloudbus.cloudsim.examples.power.random;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.examples.power.SweepRunnerAbstract;
+
+/**
+ * Runs the random workload experiments in parallel. The stochastic utilization models keep state,
+ * so every experiment creates its own cloudlets.
+ *
+ * The number of threads can be given as the first argument (the number of available processors by
+ * default).
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class RandomSweepRunner extends SweepRunnerAbstract {
+
+	/**
+	 * Instantiates a new random sweep runner.
+	 *
+	 * @param outputFolder the output folder, or null if the results should not be written to a
+	 *            file
+	 */
+	public RandomSweepRunner(String outputFolder) {
+		super("", outputFolder);
+	}
+
+	@Override
+	protected List<Cloudlet> createCloudletList(int brokerId, String inputFolder) {
+		return RandomHelper.createCloudletList(brokerId, RandomConstants.NUMBER_OF_VMS);
+	}
+
+	@Override
+	protected int getNumberOfHosts() {
+		return RandomConstants.NUMBER_OF_HOSTS;
+	}
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		String outputFolder = "output";
+		int numberOfThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length >= 1) {
+			numberOfThreads = Integer.parseInt(args[0]);
+		}
+
+		RandomSweepRunner runner = new RandomSweepRunner(outputFolder);
+		runner.addDefaultExperiments("random"); // Random workload
+		runner.run(numberOfThreads);
+	}
+
+}
@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim;
 import java.io.Console;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -115,14 +116,9 @@ public class Cloudlet {
     private final boolean record;
 
     /**
-     * Stores the operating system line separator.
+     * The cloudlet transaction history, or null if no transaction was recorded yet.
      */
-    private String newline;
-
-    /**
-     * The cloudlet transaction history.
-     */
-    private StringBuffer history;
+    private History history;
 
     /**
      * The list of every resource where the cloudlet has been executed. In case
@@ -150,12 +146,18 @@ public class Cloudlet {
     private int netToS;
 
     /**
-     * The format of decimal numbers.
+     * The maximum number of transactions kept in the history of this Cloudlet.
      */
-    private DecimalFormat num;
+    private final int historyCapacity;
 
     // //////////////////////////////////////////
     // Below are CONSTANTS attributes
+    /**
+     * The maximum number of transactions kept in the history of a Cloudlet,
+     * unless another one is given when the Cloudlet is created.
+     */
+    public static final int DEFAULT_HISTORY_CAPACITY = 256;
+
     /**
      * The Cloudlet has been created and added to the CloudletList object.
      */
@@ -208,6 +210,30 @@ public class Cloudlet {
      */
     public static final int FAILED_RESOURCE_UNAVAILABLE = 9;
 
+    /**
+     * The types of the transactions kept in the history: the length finished
+     * so far, the user, the first and next resources, the submission time, the
+     * execution start time, the execution parameters or the status is set, or
+     * a message is written.
+     */
+    private static final byte FINISHED_SO_FAR_SET = 0;
+
+    private static final byte USER_ASSIGNED = 1;
+
+    private static final byte RESOURCE_ALLOCATED = 2;
+
+    private static final byte RESOURCE_MOVED = 3;
+
+    private static final byte SUBMISSION_TIME_SET = 4;
+
+    private static final byte EXEC_START_TIME_SET = 5;
+
+    private static final byte EXEC_PARAM_SET = 6;
+
+    private static final byte STATUS_SET = 7;
+
+    private static final byte MESSAGE_WRITTEN = 8;
+
     /**
      * The id of the vm that is planned to execute the cloudlet.
      */
@@ -425,6 +451,59 @@ public class Cloudlet {
      * @pre cloudletOutputSize >= 1
      * @post $none
      */
+    public Cloudlet(
+            final int cloudletId,
+            final long cloudletLength,
+            final int pesNumber,
+            final long cloudletFileSize,
+            final long cloudletOutputSize,
+            final UtilizationModel utilizationModelCpu,
+            final UtilizationModel utilizationModelRam,
+            final UtilizationModel utilizationModelBw,
+            final boolean record) {
+        this(
+                cloudletId,
+                cloudletLength,
+                pesNumber,
+                cloudletFileSize,
+                cloudletOutputSize,
+                utilizationModelCpu,
+                utilizationModelRam,
+                utilizationModelBw,
+                record,
+                DEFAULT_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Allocates a new Cloudlet object, choosing how many transactions its
+     * history keeps. The Cloudlet length, input and output file sizes should
+     * be greater than or equal to 1.
+     *
+     * @param cloudletId the unique ID of this cloudlet
+     * @param cloudletLength the length or size (in MI) of this cloudlet to be
+     * executed in a PowerDatacenter
+     * @param cloudletFileSize the file size (in byte) of this cloudlet
+     * <tt>BEFORE</tt> submitting to a PowerDatacenter
+     * @param cloudletOutputSize the file size (in byte) of this cloudlet
+     * <tt>AFTER</tt> finish executing by a PowerDatacenter
+     * @param record record the history of this object or not
+     * @param historyCapacity the maximum number of transactions kept in the
+     * history; when the history is full, each new transaction replaces the
+     * oldest one
+     * @param pesNumber the pes number
+     * @param utilizationModelCpu the utilization model of cpu
+     * @param utilizationModelRam the utilization model of ram
+     * @param utilizationModelBw the utilization model of bw
+     *
+     * @throws IllegalArgumentException if historyCapacity is not positive
+     * @pre cloudletID >= 0
+     * @pre cloudletLength >= 0.0
+     * @pre cloudletFileSize >= 1
+     * @pre cloudletOutputSize >= 1
+     * @pre historyCapacity > 0
+     * @post $none
+     * @since CloudSim Toolkit 4.0
+     */
     public Cloudlet(                    // **** This is the one that runs
             final int cloudletId,
             final long cloudletLength,
@@ -435,7 +514,11 @@ public class Cloudlet {
             final UtilizationModel utilizationModelRam,
             final UtilizationModel utilizationModelBw,
             // **** final float job_priority,
-            final boolean record) {
+            final boolean record,
+            final int historyCapacity) {
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("The history capacity must be positive");
+        }
         userId = -1;          // to be set by a Broker or user
         status = CREATED;
         this.cloudletId = cloudletId;
@@ -457,6 +540,7 @@ public class Cloudlet {
         resList = new ArrayList<Resource>(2);
         index = -1;
         this.record = record;
+        this.historyCapacity = historyCapacity;
 
         vmId = -1;
         accumulatedBwCost = 0.0;
@@ -512,6 +596,137 @@ public class Cloudlet {
          */
         public String resourceName = null;
 
+    }
+
+    /**
+     * Internal class that keeps the transaction history of a Cloudlet, when it
+     * is recorded. Each transaction is kept as a time, a type, the index of a
+     * resource in {@link Cloudlet#resList} and two values, in a ring of
+     * primitive arrays, so that recording a transaction neither builds a
+     * string nor allocates once the ring is full. The transactions are only
+     * described by {@link Cloudlet#getCloudletHistory()}. When the ring is
+     * full, each new transaction replaces the oldest one.
+     */
+    private static class History {
+
+        /**
+         * The simulation time the history was created at.
+         */
+        public final double creationTime;
+
+        /**
+         * The maximum number of transactions kept.
+         */
+        public final int capacity;
+
+        /**
+         * The time of each transaction.
+         */
+        public double[] times;
+
+        /**
+         * The type of each transaction.
+         */
+        public byte[] types;
+
+        /**
+         * The resource index, user ID or status of each transaction.
+         */
+        public int[] resources;
+
+        /**
+         * The first value of each transaction, a double being kept as its bits.
+         */
+        public long[] values;
+
+        /**
+         * The second value of each transaction, a double being kept as its bits.
+         */
+        public long[] secondValues;
+
+        /**
+         * The message of each transaction written by {@link Cloudlet#write(String)},
+         * or the name of the user the Cloudlet is assigned to, or null if there
+         * is none.
+         */
+        public String[] messages;
+
+        /**
+         * The position of the oldest transaction kept.
+         */
+        public int start;
+
+        /**
+         * The number of transactions kept.
+         */
+        public int size;
+
+        /**
+         * The number of transactions replaced by newer ones.
+         */
+        public long dropped;
+
+        /**
+         * Creates an empty history.
+         *
+         * @param creationTime the simulation time the history is created at
+         * @param capacity the maximum number of transactions kept
+         */
+        public History(final double creationTime, final int capacity) {
+            this.creationTime = creationTime;
+            this.capacity = capacity;
+            final int length = Math.min(capacity, 16);
+            times = new double[length];
+            types = new byte[length];
+            resources = new int[length];
+            values = new long[length];
+            secondValues = new long[length];
+        }
+
+        /**
+         * Adds a transaction, replacing the oldest one if the history is full.
+         *
+         * @param time the simulation time of the transaction
+         * @param type the type of the transaction
+         * @param resource the resource index, user ID or status of the transaction
+         * @param value the first value of the transaction
+         * @param secondValue the second value of the transaction
+         * @return the position of the transaction
+         */
+        public int add(final double time, final byte type, final int resource, final long value,
+                final long secondValue) {
+            if (size == times.length && size < capacity) {
+                // the ring is not full yet, so its oldest transaction is at position 0
+                final int length = Math.min(capacity, 2 * size);
+                times = Arrays.copyOf(times, length);
+                types = Arrays.copyOf(types, length);
+                resources = Arrays.copyOf(resources, length);
+                values = Arrays.copyOf(values, length);
+                secondValues = Arrays.copyOf(secondValues, length);
+                if (messages != null) {
+                    messages = Arrays.copyOf(messages, length);
+                }
+            }
+
+            final int position;
+            if (size < times.length) {
+                position = size++;
+            } else {
+                position = start;
+                start = (start + 1) % times.length;
+                dropped++;
+            }
+            times[position] = time;
+            types[position] = type;
+            resources[position] = resource;
+            values[position] = value;
+            secondValues[position] = secondValue;
+            if (messages != null) {
+                messages[position] = null;
+            }
+            return position;
+        }
+
     }
 
 	// ////////////////////// End of Internal Class //////////////////////////
@@ -707,14 +922,40 @@ public class Cloudlet {
      * @post $result != null
      */
     public String getCloudletHistory() {
-        String msg = null;
         if (history == null) {
-            msg = "No history is recorded for Cloudlet #" + cloudletId;
-        } else {
-            msg = history.toString();
+            return "No history is recorded for Cloudlet #" + cloudletId;
+        }
+
+        final String newline = System.getProperty("line.separator");
+        final DecimalFormat num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
+        final StringBuilder msg = new StringBuilder(1000);
+        msg.append("Time below denotes the simulation time.").append(newline);
+        msg.append("Time (sec)       Description Cloudlet #").append(cloudletId).append(newline);
+        msg.append("------------------------------------------").append(newline);
+        msg.append(num.format(history.creationTime));
+        msg.append("   Creates Cloudlet ID #").append(cloudletId).append(newline);
+        if (history.dropped > 0) {
+            msg.append(history.dropped).append(" older transactions are not kept").append(newline);
+        }
+
+        for (int i = 0; i < history.size; i++) {
+            final int position = (history.start + i) % history.times.length;
+            msg.append(num.format(history.times[position])).append("   ");
+            appendTransaction(msg, num, position);
+            msg.append(newline);
         }
 
-        return msg;
+        return msg.toString();
+    }
+
+    /**
+     * Gets the maximum number of transactions kept in the history of this
+     * Cloudlet, if it is recorded.
+     *
+     * @return the maximum number of transactions
+     */
+    public int getHistoryCapacity() {
+        return historyCapacity;
     }
 
     /**
@@ -785,7 +1026,7 @@ public class Cloudlet {
         res.finishedSoFar = length;
 
         if (record) {
-            write("Sets the length's finished so far to " + length);
+            record(FINISHED_SO_FAR_SET, index, length, 0);
         }
     }
 
@@ -801,7 +1042,8 @@ public class Cloudlet {
     public void setUserId(final int id) {
         userId = id;
         if (record) {
-            write("Assigns the Cloudlet to " + CloudSim.getEntityName(id) + " (ID #" + id + ")");
+            // the name of the user when it is assigned, as the entity may be gone when printing
+            write(USER_ASSIGNED, id, CloudSim.getEntityName(id));
         }
     }
 
@@ -878,14 +1120,8 @@ public class Cloudlet {
         // add into a list if moving to a new grid resource
         resList.add(res);
 
-        if (index == -1 && record) {
-            write("Allocates this Cloudlet to " + res.resourceName + " (ID #" + resourceID
-                    + ") with cost = $" + cost + "/sec");
-        } else if (record) {
-            final int id = resList.get(index).resourceId;
-            final String name = resList.get(index).resourceName;
-            write("Moves Cloudlet from " + name + " (ID #" + id + ") to " + res.resourceName + " (ID #"
-                    + resourceID + ") with cost = $" + cost + "/sec");
+        if (record) {
+            record(index == -1 ? RESOURCE_ALLOCATED : RESOURCE_MOVED, resList.size() - 1, 0, 0);
         }
 
         index++;  // initially, index = -1
@@ -907,7 +1143,7 @@ public class Cloudlet {
         res.submissionTime = clockTime;
 
         if (record) {
-            write("Sets the submission time to " + num.format(clockTime));
+            record(SUBMISSION_TIME_SET, index, Double.doubleToRawLongBits(clockTime), 0);
         }
     }
 
@@ -940,7 +1176,7 @@ public class Cloudlet {
     public void setExecStartTime(final double clockTime) {
         execStartTime = clockTime;
         if (record) {
-            write("Sets the execution start time to " + num.format(clockTime));
+            record(EXEC_START_TIME_SET, index, Double.doubleToRawLongBits(clockTime), 0);
         }
     }
 
@@ -982,8 +1218,8 @@ public class Cloudlet {
         res.actualCPUTime = actualTime;
 
         if (record) {
-            write("Sets the wall clock time to " + num.format(wallTime) + " and the actual CPU time to "
-                    + num.format(actualTime));
+            record(EXEC_PARAM_SET, index, Double.doubleToRawLongBits(wallTime),
+                    Double.doubleToRawLongBits(actualTime));
         }
     }
 
@@ -1015,8 +1251,7 @@ public class Cloudlet {
         }
 
         if (record) {
-            write("Sets Cloudlet status from " + getCloudletStatusString() + " to "
-                    + Cloudlet.getStatusString(newStatus));
+            record(STATUS_SET, index, status, newStatus);
         }
 
         status = newStatus;
@@ -1354,24 +1589,98 @@ public class Cloudlet {
             return;
         }
 
-        if (num == null || history == null) { // Creates the history or
-            // transactions of this Cloudlet
-            newline = System.getProperty("line.separator");
-            num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
-            history = new StringBuffer(1000);
-            history.append("Time below denotes the simulation time.");
-            history.append(System.getProperty("line.separator"));
-            history.append("Time (sec)       Description Cloudlet #" + cloudletId);
-            history.append(System.getProperty("line.separator"));
-            history.append("------------------------------------------");
-            history.append(System.getProperty("line.separator"));
-            history.append(num.format(CloudSim.clock()));
-            history.append("   Creates Cloudlet ID #" + cloudletId);
-            history.append(System.getProperty("line.separator"));
+        write(MESSAGE_WRITTEN, index, str);
+    }
+
+    /**
+     * Records a transaction of this Cloudlet in its history with a message.
+     *
+     * @param type the type of the transaction
+     * @param resource the index of the resource in {@link #resList}, or the
+     * user ID for {@link #USER_ASSIGNED}
+     * @param str the message of the transaction
+     */
+    private void write(final byte type, final int resource, final String str) {
+        final int position = record(type, resource, 0, 0);
+        if (history.messages == null) {
+            history.messages = new String[history.times.length];
+        }
+        history.messages[position] = str;
+    }
+
+    /**
+     * Records a transaction of this Cloudlet in its history, at the current
+     * simulation time, creating the history if needed.
+     *
+     * @param type the type of the transaction
+     * @param resource the index of the resource in {@link #resList}, or the
+     * user ID for {@link #USER_ASSIGNED}
+     * @param value the first value of the transaction
+     * @param secondValue the second value of the transaction
+     * @return the position of the transaction in the history
+     */
+    private int record(final byte type, final int resource, final long value, final long secondValue) {
+        final double clock = CloudSim.clock();
+        if (history == null) { // Creates the history or transactions of this Cloudlet
+            history = new History(clock, historyCapacity);
         }
+        return history.add(clock, type, resource, value, secondValue);
+    }
 
-        history.append(num.format(CloudSim.clock()));
-        history.append("   " + str + newline);
+    /**
+     * Appends the description of a transaction kept in the history.
+     *
+     * @param msg the builder to append to
+     * @param num the format of decimal numbers
+     * @param position the position of the transaction in the history
+     */
+    private void appendTransaction(final StringBuilder msg, final DecimalFormat num, final int position) {
+        final int resource = history.resources[position];
+        final long value = history.values[position];
+        final long secondValue = history.secondValues[position];
+        switch (history.types[position]) {
+            case FINISHED_SO_FAR_SET:
+                msg.append("Sets the length's finished so far to ").append(value);
+                break;
+            case USER_ASSIGNED:
+                msg.append("Assigns the Cloudlet to ").append(history.messages[position]);
+                msg.append(" (ID #").append(resource).append(")");
+                break;
+            case RESOURCE_ALLOCATED:
+            case RESOURCE_MOVED:
+                final Resource res = resList.get(resource);
+                if (history.types[position] == RESOURCE_ALLOCATED) {
+                    msg.append("Allocates this Cloudlet to ");
+                } else {
+                    final Resource previous = resList.get(resource - 1);
+                    msg.append("Moves Cloudlet from ").append(previous.resourceName);
+                    msg.append(" (ID #").append(previous.resourceId).append(") to ");
+                }
+                msg.append(res.resourceName).append(" (ID #").append(res.resourceId);
+                msg.append(") with cost = $").append(res.costPerSec).append("/sec");
+                break;
+            case SUBMISSION_TIME_SET:
+                msg.append("Sets the submission time to ");
+                msg.append(num.format(Double.longBitsToDouble(value)));
+                break;
+            case EXEC_START_TIME_SET:
+                msg.append("Sets the execution start time to ");
+                msg.append(num.format(Double.longBitsToDouble(value)));
+                break;
+            case EXEC_PARAM_SET:
+                msg.append("Sets the wall clock time to ");
+                msg.append(num.format(Double.longBitsToDouble(value)));
+                msg.append(" and the actual CPU time to ");
+                msg.append(num.format(Double.longBitsToDouble(secondValue)));
+                break;
+            case STATUS_SET:
+                msg.append("Sets Cloudlet status from ").append(Cloudlet.getStatusString((int) value));
+                msg.append(" to ").append(Cloudlet.getStatusString((int) secondValue));
+                break;
+            default:
+                msg.append(history.messages[position]);
+                break;
+        }
     }
 
     /**
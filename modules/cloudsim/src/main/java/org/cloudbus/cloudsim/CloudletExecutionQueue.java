@@ -0,0 +1,243 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * CloudletExecutionQueue keeps the cloudlets running in a {@link CloudletScheduler} ordered by
+ * their completion, for schedulers where every PE of every running cloudlet gets the same
+ * capacity, such as {@link CloudletSchedulerTimeShared} and {@link CloudletSchedulerSpaceShared}.
+ * <p/>
+ * The running cloudlets are grouped by their number of PEs. All the cloudlets of a group
+ * progress at the same rate, thus the queue only keeps the progress of each group, and each
+ * cloudlet the group progress at which it finishes. Advancing the execution, finding the
+ * finished cloudlets and estimating the next completion then cost about one operation per group
+ * instead of one per cloudlet. The length a cloudlet has finished so far is brought up to date
+ * whenever it is queried, so it is the same as if it were updated on each advance.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class CloudletExecutionQueue {
+
+	/**
+	 * Orders the cloudlets of a group by the progress at which they finish, and then by the order
+	 * they entered the queue.
+	 */
+	private static final Comparator<ResCloudlet> FINISH_ORDER = new Comparator<ResCloudlet>() {
+
+		@Override
+		public int compare(ResCloudlet a, ResCloudlet b) {
+			int result = Long.compare(a.getExecutionFinishProgress(), b.getExecutionFinishProgress());
+			if (result == 0) {
+				result = Long.compare(a.getExecutionSequence(), b.getExecutionSequence());
+			}
+			return result;
+		}
+	};
+
+	/** Orders cloudlets by the order they entered the queue. */
+	private static final Comparator<ResCloudlet> SEQUENCE_ORDER = new Comparator<ResCloudlet>() {
+
+		@Override
+		public int compare(ResCloudlet a, ResCloudlet b) {
+			return Long.compare(a.getExecutionSequence(), b.getExecutionSequence());
+		}
+	};
+
+	/**
+	 * The running cloudlets that have the same number of PEs.
+	 */
+	static class Group {
+
+		/** The number of PEs of each cloudlet of the group. */
+		private final int numberOfPes;
+
+		/** The instructions (in millionths) executed by each cloudlet of the group so far. */
+		private long progress;
+
+		/** The cloudlets of the group, the next one to finish first. */
+		private final PriorityQueue<ResCloudlet> cloudlets = new PriorityQueue<ResCloudlet>(11, FINISH_ORDER);
+
+		/**
+		 * Creates a new group.
+		 *
+		 * @param numberOfPes the number of PEs of each cloudlet of the group
+		 */
+		Group(int numberOfPes) {
+			this.numberOfPes = numberOfPes;
+		}
+
+		/**
+		 * Gets the instructions (in millionths) executed by each cloudlet of the group so far.
+		 *
+		 * @return the progress of the group
+		 */
+		long getProgress() {
+			return progress;
+		}
+
+	}
+
+	/** The groups of running cloudlets, one for each number of PEs. */
+	private final List<Group> groups = new ArrayList<Group>();
+
+	/** The number of cloudlets in the queue. */
+	private int size;
+
+	/** The sequence number of the next cloudlet added to the queue. */
+	private long nextSequence;
+
+	/**
+	 * Adds a running cloudlet to the queue. The cloudlet length must not change while it is in
+	 * the queue.
+	 *
+	 * @param rcl the cloudlet
+	 * @pre rcl != null
+	 * @post $none
+	 */
+	public void add(ResCloudlet rcl) {
+		Group group = getGroup(rcl.getNumberOfPes());
+		rcl.startExecution(group, nextSequence++);
+		group.cloudlets.add(rcl);
+		size++;
+	}
+
+	/**
+	 * Removes a cloudlet from the queue, if it is in it.
+	 *
+	 * @param rcl the cloudlet
+	 * @return true if the cloudlet was in the queue
+	 * @pre rcl != null
+	 * @post $none
+	 */
+	public boolean remove(ResCloudlet rcl) {
+		Group group = rcl.getExecutionGroup();
+		if (group == null || !groups.contains(group) || !group.cloudlets.remove(rcl)) {
+			return false;
+		}
+		rcl.stopExecution();
+		size--;
+		return true;
+	}
+
+	/**
+	 * Advances the execution of all the cloudlets in the queue.
+	 *
+	 * @param capacity the MIPS capacity of each PE
+	 * @param timeSpan the time the cloudlets were running for
+	 * @pre $none
+	 * @post $none
+	 */
+	public void advance(double capacity, double timeSpan) {
+		for (Group group : groups) {
+			if (!group.cloudlets.isEmpty()) {
+				group.progress += (long) (capacity * timeSpan * group.numberOfPes * Consts.MILLION);
+			}
+		}
+	}
+
+	/**
+	 * Removes the finished cloudlets from the queue.
+	 *
+	 * @param finished the list where the finished cloudlets are added, in the order they entered
+	 *            the queue
+	 * @pre finished != null
+	 * @post $none
+	 */
+	public void pollFinished(List<ResCloudlet> finished) {
+		int first = finished.size();
+		for (Group group : groups) {
+			ResCloudlet rcl = group.cloudlets.peek();
+			while (rcl != null && rcl.getExecutionFinishProgress() - group.progress < Consts.MILLION) {
+				group.cloudlets.poll();
+				rcl.stopExecution();
+				size--;
+				finished.add(rcl);
+				rcl = group.cloudlets.peek();
+			}
+		}
+		if (finished.size() - first > 1) {
+			Collections.sort(finished.subList(first, finished.size()), SEQUENCE_ORDER);
+		}
+	}
+
+	/**
+	 * Estimates the time when the next cloudlet in the queue finishes.
+	 *
+	 * @param currentTime the current simulation time
+	 * @param capacity the MIPS capacity of each PE
+	 * @return the estimated finish time, no sooner than the
+	 *         {@link CloudSim#getMinTimeBetweenEvents() minimum time between events}, or
+	 *         {@link Double#MAX_VALUE} if the queue is empty
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	public double getNextFinishTime(double currentTime, double capacity) {
+		double nextEvent = Double.MAX_VALUE;
+		for (Group group : groups) {
+			ResCloudlet rcl = group.cloudlets.peek();
+			if (rcl == null) {
+				continue;
+			}
+			// the first cloudlet of a group has the least remaining length of the group
+			double remainingLength = rcl.getRemainingCloudletLength();
+			double estimatedFinishTime = currentTime + (remainingLength / (capacity * rcl.getNumberOfPes()));
+			if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+			}
+			if (estimatedFinishTime < nextEvent) {
+				nextEvent = estimatedFinishTime;
+			}
+		}
+		return nextEvent;
+	}
+
+	/**
+	 * Checks whether the queue is empty.
+	 *
+	 * @return true if there is no cloudlet in the queue
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the number of cloudlets in the queue.
+	 *
+	 * @return the number of cloudlets
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the group of the cloudlets with a given number of PEs, creating it if needed.
+	 *
+	 * @param numberOfPes the number of PEs
+	 * @return the group
+	 */
+	private Group getGroup(int numberOfPes) {
+		for (Group group : groups) {
+			if (group.numberOfPes == numberOfPes) {
+				return group;
+			}
+		}
+		Group group = new Group(numberOfPes);
+		groups.add(group);
+		return group;
+	}
+
+}
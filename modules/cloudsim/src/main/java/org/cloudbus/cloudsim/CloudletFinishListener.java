@@ -0,0 +1,33 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * CloudletFinishListener is notified by a cloudlet scheduler, either a {@link CloudletScheduler}
+ * or a ContainerCloudletScheduler, each time one of its cloudlets finishes and is added to its
+ * finished list. It lets a datacenter know which schedulers have finished cloudlets to return,
+ * instead of asking every scheduler after each update.
+ *
+ * @see CloudletScheduler#setCloudletFinishListener(CloudletFinishListener)
+ * @since CloudSim Toolkit 4.0
+ */
+public interface CloudletFinishListener {
+
+	/**
+	 * Called when a cloudlet has finished and was added to the finished list of the scheduler.
+	 * The cloudlet is still in that list, and is taken from it the usual way, through the
+	 * getNextFinishedCloudlet method of the scheduler.
+	 *
+	 * @param rcl the finished cloudlet
+	 * @pre rcl != null
+	 * @post $none
+	 */
+	void cloudletFinished(ResCloudlet rcl);
+
+}
@@ -0,0 +1,251 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * CloudletFinishTracker keeps track of the cloudlet schedulers of a datacenter that have finished
+ * cloudlets to return, so that the datacenter does not have to ask every scheduler after each
+ * update. Each scheduler belongs to an owner, such as a VM or a container, and reports its
+ * finished cloudlets through a {@link CloudletFinishListener} set by the tracker.
+ * <p/>
+ * The owners are located in the hosts of the datacenter by a position made of the indexes of the
+ * host, of the VM in the host and so on. The finished cloudlets are taken in the order of these
+ * positions, which is the order they would be found in by checking every scheduler of every host.
+ *
+ * @param <E> the type of the owners of the schedulers
+ * @since CloudSim Toolkit 4.0
+ */
+public abstract class CloudletFinishTracker<E> {
+
+	/** Orders the listeners by the position of their owner in the hosts of the datacenter. */
+	private static final Comparator<CloudletFinishTracker<?>.Listener> POSITION_ORDER = new Comparator<CloudletFinishTracker<?>.Listener>() {
+
+		@Override
+		public int compare(CloudletFinishTracker<?>.Listener a, CloudletFinishTracker<?>.Listener b) {
+			for (int i = 0; i < a.position.length; i++) {
+				int result = Integer.compare(a.position[i], b.position[i]);
+				if (result != 0) {
+					return result;
+				}
+			}
+			return 0;
+		}
+	};
+
+	/**
+	 * The listeners of the owners that have finished cloudlets not taken yet, in the order the
+	 * owners had their first cloudlet finished.
+	 */
+	private final List<Listener> pending = new ArrayList<Listener>();
+
+	/** The number of indexes in the position of an owner. */
+	private final int positionLength;
+
+	/**
+	 * Listens to the cloudlets finishing in the scheduler of an owner.
+	 */
+	private class Listener implements CloudletFinishListener {
+
+		/** The owner of the scheduler. */
+		private final E owner;
+
+		/** The position of the owner in the hosts of the datacenter, when last located. */
+		private final int[] position;
+
+		/** Whether the owner is in the list of owners with finished cloudlets. */
+		private boolean pending;
+
+		/**
+		 * Creates a new listener.
+		 *
+		 * @param owner the owner of the scheduler
+		 */
+		Listener(E owner) {
+			this.owner = owner;
+			position = new int[positionLength];
+		}
+
+		@Override
+		public void cloudletFinished(ResCloudlet rcl) {
+			markPending();
+		}
+
+		/**
+		 * Adds the owner to the list of owners with finished cloudlets, if it is not in it already.
+		 */
+		void markPending() {
+			if (!pending) {
+				pending = true;
+				CloudletFinishTracker.this.pending.add(this);
+			}
+		}
+
+		/**
+		 * Gets the tracker the listener belongs to.
+		 *
+		 * @return the tracker
+		 */
+		CloudletFinishTracker<E> getTracker() {
+			return CloudletFinishTracker.this;
+		}
+
+	}
+
+	/**
+	 * Creates a new tracker.
+	 *
+	 * @param positionLength the number of indexes in the position of an owner, such as 2 for the
+	 *            index of the host and the index of the VM in the host
+	 */
+	public CloudletFinishTracker(int positionLength) {
+		this.positionLength = positionLength;
+	}
+
+	/**
+	 * Makes the scheduler of an owner report its finished cloudlets to the tracker. It has to be
+	 * called before a cloudlet is submitted to the owner.
+	 *
+	 * @param owner the owner of the scheduler
+	 */
+	public void listen(E owner) {
+		if (getListener(owner) != null) {
+			return;
+		}
+		Listener listener = new Listener(owner);
+		setCloudletFinishListener(owner, listener);
+		if (hasFinishedCloudlets(owner)) {
+			listener.markPending();
+		}
+	}
+
+	/**
+	 * Stops tracking the scheduler of an owner, when the owner leaves the datacenter. Its
+	 * finished cloudlets not taken yet are no longer reported.
+	 *
+	 * @param owner the owner of the scheduler
+	 */
+	public void forget(E owner) {
+		Listener listener = getListener(owner);
+		if (listener == null) {
+			return;
+		}
+		setCloudletFinishListener(owner, null);
+		if (listener.pending) {
+			listener.pending = false;
+			pending.remove(listener);
+		}
+	}
+
+	/**
+	 * Checks whether any tracked scheduler has reported finished cloudlets.
+	 *
+	 * @return true if there are finished cloudlets to take
+	 */
+	public boolean hasPending() {
+		return !pending.isEmpty();
+	}
+
+	/**
+	 * Takes the finished cloudlets from the schedulers that reported them, in the order of their
+	 * owners in the hosts of the datacenter. The schedulers whose owners are not in a host of the
+	 * datacenter, such as owners in migration, are kept for later.
+	 *
+	 * @param cloudlets the list where the finished cloudlets are added
+	 */
+	public void pollFinishedCloudlets(List<Cloudlet> cloudlets) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<Listener> finished = new ArrayList<Listener>();
+		Iterator<Listener> iterator = pending.iterator();
+		while (iterator.hasNext()) {
+			Listener listener = iterator.next();
+			if (locate(listener.owner, listener.position)) {
+				finished.add(listener);
+				iterator.remove();
+			}
+		}
+		Collections.sort(finished, POSITION_ORDER);
+
+		for (Listener listener : finished) {
+			listener.pending = false;
+			while (hasFinishedCloudlets(listener.owner)) {
+				Cloudlet cl = getNextFinishedCloudlet(listener.owner);
+				if (cl != null) {
+					cloudlets.add(cl);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the listener of this tracker set to the scheduler of an owner.
+	 *
+	 * @param owner the owner of the scheduler
+	 * @return the listener, or $null if the scheduler does not report to this tracker
+	 */
+	@SuppressWarnings("unchecked")
+	private Listener getListener(E owner) {
+		CloudletFinishListener current = getCloudletFinishListener(owner);
+		if (current instanceof CloudletFinishTracker<?>.Listener
+				&& ((CloudletFinishTracker<?>.Listener) current).getTracker() == this
+				&& ((CloudletFinishTracker<?>.Listener) current).owner == owner) {
+			return (Listener) current;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the position of an owner in the hosts of the datacenter.
+	 *
+	 * @param owner the owner
+	 * @param position the array where the indexes of the position are written
+	 * @return true if the owner is in one of the hosts of the datacenter
+	 */
+	protected abstract boolean locate(E owner, int[] position);
+
+	/**
+	 * Gets the listener set to the scheduler of an owner.
+	 *
+	 * @param owner the owner
+	 * @return the listener, or $null if there is none
+	 */
+	protected abstract CloudletFinishListener getCloudletFinishListener(E owner);
+
+	/**
+	 * Sets the listener of the scheduler of an owner.
+	 *
+	 * @param owner the owner
+	 * @param listener the listener, or $null to remove it
+	 */
+	protected abstract void setCloudletFinishListener(E owner, CloudletFinishListener listener);
+
+	/**
+	 * Checks whether the scheduler of an owner has finished cloudlets.
+	 *
+	 * @param owner the owner
+	 * @return true if there are finished cloudlets in the scheduler
+	 */
+	protected abstract boolean hasFinishedCloudlets(E owner);
+
+	/**
+	 * Takes the next finished cloudlet from the scheduler of an owner.
+	 *
+	 * @param owner the owner
+	 * @return the cloudlet, or $null if there is none
+	 */
+	protected abstract Cloudlet getNextFinishedCloudlet(E owner);
+
+}
@@ -9,7 +9,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
 import org.cloudbus.cloudsim.network.datacenter.NetworkCloudletSpaceSharedScheduler;
 
 
@@ -41,12 +46,34 @@ public abstract class CloudletScheduler {
 	/** The list of paused cloudlets. */
 	protected List<? extends ResCloudlet> cloudletPausedList;
 
-	/** The list of finished cloudlets. */
+	/**
+	 * The list of finished cloudlets. The cloudlets added straight to this field are not reported
+	 * to the {@link #getCloudletFinishListener() finish listener}, thus finished cloudlets must be
+	 * added through {@link #getCloudletFinishedList()}.
+	 */
 	protected List<? extends ResCloudlet> cloudletFinishedList;
 
 	/** The list of failed cloudlets. */
 	protected List<? extends ResCloudlet> cloudletFailedList;
 
+	/** The listener notified each time a cloudlet finishes, if any. */
+	private CloudletFinishListener cloudletFinishListener;
+
+	/** The view of the finished list, which notifies the finish listener of the cloudlets added. */
+	private final FinishedCloudletList cloudletFinishedListView = new FinishedCloudletList() {
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected List<ResCloudlet> getCloudlets() {
+			return (List<ResCloudlet>) cloudletFinishedList;
+		}
+
+		@Override
+		protected CloudletFinishListener getCloudletFinishListener() {
+			return cloudletFinishListener;
+		}
+	};
+
 	/**
 	 * Creates a new CloudletScheduler object. 
          * A CloudletScheduler must be created before starting the actual simulation.
@@ -328,6 +355,68 @@ public abstract class CloudletScheduler {
 		this.cloudletExecList = cloudletExecList;
 	}
 
+	/**
+	 * Adds a cloudlet to the exec list. Cloudlets must enter and leave the exec list through this
+	 * method and the <tt>removeFromExecList</tt> ones, which schedulers that keep track of their
+	 * running cloudlets override to keep that data up to date.
+	 * 
+	 * @param rcl the cloudlet
+	 * @pre rcl != null
+	 * @post $none
+	 */
+	protected void addToExecList(ResCloudlet rcl) {
+		getCloudletExecList().add(rcl);
+	}
+
+	/**
+	 * Removes the cloudlet at a given position of the exec list.
+	 * 
+	 * @param index the position of the cloudlet in the exec list
+	 * @return the removed cloudlet
+	 * @see #addToExecList(ResCloudlet)
+	 */
+	protected ResCloudlet removeFromExecList(int index) {
+		return getCloudletExecList().remove(index);
+	}
+
+	/**
+	 * Removes a cloudlet from the exec list.
+	 * 
+	 * @param rcl the cloudlet
+	 * @return true if the cloudlet was in the exec list
+	 * @see #addToExecList(ResCloudlet)
+	 */
+	protected boolean removeFromExecList(ResCloudlet rcl) {
+		return getCloudletExecList().remove(rcl);
+	}
+
+	/**
+	 * Removes some cloudlets from the exec list, going through the list only once.
+	 * 
+	 * @param cloudlets the cloudlets to remove
+	 * @see #addToExecList(ResCloudlet)
+	 */
+	protected void removeFromExecList(Collection<? extends ResCloudlet> cloudlets) {
+		if (cloudlets.isEmpty()) {
+			return;
+		}
+		Set<ResCloudlet> removed = Collections.newSetFromMap(new IdentityHashMap<ResCloudlet, Boolean>());
+		removed.addAll(cloudlets);
+
+		// moves the cloudlets kept to the front of the list, then cuts the rest
+		List<ResCloudlet> execList = getCloudletExecList();
+		ListIterator<ResCloudlet> kept = execList.listIterator();
+		int size = 0;
+		for (ResCloudlet rcl : execList) {
+			if (!removed.contains(rcl)) {
+				kept.next();
+				kept.set(rcl);
+				size++;
+			}
+		}
+		execList.subList(size, execList.size()).clear();
+	}
+
 	/**
 	 * Gets the cloudlet paused list.
 	 * 
@@ -350,14 +439,16 @@ public abstract class CloudletScheduler {
 	}
 
 	/**
-	 * Gets the cloudlet finished list.
+	 * Gets the cloudlet finished list. The list returned is a view of the list the scheduler
+	 * holds, which notifies the {@link #getCloudletFinishListener() finish listener} of each
+	 * cloudlet added to it.
 	 * 
 	 * @param <T> the generic type
 	 * @return the cloudlet finished list
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends ResCloudlet> List<T> getCloudletFinishedList() {
-		return (List<T>) cloudletFinishedList;
+		return (List<T>) (List<?>) cloudletFinishedListView;
 	}
 
 	/**
@@ -370,6 +461,25 @@ public abstract class CloudletScheduler {
 		this.cloudletFinishedList = cloudletFinishedList;
 	}
 
+	/**
+	 * Gets the listener notified each time a cloudlet finishes.
+	 * 
+	 * @return the cloudlet finish listener, or $null if there is none
+	 */
+	public CloudletFinishListener getCloudletFinishListener() {
+		return cloudletFinishListener;
+	}
+
+	/**
+	 * Sets the listener notified each time a cloudlet finishes. The datacenter hosting the VM
+	 * sets it when a cloudlet is submitted to the VM.
+	 * 
+	 * @param cloudletFinishListener the cloudlet finish listener, or $null to remove it
+	 */
+	public void setCloudletFinishListener(CloudletFinishListener cloudletFinishListener) {
+		this.cloudletFinishListener = cloudletFinishListener;
+	}
+
 	/**
 	 * Gets the cloudlet failed list.
 	 * 
@@ -84,6 +84,8 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		double nextEvent = Double.MAX_VALUE;
 		List<ResCloudlet> cloudletsToFinish = new ArrayList<ResCloudlet>();
 
+		// Each cloudlet runs at the rate given by its own utilization model, thus the execution
+		// queue of the time-shared scheduler is not used and every cloudlet is updated.
 		for (ResCloudlet rcl : getCloudletExecList()) {
 			rcl.updateCloudletFinishedSoFar((long) (timeSpan
 					* getTotalCurrentAllocatedMipsForCloudlet(rcl, getPreviousTime()) * Consts.MILLION));
@@ -102,8 +104,8 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 			}
 		}
 
+		removeFromExecList(cloudletsToFinish);
 		for (ResCloudlet rgl : cloudletsToFinish) {
-			getCloudletExecList().remove(rgl);
 			cloudletFinish(rgl);
 		}
 
@@ -130,10 +132,23 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 			rcl.setMachineAndPeId(0, i);
 		}
 
-		getCloudletExecList().add(rcl);
+		addToExecList(rcl);
 		return getEstimatedFinishTime(rcl, getPreviousTime());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The cloudlets do not get the same capacity on each PE, as each one runs at the rate given
+	 * by its own utilization model, thus the execution queue is not used.
+	 * 
+	 * @return false
+	 */
+	@Override
+	protected boolean isExecutionQueueUsed() {
+		return false;
+	}
+
 	@Override
 	public void cloudletFinish(ResCloudlet rcl) {
 		rcl.setCloudletStatus(Cloudlet.SUCCESS);
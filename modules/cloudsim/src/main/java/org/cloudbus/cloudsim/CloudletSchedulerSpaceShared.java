@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -31,9 +32,13 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
          * {@link #updateVmProcessing(double, java.util.List)} method. */
 	protected int currentCpus;
 
-	/** The number of used PEs. */
+	/** The number of used PEs. It is increased by {@link #addToExecList(ResCloudlet)}, and
+         * decreased when a cloudlet finishes or migrates. */
 	protected int usedPes;
 
+	/** The cloudlets in the exec list, ordered by their completion. */
+	private final CloudletExecutionQueue executionQueue;
+
 	/**
 	 * Creates a new CloudletSchedulerSpaceShared object. This method must be invoked before
 	 * starting the actual simulation.
@@ -45,6 +50,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		super();
 		usedPes = 0;
 		currentCpus = 0;
+		executionQueue = new CloudletExecutionQueue();
 	}
 
 	@Override
@@ -64,10 +70,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		capacity /= cpus; // average capacity of each cpu
 
 		// each machine in the exec list has the same amount of cpu
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			rcl.updateCloudletFinishedSoFar(
-                                (long) (capacity * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
-		}
+		getExecutionQueue().advance(capacity, timeSpam);
 
 		// no more cloudlets in this scheduler
 		if (getCloudletExecList().size() == 0 && getCloudletWaitingList().size() == 0) {
@@ -78,15 +81,12 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		// update each cloudlet
 		int finished = 0;
 		List<ResCloudlet> toRemove = new ArrayList<ResCloudlet>();
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			// finished anyway, rounding issue...
-			if (rcl.getRemainingCloudletLength() == 0) {
-				toRemove.add(rcl);
-				cloudletFinish(rcl);
-				finished++;
-			}
+		getExecutionQueue().pollFinished(toRemove);
+		removeFromExecList(toRemove);
+		for (ResCloudlet rcl : toRemove) {
+			cloudletFinish(rcl);
+			finished++;
 		}
-		getCloudletExecList().removeAll(toRemove);
 
 		// for each finished cloudlet, add a new one from the waiting list
 		if (!getCloudletWaitingList().isEmpty()) {
@@ -98,8 +98,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 						for (int k = 0; k < rcl.getNumberOfPes(); k++) {
 							rcl.setMachineAndPeId(0, i);
 						}
-						getCloudletExecList().add(rcl);
-						usedPes += rcl.getNumberOfPes();
+						addToExecList(rcl);
 						toRemove.add(rcl);
 						break;
 					}
@@ -109,21 +108,52 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		}
 
 		// estimate finish time of cloudlets in the execution queue
-		double nextEvent = Double.MAX_VALUE;
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			double remainingLength = rcl.getRemainingCloudletLength();
-			double estimatedFinishTime = currentTime + (remainingLength / (capacity * rcl.getNumberOfPes()));
-			if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
-				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
-			}
-			if (estimatedFinishTime < nextEvent) {
-				nextEvent = estimatedFinishTime;
-			}
-		}
+		double nextEvent = getExecutionQueue().getNextFinishTime(currentTime, capacity);
 		setPreviousTime(currentTime);
 		return nextEvent;
 	}
 
+	/**
+	 * Gets the queue of the cloudlets in the exec list, ordered by their completion. The
+	 * cloudlets enter and leave the queue as they enter and leave the exec list.
+	 * 
+	 * @return the execution queue
+	 */
+	protected CloudletExecutionQueue getExecutionQueue() {
+		return executionQueue;
+	}
+
+	@Override
+	protected void addToExecList(ResCloudlet rcl) {
+		super.addToExecList(rcl);
+		usedPes += rcl.getNumberOfPes();
+		getExecutionQueue().add(rcl);
+	}
+
+	@Override
+	protected ResCloudlet removeFromExecList(int index) {
+		ResCloudlet rcl = super.removeFromExecList(index);
+		getExecutionQueue().remove(rcl);
+		return rcl;
+	}
+
+	@Override
+	protected boolean removeFromExecList(ResCloudlet rcl) {
+		if (!super.removeFromExecList(rcl)) {
+			return false;
+		}
+		getExecutionQueue().remove(rcl);
+		return true;
+	}
+
+	@Override
+	protected void removeFromExecList(Collection<? extends ResCloudlet> cloudlets) {
+		super.removeFromExecList(cloudlets);
+		for (ResCloudlet rcl : cloudlets) {
+			getExecutionQueue().remove(rcl);
+		}
+	}
+
 	@Override
 	public Cloudlet cloudletCancel(int cloudletId) {
 		// First, looks in the finished queue
@@ -137,7 +167,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		// Then searches in the exec list
 		for (ResCloudlet rcl : getCloudletExecList()) {
 			if (rcl.getCloudletId() == cloudletId) {
-				getCloudletExecList().remove(rcl);
+				removeFromExecList(rcl);
 				if (rcl.getRemainingCloudletLength() == 0) {
 					cloudletFinish(rcl);
 				} else {
@@ -184,7 +214,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 
 		if (found) {
 			// moves to the paused list
-			ResCloudlet rgl = getCloudletExecList().remove(position);
+			ResCloudlet rgl = removeFromExecList(position);
 			if (rgl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(rgl);
 			} else {
@@ -258,8 +288,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 				size *= rcl.getNumberOfPes();
 				rcl.getCloudlet().setCloudletLength(size);
 
-				getCloudletExecList().add(rcl);
-				usedPes += rcl.getNumberOfPes();
+				addToExecList(rcl);
 
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
@@ -299,16 +328,13 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	@Override
 	public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
 		// it can go to the exec list
+		ResCloudlet rcl = new ResCloudlet(cloudlet);
 		if ((currentCpus - usedPes) >= cloudlet.getNumberOfPes()) {
-			ResCloudlet rcl = new ResCloudlet(cloudlet);
 			rcl.setCloudletStatus(Cloudlet.INEXEC);
 			for (int i = 0; i < cloudlet.getNumberOfPes(); i++) {
 				rcl.setMachineAndPeId(0, i);
 			}
-			getCloudletExecList().add(rcl);
-			usedPes += cloudlet.getNumberOfPes();
 		} else {// no enough free PEs: go to the waiting queue
-			ResCloudlet rcl = new ResCloudlet(cloudlet);
 			rcl.setCloudletStatus(Cloudlet.QUEUED);
 			getCloudletWaitingList().add(rcl);
 			return 0.0;
@@ -333,6 +359,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		long length = cloudlet.getCloudletLength();
 		length += extraSize;
 		cloudlet.setCloudletLength(length);
+		addToExecList(rcl);
 		return cloudlet.getCloudletLength() / capacity;
 	}
 
@@ -402,7 +429,7 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 */
 	@Override
 	public Cloudlet migrateCloudlet() {
-		ResCloudlet rcl = getCloudletExecList().remove(0);
+		ResCloudlet rcl = removeFromExecList(0);
 		rcl.finalizeCloudlet();
 		Cloudlet cl = rcl.getCloudlet();
 		usedPes -= cl.getNumberOfPes();
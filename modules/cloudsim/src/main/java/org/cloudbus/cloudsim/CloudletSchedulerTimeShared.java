@@ -8,6 +8,7 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -28,6 +29,17 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
          * {@link #updateVmProcessing(double, java.util.List)} method. */
 	protected int currentCPUs;
 
+	/** The number of PEs required by the cloudlets in the exec list. It is updated by
+         * {@link #addToExecList(ResCloudlet)} and the <tt>removeFromExecList</tt> methods, so that
+         * {@link #getCapacity(java.util.List)} does not have to go through the whole list. */
+	protected int pesInUse;
+
+	/** The cloudlets in the exec list, ordered by their completion. */
+	private final CloudletExecutionQueue executionQueue;
+
+	/** The list reused to collect the cloudlets that finished on each update. */
+	private final List<ResCloudlet> finishedCloudlets;
+
 	/**
 	 * Creates a new CloudletSchedulerTimeShared object. This method must be invoked before starting
 	 * the actual simulation.
@@ -38,6 +50,9 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	public CloudletSchedulerTimeShared() {
 		super();
 		currentCPUs = 0;
+		pesInUse = 0;
+		executionQueue = new CloudletExecutionQueue();
+		finishedCloudlets = new ArrayList<ResCloudlet>();
 	}
 
 	@Override
@@ -45,45 +60,97 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		setCurrentMipsShare(mipsShare);
 		double timeSpam = currentTime - getPreviousTime();
 
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			rcl.updateCloudletFinishedSoFar((long) (getCapacity(mipsShare) * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
-		}
+		double capacity = getCapacity(mipsShare);
+		getExecutionQueue().advance(capacity, timeSpam);
 
 		if (getCloudletExecList().size() == 0) {
 			setPreviousTime(currentTime);
 			return 0.0;
 		}
 
-		// check finished cloudlets
-		double nextEvent = Double.MAX_VALUE;
-		List<ResCloudlet> toRemove = new ArrayList<ResCloudlet>();
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			long remainingLength = rcl.getRemainingCloudletLength();
-			if (remainingLength == 0) {// finished: remove from the list
-				toRemove.add(rcl);
+		// check finished cloudlets: only the next one to finish of each group has to be checked
+		finishedCloudlets.clear();
+		getExecutionQueue().pollFinished(finishedCloudlets);
+		if (!finishedCloudlets.isEmpty()) {
+			removeFromExecList(finishedCloudlets);
+			for (ResCloudlet rcl : finishedCloudlets) {
 				cloudletFinish(rcl);
-				continue;
 			}
+			finishedCloudlets.clear();
 		}
-		getCloudletExecList().removeAll(toRemove);
 
 		// estimate finish time of cloudlets
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			double estimatedFinishTime = currentTime
-					+ (rcl.getRemainingCloudletLength() / (getCapacity(mipsShare) * rcl.getNumberOfPes()));
-			if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
-				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
-			}
-
-			if (estimatedFinishTime < nextEvent) {
-				nextEvent = estimatedFinishTime;
-			}
-		}
+		capacity = getCapacity(mipsShare);
+		double nextEvent = getExecutionQueue().getNextFinishTime(currentTime, capacity);
 
 		setPreviousTime(currentTime);
 		return nextEvent;
 	}
 
+	/**
+	 * Gets the queue of the cloudlets in the exec list, ordered by their completion. The
+	 * cloudlets enter and leave the queue as they enter and leave the exec list.
+	 * 
+	 * @return the execution queue
+	 */
+	protected CloudletExecutionQueue getExecutionQueue() {
+		return executionQueue;
+	}
+
+	/**
+	 * Checks whether the cloudlets of the exec list are kept in the
+	 * {@link #getExecutionQueue() execution queue}. It is the case when all the running cloudlets
+	 * get the same capacity on each PE.
+	 * 
+	 * @return true if the execution queue is used
+	 */
+	protected boolean isExecutionQueueUsed() {
+		return true;
+	}
+
+	@Override
+	protected void addToExecList(ResCloudlet rcl) {
+		super.addToExecList(rcl);
+		pesInUse += rcl.getNumberOfPes();
+		if (isExecutionQueueUsed()) {
+			getExecutionQueue().add(rcl);
+		}
+	}
+
+	@Override
+	protected ResCloudlet removeFromExecList(int index) {
+		ResCloudlet rcl = super.removeFromExecList(index);
+		cloudletLeftExecList(rcl);
+		return rcl;
+	}
+
+	@Override
+	protected boolean removeFromExecList(ResCloudlet rcl) {
+		if (!super.removeFromExecList(rcl)) {
+			return false;
+		}
+		cloudletLeftExecList(rcl);
+		return true;
+	}
+
+	@Override
+	protected void removeFromExecList(Collection<? extends ResCloudlet> cloudlets) {
+		super.removeFromExecList(cloudlets);
+		for (ResCloudlet rcl : cloudlets) {
+			cloudletLeftExecList(rcl);
+		}
+	}
+
+	/**
+	 * Updates the PEs in use and the execution queue after a cloudlet left the exec list.
+	 * 
+	 * @param rcl the cloudlet
+	 */
+	private void cloudletLeftExecList(ResCloudlet rcl) {
+		pesInUse -= rcl.getNumberOfPes();
+		getExecutionQueue().remove(rcl);
+	}
+
 	/**
 	 * Gets the individual MIPS capacity available for each PE available for the scheduler,
          * considering that all PEs have the same capacity.
@@ -92,6 +159,18 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 * @return the capacity of each PE
 	 */
 	protected double getCapacity(List<Double> mipsShare) {
+		return getCapacity(mipsShare, pesInUse);
+	}
+
+	/**
+	 * Gets the individual MIPS capacity available for each PE when the cloudlets in the exec
+	 * list require a given number of PEs.
+	 * 
+	 * @param mipsShare list with MIPS share of each PE available to the scheduler
+	 * @param pesInUse the number of PEs required by the cloudlets in the exec list
+	 * @return the capacity of each PE
+	 */
+	private double getCapacity(List<Double> mipsShare, int pesInUse) {
 		double capacity = 0.0;
 		int cpus = 0;
 		for (Double mips : mipsShare) {
@@ -102,11 +181,6 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		}
 		currentCPUs = cpus;
 
-		int pesInUse = 0;
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			pesInUse += rcl.getNumberOfPes();
-		}
-
 		if (pesInUse > currentCPUs) {
 			capacity /= pesInUse;
 		} else {
@@ -145,7 +219,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		}
 
 		if (found) {
-			ResCloudlet rcl = getCloudletExecList().remove(position);
+			ResCloudlet rcl = removeFromExecList(position);
 			if (rcl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(rcl);
 			} else {
@@ -188,7 +262,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 
 		if (found) {
 			// remove cloudlet from the exec list and put it in the paused list
-			ResCloudlet rcl = getCloudletExecList().remove(position);
+			ResCloudlet rcl = removeFromExecList(position);
 			if (rcl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(rcl);
 			} else {
@@ -224,7 +298,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		if (found) {
 			ResCloudlet rgl = getCloudletPausedList().remove(position);
 			rgl.setCloudletStatus(Cloudlet.INEXEC);
-			getCloudletExecList().add(rgl);
+			addToExecList(rgl);
 
 			// calculate the expected time for cloudlet completion
 			// first: how many PEs do we have?
@@ -247,13 +321,14 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 			rcl.setMachineAndPeId(0, i);
 		}
 
-		getCloudletExecList().add(rcl);
-
-		// use the current capacity to estimate the extra amount of
-		// time to file transferring. It must be added to the cloudlet length
-		double extraSize = getCapacity(getCurrentMipsShare()) * fileTransferTime;
+		// use the capacity the cloudlet gets once running to estimate the extra amount of
+		// time to file transferring. It must be added to the cloudlet length, before the
+		// cloudlet enters the exec list
+		double extraSize = getCapacity(getCurrentMipsShare(), pesInUse + rcl.getNumberOfPes())
+				* fileTransferTime;
 		long length = (long) (cloudlet.getCloudletLength() + extraSize);
 		cloudlet.setCloudletLength(length);
+		addToExecList(rcl);
 
 		return cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShare());
 	}
@@ -310,7 +385,7 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 
 	@Override
 	public Cloudlet migrateCloudlet() {
-		ResCloudlet rgl = getCloudletExecList().remove(0);
+		ResCloudlet rgl = removeFromExecList(0);
 		rgl.finalizeCloudlet();
 		return rgl.getCloudlet();
 	}
@@ -8,12 +8,13 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
@@ -25,6 +26,12 @@ import org.cloudbus.cloudsim.core.SimEvent;
  * So, even though an AllocPolicy will be instantiated (in the init() method of the superclass, 
  * it will not be used, as processing of cloudlets are handled by the CloudletScheduler and 
  * processing of VirtualMachines are handled by the VmAllocationPolicy.
+ * <p/>
+ * A broker may ask for several VMs in a single {@link CloudSimTags#VM_CREATE_BATCH} event, which
+ * {@link #processVmCreateBatch(SimEvent, boolean)} handles without going through
+ * {@link #processVmCreate(SimEvent, boolean)}. A subclass that overrides the latter should
+ * override {@link #isVmCreateBatchSupported()} to return false, so that the brokers send it one
+ * event per VM.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -59,6 +66,88 @@ public class Datacenter extends SimEntity {
 	/** The scheduling delay to process each datacenter received event. */
 	private double schedulingInterval;
 
+	/** The position of each host in the host list of the VM allocation policy. */
+	private Map<Host, Integer> hostIndexes;
+
+	/**
+	 * The positions of the hosts updated on each update of the cloudlet processing. It holds every
+	 * host except the idle ones, whose processing is deferred until they change.
+	 * @see Host#canDeferVmsProcessing()
+	 */
+	private BitSet activeHosts;
+
+	/** The number of the last update of the cloudlet processing each host took part in, by position. */
+	private int[] hostUpdates;
+
+	/** The number of updates of the cloudlet processing. */
+	private int updateCount;
+
+	/** The time of the last update of the cloudlet processing. */
+	private double lastUpdateTime;
+
+	/** The schedulers of the VMs that have finished cloudlets not returned to their users yet. */
+	private final CloudletFinishTracker<Vm> finishedCloudletTracker = new CloudletFinishTracker<Vm>(2) {
+
+		/**
+		 * {@inheritDoc}
+		 * <p/>
+		 * The position is made of the index of the host and of the index of the VM in the host. A
+		 * VM in migration is in the VM lists of two hosts, and takes the position of the first of
+		 * them.
+		 */
+		@Override
+		protected boolean locate(Vm vm, int[] position) {
+			if (vm.isInMigration()) {
+				List<? extends Host> list = getVmAllocationPolicy().getHostList();
+				for (int i = 0; i < list.size(); i++) {
+					int index = list.get(i).getVmList().indexOf(vm);
+					if (index >= 0) {
+						position[0] = i;
+						position[1] = index;
+						return true;
+					}
+				}
+				return false;
+			}
+			Host host = vm.getHost();
+			Integer index = host == null ? null : hostIndexes.get(host);
+			if (index == null) {
+				return false;
+			}
+			position[0] = index;
+			position[1] = host.getVmList().indexOf(vm);
+			return position[1] >= 0;
+		}
+
+		@Override
+		protected CloudletFinishListener getCloudletFinishListener(Vm vm) {
+			return vm.getCloudletScheduler().getCloudletFinishListener();
+		}
+
+		@Override
+		protected void setCloudletFinishListener(Vm vm, CloudletFinishListener listener) {
+			vm.getCloudletScheduler().setCloudletFinishListener(listener);
+		}
+
+		@Override
+		protected boolean hasFinishedCloudlets(Vm vm) {
+			return vm.getCloudletScheduler().isFinishedCloudlets();
+		}
+
+		@Override
+		protected Cloudlet getNextFinishedCloudlet(Vm vm) {
+			return vm.getCloudletScheduler().getNextFinishedCloudlet();
+		}
+
+	};
+
+	/**
+	 * Whether the cloudlets that finish at the same time are returned to each user in a single
+	 * {@link CloudSimTags#CLOUDLET_RETURN_BATCH} event, instead of one
+	 * {@link CloudSimTags#CLOUDLET_RETURN} event per cloudlet.
+	 */
+	private boolean batchCloudletReturns;
+
 	/**
 	 * Allocates a new Datacenter object.
 	 * 
@@ -216,6 +305,14 @@ public class Datacenter extends SimEntity {
 				processVmCreate(ev, true);
 				break;
 
+			case CloudSimTags.VM_CREATE_BATCH:
+				processVmCreateBatch(ev, false);
+				break;
+
+			case CloudSimTags.VM_CREATE_BATCH_ACK:
+				processVmCreateBatch(ev, true);
+				break;
+
 			case CloudSimTags.VM_DESTROY:
 				processVmDestroy(ev, false);
 				break;
@@ -440,8 +537,44 @@ public class Datacenter extends SimEntity {
 	protected void processVmCreate(SimEvent ev, boolean ack) {
 		Vm vm = (Vm) ev.getData();
 
+		updateIdleHosts();
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
+		processVmCreateResult(vm, result, ack);
+	}
+
+	/**
+	 * Process the event for an User/Broker who wants to create several VMs at once in this
+	 * Datacenter. The VMs are handled in the order of the list, as if each one was requested by
+	 * its own event: each VM is started before a host is allocated to the next one, since a
+	 * started VM can change the utilization of its host seen by the allocation policy.
+	 * 
+	 * @param ev information about the event just happened, whose data is the list of the VMs
+	 * @param ack indicates if the event's sender requests to be sent back an acknowledgement
+	 *            for each VM
+	 * @pre ev != null
+	 * @post $none
+	 */
+	protected void processVmCreateBatch(SimEvent ev, boolean ack) {
+		@SuppressWarnings("unchecked")
+		List<Vm> vms = (List<Vm>) ev.getData();
+
+		updateIdleHosts();
+		for (Vm vm : vms) {
+			boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
+			processVmCreateResult(vm, result, ack);
+		}
+	}
+
+	/**
+	 * Sends the acknowledgement of the creation of a VM, if requested, and starts the VM if a
+	 * host was allocated to it.
+	 * 
+	 * @param vm the VM
+	 * @param result whether a host was allocated to the VM
+	 * @param ack indicates if the event's sender requests to be sent back an acknowledgement
+	 */
+	private void processVmCreateResult(Vm vm, boolean result, boolean ack) {
 		if (ack) {
 			int[] data = new int[3];
 			data[0] = getId();
@@ -452,17 +585,18 @@ public class Datacenter extends SimEntity {
 			} else {
 				data[2] = CloudSimTags.FALSE;
 			}
-			send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
+			send(vm.getUserId(), getSimulation().getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
 		}
 
 		if (result) {
 			getVmList().add(vm);
+			listenForFinishedCloudlets(vm);
 
 			if (vm.isBeingInstantiated()) {
 				vm.setBeingInstantiated(false);
 			}
 
-			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
+			vm.updateVmProcessing(getSimulation().clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
 					.getAllocatedMipsForVm(vm));
 		}
 
@@ -482,7 +616,9 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void processVmDestroy(SimEvent ev, boolean ack) {
 		Vm vm = (Vm) ev.getData();
+		updateIdleHosts();
 		getVmAllocationPolicy().deallocateHostForVm(vm);
+		forgetFinishedCloudlets(vm);
 
 		if (ack) {
 			int[] data = new int[3];
@@ -519,6 +655,7 @@ public class Datacenter extends SimEntity {
 		Vm vm = (Vm) migrate.get("vm");
 		Host host = (Host) migrate.get("host");
 
+		updateIdleHosts();
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 		host.removeMigratingInVm(vm);
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm, host);
@@ -526,6 +663,7 @@ public class Datacenter extends SimEntity {
 			Log.printLine("[Datacenter.processVmMigrate] VM allocation to the destination host failed");
 			System.exit(0);
 		}
+		listenForFinishedCloudlets(vm);
 
 		if (ack) {
 			int[] data = new int[3];
@@ -542,7 +680,7 @@ public class Datacenter extends SimEntity {
 
 		Log.formatLine(
 				"%.2f: Migration of VM #%d to Host #%d is completed",
-				CloudSim.clock(),
+				getSimulation().clock(),
 				vm.getId(),
 				host.getId());
 		vm.setInMigration(false);
@@ -636,8 +774,9 @@ public class Datacenter extends SimEntity {
 		int destId = array[4];
 
 		// get the cloudlet
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostChanged(host);
+		Cloudlet cl = host.getVm(vmId,userId).getCloudletScheduler().cloudletCancel(cloudletId);
 
 		boolean failed = false;
 		if (cl == null) {// cloudlet doesn't exist
@@ -658,10 +797,12 @@ public class Datacenter extends SimEntity {
 
 			// the cloudlet will migrate from one vm to another does the destination VM exist?
 			if (destId == getId()) {
-				Vm vm = getVmAllocationPolicy().getHost(vmDestId, userId).getVm(vmDestId,userId);
+				Host destHost = getVmAllocationPolicy().getHost(vmDestId, userId);
+				Vm vm = destHost.getVm(vmDestId,userId);
 				if (vm == null) {
 					failed = true;
 				} else {
+					markHostChanged(destHost);
 					// time to transfer the files
 					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
@@ -705,7 +846,7 @@ public class Datacenter extends SimEntity {
 
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
+				String name = getSimulation().getEntityName(cl.getUserId());
 				Log.printConcatLine(getName(), ": Warning - Cloudlet #", cl.getCloudletId(), " owned by ", name,
 						" is already completed/finished.");
 				Log.printLine("Therefore, it is not being executed again");
@@ -746,6 +887,7 @@ public class Datacenter extends SimEntity {
 			Host host = getVmAllocationPolicy().getHost(vmId, userId);
 			Vm vm = host.getVm(vmId, userId);
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
+			markHostChanged(host);
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
 
 			// if this cloudlet is in the exec queue
@@ -812,13 +954,14 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
-		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletResume(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostChanged(host);
+		double eventTime = host.getVm(vmId,userId).getCloudletScheduler().cloudletResume(cloudletId);
 
 		boolean status = false;
 		if (eventTime > 0.0) { // if this cloudlet is in the exec queue
 			status = true;
-			if (eventTime > CloudSim.clock()) {
+			if (eventTime > getSimulation().clock()) {
 				schedule(getId(), eventTime, CloudSimTags.VM_DATACENTER_EVENT);
 			}
 		}
@@ -849,8 +992,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletPause(int cloudletId, int userId, int vmId, boolean ack) {
-		boolean status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletPause(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostChanged(host);
+		boolean status = host.getVm(vmId,userId).getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
 			int[] data = new int[3];
@@ -876,8 +1020,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletCancel(int cloudletId, int userId, int vmId) {
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostChanged(host);
+		Cloudlet cl = host.getVm(vmId,userId).getCloudletScheduler().cloudletCancel(cloudletId);
 		sendNow(userId, CloudSimTags.CLOUDLET_CANCEL, cl);
 	}
 
@@ -885,6 +1030,11 @@ public class Datacenter extends SimEntity {
 	 * Updates processing of each cloudlet running in this Datacenter. It is necessary because
 	 * Hosts and VirtualMachines are simple objects, not entities. So, they don't receive events and
 	 * updating cloudlets inside them must be called from the outside.
+	 * <p/>
+	 * Idle hosts are skipped: they have no cloudlet to finish, and they are brought up to date
+	 * with the last update by {@link #markHostChanged(Host)} and {@link #updateIdleHosts()} before
+	 * they change, so the result is the same as updating every host. A host found idle after
+	 * being updated is skipped from then on, until it changes.
 	 * 
 	 * @pre $none
 	 * @post $none
@@ -893,50 +1043,185 @@ public class Datacenter extends SimEntity {
 		// if some time passed since last processing
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
-		if (CloudSim.clock() < 0.111 || CloudSim.clock() > getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+		if (getSimulation().clock() < 0.111 || getSimulation().clock() > getLastProcessTime() + getSimulation().getMinTimeBetweenEvents()) {
 			List<? extends Host> list = getVmAllocationPolicy().getHostList();
+			BitSet activeHosts = getActiveHosts();
+			updateCount++;
+			lastUpdateTime = getSimulation().clock();
 			double smallerTime = Double.MAX_VALUE;
-			// for each host...
-			for (int i = 0; i < list.size(); i++) {
+			// for each host that is not idle...
+			for (int i = activeHosts.nextSetBit(0); i >= 0; i = activeHosts.nextSetBit(i + 1)) {
 				Host host = list.get(i);
 				// inform VMs to update processing
-				double time = host.updateVmsProcessing(CloudSim.clock());
+				double time = host.updateVmsProcessing(getSimulation().clock());
+				hostUpdates[i] = updateCount;
+				if (host.canDeferVmsProcessing()) {
+					activeHosts.clear(i);
+				}
 				// what time do we expect that the next cloudlet will finish?
 				if (time < smallerTime) {
 					smallerTime = time;
 				}
 			}
 			// gurantees a minimal interval before scheduling the event
-			if (smallerTime < CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01) {
-				smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
+			if (smallerTime < getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01) {
+				smallerTime = getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01;
 			}
 			if (smallerTime != Double.MAX_VALUE) {
-				schedule(getId(), (smallerTime - CloudSim.clock()), CloudSimTags.VM_DATACENTER_EVENT);
+				schedule(getId(), (smallerTime - getSimulation().clock()), CloudSimTags.VM_DATACENTER_EVENT);
 			}
-			setLastProcessTime(CloudSim.clock());
+			setLastProcessTime(getSimulation().clock());
 		}
 	}
 
 	/**
 	 * Verifies if some cloudlet inside this Datacenter already finished. 
-         * If yes, send it to the User/Broker
+         * If yes, send it to the User/Broker.
+         * Only the VMs whose scheduler reported finished cloudlets to the datacenter are checked.
+         * They are checked in the order of the hosts, and of the VMs in each host, so the cloudlets
+         * are returned in the same order as when checking every VM of every host.
 	 * 
 	 * @pre $none
 	 * @post $none
+	 * @see #listenForFinishedCloudlets(Vm)
 	 */
 	protected void checkCloudletCompletion() {
+		if (!finishedCloudletTracker.hasPending()) {
+			return;
+		}
+		getActiveHosts();
+		List<Cloudlet> finished = new ArrayList<Cloudlet>();
+		finishedCloudletTracker.pollFinishedCloudlets(finished);
+
+		if (!isBatchCloudletReturns()) {
+			for (Cloudlet cl : finished) {
+				sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+			}
+			return;
+		}
+		Map<Integer, List<Cloudlet>> batches = new LinkedHashMap<Integer, List<Cloudlet>>();
+		for (Cloudlet cl : finished) {
+			List<Cloudlet> batch = batches.get(cl.getUserId());
+			if (batch == null) {
+				batch = new ArrayList<Cloudlet>();
+				batches.put(cl.getUserId(), batch);
+			}
+			batch.add(cl);
+		}
+		for (Map.Entry<Integer, List<Cloudlet>> entry : batches.entrySet()) {
+			sendNow(entry.getKey(), CloudSimTags.CLOUDLET_RETURN_BATCH, entry.getValue());
+		}
+	}
+
+	/**
+	 * Makes the scheduler of a VM report its finished cloudlets to the datacenter, when the VM is
+	 * created in the datacenter or migrated to one of its hosts. Only the VMs that reported
+	 * finished cloudlets are checked by {@link #checkCloudletCompletion()}.
+	 * 
+	 * @param vm the VM placed on a host of the datacenter
+	 */
+	protected void listenForFinishedCloudlets(Vm vm) {
+		finishedCloudletTracker.listen(vm);
+	}
+
+	/**
+	 * Stops tracking the finished cloudlets of a VM that leaves the datacenter.
+	 * 
+	 * @param vm the VM
+	 * @see #listenForFinishedCloudlets(Vm)
+	 */
+	protected void forgetFinishedCloudlets(Vm vm) {
+		finishedCloudletTracker.forget(vm);
+	}
+
+	/**
+	 * Marks a host as changed, before a cloudlet of one of its VMs is submitted, resumed, paused or
+	 * canceled. If the host is idle, it is first brought up to date with the last update of the
+	 * cloudlet processing, which skipped it. The host is then updated on each update of the
+	 * cloudlet processing, until it is found idle again.
+	 * 
+	 * @param host the host that is about to change
+	 * @see #updateCloudletProcessing()
+	 */
+	protected void markHostChanged(Host host) {
+		BitSet activeHosts = getActiveHosts();
+		Integer index = hostIndexes.get(host);
+		if (index == null || activeHosts.get(index)) {
+			return;
+		}
+		updateIdleHost(host, index);
+		activeHosts.set(index);
+	}
+
+	/**
+	 * Brings all the idle hosts up to date with the last update of the cloudlet processing, before
+	 * the allocation of the VMs to the hosts changes. This way, the VMs of the idle hosts get the
+	 * MIPS share they would have got if they had not been skipped.
+	 * 
+	 * @see #updateCloudletProcessing()
+	 */
+	protected void updateIdleHosts() {
 		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		BitSet activeHosts = getActiveHosts();
+		for (int i = activeHosts.nextClearBit(0); i < list.size(); i = activeHosts.nextClearBit(i + 1)) {
+			updateIdleHost(list.get(i), i);
+		}
+	}
+
+	/**
+	 * Updates the processing of an idle host at the time of the last update of the cloudlet
+	 * processing, if that update skipped it.
+	 * 
+	 * @param host the idle host
+	 * @param index the position of the host in the host list
+	 */
+	private void updateIdleHost(Host host, int index) {
+		if (hostUpdates[index] != updateCount) {
+			host.updateVmsProcessing(lastUpdateTime);
+			hostUpdates[index] = updateCount;
+		}
+	}
+
+	/**
+	 * Gets the positions of the hosts that are not idle, starting to track the hosts of the VM
+	 * allocation policy if needed. All the hosts are considered not idle until their first update.
+	 * The hosts are tracked again when the number of hosts of the policy changes.
+	 * 
+	 * @return the positions of the hosts that are not idle
+	 */
+	private BitSet getActiveHosts() {
+		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		if (activeHosts == null || hostUpdates.length != list.size()) {
+			trackHosts(list);
+		}
+		return activeHosts;
+	}
+
+	/**
+	 * Tracks the hosts of a host list by position. The hosts already tracked keep their state, and
+	 * the other hosts are considered not idle and up to date with the updates made so far, if any.
+	 * 
+	 * @param list the host list of the VM allocation policy
+	 */
+	private void trackHosts(List<? extends Host> list) {
+		Map<Host, Integer> indexes = new HashMap<Host, Integer>();
+		BitSet active = new BitSet(list.size());
+		int[] updates = new int[list.size()];
 		for (int i = 0; i < list.size(); i++) {
 			Host host = list.get(i);
-			for (Vm vm : host.getVmList()) {
-				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
-					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
-					if (cl != null) {
-						sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-					}
-				}
+			indexes.put(host, i);
+			Integer previous = hostIndexes == null ? null : hostIndexes.get(host);
+			if (previous == null) {
+				active.set(i);
+				updates[i] = updateCount;
+			} else {
+				active.set(i, activeHosts.get(previous));
+				updates[i] = hostUpdates[previous];
 			}
 		}
+		hostIndexes = indexes;
+		activeHosts = active;
+		hostUpdates = updates;
 	}
 
 	/**
@@ -1050,9 +1335,9 @@ public class Datacenter extends SimEntity {
 		// this resource should register to regional CIS.
 		// However, if not specified, then register to system CIS (the
 		// default CloudInformationService) entity.
-		int gisID = CloudSim.getEntityId(regionalCisName);
+		int gisID = getSimulation().getEntityId(regionalCisName);
 		if (gisID == -1) {
-			gisID = CloudSim.getCloudInfoServiceEntityId();
+			gisID = getSimulation().getCloudInfoServiceEntityId();
 		}
 
 		// send the registration to CIS
@@ -1123,6 +1408,44 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void setVmAllocationPolicy(VmAllocationPolicy vmAllocationPolicy) {
 		this.vmAllocationPolicy = vmAllocationPolicy;
+		// the hosts of the new policy are tracked from scratch
+		activeHosts = null;
+	}
+
+	/**
+	 * Checks whether the cloudlets that finish at the same time are returned to each user in a
+	 * single event.
+	 * 
+	 * @return true if the finished cloudlets are returned in {@link CloudSimTags#CLOUDLET_RETURN_BATCH}
+	 *         events, false if they are returned one by one in {@link CloudSimTags#CLOUDLET_RETURN}
+	 *         events
+	 */
+	public boolean isBatchCloudletReturns() {
+		return batchCloudletReturns;
+	}
+
+	/**
+	 * Sets whether the cloudlets that finish at the same time are returned to each user in a
+	 * single {@link CloudSimTags#CLOUDLET_RETURN_BATCH} event, whose data is the list of the
+	 * cloudlets. It is disabled by default, and the users must handle that event when enabled.
+	 * 
+	 * @param batchCloudletReturns true to return the finished cloudlets in batches
+	 */
+	public void setBatchCloudletReturns(boolean batchCloudletReturns) {
+		this.batchCloudletReturns = batchCloudletReturns;
+	}
+
+	/**
+	 * Checks whether the brokers may ask the datacenter for several VMs in a single
+	 * {@link CloudSimTags#VM_CREATE_BATCH} event. If not, they send one
+	 * {@link CloudSimTags#VM_CREATE} event per VM. A subclass that overrides
+	 * {@link #processVmCreate(SimEvent, boolean)}, which the batch does not call for each VM,
+	 * should override this method to return false.
+	 * 
+	 * @return true if the VMs can be created in batches
+	 */
+	protected boolean isVmCreateBatchSupported() {
+		return true;
 	}
 
 	/**
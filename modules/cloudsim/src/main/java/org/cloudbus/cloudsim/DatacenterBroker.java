@@ -14,11 +14,11 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.lists.CloudletList;
+import org.cloudbus.cloudsim.lists.IdIndex;
 import org.cloudbus.cloudsim.lists.VmList;
 
 /**
@@ -75,6 +75,15 @@ public class DatacenterBroker extends SimEntity {
          * is a datacenter id and each value is its characteristics.. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** The index of {@link #getVmList()} by VM id. */
+	private final IdIndex<Vm> vmListIndex = VmList.createIdIndex();
+
+	/** The index of {@link #getVmsCreatedList()} by VM id. */
+	private final IdIndex<Vm> vmsCreatedListIndex = VmList.createIdIndex();
+
+	/** The index of {@link #getCloudletList()} by cloudlet id. */
+	private final IdIndex<Cloudlet> cloudletListIndex = CloudletList.createIdIndex();
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -143,7 +152,7 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public void bindCloudletToVm(int cloudletId, int vmId) {
-		CloudletList.getById(getCloudletList(), cloudletId).setVmId(vmId);
+		cloudletListIndex.get(getCloudletList(), cloudletId).setVmId(vmId);
 	}
 
 	@Override
@@ -165,6 +174,10 @@ public class DatacenterBroker extends SimEntity {
 			case CloudSimTags.CLOUDLET_RETURN:
 				processCloudletReturn(ev);
 				break;
+			// Several finished cloudlets returned at once
+			case CloudSimTags.CLOUDLET_RETURN_BATCH:
+				processCloudletReturnBatch(ev);
+				break;
 			// if the simulation finishes
 			case CloudSimTags.END_OF_SIMULATION:
 				shutdownEntity();
@@ -201,10 +214,10 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
-		setDatacenterIdsList(CloudSim.getCloudResourceList());
+		setDatacenterIdsList(getSimulation().getCloudResourceList());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
 
-		Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Cloud Resource List received with ",
+		Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Cloud Resource List received with ",
 				getDatacenterIdsList().size(), " resource(s)");
 
 		for (Integer datacenterId : getDatacenterIdsList()) {
@@ -227,12 +240,12 @@ public class DatacenterBroker extends SimEntity {
 
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
-			Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": VM #", vmId,
+			getVmsCreatedList().add(vmListIndex.get(getVmList(), vmId));
+			Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": VM #", vmId,
 					" has been created in Datacenter #", datacenterId, ", Host #",
-					VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+					vmsCreatedListIndex.get(getVmsCreatedList(), vmId).getHost().getId());
 		} else {
-			Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Creation of VM #", vmId,
+			Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Creation of VM #", vmId,
 					" failed in Datacenter #", datacenterId);
 		}
 
@@ -256,7 +269,7 @@ public class DatacenterBroker extends SimEntity {
 				if (getVmsCreatedList().size() > 0) { // if some vm were created
 					submitCloudlets();
 				} else { // no vms created. abort
-					Log.printLine(CloudSim.clock() + ": " + getName()
+					Log.printLine(getSimulation().clock() + ": " + getName()
 							+ ": none of the required VMs could be created. Aborting");
 					finishExecution();
 				}
@@ -272,13 +285,41 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletReturn(SimEvent ev) {
-		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		processReturnedCloudlet((Cloudlet) ev.getData());
+	}
+
+	/**
+	 * Process a cloudlet batch return event, whose data is the list of the returned cloudlets.
+	 * The cloudlets are processed one by one, in the order of the list, as if each one was
+	 * returned in its own event.
+	 * 
+	 * @param ev a SimEvent object
+	 * @pre ev != $null
+	 * @post $none
+	 * @see Datacenter#setBatchCloudletReturns(boolean)
+	 */
+	protected void processCloudletReturnBatch(SimEvent ev) {
+		@SuppressWarnings("unchecked")
+		List<Cloudlet> cloudlets = (List<Cloudlet>) ev.getData();
+		for (Cloudlet cloudlet : cloudlets) {
+			processReturnedCloudlet(cloudlet);
+		}
+	}
+
+	/**
+	 * Process a finished cloudlet returned by a datacenter.
+	 * 
+	 * @param cloudlet the returned cloudlet
+	 * @pre cloudlet != $null
+	 * @post $none
+	 */
+	protected void processReturnedCloudlet(Cloudlet cloudlet) {
 		getCloudletReceivedList().add(cloudlet);
-		Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Cloudlet ", cloudlet.getCloudletId(),
+		Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Cloudlet ", cloudlet.getCloudletId(),
 				" received");
 		cloudletsSubmitted--;
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
-			Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
+			Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
 		} else { // some cloudlets haven't finished yet
@@ -324,15 +365,27 @@ public class DatacenterBroker extends SimEntity {
 	protected void createVmsInDatacenter(int datacenterId) {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
-		String datacenterName = CloudSim.getEntityName(datacenterId);
+		String datacenterName = getSimulation().getEntityName(datacenterId);
+		List<Vm> vms = new ArrayList<Vm>();
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
+				Log.printLine(getSimulation().clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
 						+ " in " + datacenterName);
-				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+				vms.add(vm);
 				requestedVms++;
 			}
 		}
+		// the datacenter acknowledges each vm in the order of the list
+		SimEntity datacenter = getSimulation().getEntity(datacenterId);
+		if (datacenter instanceof Datacenter && ((Datacenter) datacenter).isVmCreateBatchSupported()) {
+			if (!vms.isEmpty()) {
+				sendNow(datacenterId, CloudSimTags.VM_CREATE_BATCH_ACK, vms);
+			}
+		} else {
+			for (Vm vm : vms) {
+				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
+			}
+		}
 
 		getDatacenterRequestedIdsList().add(datacenterId);
 
@@ -358,10 +411,10 @@ public class DatacenterBroker extends SimEntity {
 			if (cloudlet.getVmId() == -1) {
 				vm = getVmsCreatedList().get(vmIndex);
 			} else { // submit to the specific vm
-				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+				vm = vmsCreatedListIndex.get(getVmsCreatedList(), cloudlet.getVmId());
 				if (vm == null) { // vm was not created
 					if(!Log.isDisabled()) {				    
-					    Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+					    Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 							cloudlet.getCloudletId(), ": bound VM not available");
 					}
 					continue;
@@ -369,7 +422,7 @@ public class DatacenterBroker extends SimEntity {
 			}
 
 			if (!Log.isDisabled()) {
-			    Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Sending cloudlet ",
+			    Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Sending cloudlet ",
 					cloudlet.getCloudletId(), " to VM #", vm.getId());
 			}
 			
@@ -393,7 +446,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void clearDatacenters() {
 		for (Vm vm : getVmsCreatedList()) {
-			Log.printConcatLine(CloudSim.clock(), ": " + getName(), ": Destroying VM #", vm.getId());
+			Log.printConcatLine(getSimulation().clock(), ": " + getName(), ": Destroying VM #", vm.getId());
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.VM_DESTROY, vm);
 		}
 
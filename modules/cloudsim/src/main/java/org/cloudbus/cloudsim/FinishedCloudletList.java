@@ -0,0 +1,73 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * FinishedCloudletList is the view of the finished list of a cloudlet scheduler that the
+ * scheduler gives out. It reads and writes the list the scheduler currently holds, and notifies
+ * the {@link CloudletFinishListener} of the scheduler of each cloudlet added to it. This way, a
+ * datacenter learns about the cloudlets that a scheduler adds straight to its finished list as
+ * well.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public abstract class FinishedCloudletList extends AbstractList<ResCloudlet> {
+
+	@Override
+	public ResCloudlet get(int index) {
+		return getCloudlets().get(index);
+	}
+
+	@Override
+	public int size() {
+		return getCloudlets().size();
+	}
+
+	@Override
+	public ResCloudlet set(int index, ResCloudlet rcl) {
+		return getCloudlets().set(index, rcl);
+	}
+
+	@Override
+	public void add(int index, ResCloudlet rcl) {
+		getCloudlets().add(index, rcl);
+		CloudletFinishListener listener = getCloudletFinishListener();
+		if (listener != null) {
+			listener.cloudletFinished(rcl);
+		}
+	}
+
+	@Override
+	public ResCloudlet remove(int index) {
+		return getCloudlets().remove(index);
+	}
+
+	@Override
+	public void clear() {
+		getCloudlets().clear();
+	}
+
+	/**
+	 * Gets the finished list the scheduler currently holds.
+	 *
+	 * @return the finished list
+	 */
+	protected abstract List<ResCloudlet> getCloudlets();
+
+	/**
+	 * Gets the finish listener of the scheduler.
+	 *
+	 * @return the listener, or $null if there is none
+	 */
+	protected abstract CloudletFinishListener getCloudletFinishListener();
+
+}
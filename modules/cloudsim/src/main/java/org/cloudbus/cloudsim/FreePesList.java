@@ -0,0 +1,251 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * FreePesList is the list of the number of free PEs of each host, used by
+ * {@link VmAllocationPolicySimple}, that also keeps track of the host with the most free PEs.
+ * <p/>
+ * The numbers are kept in a tournament tree of primitive ints, where each node holds the position
+ * of the host with the most free PEs below it, the first one in case of a tie. Changing the number
+ * of free PEs of a host and finding the host with the most free PEs take O(log n) time, where n is
+ * the number of hosts, instead of going through the whole list.
+ * <p/>
+ * Hosts can be excluded from the search for the host with the most free PEs, for instance because
+ * a VM failed to be created in them, until {@link #includeAll()} is called.
+ * <p/>
+ * The list can only grow by adding elements at its end.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class FreePesList extends AbstractList<Integer> implements RandomAccess {
+
+	/** The number of free PEs of each host. */
+	private int[] values;
+
+	/**
+	 * The tournament tree. The leaves, from position {@link #capacity}, hold the position of each
+	 * host, or -1 if the host is excluded or does not exist. Each other node holds the winner
+	 * of its two children.
+	 */
+	private int[] tree;
+
+	/** The number of leaves of the tree, a power of two. */
+	private int capacity;
+
+	/** The number of hosts. */
+	private int size;
+
+	/** Whether each host is excluded from the search. */
+	private boolean[] excluded;
+
+	/** The positions of the excluded hosts. */
+	private int[] excludedIndexes;
+
+	/** The number of excluded hosts. */
+	private int excludedCount;
+
+	/**
+	 * Creates an empty list.
+	 */
+	public FreePesList() {
+		this(16);
+	}
+
+	/**
+	 * Creates a list with the same elements as a given list.
+	 *
+	 * @param freePes the number of free PEs of each host
+	 */
+	public FreePesList(List<Integer> freePes) {
+		this(freePes.size());
+		for (Integer value : freePes) {
+			add(value);
+		}
+	}
+
+	/**
+	 * Creates an empty list that can hold a given number of hosts without growing.
+	 *
+	 * @param initialCapacity the initial capacity
+	 */
+	private FreePesList(int initialCapacity) {
+		capacity = 1;
+		while (capacity < initialCapacity) {
+			capacity <<= 1;
+		}
+		values = new int[capacity];
+		tree = new int[2 * capacity];
+		Arrays.fill(tree, -1);
+		excluded = new boolean[capacity];
+		excludedIndexes = new int[16];
+	}
+
+	@Override
+	public Integer get(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * Gets the number of free PEs of a host, without boxing it.
+	 *
+	 * @param index the position of the host
+	 * @return the number of free PEs of the host
+	 */
+	public int getInt(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	@Override
+	public Integer set(int index, Integer element) {
+		checkIndex(index);
+		int previous = values[index];
+		values[index] = element;
+		if (!excluded[index]) {
+			update(index);
+		}
+		return previous;
+	}
+
+	@Override
+	public void add(int index, Integer element) {
+		if (index != size) {
+			throw new UnsupportedOperationException("Elements can only be added at the end of the list");
+		}
+		if (size == capacity) {
+			grow();
+		}
+		values[size] = element;
+		tree[capacity + size] = size;
+		size++;
+		modCount++;
+		update(size - 1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the position of the host with the most free PEs, that is not excluded. If several hosts
+	 * have the most free PEs, the first one is returned.
+	 *
+	 * @return the position of the host, or -1 if every host is excluded
+	 */
+	public int getMostFreeIndex() {
+		return tree[1];
+	}
+
+	/**
+	 * Excludes a host from the search for the host with the most free PEs. The number of free PEs
+	 * of the host can still be changed while it is excluded.
+	 *
+	 * @param index the position of the host
+	 */
+	public void exclude(int index) {
+		checkIndex(index);
+		if (excluded[index]) {
+			return;
+		}
+		excluded[index] = true;
+		if (excludedCount == excludedIndexes.length) {
+			excludedIndexes = Arrays.copyOf(excludedIndexes, 2 * excludedCount);
+		}
+		excludedIndexes[excludedCount++] = index;
+		tree[capacity + index] = -1;
+		propagate(index);
+	}
+
+	/**
+	 * Includes again all the excluded hosts in the search for the host with the most free PEs.
+	 */
+	public void includeAll() {
+		for (int i = 0; i < excludedCount; i++) {
+			int index = excludedIndexes[i];
+			excluded[index] = false;
+			update(index);
+		}
+		excludedCount = 0;
+	}
+
+	/**
+	 * Updates the tree after the number of free PEs of a host that is not excluded changed.
+	 *
+	 * @param index the position of the host
+	 */
+	private void update(int index) {
+		tree[capacity + index] = index;
+		propagate(index);
+	}
+
+	/**
+	 * Updates the winners from the leaf of a host up to the root of the tree.
+	 *
+	 * @param index the position of the host
+	 */
+	private void propagate(int index) {
+		for (int node = (capacity + index) >> 1; node > 0; node >>= 1) {
+			tree[node] = winner(tree[2 * node], tree[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Gets the host with the most free PEs among two hosts.
+	 *
+	 * @param left the position of the first host, or -1
+	 * @param right the position of the second host, after the first one, or -1
+	 * @return the position of the host with the most free PEs, the first one in case of a tie
+	 */
+	private int winner(int left, int right) {
+		if (left < 0) {
+			return right;
+		}
+		if (right < 0) {
+			return left;
+		}
+		return values[left] >= values[right] ? left : right;
+	}
+
+	/**
+	 * Doubles the capacity of the list, building the tree again.
+	 */
+	private void grow() {
+		capacity <<= 1;
+		values = Arrays.copyOf(values, capacity);
+		excluded = Arrays.copyOf(excluded, capacity);
+		tree = new int[2 * capacity];
+		Arrays.fill(tree, -1);
+		for (int i = 0; i < size; i++) {
+			tree[capacity + i] = excluded[i] ? -1 : i;
+		}
+		for (int node = capacity - 1; node > 0; node--) {
+			tree[node] = winner(tree[2 * node], tree[2 * node + 1]);
+		}
+	}
+
+	/**
+	 * Checks that a position is in the list.
+	 *
+	 * @param index the position
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+}
@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.IdIndex;
+import org.cloudbus.cloudsim.lists.ModCountList;
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -43,7 +46,10 @@ public class Host {
 	private VmScheduler vmScheduler;
 
 	/** The list of VMs assigned to the host. */
-	private final List<? extends Vm> vmList = new ArrayList<Vm>();
+	private final List<? extends Vm> vmList = new ModCountList<Vm>();
+
+	/** The index of {@link #vmList} by VM id and user id. */
+	private final IdIndex<Vm> vmIndex = VmList.createIdAndUserIdIndex();
 
 	/** The Processing Elements (PEs) of the host, that
          * represent the CPU cores of it, and thus, its processing capacity. */
@@ -114,6 +120,24 @@ public class Host {
 		return smallerTime;
 	}
 
+	/**
+	 * Checks whether updating the processing of the VMs of the host can be deferred, because none
+	 * of them has a cloudlet running or waiting to run. Such an update only brings the clock and the
+	 * MIPS share of their cloudlet schedulers up to date, thus a {@link Datacenter} can skip the host
+	 * while it stays idle and bring it up to date when it changes.
+	 * 
+	 * @return true if no VM of the host has a cloudlet to process
+	 */
+	public boolean canDeferVmsProcessing() {
+		for (Vm vm : getVmList()) {
+			CloudletScheduler scheduler = vm.getCloudletScheduler();
+			if (!scheduler.getCloudletExecList().isEmpty() || !scheduler.getCloudletWaitingList().isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Adds a VM migrating into the current host.
 	 * 
@@ -141,7 +165,7 @@ public class Host {
 				System.exit(0);
 			}
 
-			getVmScheduler().getVmsMigratingIn().add(vm.getUid());
+			getVmScheduler().getVmsMigratingInTable().add(vm);
 			if (!getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips())) {
 				Log.printLine("[VmScheduler.addMigratingInVm] Allocation of VM #" + vm.getId() + " to Host #"
 						+ getId() + " failed by MIPS");
@@ -166,7 +190,7 @@ public class Host {
 		vmDeallocate(vm);
 		getVmsMigratingIn().remove(vm);
 		getVmList().remove(vm);
-		getVmScheduler().getVmsMigratingIn().remove(vm.getUid());
+		getVmScheduler().getVmsMigratingInTable().remove(vm);
 		vm.setInMigration(false);
 	}
 
@@ -179,8 +203,8 @@ public class Host {
 			if (!getVmList().contains(vm)) {
 				getVmList().add(vm);
 			}
-			if (!getVmScheduler().getVmsMigratingIn().contains(vm.getUid())) {
-				getVmScheduler().getVmsMigratingIn().add(vm.getUid());
+			if (!getVmScheduler().getVmsMigratingInTable().contains(vm)) {
+				getVmScheduler().getVmsMigratingInTable().add(vm);
 			}
 			getRamProvisioner().allocateRamForVm(vm, vm.getCurrentRequestedRam());
 			getBwProvisioner().allocateBwForVm(vm, vm.getCurrentRequestedBw());
@@ -306,12 +330,7 @@ public class Host {
 	 * @post $none
 	 */
 	public Vm getVm(int vmId, int userId) {
-		for (Vm vm : getVmList()) {
-			if (vm.getId() == vmId && vm.getUserId() == userId) {
-				return vm;
-			}
-		}
-		return null;
+		return vmIndex.get(getVmList(), IdIndex.getKey(userId, vmId));
 	}
 
 	/**
@@ -56,6 +56,18 @@ public class HostDynamicWorkload extends Host {
 		setPreviousUtilizationMips(0);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The processing of the VMs is never deferred, because each update records the utilization of
+	 * the host, idle or not, and the VM allocation policies read that history. The
+	 * {@link org.cloudbus.cloudsim.power.PowerDatacenter} thus updates all its hosts each time.
+	 */
+	@Override
+	public boolean canDeferVmsProcessing() {
+		return false;
+	}
+
 	@Override
 	public double updateVmsProcessing(double currentTime) {
 		double smallerTime = super.updateVmsProcessing(currentTime);
@@ -75,12 +87,15 @@ public class HostDynamicWorkload extends Host {
 			double totalRequestedMips = vm.getCurrentRequestedTotalMips();
 			double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);
 
-			if (!Log.isDisabled()) {
+			if (Log.isLoggable(Log.Level.DEBUG)) {
 				Log.formatLine(
-						"%.2f: [Host #" + getId() + "] Total allocated MIPS for VM #" + vm.getId()
-								+ " (Host #" + vm.getHost().getId()
-								+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)",
+						Log.Level.DEBUG,
+						"%.2f: [Host #%d] Total allocated MIPS for VM #%d (Host #%d) is %.2f, "
+								+ "was requested %.2f out of total %.2f (%.2f%%)",
 						CloudSim.clock(),
+						getId(),
+						vm.getId(),
+						vm.getHost().getId(),
 						totalAllocatedMips,
 						totalRequestedMips,
 						vm.getMips(),
@@ -89,23 +104,31 @@ public class HostDynamicWorkload extends Host {
 				List<Pe> pes = getVmScheduler().getPesAllocatedForVM(vm);
 				StringBuilder pesString = new StringBuilder();
 				for (Pe pe : pes) {
-					pesString.append(String.format(" PE #" + pe.getId() + ": %.2f.", pe.getPeProvisioner()
+					pesString.append(String.format(" PE #%d: %.2f.", pe.getId(), pe.getPeProvisioner()
 							.getTotalAllocatedMipsForVm(vm)));
 				}
 				Log.formatLine(
-						"%.2f: [Host #" + getId() + "] MIPS for VM #" + vm.getId() + " by PEs ("
-								+ getNumberOfPes() + " * " + getVmScheduler().getPeCapacity() + ")."
-								+ pesString,
-						CloudSim.clock());
+						Log.Level.DEBUG,
+						"%.2f: [Host #%d] MIPS for VM #%d by PEs (%d * %s).%s",
+						CloudSim.clock(),
+						getId(),
+						vm.getId(),
+						getNumberOfPes(),
+						getVmScheduler().getPeCapacity(),
+						pesString);
 			}
 
 			if (getVmsMigratingIn().contains(vm)) {
-				Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
-						+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				if (Log.isLoggable(Log.Level.DEBUG)) {
+					Log.formatLine(Log.Level.DEBUG,
+							"%.2f: [Host #%d] VM #%d is being migrated to Host #%d",
+							CloudSim.clock(), getId(), vm.getId(), getId());
+				}
 			} else {
-				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-					Log.formatLine("%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #" + vm.getId()
-							+ ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
+				if (totalAllocatedMips + 0.1 < totalRequestedMips && Log.isLoggable(Log.Level.DEBUG)) {
+					Log.formatLine(Log.Level.DEBUG,
+							"%.2f: [Host #%d] Under allocated MIPS for VM #%d: %.2f",
+							CloudSim.clock(), getId(), vm.getId(), totalRequestedMips - totalAllocatedMips);
 				}
 
 				vm.addStateHistoryEntry(
@@ -115,9 +138,10 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getVmsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {
-					Log.formatLine(
-							"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
-							CloudSim.clock());
+					if (Log.isLoggable(Log.Level.DEBUG)) {
+						Log.formatLine(Log.Level.DEBUG, "%.2f: [Host #%d] VM #%d is in migration",
+								CloudSim.clock(), getId(), vm.getId());
+					}
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10%
 				}
 			}
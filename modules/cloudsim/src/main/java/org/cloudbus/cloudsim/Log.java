@@ -10,65 +10,125 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.Locale;
+import java.util.function.Supplier;
 
 /**
  * Logger used for performing logging of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
- * 
+ * <p/>
+ * Each message has a {@link Level}: the methods without a level print at {@link Level#INFO}, and
+ * the detailed messages of each simulation step print at {@link Level#DEBUG}. A message is only
+ * printed if the logger is enabled and its level is at most the {@link #getLevel() level of the
+ * logger}, which can be checked with {@link #isLoggable(Level)} before building a costly message.
+ * The methods taking a format and its arguments, or a {@link Supplier} of the message, only build
+ * the message when it is printed.
+ * <p/>
+ * Each thread builds and encodes its messages in its own buffer, so threads never wait for each
+ * other to log. The buffer is written to the output stream with a single call when a new line is
+ * printed, or when {@link #flush()} is called: a message printed without a new line is kept until
+ * then. The logger can be used from several threads, and their lines share the same output
+ * stream, unless a thread sets its own output stream or disabled flag with
+ * {@link #setThreadOutput(OutputStream)} and {@link #setThreadDisabled(Boolean)}. This allows each
+ * simulation running in its own thread to be logged apart from the others.
+ *
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
- * @todo To add a method to print formatted text, such as the 
- * {@link String#format(java.lang.String, java.lang.Object...)} method.
  */
 public class Log {
 
+	/**
+	 * The level of a message, from the most to the least important.
+	 *
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public enum Level {
+		/** Errors of the simulation. */
+		ERROR,
+		/** Unexpected situations the simulation recovers from. */
+		WARNING,
+		/** The progress and results of the simulation. */
+		INFO,
+		/** The details of each simulation step, such as the state of each host and VM. */
+		DEBUG
+	}
+
 	/** The Constant LINE_SEPARATOR. */
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
+	/**
+	 * Whether the default charset encodes the ASCII characters as single bytes of the same value,
+	 * so they can be copied to the byte buffer as they are.
+	 */
+	private static final boolean ASCII_COMPATIBLE = isAsciiCompatible();
+
 	/** The stream where the log will the outputted. */
 	private static OutputStream output;
 
 	/** Indicates if the logger is disabled or not. If set to true,
          the call for any print method has no effect. */
 	private static boolean disabled;
-	
-	/** Buffer to avoid creating new string builder upon every print. */
-	private static StringBuilder buffer = new StringBuilder();		    
+
+	/** The level of the least important messages printed. */
+	private static Level level = Level.DEBUG;
+
+	/** The output stream and disabled flag set for each thread, overriding the global ones. */
+	private static final ThreadLocal<ThreadSettings> threadSettings = new ThreadLocal<ThreadSettings>();
+
+	/**
+	 * Indicates if a thread has ever set its own settings. Until then, the {@link #threadSettings}
+	 * lookup is skipped.
+	 */
+	private static volatile boolean threadSettingsUsed = false;
+
+	/** The buffer of the line being printed by each thread. */
+	private static final ThreadLocal<LineBuffer> lineBuffer = new ThreadLocal<LineBuffer>() {
+
+		@Override
+		protected LineBuffer initialValue() {
+			return new LineBuffer();
+		}
+
+	};
 
 	/**
 	 * Prints a message.
-	 * 
+	 *
 	 * @param message the message
 	 */
 	public static void print(String message) {
-		if (!isDisabled()) {
-			try {
-				getOutput().write(message.getBytes());
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+		if (isLoggable(Level.INFO)) {
+			write(message, false);
 		}
 	}
 
 	/**
 	 * Prints the message passed as a non-String object.
-	 * 
+	 *
 	 * @param message the message
 	 */
 	public static void print(Object message) {
-		if (!isDisabled()) {
+		if (isLoggable(Level.INFO)) {
 			print(String.valueOf(message));
 		}
 	}
 
 	/**
 	 * Prints a message and a new line.
-	 * 
+	 *
 	 * @param message the message
 	 */
 	public static void printLine(String message) {
-		if (!isDisabled()) {
-			print(message + LINE_SEPARATOR);
+		if (isLoggable(Level.INFO)) {
+			write(message, true);
 		}
 	}
 
@@ -76,105 +136,220 @@ public class Log {
 	 * Prints an empty line.
 	 */
 	public static void printLine() {
-		if (!isDisabled()) {
-			print(LINE_SEPARATOR);
+		if (isLoggable(Level.INFO)) {
+			write("", true);
 		}
 	}
 
 
 	/**
 	 * Prints the concatenated text representation of the arguments.
-	 * 
+	 *
 	 * @param messages the messages to print
 	 */
 	public static void printConcat(Object... messages) {
-		if (!isDisabled()) {
-			buffer.setLength(0); // Clear the buffer		    
-			for(int i = 0 ; i < messages.length ; i ++) {
-				buffer.append(String.valueOf(messages[i]));
-			}
-			print(buffer);
+		if (isLoggable(Level.INFO)) {
+			concat(messages, false);
 		}
 	}
-	
+
 	/**
 	 * Prints the concatenated text representation of the arguments and a new line.
-	 * 
+	 *
 	 * @param messages the messages to print
 	 */
 	public static void printConcatLine(Object... messages) {
-		if (!isDisabled()) {
-			buffer.setLength(0); // Clear the buffer		    
-			for(int i = 0 ; i < messages.length ; i ++) {
-				buffer.append(String.valueOf(messages[i]));
-			}
-			printLine(buffer);
+		if (isLoggable(Level.INFO)) {
+			concat(messages, true);
 		}
 	}
 
-	
-	
+
+
 	/**
 	 * Prints the message passed as a non-String object and a new line.
-	 * 
+	 *
 	 * @param message the message
 	 */
 	public static void printLine(Object message) {
-	    if (!isDisabled()) {
+	    if (isLoggable(Level.INFO)) {
 		printLine(String.valueOf(message));
 	    }
 	}
 
-	
-	
+
+
 	/**
 	 * Prints a string formated as in String.format().
-	 * 
+	 *
 	 * @param format the format
 	 * @param args the args
 	 */
 	public static void format(String format, Object... args) {
-		if (!isDisabled()) {
-			print(String.format(format, args));
+		if (isLoggable(Level.INFO)) {
+			formatMessage(format, args, false);
 		}
 	}
 
 	/**
 	 * Prints a string formated as in String.format(), followed by a new line.
-	 * 
+	 *
 	 * @param format the format
 	 * @param args the args
 	 */
 	public static void formatLine(String format, Object... args) {
-		if (!isDisabled()) {
-			printLine(String.format(format, args));
+		if (isLoggable(Level.INFO)) {
+			formatMessage(format, args, true);
+		}
+	}
+
+	/**
+	 * Prints a message at a given level.
+	 *
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void print(Level level, String message) {
+		if (isLoggable(level)) {
+			write(message, false);
+		}
+	}
+
+	/**
+	 * Prints a message and a new line at a given level.
+	 *
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void printLine(Level level, String message) {
+		if (isLoggable(level)) {
+			write(message, true);
+		}
+	}
+
+	/**
+	 * Prints a message and a new line at a given level, getting the message only if it is printed.
+	 *
+	 * @param level the level of the message
+	 * @param message the supplier of the message
+	 */
+	public static void printLine(Level level, Supplier<String> message) {
+		if (isLoggable(level)) {
+			write(String.valueOf(message.get()), true);
+		}
+	}
+
+	/**
+	 * Prints an empty line at a given level.
+	 *
+	 * @param level the level of the line
+	 */
+	public static void printLine(Level level) {
+		if (isLoggable(level)) {
+			write("", true);
+		}
+	}
+
+	/**
+	 * Prints the concatenated text representation of the arguments at a given level.
+	 *
+	 * @param level the level of the message
+	 * @param messages the messages to print
+	 */
+	public static void printConcat(Level level, Object... messages) {
+		if (isLoggable(level)) {
+			concat(messages, false);
+		}
+	}
+
+	/**
+	 * Prints the concatenated text representation of the arguments and a new line at a given
+	 * level.
+	 *
+	 * @param level the level of the message
+	 * @param messages the messages to print
+	 */
+	public static void printConcatLine(Level level, Object... messages) {
+		if (isLoggable(level)) {
+			concat(messages, true);
+		}
+	}
+
+	/**
+	 * Prints a string formated as in String.format(), followed by a new line, at a given level.
+	 * The string is only formatted if it is printed.
+	 *
+	 * @param level the level of the message
+	 * @param format the format
+	 * @param args the args
+	 */
+	public static void formatLine(Level level, String format, Object... args) {
+		if (isLoggable(level)) {
+			formatMessage(format, args, true);
 		}
 	}
 
 	/**
 	 * Sets the output stream.
-	 * 
+	 *
 	 * @param _output the new output
 	 */
 	public static void setOutput(OutputStream _output) {
+		flushLine();
 		output = _output;
 	}
 
 	/**
-	 * Gets the output stream.
-	 * 
+	 * Gets the output stream, which is the output stream of the current thread if it has one.
+	 *
 	 * @return the output
 	 */
 	public static OutputStream getOutput() {
+		if (threadSettingsUsed) {
+			ThreadSettings settings = threadSettings.get();
+			if (settings != null && settings.output != null) {
+				return settings.output;
+			}
+		}
 		if (output == null) {
 			setOutput(System.out);
 		}
 		return output;
 	}
 
+	/**
+	 * Sets the output stream of the messages printed by the current thread, overriding the output
+	 * stream set with {@link #setOutput(OutputStream)}.
+	 *
+	 * @param _output the new output of the current thread, or null to use the global output again
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void setThreadOutput(OutputStream _output) {
+		flushLine();
+		getThreadSettings(_output != null).output = _output;
+		removeEmptyThreadSettings();
+	}
+
+	/**
+	 * Writes the message printed by the current thread since its last new line, if any, and
+	 * flushes the output stream.
+	 *
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void flush() {
+		LineBuffer buffer = lineBuffer.get();
+		OutputStream stream = buffer.output != null ? buffer.output : getOutput();
+		flushLine();
+		try {
+			stream.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Sets the disable output flag.
-	 * 
+	 *
 	 * @param _disabled the new disabled
 	 */
 	public static void setDisabled(boolean _disabled) {
@@ -182,14 +357,65 @@ public class Log {
 	}
 
 	/**
-	 * Checks if the output is disabled.
-	 * 
+	 * Sets the disable output flag of the messages printed by the current thread, overriding the
+	 * flag set with {@link #setDisabled(boolean)}.
+	 *
+	 * @param _disabled the new disabled flag of the current thread, or null to use the global flag
+	 *            again
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void setThreadDisabled(Boolean _disabled) {
+		getThreadSettings(_disabled != null).disabled = _disabled;
+		removeEmptyThreadSettings();
+	}
+
+	/**
+	 * Checks if the output is disabled for the current thread.
+	 *
 	 * @return true, if is disable
 	 */
 	public static boolean isDisabled() {
+		if (threadSettingsUsed) {
+			ThreadSettings settings = threadSettings.get();
+			if (settings != null && settings.disabled != null) {
+				return settings.disabled;
+			}
+		}
 		return disabled;
 	}
 
+	/**
+	 * Sets the level of the least important messages printed.
+	 *
+	 * @param _level the new level
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void setLevel(Level _level) {
+		level = _level;
+	}
+
+	/**
+	 * Gets the level of the least important messages printed, {@link Level#DEBUG} by default.
+	 *
+	 * @return the level
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Checks if the messages of a given level are printed, that is, if the output is enabled and
+	 * the level is at most the level of the logger.
+	 *
+	 * @param _level the level of the messages
+	 * @return true, if the messages are printed
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static boolean isLoggable(Level _level) {
+		return !isDisabled() && _level.compareTo(level) <= 0;
+	}
+
 	/**
 	 * Disables the output.
 	 */
@@ -204,4 +430,214 @@ public class Log {
 		setDisabled(false);
 	}
 
+	/**
+	 * Prints the concatenated text representation of messages.
+	 *
+	 * @param messages the messages
+	 * @param newLine whether a new line is printed after them
+	 */
+	private static void concat(Object[] messages, boolean newLine) {
+		StringBuilder chars = lineBuffer.get().chars;
+		chars.setLength(0); // Clear the buffer
+		for (int i = 0; i < messages.length; i++) {
+			chars.append(String.valueOf(messages[i]));
+		}
+		write(chars, newLine);
+	}
+
+	/**
+	 * Prints a string formated as in String.format(), reusing the formatter of the current thread.
+	 *
+	 * @param format the format
+	 * @param args the args
+	 * @param newLine whether a new line is printed after the string
+	 */
+	private static void formatMessage(String format, Object[] args, boolean newLine) {
+		LineBuffer buffer = lineBuffer.get();
+		buffer.chars.setLength(0); // Clear the buffer
+		buffer.formatter.format(Locale.getDefault(Locale.Category.FORMAT), format, args);
+		write(buffer.chars, newLine);
+	}
+
+	/**
+	 * Encodes a message into the line buffer of the current thread, and writes the line to the
+	 * output stream if a new line follows the message.
+	 *
+	 * @param message the message
+	 * @param newLine whether a new line is written after the message
+	 */
+	private static void write(CharSequence message, boolean newLine) {
+		LineBuffer buffer = lineBuffer.get();
+		OutputStream stream = getOutput();
+		if (buffer.output != stream) {
+			// the line started before the output changed goes where it was meant to
+			flushLine();
+			buffer.output = stream;
+		}
+		buffer.append(message == null ? "null" : message);
+		if (newLine) {
+			buffer.append(LINE_SEPARATOR);
+			flushLine();
+		}
+	}
+
+	/**
+	 * Writes the line buffer of the current thread to its output stream and clears it.
+	 */
+	private static void flushLine() {
+		LineBuffer buffer = lineBuffer.get();
+		if (buffer.count > 0) {
+			try {
+				buffer.output.write(buffer.bytes, 0, buffer.count);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			buffer.count = 0;
+		}
+		buffer.output = null;
+	}
+
+	/**
+	 * Gets the settings of the current thread.
+	 *
+	 * @param create whether to create the settings if the thread has none
+	 * @return the settings, or empty settings not bound to the thread if it has none and they are
+	 *         not created
+	 */
+	private static ThreadSettings getThreadSettings(boolean create) {
+		ThreadSettings settings = threadSettings.get();
+		if (settings == null) {
+			settings = new ThreadSettings();
+			if (create) {
+				threadSettingsUsed = true;
+				threadSettings.set(settings);
+			}
+		}
+		return settings;
+	}
+
+	/**
+	 * Removes the settings of the current thread if they no longer override anything.
+	 */
+	private static void removeEmptyThreadSettings() {
+		ThreadSettings settings = threadSettings.get();
+		if (settings != null && settings.output == null && settings.disabled == null) {
+			threadSettings.remove();
+		}
+	}
+
+	/**
+	 * Checks whether the default charset encodes the ASCII characters as single bytes of the same
+	 * value.
+	 *
+	 * @return true, if the ASCII characters are encoded as they are
+	 */
+	private static boolean isAsciiCompatible() {
+		char[] ascii = new char[0x80];
+		for (int i = 0; i < ascii.length; i++) {
+			ascii[i] = (char) i;
+		}
+		byte[] encoded = new String(ascii).getBytes();
+		if (encoded.length != ascii.length) {
+			return false;
+		}
+		for (int i = 0; i < ascii.length; i++) {
+			if (encoded[i] != i) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The line a thread is printing, with the buffer and formatter building its messages, and the
+	 * encoder of its bytes.
+	 */
+	private static class LineBuffer {
+
+		/** Buffer to avoid creating new string builder upon every print. */
+		private final StringBuilder chars = new StringBuilder();
+
+		/** The formatter appending to {@link #chars}. */
+		private final Formatter formatter = new Formatter(chars);
+
+		/** The encoder of the characters the default charset does not copy as they are. */
+		private final CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		/** The encoded bytes of the line. */
+		private byte[] bytes = new byte[1024];
+
+		/** The number of bytes of the line. */
+		private int count;
+
+		/** The output stream of the line, or null if the line is empty. */
+		private OutputStream output;
+
+		/**
+		 * Encodes characters at the end of the line.
+		 *
+		 * @param message the characters
+		 */
+		private void append(CharSequence message) {
+			int length = message.length();
+			int i = 0;
+			if (ASCII_COMPATIBLE) {
+				ensureCapacity(count + length);
+				for (; i < length; i++) {
+					char c = message.charAt(i);
+					if (c >= 0x80) {
+						break;
+					}
+					bytes[count++] = (byte) c;
+				}
+				if (i == length) {
+					return;
+				}
+			}
+			// the default charset decides how other characters are encoded
+			CharBuffer in = CharBuffer.wrap(message, i, length);
+			encoder.reset();
+			boolean flushing = false;
+			while (true) {
+				ByteBuffer out = ByteBuffer.wrap(bytes, count, bytes.length - count);
+				CoderResult result = flushing ? encoder.flush(out) : encoder.encode(in, out, true);
+				count = out.position();
+				if (result.isOverflow()) {
+					ensureCapacity(bytes.length + 1);
+				} else if (flushing) {
+					return;
+				} else {
+					flushing = true;
+				}
+			}
+		}
+
+		/**
+		 * Grows the byte buffer so it holds at least a given number of bytes.
+		 *
+		 * @param capacity the number of bytes
+		 */
+		private void ensureCapacity(int capacity) {
+			if (bytes.length < capacity) {
+				bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+			}
+		}
+
+	}
+
+	/**
+	 * The settings of a thread overriding the global settings of the logger.
+	 */
+	private static class ThreadSettings {
+
+		/** The output stream of the thread, or null to use the global one. */
+		private OutputStream output;
+
+		/** The disabled flag of the thread, or null to use the global one. */
+		private Boolean disabled;
+
+	}
+
 }
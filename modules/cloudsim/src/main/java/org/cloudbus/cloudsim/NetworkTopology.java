@@ -14,7 +14,9 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
+import org.cloudbus.cloudsim.network.DelayProviderIF;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
+import org.cloudbus.cloudsim.network.LazyDelayMatrix_Float;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
 import org.cloudbus.cloudsim.network.TopologicalNode;
@@ -30,6 +32,10 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * Nevertheless, each CloudSim entity must be mapped to one (and only one) BRITE node to allow
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
+ * <p/>
+ * By default, the delays between all the pairs of nodes are calculated when the topology is
+ * built. For topologies too large for that, {@link #buildNetworkTopology(String, int)} calculates
+ * the delays from a node only when they are first needed.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -48,12 +54,29 @@ public class NetworkTopology {
 	private static boolean networkEnabled = false;
 
         /**
-         * A matrix containing the delay between every pair of nodes in the network.
+         * The delay between every pair of nodes in the network.
+         * It is null when the delays are calculated lazily, by {@link #lazyDelayMatrix}.
          */
 	protected static DelayMatrix_Float delayMatrix = null;
 
+        /**
+         * The delays calculated when they are first needed, when a maximum number of rows
+         * of the delay matrix is given, or null.
+         */
+	private static LazyDelayMatrix_Float lazyDelayMatrix = null;
+
+        /**
+         * The maximum number of rows of the delay matrix kept when the delays are calculated
+         * lazily, or 0 if the whole delay matrix is calculated.
+         */
+	private static int maxDelayRows = 0;
+
         /**
          * A matrix containing the bandwidth between every pair of nodes in the network.
+         * It is only built with the whole delay matrix, as CloudSim itself does not read it:
+         * it is null when the delays are calculated lazily, as it would be as large as
+         * the delay matrix, and it is not updated when a link is added with
+         * {@link #addLink(int, int, double, double)} without calculating all the delays again.
          */
 	protected static double[][] bwMatrix = null;
 
@@ -78,8 +101,33 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void buildNetworkTopology(String fileName) {
+		buildNetworkTopology(fileName, 0);
+	}
+
+	/**
+	 * Creates the network topology if the file exists and can be successfully parsed, choosing how
+	 * the delays between nodes are calculated. File is written in the BRITE format and contains
+	 * topological information on simulation entities.
+	 * <p/>
+	 * With a positive maximum number of rows, the delays from a node to all the others are only
+	 * calculated when a delay from this node is first needed, and at most this number of rows of
+	 * the delay matrix are kept, using a {@link LazyDelayMatrix_Float}. Once the CloudSim entities
+	 * are mapped, {@link #precomputeMappedDelays()} calculates the delays between them at once.
+	 * The {@link #delayMatrix} and {@link #bwMatrix} fields are then null.
+	 * 
+	 * @param fileName name of the BRITE file
+	 * @param maxDelayRows the maximum number of rows of the delay matrix kept, or 0 to calculate
+	 *            the whole delay matrix
+	 * @pre fileName != null
+	 * @pre maxDelayRows >= 0
+	 * @post $none
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void buildNetworkTopology(String fileName, int maxDelayRows) {
 		Log.printConcatLine("Topology file: ", fileName);
 
+		NetworkTopology.maxDelayRows = maxDelayRows;
+
 		// try to find the file
 		GraphReaderBrite reader = new GraphReaderBrite();
 
@@ -99,11 +147,19 @@ public class NetworkTopology {
 	 * Generates the matrices used internally to set latency and bandwidth between elements.
 	 */
 	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		if (maxDelayRows > 0) {
+			// the delays are calculated when needed, and there is no bw matrix
+			lazyDelayMatrix = new LazyDelayMatrix_Float(graph, false, maxDelayRows);
+			delayMatrix = null;
+			bwMatrix = null;
+		} else {
+			// creates the delay matrix
+			delayMatrix = new DelayMatrix_Float(graph, false);
+			lazyDelayMatrix = null;
+
+			// creates the bw matrix
+			bwMatrix = createBwMatrix(graph, false);
+		}
 
 		networkEnabled = true;
 	}
@@ -112,6 +168,12 @@ public class NetworkTopology {
 	 * Adds a new link in the network topology.
          * The CloudSim entities that represent the source and destination of the link
          * will be mapped to BRITE entities.
+         * When the nodes are linked more than once, the last of their links replaces the
+         * previous ones, as when the links are read from a file.
+         * Unless the nodes were already linked, only the delays of the paths that become
+         * shorter through the new link are updated;
+         * to add many links at once, {@link #addLinks(int[], int[], double[], double[])}
+         * calculates all the delays once all the links are added.
 	 * 
 	 * @param srcId ID of the CloudSim entity that represents the link's source node
 	 * @param destId ID of the CloudSim entity that represents the link's destination node
@@ -122,7 +184,59 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void addLink(int srcId, int destId, double bw, double lat) {
+		// the delay matrix cannot replace a link, only make the delays shorter
+		boolean update = networkEnabled
+				&& (lazyDelayMatrix != null || delayMatrix != null && !isLinked(srcId, destId));
+
+		addLinkToGraph(srcId, destId, bw, lat);
+
+		if (update) {
+			getDelayProvider().addLink(map.get(srcId), map.get(destId), (float) lat);
+		} else {
+			generateMatrices();
+		}
+
+	}
+
+	/**
+	 * Adds new links in the network topology, then calculates the delays between all the nodes
+	 * once. The CloudSim entities that represent the sources and destinations of the links will
+	 * be mapped to BRITE entities.
+	 * 
+	 * @param srcIds IDs of the CloudSim entities that represent the links' source nodes
+	 * @param destIds IDs of the CloudSim entities that represent the links' destination nodes
+	 * @param bws Links' bandwidths
+	 * @param lats Links' latencies
+	 * @throws IllegalArgumentException if the arrays do not have the same length
+	 * @pre srcIds[i] > 0
+	 * @pre destIds[i] > 0
+	 * @post $none
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void addLinks(int[] srcIds, int[] destIds, double[] bws, double[] lats) {
+		if (destIds.length != srcIds.length || bws.length != srcIds.length
+				|| lats.length != srcIds.length) {
+			throw new IllegalArgumentException("The arrays describing the links must have the same length");
+		}
+
+		for (int i = 0; i < srcIds.length; i++) {
+			addLinkToGraph(srcIds[i], destIds[i], bws[i], lats[i]);
+		}
+
+		generateMatrices();
+
+	}
 
+	/**
+	 * Adds a new link in the topological graph, mapping its source and destination
+	 * CloudSim entities to new BRITE entities if they are not mapped yet.
+	 * 
+	 * @param srcId ID of the CloudSim entity that represents the link's source node
+	 * @param destId ID of the CloudSim entity that represents the link's destination node
+	 * @param bw Link's bandwidth
+	 * @param lat link's latency
+	 */
+	private static void addLinkToGraph(int srcId, int destId, double bw, double lat) {
 		if (graph == null) {
 			graph = new TopologicalGraph();
 		}
@@ -146,9 +260,32 @@ public class NetworkTopology {
 
 		// generate a new link
 		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+	}
 
-		generateMatrices();
+	/**
+	 * Checks whether two CloudSim entities are linked in the topological graph, whatever the
+	 * direction of their link.
+	 * 
+	 * @param srcId ID of the CloudSim entity that represents the link's source node
+	 * @param destId ID of the CloudSim entity that represents the link's destination node
+	 * @return true if the entities are linked, false otherwise
+	 */
+	private static boolean isLinked(int srcId, int destId) {
+		Integer src = map.get(srcId);
+		Integer dest = map.get(destId);
+		if (src == null || dest == null) {
+			return false;
+		}
 
+		Iterator<TopologicalLink> iter = graph.getLinkIterator();
+		while (iter.hasNext()) {
+			TopologicalLink edge = iter.next();
+			if (edge.getSrcNodeID() == src && edge.getDestNodeID() == dest
+					|| edge.getSrcNodeID() == dest && edge.getDestNodeID() == src) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -231,6 +368,26 @@ public class NetworkTopology {
 		}
 	}
 
+	/**
+	 * Calculates the delays between all the BRITE nodes mapped to CloudSim entities so far, when
+	 * the delays are calculated lazily. Otherwise, the delays between all the nodes are already
+	 * calculated and it does nothing.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static void precomputeMappedDelays() {
+		if (networkEnabled && lazyDelayMatrix != null) {
+			int[] nodes = new int[map.size()];
+			int i = 0;
+			for (int node : map.values()) {
+				nodes[i++] = node;
+			}
+			lazyDelayMatrix.precompute(nodes);
+		}
+	}
+
 	/**
 	 * Calculates the delay between two nodes.
 	 * 
@@ -245,7 +402,7 @@ public class NetworkTopology {
 		if (networkEnabled) {
 			try {
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				double delay = getDelayProvider().getDelay(map.get(srcID), map.get(destID));
 
 				return delay;
 			} catch (Exception e) {
@@ -255,6 +412,19 @@ public class NetworkTopology {
 		return 0.0;
 	}
 
+	/**
+	 * Gets the object giving the delays between the nodes, whether they are all calculated or
+	 * calculated when needed.
+	 * 
+	 * @return the delay provider
+	 */
+	private static DelayProviderIF getDelayProvider() {
+		if (lazyDelayMatrix != null) {
+			return lazyDelayMatrix;
+		}
+		return delayMatrix;
+	}
+
 	/**
 	 * Checks if the network simulation is working. If there were some problem during
 	 * creation of network (e.g., during parsing of BRITE file) that does not allow a proper
@@ -38,6 +38,22 @@ public class ResCloudlet {
 	/** The length of Cloudlet finished so far. */
 	private long cloudletFinishedSoFar;
 
+	/**
+	 * The group of the {@link CloudletExecutionQueue} the Cloudlet is running in, or null if the
+	 * Cloudlet is not in an execution queue. While it is in a group, the progress of the group is
+	 * added to {@link #cloudletFinishedSoFar} only when the Cloudlet is queried.
+	 */
+	private CloudletExecutionQueue.Group executionGroup;
+
+	/** The progress of the execution group already added to {@link #cloudletFinishedSoFar}. */
+	private long executionGroupProgress;
+
+	/** The progress of the execution group at which the Cloudlet has no instruction left. */
+	private long executionFinishProgress;
+
+	/** The order in which the Cloudlet entered its execution queue. */
+	private long executionSequence;
+
 	/**
 	 * Cloudlet execution start time. This attribute will only hold the latest time since a Cloudlet
 	 * can be canceled, paused or resumed.
@@ -436,6 +452,7 @@ public class ResCloudlet {
 	 * @post $result >= 0
 	 */
 	public long getRemainingCloudletLength() {
+		updateExecutionProgress();
 		long length = cloudlet.getCloudletTotalLength() * Consts.MILLION - cloudletFinishedSoFar;
 
 		// Remaining Cloudlet length can't be negative number.
@@ -460,6 +477,7 @@ public class ResCloudlet {
 	 * @post $none
 	 */
 	public void finalizeCloudlet() {
+		updateExecutionProgress();
 		// Sets the wall clock time and actual CPU time
 		double wallClockTime = CloudSim.clock() - arrivalTime;
 		cloudlet.setExecParam(wallClockTime, totalCompletionTime);
@@ -481,11 +499,75 @@ public class ResCloudlet {
 	 * @param miLength cloudlet length in Instructions (I)
 	 * @pre miLength >= 0.0
 	 * @post $none
+	 * @see CloudletExecutionQueue
 	 */
 	public void updateCloudletFinishedSoFar(long miLength) {
+		updateExecutionProgress();
 		cloudletFinishedSoFar += miLength;
 	}
 
+	/**
+	 * Adds the progress made by the execution group of the Cloudlet since the last update to the
+	 * length finished so far.
+	 */
+	private void updateExecutionProgress() {
+		if (executionGroup != null) {
+			long progress = executionGroup.getProgress();
+			cloudletFinishedSoFar += progress - executionGroupProgress;
+			executionGroupProgress = progress;
+		}
+	}
+
+	/**
+	 * Starts running the Cloudlet in a group of an execution queue.
+	 * 
+	 * @param group the execution group
+	 * @param sequence the order in which the Cloudlet entered the execution queue
+	 */
+	void startExecution(CloudletExecutionQueue.Group group, long sequence) {
+		updateExecutionProgress();
+		executionGroup = group;
+		executionGroupProgress = group.getProgress();
+		executionFinishProgress = cloudlet.getCloudletTotalLength() * Consts.MILLION - cloudletFinishedSoFar
+				+ executionGroupProgress;
+		executionSequence = sequence;
+	}
+
+	/**
+	 * Stops running the Cloudlet in its execution group, bringing its finished length up to date.
+	 */
+	void stopExecution() {
+		updateExecutionProgress();
+		executionGroup = null;
+	}
+
+	/**
+	 * Gets the execution group of the Cloudlet.
+	 * 
+	 * @return the execution group, or null if the Cloudlet is not in an execution queue
+	 */
+	CloudletExecutionQueue.Group getExecutionGroup() {
+		return executionGroup;
+	}
+
+	/**
+	 * Gets the progress of the execution group at which the Cloudlet has no instruction left.
+	 * 
+	 * @return the finish progress
+	 */
+	long getExecutionFinishProgress() {
+		return executionFinishProgress;
+	}
+
+	/**
+	 * Gets the order in which the Cloudlet entered its execution queue.
+	 * 
+	 * @return the execution sequence
+	 */
+	long getExecutionSequence() {
+		return executionSequence;
+	}
+
 	/**
 	 * Gets arrival time of a cloudlet.
 	 * 
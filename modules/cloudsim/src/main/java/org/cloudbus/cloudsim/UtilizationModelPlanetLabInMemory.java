@@ -1,20 +1,22 @@
 package org.cloudbus.cloudsim;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
+import org.cloudbus.cloudsim.util.UtilizationTraceCache;
+
 /**
  * Defines the resource utilization model based on 
  * a <a href="https://www.planet-lab.org">PlanetLab</a>
  * datacenter trace file.
+ * The trace is obtained from the {@link UtilizationTraceCache}, thus models
+ * reading the same file share its data.
  */
 public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 	
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
-	/** The data (5 min * 288 = 24 hours). */
+	/** The data (5 min * 288 = 24 hours), shared with the other models of the same trace. */
 	private final double[] data; 
 	
 	/**
@@ -28,15 +30,8 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 	public UtilizationModelPlanetLabInMemory(String inputPath, double schedulingInterval)
 			throws NumberFormatException,
 			IOException {
-		data = new double[289];
+		data = UtilizationTraceCache.getTrace(inputPath, 289);
 		setSchedulingInterval(schedulingInterval);
-		BufferedReader input = new BufferedReader(new FileReader(inputPath));
-		int n = data.length;
-		for (int i = 0; i < n - 1; i++) {
-			data[i] = Integer.valueOf(input.readLine()) / 100.0;
-		}
-		data[n - 1] = data[n - 2];
-		input.close();
 	}
 	
 	/**
@@ -52,14 +47,7 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 			throws NumberFormatException,
 			IOException {
 		setSchedulingInterval(schedulingInterval);
-		data = new double[dataSamples];
-		BufferedReader input = new BufferedReader(new FileReader(inputPath));
-		int n = data.length;
-		for (int i = 0; i < n - 1; i++) {
-			data[i] = Integer.valueOf(input.readLine()) / 100.0;
-		}
-		data[n - 1] = data[n - 2];
-		input.close();
+		data = UtilizationTraceCache.getTrace(inputPath, dataSamples);
 	}
 
 	@Override
@@ -95,7 +83,32 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 		return schedulingInterval;
 	}
 	
+	/**
+	 * Gets the data of the trace. The samples are shared with the other models of the
+	 * same trace, so a copy is returned; {@link #getSample(int)} reads them without copying.
+	 * 
+	 * @return a copy of the data
+	 */
 	public double[] getData(){
-		return data;
+		return data.clone();
+	}
+
+	/**
+	 * Gets the number of samples of the trace.
+	 * 
+	 * @return the number of samples
+	 */
+	public int getSampleCount() {
+		return data.length;
+	}
+
+	/**
+	 * Gets a sample of the trace.
+	 * 
+	 * @param index the index of the sample, lower than {@link #getSampleCount()}
+	 * @return the sample
+	 */
+	public double getSample(int index) {
+		return data[index];
 	}
 }
@@ -0,0 +1,107 @@
+package org.cloudbus.cloudsim;
+
+import java.nio.ByteBuffer;
+
+import org.cloudbus.cloudsim.util.PlanetLabTraceStore;
+
+/**
+ * Defines the resource utilization model based on
+ * a <a href="https://www.planet-lab.org">PlanetLab</a>
+ * datacenter trace read from a {@link PlanetLabTraceStore}.
+ * The samples are not copied: they are read from the store buffer,
+ * one unsigned byte per utilization percentage. As in
+ * {@link UtilizationModelPlanetLabInMemory}, the last sample is repeated
+ * once at the end of the trace.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class UtilizationModelPlanetLabMapped implements UtilizationModel {
+
+	/** The scheduling interval. */
+	private double schedulingInterval;
+
+	/** The buffer holding the samples. */
+	private final ByteBuffer buffer;
+
+	/** The position of the first sample in the buffer. */
+	private final int offset;
+
+	/** The number of samples in the buffer. */
+	private final int samples;
+
+	/**
+	 * Instantiates a new PlanetLab resource utilization model over a buffer.
+	 *
+	 * @param buffer the buffer holding the samples
+	 * @param offset the position of the first sample in the buffer
+	 * @param samples the number of samples
+	 * @param schedulingInterval the interval between two samples
+	 */
+	public UtilizationModelPlanetLabMapped(ByteBuffer buffer, int offset, int samples, double schedulingInterval) {
+		this.buffer = buffer;
+		this.offset = offset;
+		this.samples = samples;
+		setSchedulingInterval(schedulingInterval);
+	}
+
+	/**
+	 * Gets a sample of the trace, repeating the last one once.
+	 *
+	 * @param index the index of the sample
+	 * @return the utilization
+	 */
+	protected double getSample(int index) {
+		if (index == samples) {
+			index--;
+		} else if (index < 0 || index > samples) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return (buffer.get(offset + index) & 0xFF) / 100.0;
+	}
+
+	@Override
+	public double getUtilization(double time) {
+		if (time % getSchedulingInterval() == 0) {
+			return getSample((int) time / (int) getSchedulingInterval());
+		}
+		int time1 = (int) Math.floor(time / getSchedulingInterval());
+		int time2 = (int) Math.ceil(time / getSchedulingInterval());
+		double utilization1 = getSample(time1);
+		double utilization2 = getSample(time2);
+		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
+		double utilization = utilization1 + delta * (time - time1 * getSchedulingInterval());
+		return utilization;
+	}
+
+	/**
+	 * Sets the scheduling interval.
+	 *
+	 * @param schedulingInterval the new scheduling interval
+	 */
+	public void setSchedulingInterval(double schedulingInterval) {
+		this.schedulingInterval = schedulingInterval;
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+	/**
+	 * Gets the samples of the trace, including the repeated last one.
+	 *
+	 * @return a copy of the samples
+	 */
+	public double[] getData() {
+		double[] data = new double[samples + 1];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = getSample(i);
+		}
+		return data;
+	}
+
+}
@@ -35,7 +35,10 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	private Map<String, Integer> usedPes;
 
 	/** The number of free Pes for each host from {@link #getHostList() }. */
-	private List<Integer> freePes;
+	private FreePesList freePes;
+
+	/** The position of each host in {@link #getHostList() }. */
+	private Map<Host, Integer> hostIndexes;
 
 	/**
 	 * Creates a new VmAllocationPolicySimple object.
@@ -48,7 +51,9 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 		super(list);
 
 		setFreePes(new ArrayList<Integer>());
+		hostIndexes = new HashMap<Host, Integer>();
 		for (Host host : getHostList()) {
+			hostIndexes.put(host, getFreePes().size());
 			getFreePes().add(host.getNumberOfPes());
 
 		}
@@ -59,6 +64,8 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 
 	/**
 	 * Allocates the host with less PEs in use for a given VM.
+	 * The hosts are tried from the one with the most free PEs, the first one in case of a tie,
+	 * until the VM is created in one of them.
 	 * 
 	 * @param vm {@inheritDoc}
 	 * @return {@inheritDoc}
@@ -69,40 +76,27 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	public boolean allocateHostForVm(Vm vm) {
 		int requiredPes = vm.getNumberOfPes();
 		boolean result = false;
-		int tries = 0;
-		List<Integer> freePesTmp = new ArrayList<Integer>();
-		for (Integer freePes : getFreePes()) {
-			freePesTmp.add(freePes);
-		}
 
 		if (!getVmTable().containsKey(vm.getUid())) { // if this vm was not created
-			do {// we still trying until we find a host or until we try all of them
-				int moreFree = Integer.MIN_VALUE;
-				int idx = -1;
-
-				// we want the host with less pes in use
-				for (int i = 0; i < freePesTmp.size(); i++) {
-					if (freePesTmp.get(i) > moreFree) {
-						moreFree = freePesTmp.get(i);
-						idx = i;
+			FreePesList freePes = this.freePes;
+			try {
+				// we still trying until we find a host or until we try all of them
+				for (int idx = freePes.getMostFreeIndex(); idx >= 0; idx = freePes.getMostFreeIndex()) {
+					Host host = getHostList().get(idx);
+					result = host.vmCreate(vm);
+
+					if (result) { // if vm were succesfully created in the host
+						getVmTable().put(vm.getUid(), host);
+						getUsedPes().put(vm.getUid(), requiredPes);
+						freePes.set(idx, freePes.getInt(idx) - requiredPes);
+						break;
 					}
+					// the host is not tried again for this vm
+					freePes.exclude(idx);
 				}
-
-				Host host = getHostList().get(idx);
-				result = host.vmCreate(vm);
-
-				if (result) { // if vm were succesfully created in the host
-					getVmTable().put(vm.getUid(), host);
-					getUsedPes().put(vm.getUid(), requiredPes);
-					getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
-					result = true;
-					break;
-				} else {
-					freePesTmp.set(idx, Integer.MIN_VALUE);
-				}
-				tries++;
-			} while (!result && tries < getFreePes().size());
-
+			} finally {
+				freePes.includeAll();
+			}
 		}
 
 		return result;
@@ -111,9 +105,9 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	@Override
 	public void deallocateHostForVm(Vm vm) {
 		Host host = getVmTable().remove(vm.getUid());
-		int idx = getHostList().indexOf(host);
 		int pes = getUsedPes().remove(vm.getUid());
 		if (host != null) {
+			int idx = getHostIndex(host);
 			host.vmDestroy(vm);
 			getFreePes().set(idx, getFreePes().get(idx) + pes);
 		}
@@ -175,12 +169,32 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 	}
 
 	/**
-	 * Sets the free pes.
+	 * Sets the free pes. The given list is copied into a {@link FreePesList}, which is the list
+	 * returned by {@link #getFreePes()} from then on.
 	 * 
 	 * @param freePes the new free pes
 	 */
 	protected void setFreePes(List<Integer> freePes) {
-		this.freePes = freePes;
+		if (freePes instanceof FreePesList) {
+			this.freePes = (FreePesList) freePes;
+		} else {
+			this.freePes = new FreePesList(freePes);
+		}
+	}
+
+	/**
+	 * Gets the position of a host in {@link #getHostList() }.
+	 * 
+	 * @param host the host
+	 * @return the position of the host, or -1 if it is not in the list
+	 */
+	protected int getHostIndex(Host host) {
+		Integer idx = hostIndexes.get(host);
+		if (idx == null || idx >= getHostList().size() || getHostList().get(idx) != host) {
+			// the host list changed since the policy was created
+			return getHostList().indexOf(host);
+		}
+		return idx;
 	}
 
 	@Override
@@ -195,7 +209,7 @@ public class VmAllocationPolicySimple extends VmAllocationPolicy {
 			getVmTable().put(vm.getUid(), host);
 
 			int requiredPes = vm.getNumberOfPes();
-			int idx = getHostList().indexOf(host);
+			int idx = getHostIndex(host);
 			getUsedPes().put(vm.getUid(), requiredPes);
 			getFreePes().set(idx, getFreePes().get(idx) - requiredPes);
 
@@ -8,11 +8,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.lists.VmTable;
+import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * VmScheduler is an abstract class that represents the policy used by a Virtual Machine Monitor (VMM) 
@@ -30,11 +31,11 @@ public abstract class VmScheduler {
 	/** The PEs of the host where the scheduler is associated. */
 	private List<? extends Pe> peList;
 
-	/** The map of VMs to PEs, where each key is a VM id and each value is 
-         * a list of PEs allocated to that VM. */
-	private Map<String, List<Pe>> peMap;
+	/** The map of VMs to PEs, where each VM is mapped to
+         * the list of PEs allocated to that VM. */
+	private VmTable<List<Pe>> peMap;
 
-	/** The map of VMs to MIPS, were each key is a VM id and each value is 
+	/** The map of VMs to MIPS, were each VM is mapped to
          * the currently allocated MIPS from the respective PE to that VM. 
          * The PEs where the MIPS capacity is get are defined
          * in the {@link #peMap}.
@@ -44,16 +45,16 @@ public abstract class VmScheduler {
          * may be confused with this one. So, the name of this one
          * may be changed to something such as allocatedMipsMap
          */
-	private Map<String, List<Double>> mipsMap;
+	private VmTable<double[]> mipsMap;
 
 	/** The total available MIPS that can be allocated on demand for VMs. */
 	private double availableMips;
 
-	/** The VMs migrating in the host (arriving). It is the list of VM ids */
-	private List<String> vmsMigratingIn;
+	/** The VMs migrating in the host (arriving). */
+	private VmTable<Void> vmsMigratingIn;
 
-	/** The VMs migrating out the host (departing). It is the list of VM ids */
-	private List<String> vmsMigratingOut;
+	/** The VMs migrating out the host (departing). */
+	private VmTable<Void> vmsMigratingOut;
 
 	/**
 	 * Creates a new VmScheduler.
@@ -64,11 +65,11 @@ public abstract class VmScheduler {
 	 */
 	public VmScheduler(List<? extends Pe> pelist) {
 		setPeList(pelist);
-		setPeMap(new HashMap<String, List<Pe>>());
-		setMipsMap(new HashMap<String, List<Double>>());
+		setPeTable(new VmTable<List<Pe>>());
+		setMipsTable(new VmTable<double[]>());
 		setAvailableMips(PeList.getTotalMips(getPeList()));
-		setVmsMigratingIn(new ArrayList<String>());
-		setVmsMigratingOut(new ArrayList<String>());
+		setVmsMigratingInTable(new VmTable<Void>());
+		setVmsMigratingOutTable(new VmTable<Void>());
 	}
 
 	/**
@@ -100,7 +101,7 @@ public abstract class VmScheduler {
 	 * @post $none
 	 */
 	public void deallocatePesForAllVms() {
-		getMipsMap().clear();
+		getMipsTable().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
 		for (Pe pe : getPeList()) {
 			pe.getPeProvisioner().deallocateMipsForAllVms();
@@ -114,7 +115,7 @@ public abstract class VmScheduler {
 	 * @return the pes allocated for the given vm
 	 */
 	public List<Pe> getPesAllocatedForVM(Vm vm) {
-		return getPeMap().get(vm.getUid());
+		return getPeTable().get(vm);
 	}
 
 	/**
@@ -126,7 +127,11 @@ public abstract class VmScheduler {
 	 * @post $none
 	 */
 	public List<Double> getAllocatedMipsForVm(Vm vm) {
-		return getMipsMap().get(vm.getUid());
+		double[] mipsShare = getMipsTable().get(vm);
+		if (mipsShare == null) {
+			return null;
+		}
+		return toList(mipsShare);
 	}
 
 	/**
@@ -137,7 +142,7 @@ public abstract class VmScheduler {
 	 */
 	public double getTotalAllocatedMipsForVm(Vm vm) {
 		double allocated = 0;
-		List<Double> mipsMap = getAllocatedMipsForVm(vm);
+		double[] mipsMap = getMipsTable().get(vm);
 		if (mipsMap != null) {
 			for (double mips : mipsMap) {
 				allocated += mips;
@@ -208,21 +213,47 @@ public abstract class VmScheduler {
 	}
 
 	/**
-	 * Gets the mips map.
+	 * Gets the mips map, where each key is a VM uid and each value is
+	 * the list of MIPS allocated to that VM. The VMs put in it by uid only are
+	 * not given PEs, which are only allocated to the VMs given as such.
 	 * 
-	 * @return the mips map
+	 * @return a view of the mips table, whose lists are copies to put again once changed
+	 * @deprecated Use {@link #getMipsTable()} instead
 	 */
+	@Deprecated
 	protected Map<String, List<Double>> getMipsMap() {
-		return mipsMap;
+		return createMipsMap(getMipsTable());
 	}
 
 	/**
 	 * Sets the mips map.
 	 * 
-	 * @param mipsMap the mips map
+	 * @param mipsMap the mips map, whose entries are copied to the mips table
+	 * @deprecated Use {@link #setMipsTable(VmTable)} instead
 	 */
+	@Deprecated
 	protected void setMipsMap(Map<String, List<Double>> mipsMap) {
-		this.mipsMap = mipsMap;
+		getMipsTable().clear();
+		getMipsMap().putAll(mipsMap);
+	}
+
+	/**
+	 * Gets the mips table, where the MIPS allocated to each VM are given
+	 * by an array holding the MIPS of each of its virtual PEs.
+	 * 
+	 * @return the mips table
+	 */
+	protected VmTable<double[]> getMipsTable() {
+		return mipsMap;
+	}
+
+	/**
+	 * Sets the mips table.
+	 * 
+	 * @param mipsTable the mips table
+	 */
+	protected void setMipsTable(VmTable<double[]> mipsTable) {
+		this.mipsMap = mipsTable;
 	}
 
 	/**
@@ -243,12 +274,35 @@ public abstract class VmScheduler {
 		this.availableMips = availableMips;
 	}
 
+	/**
+	 * Gets the uids of the vms migrating out.
+	 * 
+	 * @return a view of the uids of the vms in migration
+	 * @deprecated Use {@link #getVmsMigratingOutTable()} in subclasses instead
+	 */
+	@Deprecated
+	public List<String> getVmsMigratingOut() {
+		return getVmsMigratingOutTable().getUids();
+	}
+
+	/**
+	 * Sets the uids of the vms migrating out.
+	 * 
+	 * @param vmsInMigration the uids of the new vms migrating out
+	 * @deprecated Use {@link #setVmsMigratingOutTable(VmTable)} instead
+	 */
+	@Deprecated
+	protected void setVmsMigratingOut(List<String> vmsInMigration) {
+		getVmsMigratingOutTable().clear();
+		getVmsMigratingOut().addAll(vmsInMigration);
+	}
+
 	/**
 	 * Gets the vms migrating out.
 	 * 
 	 * @return the vms in migration
 	 */
-	public List<String> getVmsMigratingOut() {
+	protected VmTable<Void> getVmsMigratingOutTable() {
 		return vmsMigratingOut;
 	}
 
@@ -257,16 +311,39 @@ public abstract class VmScheduler {
 	 * 
 	 * @param vmsInMigration the new vms migrating out
 	 */
-	protected void setVmsMigratingOut(List<String> vmsInMigration) {
+	protected void setVmsMigratingOutTable(VmTable<Void> vmsInMigration) {
 		vmsMigratingOut = vmsInMigration;
 	}
 
+	/**
+	 * Gets the uids of the vms migrating in.
+	 * 
+	 * @return a view of the uids of the vms migrating in
+	 * @deprecated Use {@link #getVmsMigratingInTable()} in subclasses instead
+	 */
+	@Deprecated
+	public List<String> getVmsMigratingIn() {
+		return getVmsMigratingInTable().getUids();
+	}
+
+	/**
+	 * Sets the uids of the vms migrating in.
+	 * 
+	 * @param vmsMigratingIn the uids of the new vms migrating in
+	 * @deprecated Use {@link #setVmsMigratingInTable(VmTable)} instead
+	 */
+	@Deprecated
+	protected void setVmsMigratingIn(List<String> vmsMigratingIn) {
+		getVmsMigratingInTable().clear();
+		getVmsMigratingIn().addAll(vmsMigratingIn);
+	}
+
 	/**
 	 * Gets the vms migrating in.
 	 * 
 	 * @return the vms migrating in
 	 */
-	public List<String> getVmsMigratingIn() {
+	protected VmTable<Void> getVmsMigratingInTable() {
 		return vmsMigratingIn;
 	}
 
@@ -275,26 +352,88 @@ public abstract class VmScheduler {
 	 * 
 	 * @param vmsMigratingIn the new vms migrating in
 	 */
-	protected void setVmsMigratingIn(List<String> vmsMigratingIn) {
+	protected void setVmsMigratingInTable(VmTable<Void> vmsMigratingIn) {
 		this.vmsMigratingIn = vmsMigratingIn;
 	}
 
 	/**
-	 * Gets the pe map.
+	 * Gets the pe map, where each key is a VM uid and each value is
+	 * the list of PEs allocated to that VM.
 	 * 
-	 * @return the pe map
+	 * @return a view of the pe table
+	 * @deprecated Use {@link #getPesAllocatedForVM(Vm)}, or {@link #getPeTable()} in subclasses,
+	 *             instead
 	 */
+	@Deprecated
 	public Map<String, List<Pe>> getPeMap() {
-		return peMap;
+		return getPeTable().getUidMap();
 	}
 
 	/**
 	 * Sets the pe map.
 	 * 
-	 * @param peMap the pe map
+	 * @param peMap the pe map, whose entries are copied to the pe table
+	 * @deprecated Use {@link #setPeTable(VmTable)} instead
 	 */
+	@Deprecated
 	protected void setPeMap(Map<String, List<Pe>> peMap) {
-		this.peMap = peMap;
+		getPeTable().clear();
+		getPeMap().putAll(peMap);
+	}
+
+	/**
+	 * Gets the pe table, where each VM is mapped to the list of PEs allocated to that VM.
+	 * 
+	 * @return the pe table
+	 */
+	protected VmTable<List<Pe>> getPeTable() {
+		return peMap;
+	}
+
+	/**
+	 * Sets the pe table.
+	 * 
+	 * @param peTable the pe table
+	 */
+	protected void setPeTable(VmTable<List<Pe>> peTable) {
+		this.peMap = peTable;
+	}
+
+	/**
+	 * Creates a view of a table of MIPS as a map from VM uids to lists of MIPS,
+	 * for the deprecated methods which give such maps.
+	 * 
+	 * @param mipsTable the table of MIPS
+	 * @return the view of the table, whose lists are copies to put again once changed
+	 */
+	protected static Map<String, List<Double>> createMipsMap(final VmTable<double[]> mipsTable) {
+		return new VmTable.UidMap<List<Double>>(mipsTable) {
+
+			@Override
+			protected List<Double> getValue(int handle) {
+				double[] mips = mipsTable.getValue(handle);
+				return mips == null ? null : toList(mips);
+			}
+
+			@Override
+			protected void setValue(int handle, List<Double> mips) {
+				mipsTable.setValue(handle, mips == null ? null : MathUtil.listToArray(mips));
+			}
+		};
+	}
+
+	/**
+	 * Copies MIPS to a list.
+	 * 
+	 * @param mips the MIPS
+	 * @return the list of MIPS
+	 */
+	private static List<Double> toList(double[] mips) {
+		List<Double> list = new ArrayList<Double>(mips.length);
+		for (double value : mips) {
+			list.add(value);
+		}
+		return list;
 	}
 
 }
@@ -9,11 +9,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.lists.VmTable;
+
 /**
  * VmSchedulerSpaceShared is a VMM allocation policy that allocates one or more PEs from a host to a 
  * Virtual Machine Monitor (VMM), and doesn't allow sharing of PEs. 
@@ -28,9 +29,9 @@ import java.util.Map;
  */
 public class VmSchedulerSpaceShared extends VmScheduler {
 
-	/** A map between each VM and its allocated PEs, where the key is a VM ID and
-         * the value a list of PEs allocated to VM. */
-	private Map<String, List<Pe>> peAllocationMap;
+	/** A map between each VM and its allocated PEs, where each VM is mapped to
+         * the list of PEs allocated to it. */
+	private VmTable<List<Pe>> peAllocationMap;
 
 	/** The list of free PEs yet available in the host. */
 	private List<Pe> freePes;
@@ -42,7 +43,7 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 	 */
 	public VmSchedulerSpaceShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setPeAllocationMap(new HashMap<String, List<Pe>>());
+		setPeAllocationTable(new VmTable<List<Pe>>());
 		setFreePes(new ArrayList<Pe>());
 		getFreePes().addAll(pelist);
 	}
@@ -74,41 +75,68 @@ public class VmSchedulerSpaceShared extends VmScheduler {
 
 		getFreePes().removeAll(selectedPes);
 
-		getPeAllocationMap().put(vm.getUid(), selectedPes);
-		getMipsMap().put(vm.getUid(), mipsShare);
+		double[] allocatedMips = new double[mipsShare.size()];
+		for (int i = 0; i < allocatedMips.length; i++) {
+			allocatedMips[i] = mipsShare.get(i);
+		}
+		getPeAllocationTable().put(vm, selectedPes);
+		getMipsTable().put(vm, allocatedMips);
 		setAvailableMips(getAvailableMips() - totalMips);
 		return true;
 	}
 
 	@Override
 	public void deallocatePesForVm(Vm vm) {
-		getFreePes().addAll(getPeAllocationMap().get(vm.getUid()));
-		getPeAllocationMap().remove(vm.getUid());
+		getFreePes().addAll(getPeAllocationTable().get(vm));
+		getPeAllocationTable().remove(vm);
 
 		double totalMips = 0;
-		for (double mips : getMipsMap().get(vm.getUid())) {
+		for (double mips : getMipsTable().get(vm)) {
 			totalMips += mips;
 		}
 		setAvailableMips(getAvailableMips() + totalMips);
 
-		getMipsMap().remove(vm.getUid());
+		getMipsTable().remove(vm);
 	}
 
 	/**
 	 * Sets the pe allocation map.
 	 * 
-	 * @param peAllocationMap the pe allocation map
+	 * @param peAllocationMap the pe allocation map, whose entries are copied to the pe allocation table
+	 * @deprecated Use {@link #setPeAllocationTable(VmTable)} instead
 	 */
+	@Deprecated
 	protected void setPeAllocationMap(Map<String, List<Pe>> peAllocationMap) {
-		this.peAllocationMap = peAllocationMap;
+		getPeAllocationTable().clear();
+		getPeAllocationMap().putAll(peAllocationMap);
+	}
+
+	/**
+	 * Sets the pe allocation table.
+	 * 
+	 * @param peAllocationTable the pe allocation table
+	 */
+	protected void setPeAllocationTable(VmTable<List<Pe>> peAllocationTable) {
+		this.peAllocationMap = peAllocationTable;
 	}
 
 	/**
 	 * Gets the pe allocation map.
 	 * 
-	 * @return the pe allocation map
+	 * @return a view of the pe allocation table
+	 * @deprecated Use {@link #getPeAllocationTable()} instead
 	 */
+	@Deprecated
 	protected Map<String, List<Pe>> getPeAllocationMap() {
+		return getPeAllocationTable().getUidMap();
+	}
+
+	/**
+	 * Gets the pe allocation table.
+	 * 
+	 * @return the pe allocation table
+	 */
+	protected VmTable<List<Pe>> getPeAllocationTable() {
 		return peAllocationMap;
 	}
 
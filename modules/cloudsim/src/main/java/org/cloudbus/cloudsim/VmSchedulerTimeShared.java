@@ -8,13 +8,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.lists.VmTable;
 import org.cloudbus.cloudsim.provisioners.PeProvisioner;
 
 /**
@@ -31,10 +30,10 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
  */
 public class VmSchedulerTimeShared extends VmScheduler {
 
-	/** The map of requested mips, where each key is a VM
-         * and each value is a list of MIPS requested by that VM. 
+	/** The map of requested mips, where each VM is mapped
+         * to the MIPS requested by each of its virtual PEs. 
          */
-	private Map<String, List<Double>> mipsMapRequested;
+	private VmTable<double[]> mipsMapRequested;
 
 	/** The number of host's PEs in use. */
 	private int pesInUse;
@@ -46,7 +45,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	public VmSchedulerTimeShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setMipsMapRequested(new HashMap<String, List<Double>>());
+		setMipsTableRequested(new VmTable<double[]>());
 	}
 
 	@Override
@@ -55,15 +54,17 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		 * @todo add the same to RAM and BW provisioners
 		 */
 		if (vm.isInMigration()) {
-			if (!getVmsMigratingIn().contains(vm.getUid()) && !getVmsMigratingOut().contains(vm.getUid())) {
-				getVmsMigratingOut().add(vm.getUid());
+			if (!getVmsMigratingInTable().contains(vm) && !getVmsMigratingOutTable().contains(vm)) {
+				getVmsMigratingOutTable().add(vm);
 			}
 		} else {
-			if (getVmsMigratingOut().contains(vm.getUid())) {
-				getVmsMigratingOut().remove(vm.getUid());
-			}
+			getVmsMigratingOutTable().remove(vm);
+		}
+		double[] mipsShare = new double[mipsShareRequested.size()];
+		for (int i = 0; i < mipsShare.length; i++) {
+			mipsShare[i] = mipsShareRequested.get(i);
 		}
-		boolean result = allocatePesForVm(vm.getUid(), mipsShareRequested);
+		boolean result = allocatePesForVm(vm, mipsShare);
 		updatePeProvisioning();
 		return result;
 	}
@@ -71,14 +72,14 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	/**
 	 * Allocate PEs for a vm.
 	 * 
-	 * @param vmUid the vm uid
-	 * @param mipsShareRequested the list of mips share requested by the vm
+	 * @param vm the vm
+	 * @param mipsShareRequested the mips share requested by each virtual PE of the vm
 	 * @return true, if successful
 	 */
-	protected boolean allocatePesForVm(String vmUid, List<Double> mipsShareRequested) {
+	protected boolean allocatePesForVm(Vm vm, double[] mipsShareRequested) {
 		double totalRequestedMips = 0;
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (double mips : mipsShareRequested) {
 			// each virtual PE of a VM must require not more than the capacity of a physical PE
 			if (mips > peMips) {
 				return false;
@@ -91,39 +92,44 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			return false;
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
-		setPesInUse(getPesInUse() + mipsShareRequested.size());
+		getMipsTableRequested().put(vm, mipsShareRequested);
+		setPesInUse(getPesInUse() + mipsShareRequested.length);
 
-		if (getVmsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = getVmsMigratingInTable().contains(vm);
+		boolean migratingOut = getVmsMigratingOutTable().contains(vm);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
-		List<Double> mipsShareAllocated = new ArrayList<Double>();
-		for (Double mipsRequested : mipsShareRequested) {
-			if (getVmsMigratingOut().contains(vmUid)) {
+		double[] mipsShareAllocated = new double[mipsShareRequested.length];
+		for (int i = 0; i < mipsShareRequested.length; i++) {
+			double mipsRequested = mipsShareRequested[i];
+			if (migratingOut) {
 				// performance degradation due to migration = 10% MIPS
 				mipsRequested *= 0.9;
-			} else if (getVmsMigratingIn().contains(vmUid)) {
+			} else if (migratingIn) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				mipsRequested *= 0.1;
 			}
-			mipsShareAllocated.add(mipsRequested);
+			mipsShareAllocated[i] = mipsRequested;
 		}
 
-		getMipsMap().put(vmUid, mipsShareAllocated);
+		getMipsTable().put(vm, mipsShareAllocated);
 		setAvailableMips(getAvailableMips() - totalRequestedMips);
 
 		return true;
 	}
 
 	/**
-	 * Update allocation of VMs on PEs.
+	 * Update allocation of VMs on PEs. The VMs are walked in the order of the map keyed by
+         * VM uid which the mips table replaced, see {@link VmTable#getHandlesInUidMapOrder()},
+         * so that the MIPS of each PE are split between the same VMs as with that map.
          * @too The method is too long and may be refactored to make clearer its
          * responsibility.
 	 */
 	protected void updatePeProvisioning() {
-		getPeMap().clear();
+		getPeTable().clear();
 		for (Pe pe : getPeList()) {
 			pe.getPeProvisioner().deallocateMipsForAllVms();
 		}
@@ -133,26 +139,32 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		PeProvisioner peProvisioner = pe.getPeProvisioner();
 		double availableMips = peProvisioner.getAvailableMips();
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMap().entrySet()) {
-			String vmUid = entry.getKey();
-			getPeMap().put(vmUid, new LinkedList<Pe>());
+		VmTable<double[]> mipsMap = getMipsTable();
+		for (int handle : mipsMap.getHandlesInUidMapOrder()) {
+			Vm vm = mipsMap.getVm(handle);
+			if (vm == null) {
+				// put by uid only in the deprecated mips map
+				continue;
+			}
+			List<Pe> pes = new ArrayList<Pe>();
+			getPeTable().put(vm, pes);
 
-			for (double mips : entry.getValue()) {
+			for (double mips : mipsMap.getValue(handle)) {
 				while (mips >= 0.1) {
 					if (availableMips >= mips) {
-						peProvisioner.allocateMipsForVm(vmUid, mips);
-						getPeMap().get(vmUid).add(pe);
+						peProvisioner.allocateMipsForVm(vm, mips);
+						pes.add(pe);
 						availableMips -= mips;
 						break;
 					} else {
-						peProvisioner.allocateMipsForVm(vmUid, availableMips);
-						getPeMap().get(vmUid).add(pe);
+						peProvisioner.allocateMipsForVm(vm, availableMips);
+						pes.add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
 							break;
 						}
 						if (!peIterator.hasNext()) {
-							Log.printConcatLine("There is no enough MIPS (", mips, ") to accommodate VM ", vmUid);
+							Log.printConcatLine("There is no enough MIPS (", mips, ") to accommodate VM ", vm.getUid());
 							// System.exit(0);
 						}
 						pe = peIterator.next();
@@ -166,17 +178,21 @@ public class VmSchedulerTimeShared extends VmScheduler {
 
 	@Override
 	public void deallocatePesForVm(Vm vm) {
-		getMipsMapRequested().remove(vm.getUid());
+		getMipsTableRequested().remove(vm);
 		setPesInUse(0);
-		getMipsMap().clear();
+		getMipsTable().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
 
 		for (Pe pe : getPeList()) {
 			pe.getPeProvisioner().deallocateMipsForVm(vm);
 		}
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
-			allocatePesForVm(entry.getKey(), entry.getValue());
+		VmTable<double[]> mipsMapRequested = getMipsTableRequested();
+		for (int handle : mipsMapRequested.getHandlesInUidMapOrder()) {
+			// the VMs put by uid only in the deprecated requested mips map are skipped
+			if (mipsMapRequested.getVm(handle) != null) {
+				allocatePesForVm(mipsMapRequested.getVm(handle), mipsMapRequested.getValue(handle));
+			}
 		}
 
 		updatePeProvisioning();
@@ -191,7 +207,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	@Override
 	public void deallocatePesForAllVms() {
 		super.deallocatePesForAllVms();
-		getMipsMapRequested().clear();
+		getMipsTableRequested().clear();
 		setPesInUse(0);
 	}
 
@@ -225,21 +241,45 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	}
 
 	/**
-	 * Gets the mips map requested.
+	 * Gets the mips map requested. The VMs put in it by uid only are
+	 * not given PEs, which are only allocated to the VMs given as such.
 	 * 
-	 * @return the mips map requested
+	 * @return a view of the mips table requested, whose lists are copies to put again once changed
+	 * @deprecated Use {@link #getMipsTableRequested()} instead
 	 */
+	@Deprecated
 	protected Map<String, List<Double>> getMipsMapRequested() {
-		return mipsMapRequested;
+		return createMipsMap(getMipsTableRequested());
 	}
 
 	/**
 	 * Sets the mips map requested.
 	 * 
-	 * @param mipsMapRequested the mips map requested
+	 * @param mipsMapRequested the mips map requested, whose entries are copied to the mips table requested
+	 * @deprecated Use {@link #setMipsTableRequested(VmTable)} instead
 	 */
+	@Deprecated
 	protected void setMipsMapRequested(Map<String, List<Double>> mipsMapRequested) {
-		this.mipsMapRequested = mipsMapRequested;
+		getMipsTableRequested().clear();
+		getMipsMapRequested().putAll(mipsMapRequested);
+	}
+
+	/**
+	 * Gets the mips table requested.
+	 * 
+	 * @return the mips table requested
+	 */
+	protected VmTable<double[]> getMipsTableRequested() {
+		return mipsMapRequested;
+	}
+
+	/**
+	 * Sets the mips table requested.
+	 * 
+	 * @param mipsTableRequested the mips table requested
+	 */
+	protected void setMipsTableRequested(VmTable<double[]> mipsTableRequested) {
+		this.mipsMapRequested = mipsTableRequested;
 	}
 
 }
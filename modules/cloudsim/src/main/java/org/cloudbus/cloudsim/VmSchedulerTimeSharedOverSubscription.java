@@ -7,13 +7,10 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.lists.VmTable;
 
 /**
  * This is a Time-Shared VM Scheduler, which allows over-subscription. In other words, the scheduler
@@ -42,50 +39,52 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
          * It cannot be allocated more CPU capacity for each virtual PE than the MIPS 
          * capacity of a single physical PE.
 	 * 
-	 * @param vmUid the vm uid
-	 * @param mipsShareRequested the list of mips share requested
+	 * @param vm the vm
+	 * @param mipsShareRequested the mips share requested by each virtual PE of the vm
 	 * @return true, if successful
 	 */
 	@Override
-	protected boolean allocatePesForVm(String vmUid, List<Double> mipsShareRequested) {
+	protected boolean allocatePesForVm(Vm vm, double[] mipsShareRequested) {
 		double totalRequestedMips = 0;
 
 		// if the requested mips is bigger than the capacity of a single PE, we cap
 		// the request to the PE's capacity
-		List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
+		double[] mipsShareRequestedCapped = new double[mipsShareRequested.length];
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (int i = 0; i < mipsShareRequested.length; i++) {
+			double mips = mipsShareRequested[i];
 			if (mips > peMips) {
-				mipsShareRequestedCapped.add(peMips);
+				mipsShareRequestedCapped[i] = peMips;
 				totalRequestedMips += peMips;
 			} else {
-				mipsShareRequestedCapped.add(mips);
+				mipsShareRequestedCapped[i] = mips;
 				totalRequestedMips += mips;
 			}
 		}
 
-		getMipsMapRequested().put(vmUid, mipsShareRequested);
-		setPesInUse(getPesInUse() + mipsShareRequested.size());
+		getMipsTableRequested().put(vm, mipsShareRequested);
+		setPesInUse(getPesInUse() + mipsShareRequested.length);
 
-		if (getVmsMigratingIn().contains(vmUid)) {
+		boolean migratingIn = getVmsMigratingInTable().contains(vm);
+		boolean migratingOut = getVmsMigratingOutTable().contains(vm);
+		if (migratingIn) {
 			// the destination host only experience 10% of the migrating VM's MIPS
 			totalRequestedMips *= 0.1;
 		}
 
 		if (getAvailableMips() >= totalRequestedMips) {
-			List<Double> mipsShareAllocated = new ArrayList<Double>();
-			for (Double mipsRequested : mipsShareRequestedCapped) {
-				if (getVmsMigratingOut().contains(vmUid)) {
+			double[] mipsShareAllocated = mipsShareRequestedCapped;
+			for (int i = 0; i < mipsShareAllocated.length; i++) {
+				if (migratingOut) {
 					// performance degradation due to migration = 10% MIPS
-					mipsRequested *= 0.9;
-				} else if (getVmsMigratingIn().contains(vmUid)) {
+					mipsShareAllocated[i] *= 0.9;
+				} else if (migratingIn) {
 					// the destination host only experience 10% of the migrating VM's MIPS
-					mipsRequested *= 0.1;
+					mipsShareAllocated[i] *= 0.1;
 				}
-				mipsShareAllocated.add(mipsRequested);
 			}
 
-			getMipsMap().put(vmUid, mipsShareAllocated);
+			getMipsTable().put(vm, mipsShareAllocated);
 			setAvailableMips(getAvailableMips() - totalRequestedMips);
 		} else {
 			redistributeMipsDueToOverSubscription();
@@ -103,27 +102,26 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		// proportionally
 		double totalRequiredMipsByAllVms = 0;
 
-		Map<String, List<Double>> mipsMapCapped = new HashMap<String, List<Double>>();
-		for (Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
+		// walked as the requested mips map keyed by VM uid was, see VmSchedulerTimeShared#updatePeProvisioning
+		VmTable<double[]> mipsMapRequested = getMipsTableRequested();
+		int[] requestedHandles = mipsMapRequested.getHandlesInUidMapOrder();
+		double peMips = getPeCapacity();
+		for (int handle : requestedHandles) {
+			if (mipsMapRequested.getVm(handle) == null) {
+				// put by uid only in the deprecated requested mips map
+				continue;
+			}
 
 			double requiredMipsByThisVm = 0.0;
-			String vmId = entry.getKey();
-			List<Double> mipsShareRequested = entry.getValue();
-			List<Double> mipsShareRequestedCapped = new ArrayList<Double>();
-			double peMips = getPeCapacity();
-			for (Double mips : mipsShareRequested) {
+			for (double mips : mipsMapRequested.getValue(handle)) {
 				if (mips > peMips) {
-					mipsShareRequestedCapped.add(peMips);
 					requiredMipsByThisVm += peMips;
 				} else {
-					mipsShareRequestedCapped.add(mips);
 					requiredMipsByThisVm += mips;
 				}
 			}
 
-			mipsMapCapped.put(vmId, mipsShareRequestedCapped);
-
-			if (getVmsMigratingIn().contains(entry.getKey())) {
+			if (getVmsMigratingInTable().contains(mipsMapRequested.getVm(handle))) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				requiredMipsByThisVm *= 0.1;
 			}
@@ -134,21 +132,28 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		double scalingFactor = totalAvailableMips / totalRequiredMipsByAllVms;
 
 		// Clear the old MIPS allocation
-		getMipsMap().clear();
+		getMipsTable().clear();
 
 		// Update the actual MIPS allocated to the VMs
-		for (Entry<String, List<Double>> entry : mipsMapCapped.entrySet()) {
-			String vmUid = entry.getKey();
-			List<Double> requestedMips = entry.getValue();
-
-			List<Double> updatedMipsAllocation = new ArrayList<Double>();
-			for (Double mips : requestedMips) {
-				if (getVmsMigratingOut().contains(vmUid)) {
+		for (int handle : requestedHandles) {
+			Vm vm = mipsMapRequested.getVm(handle);
+			if (vm == null) {
+				continue;
+			}
+			double[] requestedMips = mipsMapRequested.getValue(handle);
+			boolean migratingIn = getVmsMigratingInTable().contains(vm);
+			boolean migratingOut = getVmsMigratingOutTable().contains(vm);
+
+			double[] updatedMipsAllocation = new double[requestedMips.length];
+			for (int i = 0; i < requestedMips.length; i++) {
+				// the requested mips are capped to the capacity of a single PE
+				double mips = Math.min(requestedMips[i], peMips);
+				if (migratingOut) {
 					// the original amount is scaled
 					mips *= scalingFactor;
 					// performance degradation due to migration = 10% MIPS
 					mips *= 0.9;
-				} else if (getVmsMigratingIn().contains(vmUid)) {
+				} else if (migratingIn) {
 					// the destination host only experiences 10% of the migrating VM's MIPS
 					mips *= 0.1;
 					// the final 10% of the requested MIPS are scaled
@@ -157,11 +162,11 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 					mips *= scalingFactor;
 				}
 
-				updatedMipsAllocation.add(Math.floor(mips));
+				updatedMipsAllocation[i] = Math.floor(mips);
 			}
 
 			// add in the new map
-			getMipsMap().put(vmUid, updatedMipsAllocation);
+			getMipsTable().put(vm, updatedMipsAllocation);
 
 		}
 
@@ -3,10 +3,9 @@ package org.cloudbus.cloudsim.container.containerSelectionPolicies;
 import org.cloudbus.cloudsim.container.core.Container;
 import org.cloudbus.cloudsim.container.core.PowerContainer;
 import org.cloudbus.cloudsim.container.core.PowerContainerHost;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.MultipleCorrelation;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,6 +19,9 @@ public class PowerContainerSelectionPolicyMaximumCorrelation extends PowerContai
      */
     private PowerContainerSelectionPolicy fallbackPolicy;
 
+    /** The engine computing the correlation coefficients, reused by each selection. */
+    private final MultipleCorrelation multipleCorrelation = new MultipleCorrelation();
+
     /**
      * Instantiates a new power container selection policy maximum correlation.
      *
@@ -97,29 +99,17 @@ public class PowerContainerSelectionPolicyMaximumCorrelation extends PowerContai
 
     /**
      * Gets the correlation coefficients.
+     * They are the coefficients of determination of the regression of the utilization
+     * history of each container on the histories of all the other ones.
      *
      * @param data the data
      * @return the correlation coefficients
      */
     protected List<Double> getCorrelationCoefficients(final double[][] data) {
-        int n = data.length;
-        int m = data[0].length;
-        List<Double> correlationCoefficients = new LinkedList<Double>();
-        for (int i = 0; i < n; i++) {
-            double[][] x = new double[n - 1][m];
-            int k = 0;
-            for (int j = 0; j < n; j++) {
-                if (j != i) {
-                    x[k++] = data[j];
-                }
-            }
-
-            // Transpose the matrix so that it fits the linear model
-            double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
-
-            // RSquare is the "coefficient of determination"
-            correlationCoefficients.add(MathUtil.createLinearRegression(xT,
-                    data[i]).calculateRSquared());
+        double[] coefficients = getMultipleCorrelation().getCoefficientsOfDetermination(data);
+        List<Double> correlationCoefficients = new ArrayList<Double>(coefficients.length);
+        for (double coefficient : coefficients) {
+            correlationCoefficients.add(coefficient);
         }
         return correlationCoefficients;
     }
@@ -142,6 +132,15 @@ public class PowerContainerSelectionPolicyMaximumCorrelation extends PowerContai
         this.fallbackPolicy = fallbackPolicy;
     }
 
+    /**
+     * Gets the engine computing the correlation coefficients.
+     *
+     * @return the multiple correlation engine
+     */
+    protected MultipleCorrelation getMultipleCorrelation() {
+        return multipleCorrelation;
+    }
+
 }
 
 
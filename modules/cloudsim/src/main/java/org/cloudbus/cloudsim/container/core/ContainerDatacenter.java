@@ -4,7 +4,6 @@ package org.cloudbus.cloudsim.container.core;
 import org.cloudbus.cloudsim.container.resourceAllocators.ContainerAllocationPolicy;
 import org.cloudbus.cloudsim.container.resourceAllocators.ContainerVmAllocationPolicy;
 import org.cloudbus.cloudsim.*;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
@@ -12,6 +11,7 @@ import org.cloudbus.cloudsim.core.SimEvent;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -71,6 +71,81 @@ public class ContainerDatacenter extends SimEntity {
      */
     private String logAddress;
 
+    /**
+     * The position of each host in the host list of the VM allocation policy.
+     */
+    private Map<ContainerHost, Integer> hostIndexes;
+
+    /**
+     * The schedulers of the containers that have finished cloudlets not returned to their users
+     * yet.
+     */
+    private final CloudletFinishTracker<Container> finishedCloudletTracker = new CloudletFinishTracker<Container>(3) {
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * The position is made of the index of the host, of the index of the VM in the host and
+         * of the index of the container in the VM. A VM or a container in migration is in the
+         * lists of two hosts or VMs, and takes the first position.
+         */
+        @Override
+        protected boolean locate(Container container, int[] position) {
+            ContainerVm vm = container.getVm();
+            if (container.isInMigration() || (vm != null && vm.isInMigration())) {
+                List<? extends ContainerHost> list = getVmAllocationPolicy().getContainerHostList();
+                for (int i = 0; i < list.size(); i++) {
+                    List<ContainerVm> vms = list.get(i).getVmList();
+                    for (int j = 0; j < vms.size(); j++) {
+                        int index = vms.get(j).getContainerList().indexOf(container);
+                        if (index >= 0) {
+                            position[0] = i;
+                            position[1] = j;
+                            position[2] = index;
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+            ContainerHost host = vm == null ? null : vm.getHost();
+            Integer index = host == null ? null : getHostIndexes().get(host);
+            if (index == null) {
+                return false;
+            }
+            position[0] = index;
+            position[1] = host.getVmList().indexOf(vm);
+            position[2] = vm.getContainerList().indexOf(container);
+            return position[1] >= 0 && position[2] >= 0;
+        }
+
+        @Override
+        protected CloudletFinishListener getCloudletFinishListener(Container container) {
+            return container.getContainerCloudletScheduler().getCloudletFinishListener();
+        }
+
+        @Override
+        protected void setCloudletFinishListener(Container container, CloudletFinishListener listener) {
+            container.getContainerCloudletScheduler().setCloudletFinishListener(listener);
+        }
+
+        @Override
+        protected boolean hasFinishedCloudlets(Container container) {
+            return container.getContainerCloudletScheduler().isFinishedCloudlets();
+        }
+
+        @Override
+        protected Cloudlet getNextFinishedCloudlet(Container container) {
+            return container.getContainerCloudletScheduler().getNextFinishedCloudlet();
+        }
+
+    };
+
+    /**
+     * Whether the cloudlets that finish at the same time are returned to each user in a single
+     * {@link CloudSimTags#CLOUDLET_RETURN_BATCH} event.
+     */
+    private boolean batchCloudletReturns;
 
     /**
      * Allocates a new PowerDatacenter object.
@@ -286,6 +361,9 @@ public class ContainerDatacenter extends SimEntity {
 
         for (Container container : containerList) {
             boolean result = getContainerAllocationPolicy().allocateVmForContainer(container, getContainerVmList());
+            if (result) {
+                listenForFinishedCloudlets(container);
+            }
             if (ack) {
                 int[] data = new int[3];
                 data[1] = container.getId();
@@ -306,14 +384,14 @@ public class ContainerDatacenter extends SimEntity {
                     if (container.isBeingInstantiated()) {
                         container.setBeingInstantiated(false);
                     }
-                    container.updateContainerProcessing(CloudSim.clock(), getContainerAllocationPolicy().getContainerVm(container).getContainerScheduler().getAllocatedMipsForContainer(container));
+                    container.updateContainerProcessing(getSimulation().clock(), getContainerAllocationPolicy().getContainerVm(container).getContainerScheduler().getAllocatedMipsForContainer(container));
                 } else {
                     data[0] = -1;
                     //notAssigned.add(container);
                     Log.printLine(String.format("Couldn't find a vm to host the container #%s", container.getUid()));
 
                 }
-                send(ev.getSource(), CloudSim.getMinTimeBetweenEvents(), containerCloudSimTags.CONTAINER_CREATE_ACK, data);
+                send(ev.getSource(), getSimulation().getMinTimeBetweenEvents(), containerCloudSimTags.CONTAINER_CREATE_ACK, data);
 
             }
         }
@@ -506,7 +584,7 @@ public class ContainerDatacenter extends SimEntity {
             } else {
                 data[2] = CloudSimTags.FALSE;
             }
-            send(containerVm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
+            send(containerVm.getUserId(), getSimulation().getMinTimeBetweenEvents(), CloudSimTags.VM_CREATE_ACK, data);
         }
 
         if (result) {
@@ -516,7 +594,7 @@ public class ContainerDatacenter extends SimEntity {
                 containerVm.setBeingInstantiated(false);
             }
 
-            containerVm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(containerVm).getContainerVmScheduler()
+            containerVm.updateVmProcessing(getSimulation().clock(), getVmAllocationPolicy().getHost(containerVm).getContainerVmScheduler()
                     .getAllocatedMipsForContainerVm(containerVm));
         }
 
@@ -535,6 +613,9 @@ public class ContainerDatacenter extends SimEntity {
     protected void processVmDestroy(SimEvent ev, boolean ack) {
         ContainerVm containerVm = (ContainerVm) ev.getData();
         getVmAllocationPolicy().deallocateHostForVm(containerVm);
+        for (Container container : containerVm.getContainerList()) {
+            forgetFinishedCloudlets(container);
+        }
 
         if (ack) {
             int[] data = new int[3];
@@ -591,7 +672,7 @@ public class ContainerDatacenter extends SimEntity {
 
         Log.formatLine(
                 "%.2f: Migration of VM #%d to Host #%d is completed",
-                CloudSim.clock(),
+                getSimulation().clock(),
                 containerVm.getId(),
                 host.getId());
         containerVm.setInMigration(false);
@@ -626,6 +707,7 @@ public class ContainerDatacenter extends SimEntity {
             Log.printLine("[Datacenter.processContainerMigrate]Container allocation to the destination vm failed");
             System.exit(0);
         }
+        listenForFinishedCloudlets(container);
         if (containerVm.isInWaiting()){
             containerVm.setInWaiting(false);
 
@@ -646,7 +728,7 @@ public class ContainerDatacenter extends SimEntity {
 
         Log.formatLine(
                 "%.2f: Migration of container #%d to Vm #%d is completed",
-                CloudSim.clock(),
+                getSimulation().clock(),
                 container.getId(),
                 container.getVm().getId());
         container.setInMigration(false);
@@ -771,7 +853,8 @@ public class ContainerDatacenter extends SimEntity {
                 } else {
                     // time to transfer the files
                     double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
-                    containerVm.getContainer(containerDestId, userId).getContainerCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
+                    Container container = containerVm.getContainer(containerDestId, userId);
+                    container.getContainerCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
                 }
             } else {// the cloudlet will migrate from one resource to another
                 int tag = ((type == CloudSimTags.CLOUDLET_MOVE_ACK) ? CloudSimTags.CLOUDLET_SUBMIT_ACK
@@ -809,7 +892,7 @@ public class ContainerDatacenter extends SimEntity {
 
             // checks whether this Cloudlet has finished or not
             if (cl.isFinished()) {
-                String name = CloudSim.getEntityName(cl.getUserId());
+                String name = getSimulation().getEntityName(cl.getUserId());
                 Log.printConcatLine(getName(), ": Warning - Cloudlet #", cl.getCloudletId(), " owned by ", name,
                         " is already completed/finished.");
                 Log.printLine("Therefore, it is not being executed again");
@@ -918,7 +1001,7 @@ public class ContainerDatacenter extends SimEntity {
         boolean status = false;
         if (eventTime > 0.0) { // if this cloudlet is in the exec queue
             status = true;
-            if (eventTime > CloudSim.clock()) {
+            if (eventTime > getSimulation().clock()) {
                 schedule(getId(), eventTime, CloudSimTags.VM_DATACENTER_EVENT);
             }
         }
@@ -990,52 +1073,125 @@ public class ContainerDatacenter extends SimEntity {
         // if some time passed since last processing
         // R: for term is to allow loop at simulation start. Otherwise, one initial
         // simulation step is skipped and schedulers are not properly initialized
-        if (CloudSim.clock() < 0.111 || CloudSim.clock() > getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+        if (getSimulation().clock() < 0.111 || getSimulation().clock() > getLastProcessTime() + getSimulation().getMinTimeBetweenEvents()) {
             List<? extends ContainerHost> list = getVmAllocationPolicy().getContainerHostList();
             double smallerTime = Double.MAX_VALUE;
             // for each host...
             for (int i = 0; i < list.size(); i++) {
                 ContainerHost host = list.get(i);
                 // inform VMs to update processing
-                double time = host.updateContainerVmsProcessing(CloudSim.clock());
+                double time = host.updateContainerVmsProcessing(getSimulation().clock());
                 // what time do we expect that the next cloudlet will finish?
                 if (time < smallerTime) {
                     smallerTime = time;
                 }
             }
             // gurantees a minimal interval before scheduling the event
-            if (smallerTime < CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01) {
-                smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
+            if (smallerTime < getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01) {
+                smallerTime = getSimulation().clock() + getSimulation().getMinTimeBetweenEvents() + 0.01;
             }
             if (smallerTime != Double.MAX_VALUE) {
-                schedule(getId(), (smallerTime - CloudSim.clock()), CloudSimTags.VM_DATACENTER_EVENT);
+                schedule(getId(), (smallerTime - getSimulation().clock()), CloudSimTags.VM_DATACENTER_EVENT);
             }
-            setLastProcessTime(CloudSim.clock());
+            setLastProcessTime(getSimulation().clock());
         }
     }
 
     /**
      * Verifies if some cloudlet inside this PowerDatacenter already finished. If yes, send it to
-     * the User/Broker
+     * the User/Broker.
+     * Only the containers whose scheduler reported finished cloudlets to the datacenter are
+     * checked, in the order of the hosts, of the VMs in each host and of the containers in each
+     * VM, so the cloudlets are returned in the same order as when checking every container.
      *
      * @pre $none
      * @post $none
+     * @see #listenForFinishedCloudlets(Container)
      */
     protected void checkCloudletCompletion() {
-        List<? extends ContainerHost> list = getVmAllocationPolicy().getContainerHostList();
-        for (int i = 0; i < list.size(); i++) {
-            ContainerHost host = list.get(i);
-            for (ContainerVm vm : host.getVmList()) {
-                for (Container container : vm.getContainerList()) {
-                    while (container.getContainerCloudletScheduler().isFinishedCloudlets()) {
-                        Cloudlet cl = container.getContainerCloudletScheduler().getNextFinishedCloudlet();
-                        if (cl != null) {
-                            sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-                        }
-                    }
-                }
+        if (!finishedCloudletTracker.hasPending()) {
+            return;
+        }
+        List<Cloudlet> finished = new ArrayList<Cloudlet>();
+        finishedCloudletTracker.pollFinishedCloudlets(finished);
+
+        if (!isBatchCloudletReturns()) {
+            for (Cloudlet cl : finished) {
+                sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
             }
+            return;
+        }
+        Map<Integer, List<Cloudlet>> batches = new LinkedHashMap<Integer, List<Cloudlet>>();
+        for (Cloudlet cl : finished) {
+            List<Cloudlet> batch = batches.get(cl.getUserId());
+            if (batch == null) {
+                batch = new ArrayList<Cloudlet>();
+                batches.put(cl.getUserId(), batch);
+            }
+            batch.add(cl);
         }
+        for (Map.Entry<Integer, List<Cloudlet>> entry : batches.entrySet()) {
+            sendNow(entry.getKey(), CloudSimTags.CLOUDLET_RETURN_BATCH, entry.getValue());
+        }
+    }
+
+    /**
+     * Makes the scheduler of a container report its finished cloudlets to the datacenter, when the
+     * container is allocated to a VM of the datacenter or migrated to another VM. Only the
+     * containers that reported finished cloudlets are checked by {@link #checkCloudletCompletion()}.
+     *
+     * @param container the container placed on a VM of the datacenter
+     */
+    protected void listenForFinishedCloudlets(Container container) {
+        finishedCloudletTracker.listen(container);
+    }
+
+    /**
+     * Stops tracking the finished cloudlets of a container that leaves the datacenter.
+     *
+     * @param container the container
+     * @see #listenForFinishedCloudlets(Container)
+     */
+    protected void forgetFinishedCloudlets(Container container) {
+        finishedCloudletTracker.forget(container);
+    }
+
+    /**
+     * Gets the position of each host in the host list of the VM allocation policy.
+     *
+     * @return the host positions
+     */
+    private Map<ContainerHost, Integer> getHostIndexes() {
+        if (hostIndexes == null) {
+            List<? extends ContainerHost> list = getVmAllocationPolicy().getContainerHostList();
+            hostIndexes = new HashMap<ContainerHost, Integer>();
+            for (int i = 0; i < list.size(); i++) {
+                hostIndexes.put(list.get(i), i);
+            }
+        }
+        return hostIndexes;
+    }
+
+    /**
+     * Checks whether the cloudlets that finish at the same time are returned to each user in a
+     * single event.
+     *
+     * @return true if the finished cloudlets are returned in
+     * {@link CloudSimTags#CLOUDLET_RETURN_BATCH} events
+     */
+    public boolean isBatchCloudletReturns() {
+        return batchCloudletReturns;
+    }
+
+    /**
+     * Sets whether the cloudlets that finish at the same time are returned to each user in a
+     * single {@link CloudSimTags#CLOUDLET_RETURN_BATCH} event, whose data is the list of the
+     * cloudlets. It is disabled by default.
+     *
+     * @param batchCloudletReturns true to return the finished cloudlets in batches
+     */
+    public void setBatchCloudletReturns(boolean batchCloudletReturns) {
+        this.batchCloudletReturns = batchCloudletReturns;
     }
 
     /**
@@ -1154,9 +1310,9 @@ public class ContainerDatacenter extends SimEntity {
         // this resource should register to regional GIS.
         // However, if not specified, then register to system GIS (the
         // default CloudInformationService) entity.
-        int gisID = CloudSim.getEntityId(regionalCisName);
+        int gisID = getSimulation().getEntityId(regionalCisName);
         if (gisID == -1) {
-            gisID = CloudSim.getCloudInfoServiceEntityId();
+            gisID = getSimulation().getCloudInfoServiceEntityId();
         }
 
         // send the registration to GIS
@@ -1227,6 +1383,7 @@ public class ContainerDatacenter extends SimEntity {
      */
     protected void setVmAllocationPolicy(ContainerVmAllocationPolicy vmAllocationPolicy) {
         this.vmAllocationPolicy = vmAllocationPolicy;
+        hostIndexes = null;
     }
 
     /**
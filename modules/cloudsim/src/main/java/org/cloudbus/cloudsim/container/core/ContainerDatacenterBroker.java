@@ -5,7 +5,6 @@ import org.cloudbus.cloudsim.container.lists.ContainerVmList;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
@@ -230,6 +229,10 @@ public class ContainerDatacenterBroker extends SimEntity {
             case CloudSimTags.CLOUDLET_RETURN:
                 processCloudletReturn(ev);
                 break;
+            // Several finished cloudlets returned at once
+            case CloudSimTags.CLOUDLET_RETURN_BATCH:
+                processCloudletReturnBatch(ev);
+                break;
             // if the simulation finishes
             case CloudSimTags.END_OF_SIMULATION:
                 shutdownEntity();
@@ -259,13 +262,13 @@ public class ContainerDatacenterBroker extends SimEntity {
 
 //            ContainerVm p= ContainerVmList.getById(getVmsCreatedList(), vmId);
             int hostId = ContainerVmList.getById(getVmsCreatedList(), vmId).getHost().getId();
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": The Container #", containerId,
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": The Container #", containerId,
                      ", is created on Vm #",vmId
                     , ", On Host#", hostId);
             setContainersCreated(getContainersCreated()+1);}
         } else {
             //Container container = ContainerList.getById(getContainerList(), containerId);
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Failed Creation of Container #", containerId);
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Failed Creation of Container #", containerId);
         }
 
         incrementContainersAcks();
@@ -303,10 +306,10 @@ public class ContainerDatacenterBroker extends SimEntity {
      * @post $none
      */
     protected void processResourceCharacteristicsRequest(SimEvent ev) {
-        setDatacenterIdsList(CloudSim.getCloudResourceList());
+        setDatacenterIdsList(getSimulation().getCloudResourceList());
         setDatacenterCharacteristicsList(new HashMap<Integer, ContainerDatacenterCharacteristics>());
 
-        //Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Cloud Resource List received with ",
+        //Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Cloud Resource List received with ",
 //                getDatacenterIdsList().size(), " resource(s)");
 
         for (Integer datacenterId : getDatacenterIdsList()) {
@@ -323,11 +326,11 @@ public class ContainerDatacenterBroker extends SimEntity {
             getVmList().add(containerVm);
             getVmsToDatacentersMap().put(vmId, datacenterId);
             getVmsCreatedList().add(containerVm);
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": VM #", vmId,
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": VM #", vmId,
                     " has been created in Datacenter #", datacenterId, ", Host #",
                     ContainerVmList.getById(getVmsCreatedList(), vmId).getHost().getId());
         } else {
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Creation of VM #", vmId,
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Creation of VM #", vmId,
                     " failed in Datacenter #", datacenterId);
         }}
     /**
@@ -346,12 +349,12 @@ public class ContainerDatacenterBroker extends SimEntity {
         if (result == CloudSimTags.TRUE) {
             getVmsToDatacentersMap().put(vmId, datacenterId);
             getVmsCreatedList().add(ContainerVmList.getById(getVmList(), vmId));
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": VM #", vmId,
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": VM #", vmId,
                     " has been created in Datacenter #", datacenterId, ", Host #",
                     ContainerVmList.getById(getVmsCreatedList(), vmId).getHost().getId());
             setNumberOfCreatedVMs(getNumberOfCreatedVMs()+1);
         } else {
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Creation of VM #", vmId,
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Creation of VM #", vmId,
                     " failed in Datacenter #", datacenterId);
         }
 
@@ -380,7 +383,7 @@ public class ContainerDatacenterBroker extends SimEntity {
 //                if (getVmsCreatedList().size() > 0) { // if some vm were created
 //                    submitCloudlets();
 //                } else { // no vms created. abort
-//                    Log.printLine(CloudSim.clock() + ": " + getName()
+//                    Log.printLine(getSimulation().clock() + ": " + getName()
 //                            + ": none of the required VMs could be created. Aborting");
 //                    finishExecution();
 //                }
@@ -396,14 +399,41 @@ public class ContainerDatacenterBroker extends SimEntity {
      * @post $none
      */
     protected void processCloudletReturn(SimEvent ev) {
-        ContainerCloudlet cloudlet = (ContainerCloudlet) ev.getData();
+        processReturnedCloudlet((ContainerCloudlet) ev.getData());
+    }
+
+    /**
+     * Process a cloudlet batch return event, whose data is the list of the returned cloudlets.
+     * The cloudlets are processed one by one, in the order of the list.
+     *
+     * @param ev a SimEvent object
+     * @pre ev != $null
+     * @post $none
+     * @see ContainerDatacenter#setBatchCloudletReturns(boolean)
+     */
+    protected void processCloudletReturnBatch(SimEvent ev) {
+        @SuppressWarnings("unchecked")
+        List<ContainerCloudlet> cloudlets = (List<ContainerCloudlet>) ev.getData();
+        for (ContainerCloudlet cloudlet : cloudlets) {
+            processReturnedCloudlet(cloudlet);
+        }
+    }
+
+    /**
+     * Process a finished cloudlet returned by a datacenter.
+     *
+     * @param cloudlet the returned cloudlet
+     * @pre cloudlet != $null
+     * @post $none
+     */
+    protected void processReturnedCloudlet(ContainerCloudlet cloudlet) {
         getCloudletReceivedList().add(cloudlet);
-        Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Cloudlet ", cloudlet.getCloudletId(),
+        Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Cloudlet ", cloudlet.getCloudletId(),
                 " returned");
-        Log.printConcatLine(CloudSim.clock(), ": ", getName(), "The number of finished Cloudlets is:", getCloudletReceivedList().size());
+        Log.printConcatLine(getSimulation().clock(), ": ", getName(), "The number of finished Cloudlets is:", getCloudletReceivedList().size());
         cloudletsSubmitted--;
         if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
+            Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
             clearDatacenters();
             finishExecution();
         } else { // some cloudlets haven't finished yet
@@ -444,10 +474,10 @@ public class ContainerDatacenterBroker extends SimEntity {
     protected void createVmsInDatacenter(int datacenterId) {
         // send as much vms as possible for this datacenter before trying the next one
         int requestedVms = 0;
-        String datacenterName = CloudSim.getEntityName(datacenterId);
+        String datacenterName = getSimulation().getEntityName(datacenterId);
         for (ContainerVm vm : getVmList()) {
             if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-                Log.printLine(String.format("%s: %s: Trying to Create VM #%d in %s", CloudSim.clock(), getName(), vm.getId(), datacenterName));
+                Log.printLine(String.format("%s: %s: Trying to Create VM #%d in %s", getSimulation().clock(), getName(), vm.getId(), datacenterName));
                 sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
                 requestedVms++;
             }
@@ -502,7 +532,7 @@ public class ContainerDatacenterBroker extends SimEntity {
 //                vm = ContainerVmList.getById(getVmsCreatedList(), cloudlet.getVmId());
 //                if (vm == null) { // vm was not created
 //                    if (!Log.isDisabled()) {
-//                        Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+//                        Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 //                                cloudlet.getCloudletId(), ": bount VM not available");
 //                    }
 //                    continue;
@@ -510,7 +540,7 @@ public class ContainerDatacenterBroker extends SimEntity {
 //            }
 //
 //            if (!Log.isDisabled()) {
-//                Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Sending cloudlet ",
+//                Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Sending cloudlet ",
 //                        cloudlet.getCloudletId(), " to VM #", cloudlet.getContainerId());
 //            }
 
@@ -528,7 +558,7 @@ public class ContainerDatacenterBroker extends SimEntity {
 //                vm = ContainerVmList.getById(getVmsCreatedList(), cloudlet.getVmId());
 //                if (vm == null) { // vm was not created
 //                    if (!Log.isDisabled()) {
-//                        Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Postponing execution of cloudlet ",
+//                        Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Postponing execution of cloudlet ",
 //                                cloudlet.getCloudletId(), ": bount VM not available");
 //                    }
 //                    continue;
@@ -536,7 +566,7 @@ public class ContainerDatacenterBroker extends SimEntity {
 //            }
 //
 //            if (!Log.isDisabled()) {cloudlet.getCloudletId()
-//                Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Sending cloudlet ",
+//                Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Sending cloudlet ",
 //                        cloudlet.getCloudletId(), " to VM #", vm.getId());
 //            }
 //
@@ -562,7 +592,7 @@ public class ContainerDatacenterBroker extends SimEntity {
      */
     protected void clearDatacenters() {
         for (ContainerVm vm : getVmsCreatedList()) {
-//            Log.printConcatLine(CloudSim.clock(), ": " + getName(), ": Destroying VM #", vm.getId());
+//            Log.printConcatLine(getSimulation().clock(), ": " + getName(), ": Destroying VM #", vm.getId());
             sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.VM_DESTROY, vm);
         }
 
@@ -612,7 +642,7 @@ public class ContainerDatacenterBroker extends SimEntity {
 //        for (Container container : getContainerList()) {
 //
 //            if (!Log.isDisabled()) {
-//                Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Sending container ",
+//                Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Sending container ",
 //                        container.getId(), " to Datacenter");
 //            }
 //            cloudletsSubmitted++;
@@ -7,7 +7,6 @@ import org.cloudbus.cloudsim.container.resourceAllocators.ContainerVmAllocationP
 import org.cloudbus.cloudsim.container.utils.CostumeCSVWriter;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Storage;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
@@ -109,12 +108,12 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
     @Override
     protected void updateCloudletProcessing() {
 //        Log.printLine("Power data center is Updating the cloudlet processing");
-        if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == CloudSim.clock()) {
-            CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+        if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == getSimulation().clock()) {
+            getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
             schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
             return;
         }
-        double currentTime = CloudSim.clock();
+        double currentTime = getSimulation().clock();
 
         // if some time passed since last processing
         if (currentTime > getLastProcessTime()) {
@@ -161,19 +160,19 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
                     }
 
                 }
-                Log.printConcatLine(CloudSim.clock(), ": The number of Migrations is:  ", getVmMigrationCount() - previousMigrationCount);
-//                String[] msg={Double.toString (CloudSim.clock()), Integer.toString (getVmMigrationCount() - previousMigrationCount)  } ;                   // <--declared statement
+                Log.printConcatLine(getSimulation().clock(), ": The number of Migrations is:  ", getVmMigrationCount() - previousMigrationCount);
+//                String[] msg={Double.toString (getSimulation().clock()), Integer.toString (getVmMigrationCount() - previousMigrationCount)  } ;                   // <--declared statement
 //                try {
 //                    getVmMigrationWriter().writeTofile(msg);
 //                } catch (IOException e) {
 //                    e.printStackTrace();
 //                }
-//                Log.printConcatLine(CloudSim.clock(),": The total number of Migrations is:  ",getVmMigrationCount());
+//                Log.printConcatLine(getSimulation().clock(),": The total number of Migrations is:  ",getVmMigrationCount());
             }
 
             // schedules an event to the next time
             if (minTime != Double.MAX_VALUE) {
-                CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+                getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
                 send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
             }
 
@@ -188,7 +187,7 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
      */
     protected double updateCloudetProcessingWithoutSchedulingFutureEvents() {
 //        Log.printLine("Power data center is Updating CloudetProcessingWithoutSchedulingFutureEvents");
-        if (CloudSim.clock() > getLastProcessTime()) {
+        if (getSimulation().clock() > getLastProcessTime()) {
             return updateCloudetProcessingWithoutSchedulingFutureEventsForce();
         }
         return 0;
@@ -201,7 +200,7 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
      */
     protected double updateCloudetProcessingWithoutSchedulingFutureEventsForce() {
 //        Log.printLine("Power data center is Updating CloudetProcessingWithoutSchedulingFutureEventsForce");
-        double currentTime = CloudSim.clock();
+        double currentTime = getSimulation().clock();
         double minTime = Double.MAX_VALUE;
         double timeDiff = currentTime - getLastProcessTime();
         double timeFrameDatacenterEnergy = 0.0;
@@ -313,8 +312,8 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
     protected void processVmMigrate(SimEvent ev, boolean ack) {
         updateCloudetProcessingWithoutSchedulingFutureEvents();
         super.processVmMigrate(ev, ack);
-        SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
-        if (event == null || event.eventTime() > CloudSim.clock()) {
+        SimEvent event = getSimulation().findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
+        if (event == null || event.eventTime() > getSimulation().clock()) {
             updateCloudetProcessingWithoutSchedulingFutureEventsForce();
         }
     }
@@ -328,7 +327,7 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
 //        updateCloudetProcessingWithoutSchedulingFutureEvents();
 //        super.processContainerMigrate(ev, ack);
 //        SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(containerCloudSimCloudTags.CONTAINER_MIGRATE));
-//        if (event == null || event.eventTime() > CloudSim.clock()) {
+//        if (event == null || event.eventTime() > getSimulation().clock()) {
 //            updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 //        }
 //    }
@@ -340,8 +339,35 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
     protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 //        Log.printLine("Power data center is processing cloudlet submit");
         super.processCloudletSubmit(ev, ack);
-//        Log.printLine("Power Data Center : Set Cloudlet Submited to " + CloudSim.clock());
-        setCloudletSubmitted(CloudSim.clock());
+//        Log.printLine("Power Data Center : Set Cloudlet Submited to " + getSimulation().clock());
+        setCloudletSubmitted(getSimulation().clock());
+    }
+
+    /**
+     * Closes the CSV writers, so the rows they still hold are written to their files.
+     */
+    @Override
+    public void shutdownEntity() {
+        closeWriter(getContainerMigrationWriter());
+        closeWriter(getVmMigrationWriter());
+        closeWriter(getDatacenterEnergyWriter());
+        super.shutdownEntity();
+    }
+
+    /**
+     * Closes a CSV writer, if any, printing the error if its rows could not be written.
+     *
+     * @param writer the writer
+     */
+    protected void closeWriter(CostumeCSVWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
@@ -5,7 +5,6 @@ import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.container.resourceAllocators.ContainerAllocationPolicy;
 import org.cloudbus.cloudsim.container.resourceAllocators.ContainerVmAllocationPolicy;
 import org.cloudbus.cloudsim.container.utils.CostumeCSVWriter;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
@@ -53,12 +52,12 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
     protected void updateCloudletProcessing() {
 
         //        Log.printLine("Power data center is Updating the cloudlet processing");
-        if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == CloudSim.clock()) {
-            CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+        if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == getSimulation().clock()) {
+            getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
             schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
             return;
         }
-        double currentTime = CloudSim.clock();
+        double currentTime = getSimulation().clock();
 
         // if some time passed since last processing
         if (currentTime > getLastProcessTime()) {
@@ -190,10 +189,10 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
                 }
                 getContainerMigrationList().add((double) (getContainerMigrationCount() - previousContainerMigrationCount));
 
-                Log.printConcatLine(CloudSim.clock(), ": The Number Container of Migrations is:  ", getContainerMigrationCount() - previousContainerMigrationCount);
-                Log.printConcatLine(CloudSim.clock(), ": The Number of VM Migrations is:  ", getVmMigrationCount() - previousVmMigrationCount);
-                String[] vmMig = {Double.toString(CloudSim.clock()), Integer.toString(getVmMigrationCount() - previousVmMigrationCount)};                   // <--declared statement
-                String[] msg = {Double.toString(CloudSim.clock()), Integer.toString(getContainerMigrationCount() - previousContainerMigrationCount)};                   // <--declared statement
+                Log.printConcatLine(getSimulation().clock(), ": The Number Container of Migrations is:  ", getContainerMigrationCount() - previousContainerMigrationCount);
+                Log.printConcatLine(getSimulation().clock(), ": The Number of VM Migrations is:  ", getVmMigrationCount() - previousVmMigrationCount);
+                String[] vmMig = {Double.toString(getSimulation().clock()), Integer.toString(getVmMigrationCount() - previousVmMigrationCount)};                   // <--declared statement
+                String[] msg = {Double.toString(getSimulation().clock()), Integer.toString(getContainerMigrationCount() - previousContainerMigrationCount)};                   // <--declared statement
                 try {
                     getContainerMigrationWriter().writeTofile(msg);
                 } catch (IOException e) {
@@ -208,7 +207,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
                 int numberOfNewVms = getNewlyCreatedVms();
                 getNewlyCreatedVmsList().add(numberOfNewVms);
-                String[] msg1 = {Double.toString(CloudSim.clock()), Integer.toString(numberOfNewVms)};                   // <--declared statement
+                String[] msg1 = {Double.toString(getSimulation().clock()), Integer.toString(numberOfNewVms)};                   // <--declared statement
                 try {
                     getNewlyCreatedVmWriter().writeTofile(msg1);
                 } catch (IOException e) {
@@ -219,7 +218,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
             // schedules an event to the next time
             if (minTime != Double.MAX_VALUE) {
-                CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+                getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
                 send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
             }
 
@@ -229,6 +228,15 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
     }
 
+    /**
+     * Closes the CSV writers, so the rows they still hold are written to their files.
+     */
+    @Override
+    public void shutdownEntity() {
+        closeWriter(getNewlyCreatedVmWriter());
+        super.shutdownEntity();
+    }
+
     @Override
     protected void processVmCreate(SimEvent ev, boolean ack) {
 
@@ -253,11 +261,11 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
                 } else {
                     data.put("result", CloudSimTags.FALSE);
                 }
-                send(2, CloudSim.getMinTimeBetweenEvents(), containerCloudSimTags.VM_NEW_CREATE, data);
+                send(2, getSimulation().getMinTimeBetweenEvents(), containerCloudSimTags.VM_NEW_CREATE, data);
             }
 
             if (result) {
-                Log.printLine(String.format("%s VM ID #%d is created on Host #%d", CloudSim.clock(), containerVm.getId(), host.getId()));
+                Log.printLine(String.format("%s VM ID #%d is created on Host #%d", getSimulation().clock(), containerVm.getId(), host.getId()));
                 incrementNewlyCreatedVmsCount();
                 getContainerVmList().add(containerVm);
 
@@ -266,7 +274,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
                     containerVm.setBeingInstantiated(false);
                 }
 
-                containerVm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(containerVm).getContainerVmScheduler()
+                containerVm.updateVmProcessing(getSimulation().clock(), getVmAllocationPolicy().getHost(containerVm).getContainerVmScheduler()
                         .getAllocatedMipsForContainerVm(containerVm));
             }
 
@@ -1,6 +1,8 @@
 package org.cloudbus.cloudsim.container.schedulers;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletFinishListener;
+import org.cloudbus.cloudsim.FinishedCloudletList;
 import org.cloudbus.cloudsim.ResCloudlet;
 
 import java.util.ArrayList;
@@ -25,12 +27,34 @@ public abstract class ContainerCloudletScheduler {
         /** The cloudlet paused list. */
         protected List<? extends ResCloudlet> cloudletPausedList;
 
-        /** The cloudlet finished list. */
+        /**
+         * The cloudlet finished list. The cloudlets added straight to this field are not
+         * reported to the {@link #getCloudletFinishListener() finish listener}, thus finished
+         * cloudlets must be added through {@link #getCloudletFinishedList()}.
+         */
         protected List<? extends ResCloudlet> cloudletFinishedList;
 
         /** The cloudlet failed list. */
         protected List<? extends ResCloudlet> cloudletFailedList;
 
+        /** The listener notified each time a cloudlet finishes, if any. */
+        private CloudletFinishListener cloudletFinishListener;
+
+        /** The view of the finished list, which notifies the finish listener of the cloudlets added. */
+        private final FinishedCloudletList cloudletFinishedListView = new FinishedCloudletList() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected List<ResCloudlet> getCloudlets() {
+                return (List<ResCloudlet>) cloudletFinishedList;
+            }
+
+            @Override
+            protected CloudletFinishListener getCloudletFinishListener() {
+                return cloudletFinishListener;
+            }
+        };
+
         /**
          * Creates a new CloudletScheduler object. This method must be invoked before starting the
          * actual simulation.
@@ -321,14 +345,16 @@ public abstract class ContainerCloudletScheduler {
         }
 
         /**
-         * Gets the cloudlet finished list.
+         * Gets the cloudlet finished list. The list returned is a view of the list the scheduler
+         * holds, which notifies the {@link #getCloudletFinishListener() finish listener} of each
+         * cloudlet added to it.
          *
          * @param <T> the generic type
          * @return the cloudlet finished list
          */
         @SuppressWarnings("unchecked")
         public <T extends ResCloudlet> List<T> getCloudletFinishedList() {
-            return (List<T>) cloudletFinishedList;
+            return (List<T>) (List<?>) cloudletFinishedListView;
         }
 
         /**
@@ -341,6 +367,25 @@ public abstract class ContainerCloudletScheduler {
             this.cloudletFinishedList = cloudletFinishedList;
         }
 
+        /**
+         * Gets the listener notified each time a cloudlet finishes.
+         *
+         * @return the cloudlet finish listener, or $null if there is none
+         */
+        public CloudletFinishListener getCloudletFinishListener() {
+            return cloudletFinishListener;
+        }
+
+        /**
+         * Sets the listener notified each time a cloudlet finishes. The datacenter hosting the
+         * container sets it when a cloudlet is submitted to the container.
+         *
+         * @param cloudletFinishListener the cloudlet finish listener, or $null to remove it
+         */
+        public void setCloudletFinishListener(CloudletFinishListener cloudletFinishListener) {
+            this.cloudletFinishListener = cloudletFinishListener;
+        }
+
         /**
          * Gets the cloudlet failed list.
          *
@@ -3,19 +3,53 @@ package org.cloudbus.cloudsim.container.utils;
 import com.opencsv.CSVWriter;
 import org.cloudbus.cloudsim.Log;
 
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Created by sareh on 30/07/15.
+ * <p/>
+ * The file is opened on the first row written and kept open until {@link #close()}. Rows are
+ * gathered in batches, which are handed to a background thread that writes them, so writing a
+ * row does not wait for the disk. When the background thread falls behind, writing a row waits
+ * for room in its bounded queue. {@link #flush()} waits until all the rows written so far are in
+ * the file. Once the background thread could not write a row, the rows handed to it afterwards
+ * are lost, so its error is thrown by every later call, and no more rows are accepted.
  */
-public class CostumeCSVWriter {
+public class CostumeCSVWriter implements Closeable {
+
+    /** The number of rows handed to the background thread at once. */
+    private static final int BATCH_SIZE = 256;
+
+    /** The number of batches that can wait for the background thread. */
+    private static final int QUEUE_CAPACITY = 16;
+
     CSVWriter writer;
     String fileAddress;
     Writer fileWriter;
 
+    /** The rows not yet handed to the background thread. */
+    private List<String[]> rows = new ArrayList<>(BATCH_SIZE);
+
+    /** The batches waiting for the background thread. */
+    private BlockingQueue<Batch> queue;
+
+    /** The background thread writing the rows, or null if the file is not open. */
+    private Thread writerThread;
+
+    /** The first error of the background thread, thrown by every later call. */
+    private volatile IOException failure;
+
     public CostumeCSVWriter(String fileAddress) throws IOException {
         File f = new File(fileAddress);
         File parent3 = f.getParentFile();
@@ -29,19 +63,57 @@ public class CostumeCSVWriter {
 
     }
 
+    /**
+     * Writes a row at the end of the file. The row may not be in the file before {@link #flush()}
+     * or {@link #close()} is called.
+     *
+     * @param entries the values of the row
+     * @throws IOException if the file cannot be opened, or a previous row could not be written,
+     *             in which case the row is rejected
+     */
     public void writeTofile(String[] entries) throws IOException {
-        // feed in your array (or convert your data to an array)
-        try {
-            writer = new CSVWriter(new FileWriter(fileAddress, true), ',',CSVWriter.NO_QUOTE_CHARACTER);
-
-        } catch (IOException e) {
-            Log.printConcatLine("Couldn't find the file to write to: ", fileAddress);
+        checkFailure();
+        if (writerThread == null) {
+            open();
+        }
+        rows.add(entries);
+        if (rows.size() >= BATCH_SIZE) {
+            handOver(new Batch(rows, null, false));
+            rows = new ArrayList<>(BATCH_SIZE);
+        }
+    }
 
+    /**
+     * Waits until all the rows written so far are in the file.
+     *
+     * @throws IOException if a row could not be written
+     */
+    public void flush() throws IOException {
+        if (writerThread != null) {
+            awaitBatch(false);
+        }
+        checkFailure();
+    }
 
+    /**
+     * Writes the remaining rows, closes the file and stops the background thread. Rows written
+     * afterwards open the file again and are appended to it, unless a row could not be written.
+     *
+     * @throws IOException if a row could not be written or the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (writerThread != null) {
+            try {
+                awaitBatch(true);
+            } finally {
+                writerThread = null;
+                queue = null;
+                writer = null;
+                fileWriter = null;
+            }
         }
-        writer.writeNext(entries);
-        writer.flush();
-        writer.close();
+        checkFailure();
     }
 
     public String getFileAddress() {
@@ -51,8 +123,154 @@ public class CostumeCSVWriter {
     public void setFileAddress(String fileAddress) {
         this.fileAddress = fileAddress;
     }
-}
 
+    /**
+     * Opens the file in append mode and starts the background thread.
+     *
+     * @throws IOException if the file cannot be opened
+     */
+    private void open() throws IOException {
+        try {
+            fileWriter = new BufferedWriter(new FileWriter(fileAddress, true));
+        } catch (IOException e) {
+            Log.printConcatLine("Couldn't find the file to write to: ", fileAddress);
+            throw e;
+        }
+        writer = new CSVWriter(fileWriter, ',', CSVWriter.NO_QUOTE_CHARACTER);
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final CSVWriter csvWriter = writer;
+        final BlockingQueue<Batch> batches = queue;
+        writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeBatches(csvWriter, batches);
+            }
+        }, "CSV writer " + new File(fileAddress).getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
 
+    /**
+     * Hands the remaining rows to the background thread and waits until it has written them.
+     *
+     * @param last whether the file is closed once the rows are written
+     * @throws IOException if the wait is interrupted
+     */
+    private void awaitBatch(boolean last) throws IOException {
+        CountDownLatch done = new CountDownLatch(1);
+        handOver(new Batch(rows, done, last));
+        rows = new ArrayList<>(BATCH_SIZE);
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing to " + fileAddress);
+        }
+    }
 
+    /**
+     * Puts a batch in the queue of the background thread, waiting for room if the queue is full.
+     *
+     * @param batch the batch
+     * @throws IOException if the wait is interrupted
+     */
+    private void handOver(Batch batch) throws IOException {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing to " + fileAddress);
+        }
+    }
 
+    /**
+     * Writes the batches of the queue until the last one, run by the background thread. Once an
+     * error occurs, the rows are dropped, but the batches are still acknowledged so no caller
+     * waits forever. The thread is not meant to be interrupted, as the callers wait for it.
+     *
+     * @param csvWriter the writer of the file
+     * @param batches the queue of batches
+     */
+    private void writeBatches(CSVWriter csvWriter, BlockingQueue<Batch> batches) {
+        boolean failed = false;
+        while (true) {
+            Batch batch;
+            try {
+                batch = batches.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            try {
+                if (!failed) {
+                    for (String[] row : batch.rows) {
+                        csvWriter.writeNext(row);
+                    }
+                    if (batch.done != null) {
+                        csvWriter.flush();
+                    }
+                    if (csvWriter.checkError()) {
+                        throw new IOException("Couldn't write to the file: " + fileAddress);
+                    }
+                }
+            } catch (IOException e) {
+                failed = true;
+                setFailure(e);
+            } catch (RuntimeException e) {
+                // the batch must still be acknowledged
+                failed = true;
+                setFailure(new IOException(e));
+            }
+            if (batch.last) {
+                try {
+                    csvWriter.close();
+                } catch (IOException e) {
+                    setFailure(e);
+                }
+            }
+            if (batch.done != null) {
+                batch.done.countDown();
+            }
+            if (batch.last) {
+                return;
+            }
+        }
+    }
+
+    private void setFailure(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Throws the error of the background thread, if any.
+     *
+     * @throws IOException the error
+     */
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("A row could not be written to the file: " + fileAddress, e);
+        }
+    }
+
+    /**
+     * Rows handed to the background thread at once.
+     */
+    private static class Batch {
+        /** The rows to write. */
+        final List<String[]> rows;
+
+        /** Counted down once the rows are in the file, or null if no one waits for them. */
+        final CountDownLatch done;
+
+        /** Whether the file is closed once the rows are written. */
+        final boolean last;
+
+        Batch(List<String[]> rows, CountDownLatch done, boolean last) {
+            this.rows = rows;
+            this.done = done;
+            this.last = last;
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package org.cloudbus.cloudsim.container.vmSelectionPolicies;
 
 import org.cloudbus.cloudsim.container.core.*;
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.MultipleCorrelation;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -16,6 +15,9 @@ public class PowerContainerVmSelectionPolicyMaximumCorrelation extends PowerCont
         /** The fallback policy. */
         private PowerContainerVmSelectionPolicy fallbackPolicy;
 
+        /** The engine computing the correlation coefficients, reused by each selection. */
+        private final MultipleCorrelation multipleCorrelation = new MultipleCorrelation();
+
         /**
          * Instantiates a new power vm selection policy maximum correlation.
          *
@@ -94,29 +96,17 @@ public class PowerContainerVmSelectionPolicyMaximumCorrelation extends PowerCont
 
         /**
          * Gets the correlation coefficients.
+         * They are the coefficients of determination of the regression of the utilization
+         * history of each VM on the histories of all the other ones.
          *
          * @param data the data
          * @return the correlation coefficients
          */
         protected List<Double> getCorrelationCoefficients(final double[][] data) {
-            int n = data.length;
-            int m = data[0].length;
-            List<Double> correlationCoefficients = new LinkedList<Double>();
-            for (int i = 0; i < n; i++) {
-                double[][] x = new double[n - 1][m];
-                int k = 0;
-                for (int j = 0; j < n; j++) {
-                    if (j != i) {
-                        x[k++] = data[j];
-                    }
-                }
-
-                // Transpose the matrix so that it fits the linear model
-                double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
-
-                // RSquare is the "coefficient of determination"
-                correlationCoefficients.add(MathUtil.createLinearRegression(xT,
-                        data[i]).calculateRSquared());
+            double[] coefficients = getMultipleCorrelation().getCoefficientsOfDetermination(data);
+            List<Double> correlationCoefficients = new ArrayList<Double>(coefficients.length);
+            for (double coefficient : coefficients) {
+                correlationCoefficients.add(coefficient);
             }
             return correlationCoefficients;
         }
@@ -139,6 +129,15 @@ public class PowerContainerVmSelectionPolicyMaximumCorrelation extends PowerCont
             this.fallbackPolicy = fallbackPolicy;
         }
 
+        /**
+         * Gets the engine computing the correlation coefficients.
+         *
+         * @return the multiple correlation engine
+         */
+        protected MultipleCorrelation getMultipleCorrelation() {
+            return multipleCorrelation;
+        }
+
     }
 
 
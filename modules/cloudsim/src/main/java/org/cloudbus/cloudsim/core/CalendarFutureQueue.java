@@ -0,0 +1,401 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A future event queue implemented as a calendar queue, as proposed by R. Brown.
+ * Events are hashed by time into an array of buckets (the "days" of a "year"), each one covering
+ * a time interval of fixed width and holding its events sorted. When the distribution of event
+ * times is reasonably regular, as it is for the periodic scheduling intervals used by most
+ * CloudSim experiments, adding and removing events costs O(1) on average.
+ * The number of buckets and their width are recomputed whenever the queue grows or shrinks
+ * by a factor of two.
+ *
+ * <br/>For more details, please refer to the following publication:
+ * <ul>
+ *   <li><a href="http://dx.doi.org/10.1145/63039.63045">R. Brown, Calendar queues: a fast O(1)
+ *   priority queue implementation for the simulation event set problem,
+ *   Communications of the ACM, 31(10), 1988.</a></li>
+ * </ul>
+ *
+ * @since CloudSim Toolkit 4.0
+ * @see FutureEventQueue
+ */
+public class CalendarFutureQueue implements FutureEventQueue {
+
+	/** The minimum number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The initial capacity of each bucket. */
+	private static final int BUCKET_CAPACITY = 4;
+
+	/** The maximum number of events sampled to estimate a new bucket width. */
+	private static final int WIDTH_SAMPLE_SIZE = 25;
+
+	/** The buckets of events, each one sorted by time and serial. */
+	private SimEvent[][] buckets;
+
+	/** The number of events in each bucket. */
+	private int[] bucketSizes;
+
+	/** The number of buckets minus 1, used as a mask since the number of buckets is a power of 2. */
+	private int mask;
+
+	/** The time interval covered by each bucket. */
+	private double width = 1.0;
+
+	/**
+	 * The index of the current "day", i.e. floor(time/width) of the last returned event.
+	 * No queued event has a smaller day.
+	 */
+	private long currentDay;
+
+	/** The number of events in the queue. */
+	private int size;
+
+	/** Indicates if the number of buckets can be changed, used to avoid nested resizes. */
+	private boolean resizeEnabled = true;
+
+	/** A incremental number used for {@link SimEvent#serial} event attribute. */
+	private long serial = 0;
+
+	/** A incremental number used for the {@link SimEvent#serial} of events added
+	 * by {@link #addEventFirst(SimEvent)}, which always precede the serials of regular events.
+	 */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * Creates an empty calendar queue.
+	 */
+	public CalendarFutureQueue() {
+		initBuckets(MIN_BUCKETS);
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(firstSerial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public SimEvent peek() {
+		int b = findFirstBucket();
+		return b < 0 ? null : buckets[b][0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		int b = findFirstBucket();
+		if (b < 0) {
+			return null;
+		}
+		SimEvent first = removeFromBucket(b, 0);
+		if (resizeEnabled && size < (bucketSizes.length >> 1) && bucketSizes.length > MIN_BUCKETS) {
+			resize(bucketSizes.length >> 1);
+		}
+		return first;
+	}
+
+	@Override
+	public int pollAll(double time, Collection<SimEvent> events) {
+		int count = 0;
+		SimEvent first = peek();
+		while (first != null && first.eventTime() == time) {
+			events.add(poll());
+			count++;
+			first = peek();
+		}
+		return count;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int b = (int) (dayOf(event.eventTime()) & mask);
+		int pos = indexOf(b, event);
+		if (pos < 0) {
+			return false;
+		}
+		removeFromBucket(b, pos);
+		return true;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int bucket = 0;
+
+			private int pos = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (bucket < buckets.length && pos >= bucketSizes[bucket]) {
+					bucket++;
+					pos = 0;
+				}
+				return bucket < buckets.length;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return buckets[bucket][pos++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		initBuckets(MIN_BUCKETS);
+		size = 0;
+		currentDay = 0;
+	}
+
+	/**
+	 * Inserts an event which already has its serial number set.
+	 *
+	 * @param event the event
+	 */
+	private void insert(SimEvent event) {
+		long day = dayOf(event.eventTime());
+		if (size == 0 || day < currentDay) {
+			currentDay = day;
+		}
+		insertIntoBucket((int) (day & mask), event);
+		if (resizeEnabled && size > (bucketSizes.length << 1)) {
+			resize(bucketSizes.length << 1);
+		}
+	}
+
+	/**
+	 * Finds the bucket whose first event is the first event of the queue, moving the
+	 * {@link #currentDay} forward to the day of that event.
+	 *
+	 * @return the bucket index, or -1 if the queue is empty
+	 */
+	private int findFirstBucket() {
+		if (size == 0) {
+			return -1;
+		}
+
+		int nBuckets = bucketSizes.length;
+		long day = currentDay;
+		for (int i = 0; i < nBuckets; i++, day++) {
+			int b = (int) (day & mask);
+			if (bucketSizes[b] > 0 && dayOf(buckets[b][0].eventTime()) == day) {
+				currentDay = day;
+				return b;
+			}
+		}
+
+		// No event in a whole "year": look directly for the earliest one
+		int best = -1;
+		for (int b = 0; b < nBuckets; b++) {
+			if (bucketSizes[b] > 0 && (best < 0 || precedes(buckets[b][0], buckets[best][0]))) {
+				best = b;
+			}
+		}
+		currentDay = dayOf(buckets[best][0].eventTime());
+		return best;
+	}
+
+	/**
+	 * Inserts an event into a bucket, keeping the bucket sorted.
+	 *
+	 * @param b the bucket index
+	 * @param event the event
+	 */
+	private void insertIntoBucket(int b, SimEvent event) {
+		SimEvent[] bucket = buckets[b];
+		int n = bucketSizes[b];
+		if (n == bucket.length) {
+			bucket = Arrays.copyOf(bucket, Math.max(BUCKET_CAPACITY, n * 2));
+			buckets[b] = bucket;
+		}
+
+		// Most events go to the end of their bucket, so search from there
+		int pos = n;
+		while (pos > 0 && precedes(event, bucket[pos - 1])) {
+			pos--;
+		}
+		System.arraycopy(bucket, pos, bucket, pos + 1, n - pos);
+		bucket[pos] = event;
+		bucketSizes[b] = n + 1;
+		size++;
+	}
+
+	/**
+	 * Removes the event at a given position of a bucket.
+	 *
+	 * @param b the bucket index
+	 * @param pos the position inside the bucket
+	 * @return the removed event
+	 */
+	private SimEvent removeFromBucket(int b, int pos) {
+		SimEvent[] bucket = buckets[b];
+		SimEvent event = bucket[pos];
+		int n = --bucketSizes[b];
+		System.arraycopy(bucket, pos + 1, bucket, pos, n - pos);
+		bucket[n] = null;
+		size--;
+		return event;
+	}
+
+	/**
+	 * Finds the position of an event inside a bucket by binary search.
+	 *
+	 * @param b the bucket index
+	 * @param event the event
+	 * @return the position, or -1 if the event is not in the bucket
+	 */
+	private int indexOf(int b, SimEvent event) {
+		SimEvent[] bucket = buckets[b];
+		int low = 0;
+		int high = bucketSizes[b] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			SimEvent e = bucket[mid];
+			if (e == event) {
+				return mid;
+			} else if (precedes(e, event)) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Changes the number of buckets, recomputing the bucket width from the separation between
+	 * the first events of the queue and redistributing all the events.
+	 *
+	 * @param newBuckets the new number of buckets, a power of 2
+	 */
+	private void resize(int newBuckets) {
+		resizeEnabled = false;
+
+		int sampleSize = Math.min(size, WIDTH_SAMPLE_SIZE);
+		SimEvent[] sample = new SimEvent[sampleSize];
+		for (int i = 0; i < sampleSize; i++) {
+			sample[i] = poll();
+		}
+		double newWidth = estimateWidth(sample);
+
+		SimEvent[][] oldBuckets = buckets;
+		int[] oldSizes = bucketSizes;
+		initBuckets(newBuckets);
+		if (newWidth > 0) {
+			width = newWidth;
+		}
+		size = 0;
+		for (SimEvent event : sample) {
+			insert(event);
+		}
+		for (int b = 0; b < oldBuckets.length; b++) {
+			for (int i = 0; i < oldSizes[b]; i++) {
+				insert(oldBuckets[b][i]);
+			}
+		}
+
+		resizeEnabled = true;
+	}
+
+	/**
+	 * Estimates a bucket width as three times the average separation between consecutive events,
+	 * ignoring separations much larger than the average.
+	 *
+	 * @param sample the first events of the queue, in order
+	 * @return the estimated width, or 0 if it cannot be estimated
+	 */
+	private static double estimateWidth(SimEvent[] sample) {
+		if (sample.length < 2) {
+			return 0;
+		}
+		double total = sample[sample.length - 1].eventTime() - sample[0].eventTime();
+		double average = total / (sample.length - 1);
+
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < sample.length; i++) {
+			double separation = sample[i].eventTime() - sample[i - 1].eventTime();
+			if (separation <= 2 * average) {
+				sum += separation;
+				count++;
+			}
+		}
+		if (count == 0 || sum <= 0) {
+			return 0;
+		}
+		return 3 * sum / count;
+	}
+
+	/**
+	 * Creates a given number of empty buckets.
+	 *
+	 * @param nBuckets the number of buckets, a power of 2
+	 */
+	private void initBuckets(int nBuckets) {
+		buckets = new SimEvent[nBuckets][];
+		for (int b = 0; b < nBuckets; b++) {
+			buckets[b] = new SimEvent[BUCKET_CAPACITY];
+		}
+		bucketSizes = new int[nBuckets];
+		mask = nBuckets - 1;
+	}
+
+	/**
+	 * Gets the "day" of a given time, i.e. the index of the bucket interval that contains it
+	 * if the calendar had infinite buckets.
+	 *
+	 * @param time the time
+	 * @return the day
+	 */
+	private long dayOf(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Checks if an event has to be processed before another one, according to their time and
+	 * serial number.
+	 *
+	 * @param a an event
+	 * @param b another event
+	 * @return true if a precedes b, false otherwise
+	 */
+	private static boolean precedes(SimEvent a, SimEvent b) {
+		double ta = a.eventTime();
+		double tb = b.eventTime();
+		return ta < tb || (ta == tb && a.getSerial() < b.getSerial());
+	}
+
+}
@@ -250,7 +250,7 @@ public class CloudInformationService extends SimEntity {
 		}
 
 		Log.printLine("CloudInformationSevice.processOtherEvent(): " + "Unable to handle a request from "
-				+ CloudSim.getEntityName(ev.getSource()) + " with event tag = " + ev.getTag());
+				+ getSimulation().getEntityName(ev.getSource()) + " with event tag = " + ev.getTag());
 	}
 
 	/**
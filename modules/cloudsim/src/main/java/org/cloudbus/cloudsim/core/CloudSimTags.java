@@ -272,6 +272,25 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes the return of several Cloudlets of the same user back to sender, in a single event
+	 * whose data is the list of the Cloudlets. This tag is used by a datacenter instead of
+	 * {@link #CLOUDLET_RETURN} when returning Cloudlets in batches.
+	 */
+	public static final int CLOUDLET_RETURN_BATCH = BASE + 49;
+
+	/**
+	 * Denotes a request to create several new VMs in a Datacenter, in a single event whose data is
+	 * the list of the VMs, without acknowledgement.
+	 */
+	public static final int VM_CREATE_BATCH = BASE + 50;
+
+	/**
+	 * Denotes a request to create several new VMs in a Datacenter, in a single event whose data is
+	 * the list of the VMs. A {@link #VM_CREATE_ACK} acknowledgement is sent back for each VM.
+	 */
+	public static final int VM_CREATE_BATCH_ACK = BASE + 51;
+
 	/** Private Constructor. */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSimTags cannot be instantiated");
@@ -9,80 +9,222 @@
 package org.cloudbus.cloudsim.core;
 
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
 
 /**
- * This class implements the deferred event queue used by {@link CloudSim}. 
- * The event queue uses a linked list to store the events.
- * 
+ * This class implements the deferred event queue used by {@link CloudSim}.
+ * Each {@link SimEntity} owns one of these queues as its mailbox, holding the events sent to the
+ * entity that it has not processed yet, so that selecting and counting events never needs
+ * to look at the events of other entities.
+ * The event queue uses a circular array to store the events, thus events are usually added
+ * to the tail and removed from the head in constant time.
+ *
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see CloudSim
  * @see SimEvent
+ * @see SimEntity
  */
 public class DeferredQueue {
 
-	/** The list of events. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The initial capacity of the queue. */
+	private static final int INITIAL_CAPACITY = 8;
+
+	/** The circular array of events. */
+	private SimEvent[] events = new SimEvent[INITIAL_CAPACITY];
+
+	/** The position of the first event in the array. */
+	private int head;
 
-	/** The max time that an added event is scheduled. */
-	private double maxTime = -1;
+	/** The number of events in the queue. */
+	private int size;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
 	 * of the events.
-	 * 
+	 *
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
+		if (size == events.length) {
+			grow();
+		}
+
 		// The event has to be inserted as the last of all events
 		// with the same event_time(). Yes, this matters.
 		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
+		int pos = size;
+		while (pos > 0 && get(pos - 1).eventTime() > eventTime) {
+			pos--;
+		}
+		for (int i = size; i > pos; i--) {
+			events[physical(i)] = events[physical(i - 1)];
 		}
+		events[physical(pos)] = newEvent;
+		size++;
+	}
 
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
+	/**
+	 * Counts the events in the queue that match a given predicate.
+	 *
+	 * @param p the predicate
+	 * @return the number of matching events
+	 */
+	public int count(Predicate p) {
+		if (p == CloudSim.SIM_ANY) {
+			return size;
+		}
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (p.match(get(i))) {
+				count++;
 			}
 		}
+		return count;
+	}
+
+	/**
+	 * Gets the first event in the queue that matches a given predicate.
+	 *
+	 * @param p the predicate
+	 * @return the first matching event, or <tt>null</tt> if none matches
+	 */
+	public SimEvent findFirst(Predicate p) {
+		int pos = indexOf(p);
+		return pos < 0 ? null : get(pos);
+	}
+
+	/**
+	 * Removes the first event in the queue that matches a given predicate.
+	 *
+	 * @param p the predicate
+	 * @return the removed event, or <tt>null</tt> if none matches
+	 */
+	public SimEvent removeFirst(Predicate p) {
+		int pos = indexOf(p);
+		if (pos < 0) {
+			return null;
+		}
 
-		list.add(newEvent);
+		SimEvent event = get(pos);
+		if (pos < size / 2) {
+			// Shift the preceding events one position forward
+			for (int i = pos; i > 0; i--) {
+				events[physical(i)] = events[physical(i - 1)];
+			}
+			events[head] = null;
+			head = physical(1);
+		} else {
+			for (int i = pos; i < size - 1; i++) {
+				events[physical(i)] = events[physical(i + 1)];
+			}
+			events[physical(size - 1)] = null;
+		}
+		size--;
+		return event;
 	}
 
 	/**
 	 * Returns an iterator to the events in the queue.
-	 * 
+	 * The iterator does not support {@link Iterator#remove()}.
+	 *
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+		return new Iterator<SimEvent>() {
+
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return get(next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 
 	/**
 	 * Returns the size of this event queue.
-	 * 
+	 *
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		return size;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		for (int i = 0; i < size; i++) {
+			events[physical(i)] = null;
+		}
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets the position of the first event in the queue that matches a given predicate.
+	 *
+	 * @param p the predicate
+	 * @return the position relative to the head, or -1 if none matches
+	 */
+	private int indexOf(Predicate p) {
+		if (p == CloudSim.SIM_ANY) {
+			return size > 0 ? 0 : -1;
+		}
+		for (int i = 0; i < size; i++) {
+			if (p.match(get(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the event at a given position relative to the head.
+	 *
+	 * @param i the position
+	 * @return the event
+	 */
+	private SimEvent get(int i) {
+		return events[physical(i)];
+	}
+
+	/**
+	 * Converts a position relative to the head into an array index.
+	 *
+	 * @param i the position
+	 * @return the array index
+	 */
+	private int physical(int i) {
+		return (head + i) & (events.length - 1);
+	}
+
+	/**
+	 * Doubles the capacity of the queue, moving the head to the start of the array.
+	 */
+	private void grow() {
+		SimEvent[] newEvents = new SimEvent[events.length * 2];
+		for (int i = 0; i < size; i++) {
+			newEvents[i] = get(i);
+		}
+		events = newEvents;
+		head = 0;
 	}
 
-}
\ No newline at end of file
+}
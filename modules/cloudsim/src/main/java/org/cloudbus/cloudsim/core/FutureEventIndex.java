@@ -0,0 +1,244 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A secondary index of the events in the future event queue, grouping them by
+ * source entity and tag. It allows {@link CloudSim#cancel(int, org.cloudbus.cloudsim.core.predicates.Predicate)}
+ * and {@link CloudSim#cancelAll(int, org.cloudbus.cloudsim.core.predicates.Predicate)} to find
+ * the events sent by an entity with given tags without scanning the whole future queue.
+ * <p>
+ * Each (source, tag) pair is mapped to an unordered array of events using open addressing,
+ * and each event keeps its position in that array, so adding and removing an event
+ * costs O(1) and does not allocate memory once the arrays have grown.
+ *
+ * @since CloudSim Toolkit 4.0
+ * @see SimEvent#getIndexSlot()
+ */
+class FutureEventIndex {
+
+	/** The initial number of slots of the hash table, a power of 2. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The initial capacity of the event array of each (source, tag) pair. */
+	private static final int ENTRY_CAPACITY = 4;
+
+	/** The keys of the hash table, each one combining a source entity id and a tag. */
+	private long[] keys;
+
+	/** The events of each key, or null if the slot is free. */
+	private SimEvent[][] events;
+
+	/** The number of events of each key. */
+	private int[] sizes;
+
+	/** The number of used slots of the hash table. */
+	private int used;
+
+	/**
+	 * Creates an empty index.
+	 */
+	public FutureEventIndex() {
+		init(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Adds an event to the index.
+	 *
+	 * @param ev the event
+	 */
+	public void add(SimEvent ev) {
+		int slot = findSlot(key(ev.getSource(), ev.getTag()), true);
+		SimEvent[] entry = events[slot];
+		int n = sizes[slot];
+		if (n == entry.length) {
+			entry = Arrays.copyOf(entry, n * 2);
+			events[slot] = entry;
+		}
+		entry[n] = ev;
+		ev.setIndexSlot(n);
+		sizes[slot] = n + 1;
+	}
+
+	/**
+	 * Removes an event from the index.
+	 *
+	 * @param ev the event
+	 * @return true if the event was indexed, false otherwise
+	 */
+	public boolean remove(SimEvent ev) {
+		int pos = ev.getIndexSlot();
+		if (pos < 0) {
+			return false;
+		}
+		int slot = findSlot(key(ev.getSource(), ev.getTag()), false);
+		if (slot < 0 || pos >= sizes[slot] || events[slot][pos] != ev) {
+			return false;
+		}
+
+		SimEvent[] entry = events[slot];
+		int last = --sizes[slot];
+		SimEvent moved = entry[last];
+		entry[pos] = moved;
+		moved.setIndexSlot(pos);
+		entry[last] = null;
+		ev.setIndexSlot(-1);
+		return true;
+	}
+
+	/**
+	 * Adds to a collection all the indexed events with a given source and tag.
+	 *
+	 * @param src the id of the source entity
+	 * @param tag the event tag
+	 * @param result the collection where events are added to, in no specific order
+	 * @return the number of events added
+	 */
+	public int find(int src, int tag, Collection<SimEvent> result) {
+		int slot = findSlot(key(src, tag), false);
+		if (slot < 0) {
+			return 0;
+		}
+		SimEvent[] entry = events[slot];
+		int n = sizes[slot];
+		for (int i = 0; i < n; i++) {
+			result.add(entry[i]);
+		}
+		return n;
+	}
+
+	/**
+	 * Gets the earliest indexed event with a given source and tag.
+	 *
+	 * @param src the id of the source entity
+	 * @param tag the event tag
+	 * @return the earliest event, or null if there is none
+	 */
+	public SimEvent findFirst(int src, int tag) {
+		int slot = findSlot(key(src, tag), false);
+		if (slot < 0) {
+			return null;
+		}
+		SimEvent[] entry = events[slot];
+		SimEvent first = null;
+		for (int i = 0; i < sizes[slot]; i++) {
+			if (first == null || entry[i].compareTo(first) < 0) {
+				first = entry[i];
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Removes all the events from the index.
+	 */
+	public void clear() {
+		for (int slot = 0; slot < events.length; slot++) {
+			if (events[slot] != null) {
+				for (int i = 0; i < sizes[slot]; i++) {
+					events[slot][i].setIndexSlot(-1);
+				}
+			}
+		}
+		init(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Finds the hash table slot of a key.
+	 *
+	 * @param key the key
+	 * @param create indicates if a slot has to be created if the key is not found
+	 * @return the slot, or -1 if the key was not found and create is false
+	 */
+	private int findSlot(long key, boolean create) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (events[slot] != null) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (!create) {
+			return -1;
+		}
+
+		if ((used + 1) * 2 > keys.length) {
+			rehash(keys.length * 2);
+			return findSlot(key, true);
+		}
+		keys[slot] = key;
+		events[slot] = new SimEvent[ENTRY_CAPACITY];
+		used++;
+		return slot;
+	}
+
+	/**
+	 * Changes the number of slots of the hash table, keeping all the entries.
+	 *
+	 * @param capacity the new number of slots, a power of 2
+	 */
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		SimEvent[][] oldEvents = events;
+		int[] oldSizes = sizes;
+		init(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldEvents[i] != null) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (events[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				events[slot] = oldEvents[i];
+				sizes[slot] = oldSizes[i];
+				used++;
+			}
+		}
+	}
+
+	/**
+	 * Creates an empty hash table.
+	 *
+	 * @param capacity the number of slots, a power of 2
+	 */
+	private void init(int capacity) {
+		keys = new long[capacity];
+		events = new SimEvent[capacity][];
+		sizes = new int[capacity];
+		used = 0;
+	}
+
+	/**
+	 * Combines a source entity id and a tag into a key.
+	 *
+	 * @param src the id of the source entity
+	 * @param tag the event tag
+	 * @return the key
+	 */
+	private static long key(int src, int tag) {
+		return ((long) src << 32) | (tag & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Spreads the bits of a key to compute its hash.
+	 *
+	 * @param key the key
+	 * @return the hash
+	 */
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * The interface that a future event queue used by {@link CloudSim} has to implement.
+ * Events are kept ordered by their {@link SimEvent#eventTime() time} and, for events
+ * scheduled at the same time, by their serial number (i.e. the order in which they were added),
+ * as defined by {@link SimEvent#compareTo(SimEvent)}. Events added by
+ * {@link #addEventFirst(SimEvent)} come before any other event scheduled at the same time.
+ *
+ * @since CloudSim Toolkit 4.0
+ * @see FutureQueue
+ * @see HeapFutureQueue
+ * @see CalendarFutureQueue
+ */
+public interface FutureEventQueue {
+
+	/**
+	 * Adds a new event to the queue, after all the events already queued for the same time.
+	 *
+	 * @param newEvent The event to be put in the queue.
+	 */
+	void addEvent(SimEvent newEvent);
+
+	/**
+	 * Adds a new event to the queue, before all the events already queued for the same time.
+	 *
+	 * @param newEvent The event to be put in the queue.
+	 */
+	void addEventFirst(SimEvent newEvent);
+
+	/**
+	 * Gets the first event of the queue, without removing it.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Removes the first event of the queue.
+	 *
+	 * @return the removed event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * Removes all the events at the head of the queue that are scheduled exactly to a given time,
+	 * adding them in order to a collection.
+	 *
+	 * @param time the time of the events to remove
+	 * @param events the collection where removed events are added to
+	 * @return the number of removed events
+	 */
+	int pollAll(double time, Collection<SimEvent> events);
+
+	/**
+	 * Removes an event from the queue.
+	 *
+	 * @param event the event
+	 * @return true, if successful
+	 */
+	boolean remove(SimEvent event);
+
+	/**
+	 * Returns an iterator over the events in the queue. Implementations are not required to
+	 * return the events in order, neither to support {@link Iterator#remove()}.
+	 *
+	 * @return the iterator
+	 */
+	Iterator<SimEvent> iterator();
+
+	/**
+	 * Returns the size of this event queue.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Clears the queue.
+	 */
+	void clear();
+
+}
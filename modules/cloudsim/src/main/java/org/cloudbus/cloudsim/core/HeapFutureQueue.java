@@ -0,0 +1,249 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A future event queue backed by an array-based 4-ary min-heap. Compared to {@link FutureQueue},
+ * adding an event does not allocate any tree node and the heap is shallower than a binary tree,
+ * so it performs fewer comparisons and has better memory locality when the queue holds
+ * millions of events. Each queued event keeps its position in the heap, thus it can be removed
+ * in logarithmic time.
+ *
+ * @since CloudSim Toolkit 4.0
+ * @see FutureEventQueue
+ */
+public class HeapFutureQueue implements FutureEventQueue {
+
+	/** The number of children of each heap node. */
+	private static final int ARITY = 4;
+
+	/** The default initial capacity of the heap. */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/** The heap of events, where the children of node i are at 4i+1 .. 4i+4. */
+	private SimEvent[] heap;
+
+	/** The number of events in the heap. */
+	private int size;
+
+	/** A incremental number used for {@link SimEvent#serial} event attribute. */
+	private long serial = 0;
+
+	/** A incremental number used for the {@link SimEvent#serial} of events added
+	 * by {@link #addEventFirst(SimEvent)}, which always precede the serials of regular events.
+	 */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * Creates an empty queue with the default initial capacity.
+	 */
+	public HeapFutureQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty queue.
+	 *
+	 * @param initialCapacity the number of events the queue can hold before growing
+	 */
+	public HeapFutureQueue(int initialCapacity) {
+		heap = new SimEvent[Math.max(1, initialCapacity)];
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(firstSerial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public SimEvent peek() {
+		return size == 0 ? null : heap[0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	@Override
+	public int pollAll(double time, Collection<SimEvent> events) {
+		int count = 0;
+		while (size > 0 && heap[0].eventTime() == time) {
+			events.add(poll());
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int i = event.getQueueIndex();
+		if (i < 0 || i >= size || heap[i] != event) {
+			return false;
+		}
+		removeAt(i);
+		return true;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return heap[next++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].setQueueIndex(-1);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Inserts an event which already has its serial number set.
+	 *
+	 * @param event the event
+	 */
+	private void insert(SimEvent event) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		siftUp(size++, event);
+	}
+
+	/**
+	 * Removes the event at a given heap position.
+	 *
+	 * @param i the position
+	 */
+	private void removeAt(int i) {
+		SimEvent removed = heap[i];
+		removed.setQueueIndex(-1);
+		int last = --size;
+		SimEvent moved = heap[last];
+		heap[last] = null;
+		if (i == last) {
+			return;
+		}
+		siftDown(i, moved);
+		if (heap[i] == moved) {
+			siftUp(i, moved);
+		}
+	}
+
+	/**
+	 * Moves an event up from a given position until its parent precedes it.
+	 *
+	 * @param i the starting position
+	 * @param event the event to place
+	 */
+	private void siftUp(int i, SimEvent event) {
+		while (i > 0) {
+			int parent = (i - 1) / ARITY;
+			SimEvent p = heap[parent];
+			if (!precedes(event, p)) {
+				break;
+			}
+			heap[i] = p;
+			p.setQueueIndex(i);
+			i = parent;
+		}
+		heap[i] = event;
+		event.setQueueIndex(i);
+	}
+
+	/**
+	 * Moves an event down from a given position until it precedes all its children.
+	 *
+	 * @param i the starting position
+	 * @param event the event to place
+	 */
+	private void siftDown(int i, SimEvent event) {
+		while (true) {
+			int firstChild = i * ARITY + 1;
+			if (firstChild >= size) {
+				break;
+			}
+			int end = Math.min(firstChild + ARITY, size);
+			int min = firstChild;
+			for (int c = firstChild + 1; c < end; c++) {
+				if (precedes(heap[c], heap[min])) {
+					min = c;
+				}
+			}
+			SimEvent child = heap[min];
+			if (!precedes(child, event)) {
+				break;
+			}
+			heap[i] = child;
+			child.setQueueIndex(i);
+			i = min;
+		}
+		heap[i] = event;
+		event.setQueueIndex(i);
+	}
+
+	/**
+	 * Checks if an event has to be processed before another one, according to their time and
+	 * serial number.
+	 *
+	 * @param a an event
+	 * @param b another event
+	 * @return true if a precedes b, false otherwise
+	 */
+	private static boolean precedes(SimEvent a, SimEvent b) {
+		double ta = a.eventTime();
+		double tb = b.eventTime();
+		return ta < tb || (ta == tb && a.getSerial() < b.getSerial());
+	}
+
+}
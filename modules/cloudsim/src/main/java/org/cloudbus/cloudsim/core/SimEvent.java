@@ -53,6 +53,19 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
          */
 	private long serial = -1;
 
+	/**
+	 * The position of this event inside the {@link FutureEventQueue} that currently holds it,
+	 * or -1 if the event is not queued. It is maintained by queue implementations that need
+	 * to find an event without searching for it, such as {@link HeapFutureQueue}.
+	 */
+	private int queueIndex = -1;
+
+	/**
+	 * The position of this event inside the {@link FutureEventIndex} entry of its source and tag,
+	 * or -1 if the event is not indexed.
+	 */
+	private int indexSlot = -1;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -99,6 +112,51 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	/**
+	 * Gets the serial number that breaks ties between events scheduled at the same time.
+	 * 
+	 * @return the serial number
+	 */
+	long getSerial() {
+		return serial;
+	}
+
+	/**
+	 * Gets the position of the event inside the queue that currently holds it.
+	 * 
+	 * @return the queue index, or -1 if the event is not queued
+	 */
+	int getQueueIndex() {
+		return queueIndex;
+	}
+
+	/**
+	 * Sets the position of the event inside the queue that currently holds it.
+	 * 
+	 * @param queueIndex the queue index, or -1 if the event is not queued
+	 */
+	void setQueueIndex(int queueIndex) {
+		this.queueIndex = queueIndex;
+	}
+
+	/**
+	 * Gets the position of the event inside the {@link FutureEventIndex} entry of its source and tag.
+	 * 
+	 * @return the index slot, or -1 if the event is not indexed
+	 */
+	int getIndexSlot() {
+		return indexSlot;
+	}
+
+	/**
+	 * Sets the position of the event inside the {@link FutureEventIndex} entry of its source and tag.
+	 * 
+	 * @param indexSlot the index slot, or -1 if the event is not indexed
+	 */
+	void setIndexSlot(int indexSlot) {
+		this.indexSlot = indexSlot;
+	}
+
 	/**
 	 * Sets the time that the event was removed from the queue to start service. 
 	 * 
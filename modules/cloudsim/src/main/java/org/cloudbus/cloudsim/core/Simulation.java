@@ -0,0 +1,1140 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * The state of one simulation: its clock, entities and event queues. Every {@link SimEntity}
+ * belongs to the simulation that was current in its thread when it was created, and sends its
+ * events through it.
+ * <p>
+ * The static methods of {@link CloudSim} are a facade over the simulation returned by
+ * {@link CloudSim#getSimulation()}, which is a default instance unless another simulation
+ * has been bound to the current thread with {@link CloudSim#setSimulation(Simulation)}.
+ * Thus independent simulations can run in parallel in one JVM, each one in its own thread:
+ *
+ * <pre>
+ * Simulation previous = CloudSim.setSimulation(new Simulation());
+ * try {
+ * 	CloudSim.init(1, Calendar.getInstance(), false);
+ * 	// create the datacenters, brokers, VMs and cloudlets
+ * 	CloudSim.startSimulation();
+ * } finally {
+ * 	CloudSim.setSimulation(previous);
+ * }
+ * </pre>
+ *
+ * Objects that are shared by the simulations, such as utilization traces, have to be
+ * read-only. The {@link org.cloudbus.cloudsim.Log} is shared too, but each thread can have its
+ * own output stream and disabled flag. The {@link org.cloudbus.cloudsim.NetworkTopology} is still
+ * global: the simulations running in parallel may look up the delays of one topology, but
+ * must not build or change topologies while the others run.
+ *
+ * @since CloudSim Toolkit 4.0
+ * @see CloudSim
+ */
+public class Simulation {
+
+	/** The Constant CLOUDSIM_VERSION_STRING. */
+	private static final String CLOUDSIM_VERSION_STRING = "3.0";
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	@SuppressWarnings("unused")
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The trace flag. */
+	@SuppressWarnings("unused")
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.1;
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	private FutureEventQueue future;
+
+	/** The index of the events in the {@link #future} queue by source entity and tag. */
+	private FutureEventIndex futureIndex;
+
+	/**
+	 * The number of times that {@link #cancel(int, Predicate)} or {@link #cancelAll(int, Predicate)}
+	 * could not use the {@link #futureIndex} and had to scan the whole future queue.
+	 */
+	private long slowPathCancels;
+
+	/** The number of events processed since the simulation was initialised. */
+	private long processedEvents;
+
+	/**
+         * The current simulation clock.
+         */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	// The predicates used in entity wait methods
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused. */
+	private boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** The events taken from the future queue to be processed in the current clock tick. */
+	private final List<SimEvent> currentEvents = new ArrayList<SimEvent>();
+
+	/** The events being removed from the future queue by {@link #cancelAll(int, Predicate)}. */
+	private final List<SimEvent> currentCancels = new ArrayList<SimEvent>();
+
+	/**
+	 * The ids of the entities that have to be run in the next clock tick, i.e. the
+	 * {@link SimEntity#RUNNABLE} entities that received an event.
+	 */
+	private int[] runnableIds = new int[16];
+
+	/** The number of valid ids in {@link #runnableIds}. */
+	private int runnableCount;
+
+	/** The ids of the entities being run in the current clock tick. */
+	private int[] runningIds = new int[16];
+
+	/**
+	 * Creates a new simulation. It has to be initialised with
+	 * {@link #init(int, Calendar, boolean, FutureEventQueue)} before creating its entities.
+	 */
+	public Simulation() {
+	}
+
+	/**
+	 * Initialises all the common attributes.
+	 *
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @param futureQueue the queue used to store future events
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 * @pre $none
+	 * @post $none
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser,
+			FutureEventQueue futureQueue) throws Exception {
+		initialize(futureQueue);
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialises the simulation parameters, storing the future events in a
+	 * {@link HeapFutureQueue}. This method should be called before creating any entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @see #init(int, Calendar, boolean, FutureEventQueue)
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag) {
+		init(numUser, cal, traceFlag, new HeapFutureQueue());
+	}
+
+	/**
+	 * Initialises the simulation parameters, with a minimal period between events. This method
+	 * should be called before creating any entities.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param periodBetweenEvents the minimal period between events. Events within shorter periods
+	 *            after the last event are discarded.
+	 * @see #init(int, Calendar, boolean, FutureEventQueue)
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents) {
+		if (periodBetweenEvents <= 0) {
+			throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + periodBetweenEvents);
+		}
+		init(numUser, cal, traceFlag);
+		setMinTimeBetweenEvents(periodBetweenEvents);
+	}
+
+	/**
+	 * Initialises the simulation parameters, using a given implementation of the future event
+	 * queue. This method should be called before creating any entities.
+	 * <p>
+	 * Inside this method, it will create the following CloudSim entities:
+	 * <ul>
+	 * <li>CloudInformationService.
+	 * <li>CloudSimShutdown
+	 * </ul>
+	 * <p>
+	 * The default queue is a {@link HeapFutureQueue}. A {@link CalendarFutureQueue} usually
+	 * performs better when the queue holds a huge number of events spread regularly over time,
+	 * while a {@link FutureQueue} keeps the behaviour of previous CloudSim versions.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureQueue an empty queue to store the future events of the simulation
+	 * @see CloudSim#init(int, Calendar, boolean, FutureEventQueue)
+	 * @pre numUser >= 0
+	 * @pre futureQueue != null
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, FutureEventQueue futureQueue) {
+		// The entities created here have to belong to this simulation
+		boolean bind = CloudSim.getSimulation() != this;
+		Simulation previous = bind ? CloudSim.setSimulation(this) : null;
+		try {
+			initCommonVariable(cal, traceFlag, numUser, futureQueue);
+
+			// create a GIS object
+			cis = new CloudInformationService("CloudInformationService");
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (IllegalArgumentException s) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(s.getMessage());
+		} catch (Exception e) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(e.getMessage());
+		} finally {
+			if (bind) {
+				CloudSim.setSimulation(previous);
+			}
+		}
+	}
+
+	/**
+	 * Sets the minimal period between events. Events within shorter periods after the last event
+	 * are discarded.
+	 *
+	 * @param periodBetweenEvents the minimal period between events
+	 * @see CloudSim#init(int, Calendar, boolean, double)
+	 */
+	public void setMinTimeBetweenEvents(double periodBetweenEvents) {
+		if (periodBetweenEvents <= 0) {
+			throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + periodBetweenEvents);
+		}
+		minTimeBetweenEvents = periodBetweenEvents;
+	}
+
+	/**
+	 * Starts the execution of the simulation. It waits for complete execution of all entities,
+	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
+	 * future event queue.
+	 * <p>
+	 * <b>Note</b>: This method should be called after all the entities have been setup and added.
+	 *
+	 * @return the last clock time
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty.
+	 * @see #init(int, Calendar, boolean, FutureEventQueue)
+	 * @pre $none
+	 * @post $none
+	 */
+	public double startSimulation() throws NullPointerException {
+		Log.printConcatLine("Starting CloudSim version ", CLOUDSIM_VERSION_STRING);
+		try {
+			double clock = run();
+
+			// reset all simulation variables
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startCloudSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		}
+	}
+
+	/**
+	 * Stops the simulation (based on {@link #runStop()}). This should be only called if
+	 * any of the user defined entities <b>explicitly</b> want to terminate simulation during
+	 * execution.
+	 *
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty
+	 * @see #runStop()
+	 * @pre $none
+	 * @post $none
+	 */
+	public void stopSimulation() throws NullPointerException {
+		try {
+			runStop();
+		} catch (IllegalArgumentException e) {
+			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
+					+ "Error - can't stop Cloud Simulation.");
+		}
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation.
+	 *
+	 * @return true, if successful; false otherwise.
+	 */
+	public boolean terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded.
+	 * @return the minimum time between events.
+	 */
+	public double getMinTimeBetweenEvents() {
+	    return minTimeBetweenEvents;
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 *
+	 * @return a new copy of Calendar object or if the simulation hasn't been initialized
+	 * @pre $none
+	 * @post $none
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 *
+	 * @return the Entity ID or if it is not found
+	 * @pre $none
+	 * @post $result >= -1
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Sends a request to Cloud Information Service (CIS) entity to get the list of all Cloud
+	 * hostList.
+	 *
+	 * @return A List containing CloudResource ID (as an Integer object) or if a CIS entity hasn't
+	 *         been created before
+	 * @pre $none
+	 * @post $none
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	// ======== SIMULATION METHODS ===============//
+
+	/**
+	 * Initialise the simulation for stand alone simulations, using a given future event queue.
+	 * This function should be called at the start of the simulation.
+	 *
+	 * @param futureQueue an empty queue to store the future events of the simulation
+	 */
+	protected void initialize(FutureEventQueue futureQueue) {
+		Log.printLine("Initialising...");
+		entities = new ArrayList<SimEntity>();
+		entitiesByName = new LinkedHashMap<String, SimEntity>();
+		future = futureQueue;
+		future.clear();
+		futureIndex = new FutureEventIndex();
+		slowPathCancels = 0;
+		processedEvents = 0;
+		runnableCount = 0;
+		waitPredicates = new HashMap<Integer, Predicate>();
+		clock = 0;
+		running = false;
+	}
+
+	// Public access methods
+
+	/**
+	 * Get the current simulation time.
+	 *
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 *
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 *
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 *
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 *
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		List<SimEntity> list = new LinkedList<SimEntity>();
+		list.addAll(entities);
+		return list;
+	}
+
+	// Public update methods
+
+	/**
+	 * Add a new entity to the simulation. This is present for compatibility with existing
+	 * simulations since entities are automatically added to the simulation upon instantiation.
+	 *
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running) {
+			// Post an event to make this entity
+			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			addFutureEvent(evt);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running. It
+	 * should <b>not</b> be called from user simulations.
+	 *
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
+	 * called in simulations.
+	 *
+	 * @return true, if successful otherwise
+	 */
+	public boolean runClockTick() {
+		SimEntity ent;
+		boolean queue_empty;
+
+		// Run only the entities woken up by the events of the previous tick, in id order
+		int[] ids = runnableIds;
+		int count = runnableCount;
+		runnableIds = runningIds;
+		runningIds = ids;
+		runnableCount = 0;
+		if (count > 1) {
+			Arrays.sort(ids, 0, count);
+		}
+
+		for (int i = 0; i < count; i++) {
+			ent = entities.get(ids[i]);
+			ent.setScheduledToRun(false);
+			if (ent.getState() == SimEntity.RUNNABLE) {
+				ent.run();
+			}
+		}
+
+		// If there are more future events then deal with them
+		if (future.size() > 0) {
+			queue_empty = false;
+			SimEvent first = future.poll();
+			futureIndex.remove(first);
+			processEvent(first);
+
+			// Process the next events at the same time
+			future.pollAll(first.eventTime(), currentEvents);
+			for (int i = 0; i < currentEvents.size(); i++) {
+				futureIndex.remove(currentEvents.get(i));
+			}
+			for (int i = 0; i < currentEvents.size(); i++) {
+				processEvent(currentEvents.get(i));
+			}
+			currentEvents.clear();
+
+		} else {
+			queue_empty = true;
+			running = false;
+			printMessage("Simulation: No more future events");
+		}
+
+		return queue_empty;
+	}
+
+	/**
+	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to hold an entity for some time.
+	 *
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void hold(int src, long delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		addFutureEvent(e);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 *
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void pause(int src, double delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		addFutureEvent(e);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		addFutureEvent(e);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 *
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		future.addEventFirst(e);
+		futureIndex.add(e);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting. The predicate used to wait for an event is now passed
+	 * to Sim_system. Only events that satisfy the predicate will be passed to the entity. This is
+	 * done to avoid unnecessary context switches.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 */
+	public void wait(int src, Predicate p) {
+		entities.get(src).setState(SimEntity.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(src, p);
+		}
+	}
+
+	/**
+	 * Checks if events for a specific entity are present in the deferred event queue.
+	 * Only the deferred queue of the given entity is searched.
+	 *
+	 * @param d the d
+	 * @param p the p
+	 * @return the int
+	 */
+	public int waiting(int d, Predicate p) {
+		return entities.get(d).getDeferredQueue().count(p);
+	}
+
+	/**
+	 * Selects an event matching a predicate.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event, or null if no event matches
+	 */
+	public SimEvent select(int src, Predicate p) {
+		return entities.get(src).getDeferredQueue().removeFirst(p);
+	}
+
+	/**
+	 * Find first deferred event matching a predicate.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event, or null if no event matches
+	 */
+	public SimEvent findFirstDeferred(int src, Predicate p) {
+		return entities.get(src).getDeferredQueue().findFirst(p);
+	}
+
+	/**
+	 * Removes an event from the event queue. If the predicate is a {@link PredicateType},
+	 * the event is found using the index of events by source and tag; otherwise the
+	 * whole future queue is scanned.
+	 * <p/>
+	 * Up to CloudSim 4.0, this method returned the last event scanned when no event matched, so
+	 * a non-null result did not mean that an event had been cancelled.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return the cancelled event, or null if no event matches
+	 */
+	public SimEvent cancel(int src, Predicate p) {
+		SimEvent first = null;
+		if (p.getClass() == PredicateType.class) {
+			PredicateType type = (PredicateType) p;
+			for (int i = 0; i < type.getTagCount(); i++) {
+				SimEvent ev = futureIndex.findFirst(src, type.getTag(i));
+				if (ev != null && (first == null || ev.compareTo(first) < 0)) {
+					first = ev;
+				}
+			}
+		} else {
+			slowPathCancels++;
+			// The queue is not iterated in order, so look for the earliest matching event
+			Iterator<SimEvent> iter = future.iterator();
+			while (iter.hasNext()) {
+				SimEvent ev = iter.next();
+				if (ev.getSource() == src && p.match(ev) && (first == null || ev.compareTo(first) < 0)) {
+					first = ev;
+				}
+			}
+		}
+
+		if (first != null) {
+			removeFutureEvent(first);
+		}
+		return first;
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue returns true if
+	 * at least one event has been cancelled; false otherwise. If the predicate is a
+	 * {@link PredicateType}, the events are found using the index of events by source and tag,
+	 * at a cost proportional to the number of cancelled events; otherwise the whole future
+	 * queue is scanned.
+	 * <p/>
+	 * Up to CloudSim 4.0, this method always returned false, whether events were cancelled or not.
+	 * Callers that relied on this should ignore the returned value.
+	 *
+	 * @param src the src
+	 * @param p the p
+	 * @return true, if at least one event has been cancelled
+	 */
+	public boolean cancelAll(int src, Predicate p) {
+		int previousSize = future.size();
+		List<SimEvent> toRemove = currentCancels;
+		if (p.getClass() == PredicateType.class) {
+			PredicateType type = (PredicateType) p;
+			for (int i = 0; i < type.getTagCount(); i++) {
+				futureIndex.find(src, type.getTag(i), toRemove);
+			}
+		} else {
+			slowPathCancels++;
+			Iterator<SimEvent> iter = future.iterator();
+			while (iter.hasNext()) {
+				SimEvent ev = iter.next();
+				if (ev.getSource() == src && p.match(ev)) {
+					toRemove.add(ev);
+				}
+			}
+		}
+		for (int i = 0; i < toRemove.size(); i++) {
+			removeFutureEvent(toRemove.get(i));
+		}
+		toRemove.clear();
+		return previousSize > future.size();
+	}
+
+	/**
+	 * Gets the number of times that {@link #cancel(int, Predicate)} or
+	 * {@link #cancelAll(int, Predicate)} were called with a predicate that is not a
+	 * {@link PredicateType}, thus having to scan the whole future event queue,
+	 * since the simulation was initialised.
+	 *
+	 * @return the number of slow path cancellations
+	 */
+	public long getSlowPathCancelCount() {
+		return slowPathCancels;
+	}
+
+	/**
+	 * Gets the number of events taken from the future event queue and processed since the
+	 * simulation was initialised. It is kept after the simulation finishes, until it is
+	 * initialised again.
+	 *
+	 * @return the number of processed events
+	 */
+	public long getNumProcessedEvents() {
+		return processedEvents;
+	}
+
+	//
+	// Private internal methods
+	//
+
+	/**
+	 * Adds an event to the future queue and to the index of future events.
+	 *
+	 * @param e the event
+	 */
+	private void addFutureEvent(SimEvent e) {
+		future.addEvent(e);
+		futureIndex.add(e);
+	}
+
+	/**
+	 * Adds an entity to the set of entities to be run in the next clock tick,
+	 * if it is not there yet.
+	 *
+	 * @param ent the entity
+	 */
+	private void scheduleToRun(SimEntity ent) {
+		if (ent.isScheduledToRun()) {
+			return;
+		}
+		ent.setScheduledToRun(true);
+		if (runnableCount == runnableIds.length) {
+			runnableIds = Arrays.copyOf(runnableIds, runnableCount * 2);
+			runningIds = new int[runnableIds.length];
+		}
+		runnableIds[runnableCount++] = ent.getId();
+	}
+
+	/**
+	 * Removes an event from the future queue and from the index of future events.
+	 *
+	 * @param e the event
+	 */
+	private void removeFutureEvent(SimEvent e) {
+		if (future.remove(e)) {
+			futureIndex.remove(e);
+		}
+	}
+
+	/**
+	 * Processes an event.
+	 *
+	 * @param e the e
+	 */
+	private void processEvent(SimEvent e) {
+		int dest, src;
+		SimEntity dest_ent;
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+		processedEvents++;
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.CREATE:
+				SimEntity newe = (SimEntity) e.getData();
+				addEntityDynamically(newe);
+				break;
+
+			case SimEvent.SEND:
+				// Check for matching wait
+				dest = e.getDestination();
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
+				} else {
+					int tag = e.getTag();
+					dest_ent = entities.get(dest);
+					if (dest_ent.getState() == SimEntity.WAITING) {
+						Integer destObj = Integer.valueOf(dest);
+						Predicate p = waitPredicates.get(destObj);
+						if ((p == null) || (tag == 9999) || (p.match(e))) {
+							dest_ent.setEventBuffer((SimEvent) e.clone());
+							dest_ent.setState(SimEntity.RUNNABLE);
+							waitPredicates.remove(destObj);
+							scheduleToRun(dest_ent);
+						} else {
+							dest_ent.getDeferredQueue().addEvent(e);
+						}
+					} else {
+						dest_ent.getDeferredQueue().addEvent(e);
+						if (dest_ent.getState() == SimEntity.RUNNABLE) {
+							scheduleToRun(dest_ent);
+						}
+					}
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				} else {
+					entities.get(src).setState(SimEntity.RUNNABLE);
+					scheduleToRun(entities.get(src));
+				}
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation. This method should <b>not</b> be used by user
+	 * simulations.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running. This method should be used by entities to check if
+	 * they should continue executing.
+	 *
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation.
+	 *
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to resume the simulation that has previously been paused.
+	 *
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added, and their ports linked. While it runs, the simulation is bound to the current
+	 * thread, so that the static methods of {@link CloudSim} called by the entities refer to it.
+	 * It is not bound if it is already the current simulation, so running the default simulation
+	 * never makes {@link CloudSim#getSimulation()} look up the simulation of the thread.
+	 *
+	 * @return the last clock value
+	 */
+	public double run() {
+		if (CloudSim.getSimulation() == this) {
+			return runBound();
+		}
+		Simulation previous = CloudSim.setSimulation(this);
+		try {
+			return runBound();
+		} finally {
+			CloudSim.setSimulation(previous);
+		}
+	}
+
+	/**
+	 * Runs the simulation, once it is bound to the current thread.
+	 *
+	 * @return the last clock value
+	 * @see #run()
+	 */
+	private double runBound() {
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek()
+							.eventTime()) || future.size() == 0 && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double clock = clock();
+
+		finishSimulation();
+		runStop();
+
+		return clock;
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
+	 * in user simulations.
+	 */
+	public void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+			ent.getDeferredQueue().clear();
+		}
+
+		// reset all simulation variables
+		// Private data members
+		entities = null;
+		entitiesByName = null;
+		future = null;
+		futureIndex = null;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 *
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.printLine(message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 *
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+}
@@ -59,4 +59,23 @@ public class PredicateType extends Predicate {
 		return false;
 	}
 
+	/**
+	 * Gets the number of tags matched by this predicate.
+	 * 
+	 * @return the number of {@link #tags}
+	 */
+	public int getTagCount() {
+		return tags.length;
+	}
+
+	/**
+	 * Gets one of the tags matched by this predicate.
+	 * 
+	 * @param index the index of the tag, lower than {@link #getTagCount()}
+	 * @return the tag
+	 */
+	public int getTag(int index) {
+		return tags[index];
+	}
+
 }
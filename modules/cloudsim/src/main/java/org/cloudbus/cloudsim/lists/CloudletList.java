@@ -38,6 +38,24 @@ public class CloudletList {
 		return null;
 	}
 
+	/**
+	 * Creates an index of lists of cloudlets by id, to find a cloudlet as
+	 * {@link #getById(List, int)} does without scanning the list.
+	 * 
+	 * @return the index, whose keys are the cloudlet ids
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static IdIndex<Cloudlet> createIdIndex() {
+		return new IdIndex<Cloudlet>() {
+
+			@Override
+			protected long getKey(Cloudlet cloudlet) {
+				return cloudlet.getCloudletId();
+			}
+
+		};
+	}
+
 	/**
 	 * Gets the position of a cloudlet with a given id.
          * 
@@ -40,6 +40,24 @@ public class HostList {
 		return null;
 	}
 
+	/**
+	 * Creates an index of lists of hosts by id, to find a host as {@link #getById(List, int)}
+	 * does without scanning the list.
+	 * 
+	 * @return the index, whose keys are the host ids
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static IdIndex<Host> createIdIndex() {
+		return new IdIndex<Host>() {
+
+			@Override
+			protected long getKey(Host host) {
+				return host.getId();
+			}
+
+		};
+	}
+
 	/**
 	 * Gets the total number of PEs for all Hosts.
 	 * 
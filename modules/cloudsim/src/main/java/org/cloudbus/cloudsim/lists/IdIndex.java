@@ -0,0 +1,226 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An index of the elements of a list by a primitive key, such as the id of a VM, to find them
+ * without scanning the list. The key of each element is mapped to the element and its position by an
+ * open addressing hash table of primitive arrays, so looking an element up neither boxes the key
+ * nor allocates.
+ * <p/>
+ * The index does not have to be told about the changes of the list. It is built from the list on
+ * the first lookup. When the list grew, the new elements are indexed as if they had been added at
+ * its end, so adding elements one by one between lookups takes constant amortized time. The index
+ * is built again when the list is not the indexed one anymore, when it shrank, or when the element
+ * found is not at its indexed position anymore or does not have the key anymore. When a key is
+ * not in the index, the list is scanned as before, and the index is built again if the key is
+ * found. As for the scans it replaces, the element returned for a key
+ * held by several elements is the first one in the list, at the time the index was built.
+ * <p/>
+ * A {@link ModCountList} tells the index whether it changed since it was indexed. The index of
+ * such a list is built again after each change, and answers all the lookups, including the
+ * ones of keys that are not in the list, without checking or scanning the list.
+ * <p/>
+ * The position of an element can only be checked in lists with fast random access. In other
+ * lists, such as linked lists, an indexed element is assumed to still be in the list as long as
+ * the size of the list did not change.
+ * <p/>
+ * The owner of a list, such as a host, a datacenter or a broker, keeps an index for each list it
+ * looks up. Instances are created by {@link VmList}, {@link HostList} and {@link CloudletList}.
+ *
+ * @param <T> the type of the elements
+ * @since CloudSim Toolkit 4.0
+ */
+public abstract class IdIndex<T> {
+
+	/** The minimum capacity of the hash table. */
+	private static final int MIN_CAPACITY = 16;
+
+	/** The indexed list, or null if the index was not built yet. */
+	private List<? extends T> indexedList;
+
+	/** The size of the indexed list when the index was built. */
+	private int indexedSize;
+
+	/** The number of changes of the indexed list when the index was built, if it counts them. */
+	private int indexedModCount;
+
+	/** The key of each slot of the hash table. */
+	private long[] keys = new long[MIN_CAPACITY];
+
+	/** The position in the list plus one of the element of each slot, or 0 if the slot is free. */
+	private int[] positions = new int[MIN_CAPACITY];
+
+	/** The element of each slot. */
+	private Object[] elements = new Object[MIN_CAPACITY];
+
+	/**
+	 * Gets the key combining the id of an element with the id of its owner.
+	 *
+	 * @param userId the id of the owner
+	 * @param id the id of the element
+	 * @return the key
+	 */
+	public static long getKey(int userId, int id) {
+		return ((long) userId << 32) | (id & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Gets the key of an element.
+	 *
+	 * @param element the element
+	 * @return the key
+	 */
+	protected abstract long getKey(T element);
+
+	/**
+	 * Gets the first element of a list with a given key.
+	 *
+	 * @param list the list, indexed by this index
+	 * @param key the key
+	 * @return the element with the key, or $null if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends T> E get(List<E> list, long key) {
+		if (list instanceof ModCountList) {
+			int modCount = ((ModCountList<E>) list).getModCount();
+			if (list != indexedList || modCount != indexedModCount) {
+				build(list);
+				indexedModCount = modCount;
+			}
+			int slot = find(key);
+			return slot < 0 ? null : (E) elements[slot];
+		}
+
+		if (list != indexedList || list.size() < indexedSize || 2 * list.size() > positions.length) {
+			build(list);
+		} else if (list.size() > indexedSize) {
+			addElements(list);
+		}
+
+		int slot = find(key);
+		if (slot < 0) {
+			// the list may have changed without changing its size
+			E element = scan(list, key);
+			if (element != null) {
+				build(list);
+			}
+			return element;
+		}
+
+		E element = (E) elements[slot];
+		if (getKey(element) != key
+				|| list instanceof RandomAccess && list.get(positions[slot] - 1) != element) {
+			build(list);
+			slot = find(key);
+			element = slot < 0 ? null : (E) elements[slot];
+		}
+		return element;
+	}
+
+	/**
+	 * Builds the index of a list, keeping the first position of each key. The hash table is at
+	 * most half full.
+	 *
+	 * @param list the list
+	 */
+	private void build(List<? extends T> list) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < 2 * list.size()) {
+			capacity <<= 1;
+		}
+		if (capacity != positions.length) {
+			keys = new long[capacity];
+			positions = new int[capacity];
+			elements = new Object[capacity];
+		} else {
+			Arrays.fill(positions, 0);
+			Arrays.fill(elements, null);
+		}
+
+		indexedList = list;
+		indexedSize = 0;
+		addElements(list);
+	}
+
+	/**
+	 * Indexes the elements of the indexed list after the ones already indexed, keeping the first
+	 * position of each key.
+	 *
+	 * @param list the indexed list
+	 */
+	private void addElements(List<? extends T> list) {
+		int size = list.size();
+		Iterator<? extends T> iterator = list.listIterator(indexedSize);
+		for (int position = indexedSize; position < size; position++) {
+			T element = iterator.next();
+			long key = getKey(element);
+			int slot = slot(key);
+			while (positions[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & (positions.length - 1);
+			}
+			if (positions[slot] == 0) {
+				keys[slot] = key;
+				positions[slot] = position + 1;
+				elements[slot] = element;
+			}
+		}
+		indexedSize = size;
+	}
+
+	/**
+	 * Finds the slot of a key in the hash table.
+	 *
+	 * @param key the key
+	 * @return the slot, or -1 if the key is not indexed
+	 */
+	private int find(long key) {
+		int slot = slot(key);
+		while (positions[slot] != 0) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & (positions.length - 1);
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the first slot of the hash table to try for a key.
+	 *
+	 * @param key the key
+	 * @return the slot
+	 */
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 32) & (positions.length - 1);
+	}
+
+	/**
+	 * Scans a list for the first element with a given key.
+	 *
+	 * @param list the list
+	 * @param key the key
+	 * @return the element with the key, or $null if not found
+	 */
+	private <E extends T> E scan(List<E> list, long key) {
+		for (E element : list) {
+			if (getKey(element) == key) {
+				return element;
+			}
+		}
+		return null;
+	}
+
+}
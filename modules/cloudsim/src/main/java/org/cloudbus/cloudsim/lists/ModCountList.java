@@ -0,0 +1,84 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An array list that counts all its changes, including the elements replaced in it, which
+ * {@link ArrayList} does not count. An {@link IdIndex} of such a list knows whether the list
+ * changed since it was indexed, so it answers the lookups of keys that are not in the list from
+ * the index too, without scanning the list.
+ * <p/>
+ * The owner of a list looked up by an index, such as a host for its VMs, creates it as a
+ * ModCountList.
+ *
+ * @param <E> the type of the elements
+ * @since CloudSim Toolkit 4.0
+ */
+public class ModCountList<E> extends AbstractList<E> implements RandomAccess {
+
+	/** The elements of the list. */
+	private final List<E> elements = new ArrayList<E>();
+
+	/**
+	 * Gets the number of changes of the list so far.
+	 *
+	 * @return the number of changes
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+
+	@Override
+	public E get(int index) {
+		return elements.get(index);
+	}
+
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	@Override
+	public E set(int index, E element) {
+		E previous = elements.set(index, element);
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		elements.add(index, element);
+		modCount++;
+	}
+
+	@Override
+	public E remove(int index) {
+		E previous = elements.remove(index);
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		elements.clear();
+		modCount++;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		elements.subList(fromIndex, toIndex).clear();
+		modCount++;
+	}
+
+}
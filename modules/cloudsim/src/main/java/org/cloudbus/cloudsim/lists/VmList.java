@@ -74,4 +74,41 @@ public class VmList {
 		return null;
 	}
 
+	/**
+	 * Creates an index of lists of VMs by id, to find a VM as {@link #getById(List, int)} does
+	 * without scanning the list.
+	 * 
+	 * @return the index, whose keys are the VM ids
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static IdIndex<Vm> createIdIndex() {
+		return new IdIndex<Vm>() {
+
+			@Override
+			protected long getKey(Vm vm) {
+				return vm.getId();
+			}
+
+		};
+	}
+
+	/**
+	 * Creates an index of lists of VMs by id and user id, to find a VM as
+	 * {@link #getByIdAndUserId(List, int, int)} does without scanning the list.
+	 * 
+	 * @return the index, whose keys are given by {@link IdIndex#getKey(int, int)} for the user id
+	 *         and the VM id
+	 * @since CloudSim Toolkit 4.0
+	 */
+	public static IdIndex<Vm> createIdAndUserIdIndex() {
+		return new IdIndex<Vm>() {
+
+			@Override
+			protected long getKey(Vm vm) {
+				return getKey(vm.getUserId(), vm.getId());
+			}
+
+		};
+	}
+
 }
@@ -0,0 +1,742 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * A table of VMs, which gives each VM of the table a compact integer handle and holds a value for
+ * it. A VM is identified by its id and the id of its user, as by its {@link Vm#getUid() uid}, but
+ * neither a string is built nor hashed to find it: the table maps the VMs to their handles with
+ * an open addressing hash table of primitive arrays.
+ * <p/>
+ * The handles of the VMs removed from the table are given to the VMs added next, so the handles
+ * are always lower than {@link #getCapacity()}, which grows with the largest number of VMs held at
+ * once. The owner of the table can thus keep primitive data of the VMs, such as their allocated
+ * RAM, in arrays indexed by their handles. The handles in use are iterated from {@link #first()}
+ * with {@link #next(int)}, in the order the VMs were added to the table.
+ * <p/>
+ * The code that still identifies the VMs by their uids can add them by uid, and can use the table
+ * through the {@link #getUids() list} and the {@link #getUidMap() map} views of their uids. A VM
+ * added by uid only has no {@link #getVm(int) VM object} until it is added as a VM.
+ *
+ * @param <V> the type of the values
+ * @since CloudSim Toolkit 4.0
+ */
+public class VmTable<V> {
+
+	/** The minimum capacity of the table. */
+	private static final int MIN_CAPACITY = 8;
+
+	/** The key returned for the strings which are not VM uids, which no VM has. */
+	private static final long NO_KEY = Long.MIN_VALUE;
+
+	/** The VM of each handle, or null if the handle is free or the VM was added by uid only. */
+	private Vm[] vms = new Vm[MIN_CAPACITY];
+
+	/** The key of the VM of each handle. */
+	private long[] vmKeys = new long[MIN_CAPACITY];
+
+	/** The value of each handle. */
+	private Object[] values = new Object[MIN_CAPACITY];
+
+	/** The position plus one of each handle in {@link #order}, or 0 if the handle is free. */
+	private int[] positions = new int[MIN_CAPACITY];
+
+	/** The handles in use, in the order their VMs were added to the table. */
+	private int[] order = new int[MIN_CAPACITY];
+
+	/** The number of handles ever given since the table was cleared. */
+	private int limit;
+
+	/** The free handles lower than {@link #limit}, of which the last one is given first. */
+	private int[] freeHandles = new int[MIN_CAPACITY];
+
+	/** The number of free handles lower than {@link #limit}. */
+	private int freeCount;
+
+	/** The number of VMs in the table. */
+	private int size;
+
+	/** The largest number of VMs held at once since the table was created. */
+	private int maxSize;
+
+	/** The key of each slot of the hash table. */
+	private long[] keys = new long[2 * MIN_CAPACITY];
+
+	/** The handle plus one of each slot of the hash table, or 0 if the slot is free. */
+	private int[] handles = new int[2 * MIN_CAPACITY];
+
+	/**
+	 * Gets the handle of a VM.
+	 *
+	 * @param vm the VM
+	 * @return the handle of the VM, or -1 if the VM is not in the table
+	 */
+	public int getHandle(Vm vm) {
+		int slot = find(getKey(vm));
+		return slot < 0 ? -1 : handles[slot] - 1;
+	}
+
+	/**
+	 * Gets the handle of a VM given its uid.
+	 *
+	 * @param uid the uid of the VM
+	 * @return the handle of the VM, or -1 if the VM is not in the table
+	 */
+	public int getHandle(String uid) {
+		long key = getKey(uid);
+		int slot = key == NO_KEY ? -1 : find(key);
+		return slot < 0 ? -1 : handles[slot] - 1;
+	}
+
+	/**
+	 * Checks if a VM is in the table.
+	 *
+	 * @param vm the VM
+	 * @return true, if the VM is in the table
+	 */
+	public boolean contains(Vm vm) {
+		return find(getKey(vm)) >= 0;
+	}
+
+	/**
+	 * Checks if a VM is in the table given its uid.
+	 *
+	 * @param uid the uid of the VM
+	 * @return true, if the VM is in the table
+	 */
+	public boolean contains(String uid) {
+		return getHandle(uid) >= 0;
+	}
+
+	/**
+	 * Adds a VM to the table, with a null value, if it is not in the table yet. A VM added
+	 * by uid only before is given the VM object.
+	 *
+	 * @param vm the VM
+	 * @return the handle of the VM
+	 */
+	public int add(Vm vm) {
+		int handle = add(getKey(vm));
+		if (vms[handle] == null) {
+			vms[handle] = vm;
+		}
+		return handle;
+	}
+
+	/**
+	 * Adds a VM to the table given its uid, with a null value, if it is not in the table yet.
+	 *
+	 * @param uid the uid of the VM, as {@link Vm#getUid(int, int)} builds it
+	 * @return the handle of the VM
+	 * @throws IllegalArgumentException if the uid is not made of a user id and a VM id
+	 */
+	public int add(String uid) {
+		long key = getKey(uid);
+		if (key == NO_KEY) {
+			throw new IllegalArgumentException("Not a VM uid: " + uid);
+		}
+		return add(key);
+	}
+
+	/**
+	 * Removes a VM from the table. Its handle may then be given to another VM.
+	 *
+	 * @param vm the VM
+	 * @return the handle the VM had, or -1 if the VM was not in the table
+	 */
+	public int remove(Vm vm) {
+		return remove(getKey(vm));
+	}
+
+	/**
+	 * Removes a VM from the table given its uid. Its handle may then be given to another VM.
+	 *
+	 * @param uid the uid of the VM
+	 * @return the handle the VM had, or -1 if the VM was not in the table
+	 */
+	public int remove(String uid) {
+		long key = getKey(uid);
+		return key == NO_KEY ? -1 : remove(key);
+	}
+
+	/**
+	 * Removes all the VMs from the table.
+	 */
+	public void clear() {
+		Arrays.fill(vms, 0, limit, null);
+		Arrays.fill(values, 0, limit, null);
+		Arrays.fill(positions, 0, limit, 0);
+		Arrays.fill(handles, 0);
+		limit = 0;
+		freeCount = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets the value of a VM.
+	 *
+	 * @param vm the VM
+	 * @return the value of the VM, or $null if the VM is not in the table
+	 */
+	public V get(Vm vm) {
+		int slot = find(getKey(vm));
+		return slot < 0 ? null : getValue(handles[slot] - 1);
+	}
+
+	/**
+	 * Sets the value of a VM, adding the VM to the table if it is not in the table yet.
+	 *
+	 * @param vm the VM
+	 * @param value the value
+	 * @return the handle of the VM
+	 */
+	public int put(Vm vm, V value) {
+		int handle = add(vm);
+		values[handle] = value;
+		return handle;
+	}
+
+	/**
+	 * Gets the VM of a handle.
+	 *
+	 * @param handle the handle
+	 * @return the VM, or $null if the handle is free or the VM was added by uid only
+	 */
+	public Vm getVm(int handle) {
+		return vms[handle];
+	}
+
+	/**
+	 * Gets the uid of the VM of a handle in use.
+	 *
+	 * @param handle the handle
+	 * @return the uid of the VM
+	 */
+	public String getUid(int handle) {
+		if (vms[handle] != null) {
+			return vms[handle].getUid();
+		}
+		return Vm.getUid((int) (vmKeys[handle] >> 32), (int) vmKeys[handle]);
+	}
+
+	/**
+	 * Gets the value of a handle.
+	 *
+	 * @param handle the handle
+	 * @return the value, or $null if the handle is free
+	 */
+	@SuppressWarnings("unchecked")
+	public V getValue(int handle) {
+		return (V) values[handle];
+	}
+
+	/**
+	 * Sets the value of a handle in use.
+	 *
+	 * @param handle the handle
+	 * @param value the value
+	 */
+	public void setValue(int handle, V value) {
+		values[handle] = value;
+	}
+
+	/**
+	 * Gets the handle of the VM added first among the VMs of the table.
+	 *
+	 * @return the handle, or -1 if the table is empty
+	 */
+	public int first() {
+		return size == 0 ? -1 : order[0];
+	}
+
+	/**
+	 * Gets the handle of the VM added next after the VM of a handle in use.
+	 *
+	 * @param handle the handle
+	 * @return the next handle, or -1 if there is none
+	 */
+	public int next(int handle) {
+		int position = positions[handle];
+		return position < size ? order[position] : -1;
+	}
+
+	/**
+	 * Gets the handles in use in the order a {@link java.util.HashMap} keyed by the uids of the VMs
+	 * would iterate them, had it been given the VMs as the table. Such a map iterates its keys by
+	 * the hash of their uid, modulo its capacity, which grows with the largest number of keys it
+	 * has held, and then in the order they were added. The owners of the tables which replaced
+	 * such maps walk the VMs in this order where it changes their results.
+	 *
+	 * @return the handles
+	 */
+	public int[] getHandlesInUidMapOrder() {
+		// the default capacity and load factor of a HashMap
+		int capacity = 16;
+		while (maxSize > capacity * 3 / 4) {
+			capacity *= 2;
+		}
+
+		int[] sorted = new int[size];
+		int[] buckets = new int[size];
+		for (int position = 0; position < size; position++) {
+			int hash = getUid(order[position]).hashCode();
+			int bucket = (hash ^ (hash >>> 16)) & (capacity - 1);
+			// insertion sort, stable as the VMs of a bucket keep their order
+			int i = position;
+			while (i > 0 && buckets[i - 1] > bucket) {
+				sorted[i] = sorted[i - 1];
+				buckets[i] = buckets[i - 1];
+				i--;
+			}
+			sorted[i] = order[position];
+			buckets[i] = bucket;
+		}
+		return sorted;
+	}
+
+	/**
+	 * Gets the number of VMs in the table.
+	 *
+	 * @return the number of VMs
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the table is empty.
+	 *
+	 * @return true, if there are no VMs in the table
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets the capacity of the table, which all the handles are lower than.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return vms.length;
+	}
+
+	/**
+	 * Gets a view of the {@link Vm#getUid() uids} of the VMs of the table, in the order the VMs
+	 * were added. It follows the changes of the table, and the uids added to it or removed from it
+	 * are added to the table or removed from it. As the table holds a VM once, adding a uid already
+	 * in the view leaves it unchanged, and the uids can only be added at the end.
+	 *
+	 * @return the uids of the VMs
+	 */
+	public List<String> getUids() {
+		return new AbstractList<String>() {
+
+			@Override
+			public String get(int index) {
+				checkIndex(index);
+				return getUid(order[index]);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public boolean add(String uid) {
+				int oldSize = size;
+				VmTable.this.add(uid);
+				return size != oldSize;
+			}
+
+			@Override
+			public void add(int index, String uid) {
+				if (index != size) {
+					throw new UnsupportedOperationException("The uids can only be added at the end");
+				}
+				add(uid);
+			}
+
+			@Override
+			public String remove(int index) {
+				checkIndex(index);
+				String uid = getUid(order[index]);
+				VmTable.this.remove(vmKeys[order[index]]);
+				return uid;
+			}
+
+			@Override
+			public boolean remove(Object uid) {
+				return uid instanceof String && VmTable.this.remove((String) uid) >= 0;
+			}
+
+			@Override
+			public boolean contains(Object uid) {
+				return uid instanceof String && VmTable.this.contains((String) uid);
+			}
+
+			@Override
+			public int indexOf(Object uid) {
+				int handle = uid instanceof String ? getHandle((String) uid) : -1;
+				return handle < 0 ? -1 : positions[handle] - 1;
+			}
+
+			@Override
+			public int lastIndexOf(Object uid) {
+				return indexOf(uid);
+			}
+
+			@Override
+			public void clear() {
+				VmTable.this.clear();
+			}
+
+			private void checkIndex(int index) {
+				if (index < 0 || index >= size) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Gets a view of the table as a map from the {@link Vm#getUid() uids} of the VMs to their
+	 * values, iterated as in {@link #getHandlesInUidMapOrder()}. It follows the changes of the
+	 * table, and the changes made to it are made to the table.
+	 *
+	 * @return the values of the VMs by uid
+	 */
+	public Map<String, V> getUidMap() {
+		return new UidMap<V>(this) {
+
+			@Override
+			protected V getValue(int handle) {
+				return VmTable.this.getValue(handle);
+			}
+
+			@Override
+			protected void setValue(int handle, V value) {
+				VmTable.this.setValue(handle, value);
+			}
+		};
+	}
+
+	/**
+	 * A view of a table as a map from the {@link Vm#getUid() uids} of the VMs to values read
+	 * and written by handle, for the owners of tables which keep the data of the VMs in their
+	 * own arrays, or in another form than the one of the map.
+	 *
+	 * @param <T> the type of the values of the map
+	 */
+	public abstract static class UidMap<T> extends AbstractMap<String, T> {
+
+		/** The table. */
+		private final VmTable<?> table;
+
+		/**
+		 * Creates a view of a table.
+		 *
+		 * @param table the table
+		 */
+		public UidMap(VmTable<?> table) {
+			this.table = table;
+		}
+
+		/**
+		 * Gets the value of a handle in use.
+		 *
+		 * @param handle the handle
+		 * @return the value
+		 */
+		protected abstract T getValue(int handle);
+
+		/**
+		 * Sets the value of a handle in use.
+		 *
+		 * @param handle the handle
+		 * @param value the value
+		 */
+		protected abstract void setValue(int handle, T value);
+
+		@Override
+		public int size() {
+			return table.size();
+		}
+
+		@Override
+		public boolean containsKey(Object uid) {
+			return uid instanceof String && table.contains((String) uid);
+		}
+
+		@Override
+		public T get(Object uid) {
+			int handle = uid instanceof String ? table.getHandle((String) uid) : -1;
+			return handle < 0 ? null : getValue(handle);
+		}
+
+		@Override
+		public T put(String uid, T value) {
+			int handle = table.getHandle(uid);
+			T oldValue = handle < 0 ? null : getValue(handle);
+			setValue(table.add(uid), value);
+			return oldValue;
+		}
+
+		@Override
+		public T remove(Object uid) {
+			int handle = uid instanceof String ? table.getHandle((String) uid) : -1;
+			if (handle < 0) {
+				return null;
+			}
+			T oldValue = getValue(handle);
+			table.remove(table.vmKeys[handle]);
+			return oldValue;
+		}
+
+		@Override
+		public void clear() {
+			table.clear();
+		}
+
+		@Override
+		public Set<Map.Entry<String, T>> entrySet() {
+			return new AbstractSet<Map.Entry<String, T>>() {
+
+				@Override
+				public Iterator<Map.Entry<String, T>> iterator() {
+					return new Iterator<Map.Entry<String, T>>() {
+
+						/** The handles of the entries. */
+						private final int[] entryHandles = table.getHandlesInUidMapOrder();
+
+						/** The position of the next entry. */
+						private int position;
+
+						/** The handle of the last entry returned, or -1 if it was removed. */
+						private int lastHandle = -1;
+
+						@Override
+						public boolean hasNext() {
+							return position < entryHandles.length;
+						}
+
+						@Override
+						public Map.Entry<String, T> next() {
+							if (position >= entryHandles.length) {
+								throw new NoSuchElementException();
+							}
+							final int handle = entryHandles[position++];
+							lastHandle = handle;
+							return new AbstractMap.SimpleEntry<String, T>(table.getUid(handle), getValue(handle)) {
+
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public T setValue(T value) {
+									UidMap.this.setValue(handle, value);
+									return super.setValue(value);
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							if (lastHandle < 0) {
+								throw new IllegalStateException();
+							}
+							table.remove(table.vmKeys[lastHandle]);
+							lastHandle = -1;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return table.size();
+				}
+			};
+		}
+
+	}
+
+	/**
+	 * Gets the key of a VM, made of its id and the id of its user.
+	 *
+	 * @param vm the VM
+	 * @return the key
+	 */
+	private static long getKey(Vm vm) {
+		return IdIndex.getKey(vm.getUserId(), vm.getId());
+	}
+
+	/**
+	 * Gets the key of a VM from its uid, made of the id of its user and its id.
+	 *
+	 * @param uid the uid
+	 * @return the key, or {@link #NO_KEY} if the string is not a VM uid
+	 */
+	private static long getKey(String uid) {
+		int separator = uid.indexOf('-', 1);
+		if (separator < 0) {
+			return NO_KEY;
+		}
+		try {
+			long key = IdIndex.getKey(
+					Integer.parseInt(uid.substring(0, separator)),
+					Integer.parseInt(uid.substring(separator + 1)));
+			// the uids of VMs are built by Vm#getUid, which the key has to give back
+			return key != NO_KEY && uid.equals(Vm.getUid((int) (key >> 32), (int) key)) ? key : NO_KEY;
+		} catch (NumberFormatException e) {
+			return NO_KEY;
+		}
+	}
+
+	/**
+	 * Adds a key to the table if it is not in the table yet.
+	 *
+	 * @param key the key
+	 * @return the handle of the key
+	 */
+	private int add(long key) {
+		int slot = slot(key);
+		while (handles[slot] != 0) {
+			if (keys[slot] == key) {
+				return handles[slot] - 1;
+			}
+			slot = (slot + 1) & (handles.length - 1);
+		}
+
+		int handle;
+		if (freeCount > 0) {
+			handle = freeHandles[--freeCount];
+		} else {
+			handle = limit++;
+			if (handle == vms.length) {
+				int capacity = 2 * vms.length;
+				vms = Arrays.copyOf(vms, capacity);
+				vmKeys = Arrays.copyOf(vmKeys, capacity);
+				values = Arrays.copyOf(values, capacity);
+				positions = Arrays.copyOf(positions, capacity);
+				order = Arrays.copyOf(order, capacity);
+				freeHandles = Arrays.copyOf(freeHandles, capacity);
+			}
+		}
+		vmKeys[handle] = key;
+		order[size] = handle;
+		positions[handle] = size + 1;
+		keys[slot] = key;
+		handles[slot] = handle + 1;
+		size++;
+		maxSize = Math.max(maxSize, size);
+		if (2 * size > handles.length) {
+			rehash(2 * handles.length);
+		}
+		return handle;
+	}
+
+	/**
+	 * Removes a key from the table.
+	 *
+	 * @param key the key
+	 * @return the handle the key had, or -1 if the key was not in the table
+	 */
+	private int remove(long key) {
+		int slot = find(key);
+		if (slot < 0) {
+			return -1;
+		}
+		int handle = handles[slot] - 1;
+
+		// shifts back the next keys of the cluster which may not be found past the freed slot
+		int mask = handles.length - 1;
+		int free = slot;
+		for (int i = (slot + 1) & mask; handles[i] != 0; i = (i + 1) & mask) {
+			if (((i - slot(keys[i])) & mask) >= ((i - free) & mask)) {
+				keys[free] = keys[i];
+				handles[free] = handles[i];
+				free = i;
+			}
+		}
+		handles[free] = 0;
+
+		// shifts back the next handles of the order, as the VMs are few on a host
+		for (int position = positions[handle]; position < size; position++) {
+			order[position - 1] = order[position];
+			positions[order[position]] = position;
+		}
+		positions[handle] = 0;
+
+		vms[handle] = null;
+		values[handle] = null;
+		freeHandles[freeCount++] = handle;
+		size--;
+		return handle;
+	}
+
+	/**
+	 * Finds the slot of a key in the hash table.
+	 *
+	 * @param key the key
+	 * @return the slot, or -1 if the key is not in the table
+	 */
+	private int find(long key) {
+		int slot = slot(key);
+		while (handles[slot] != 0) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & (handles.length - 1);
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the first slot of the hash table to try for a key.
+	 *
+	 * @param key the key
+	 * @return the slot
+	 */
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 32) & (handles.length - 1);
+	}
+
+	/**
+	 * Builds the hash table again with a new capacity.
+	 *
+	 * @param capacity the new capacity, a power of two
+	 */
+	private void rehash(int capacity) {
+		keys = new long[capacity];
+		handles = new int[capacity];
+		for (int position = 0; position < size; position++) {
+			int handle = order[position];
+			int slot = slot(vmKeys[handle]);
+			while (handles[slot] != 0) {
+				slot = (slot + 1) & (capacity - 1);
+			}
+			keys[slot] = vmKeys[handle];
+			handles[slot] = handle + 1;
+		}
+	}
+
+}
@@ -8,16 +8,19 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
  * This class represents a delay matrix between every pair or nodes
  * inside a network topology, storing every distance between connected nodes.
+ * Links between nodes not linked yet can be added afterwards with
+ * {@link #addLink(int, int, float)}, which only updates the delays that become shorter.
  * 
  * @author Thomas Hohnstein
  * @since CloudSim Toolkit 1.0
  */
-public class DelayMatrix_Float {
+public class DelayMatrix_Float implements DelayProviderIF {
 
 	/**
 	 * Matrix holding delay information between any two nodes.
@@ -29,6 +32,11 @@ public class DelayMatrix_Float {
 	 */
 	protected int mTotalNodeNum = 0;
 
+	/**
+	 * Indicates if the matrix is directed (true) or not (false).
+	 */
+	protected boolean mDirected = false;
+
 	/**
 	 * Private constructor to ensure that only an correct initialized delay-matrix could be created.
 	 */
@@ -43,6 +51,7 @@ public class DelayMatrix_Float {
 	 * @param directed indicates if an directed matrix should be computed (true) or not (false)
 	 */
 	public DelayMatrix_Float(TopologicalGraph graph, boolean directed) {
+		mDirected = directed;
 
 		// lets preinitialize the Delay-Matrix
 		createDelayMatrix(graph, directed);
@@ -58,6 +67,7 @@ public class DelayMatrix_Float {
 	 * @param destID the id of the destination node
 	 * @return the delay between the given two nodes
 	 */
+	@Override
 	public float getDelay(int srcID, int destID) {
 		// check the nodeIDs against internal array-boundarys
 		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
@@ -67,6 +77,89 @@ public class DelayMatrix_Float {
 		return mDelayMatrix[srcID][destID];
 	}
 
+	/**
+	 * Adds a link to the network topology, updating only the delays of the paths that become
+	 * shorter through it, in O(n<sup>2</sup>) time for n nodes instead of the O(n<sup>3</sup>)
+	 * of calculating all the shortest paths again. The nodes of the link that are not in the
+	 * matrix yet are added to it.
+	 * <p/>
+	 * As for the links of the graph the matrix is created from, a link without delay is ignored.
+	 * The nodes must not be linked yet: when nodes are linked more than once, the matrix created
+	 * from the graph keeps the last of their links, while this method could only make their delay
+	 * shorter. The matrix has to be created again from the graph in that case, as
+	 * {@link org.cloudbus.cloudsim.NetworkTopology#addLink(int, int, double, double)} does.
+	 * 
+	 * @param srcID the id of the source node of the link
+	 * @param destID the id of the destination node of the link
+	 * @param delay the delay of the link
+	 * @since CloudSim Toolkit 4.0
+	 */
+	@Override
+	public void addLink(int srcID, int destID, float delay) {
+		addNodes(Math.max(srcID, destID) + 1);
+		if (delay == 0 || srcID == destID) {
+			return;
+		}
+
+		// the delays from both ends of the link before adding it
+		float[] fromSrc = Arrays.copyOf(mDelayMatrix[srcID], mTotalNodeNum);
+		float[] fromDest = Arrays.copyOf(mDelayMatrix[destID], mTotalNodeNum);
+
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			float[] delays = mDelayMatrix[row];
+			float toDestViaLink = delays[srcID] + delay;
+			float toSrcViaLink = delays[destID] + delay;
+
+			// if the link does not shorten the path to its other end, it shortens no path
+			boolean srcToDest = toDestViaLink < delays[destID];
+			boolean destToSrc = !mDirected && toSrcViaLink < delays[srcID];
+			if (!srcToDest && !destToSrc) {
+				continue;
+			}
+
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				if (srcToDest && toDestViaLink + fromDest[col] < delays[col]) {
+					delays[col] = toDestViaLink + fromDest[col];
+				}
+				if (destToSrc && toSrcViaLink + fromSrc[col] < delays[col]) {
+					delays[col] = toSrcViaLink + fromSrc[col];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds nodes without any link to the matrix, up to a given number of nodes. The rows are
+	 * allocated with room for more nodes, so adding nodes one by one does not copy the matrix
+	 * every time.
+	 * 
+	 * @param totalNodeNum the number of nodes of the matrix
+	 */
+	private void addNodes(int totalNodeNum) {
+		if (totalNodeNum <= mTotalNodeNum) {
+			return;
+		}
+
+		int capacity = mDelayMatrix.length;
+		if (totalNodeNum > capacity) {
+			int newCapacity = Math.max(totalNodeNum, 2 * capacity);
+			float[][] matrix = new float[newCapacity][];
+			for (int row = 0; row < newCapacity; ++row) {
+				if (row < capacity) {
+					matrix[row] = Arrays.copyOf(mDelayMatrix[row], newCapacity);
+					Arrays.fill(matrix[row], capacity, newCapacity, Float.MAX_VALUE);
+				} else {
+					matrix[row] = new float[newCapacity];
+					Arrays.fill(matrix[row], Float.MAX_VALUE);
+					matrix[row][row] = 0;
+				}
+			}
+			mDelayMatrix = matrix;
+		}
+
+		mTotalNodeNum = totalNodeNum;
+	}
+
 	/**
 	 * Creates all internal necessary network-distance structures from the given graph. 
          * For similarity, we assume all communication-distances are symmetrical, 
@@ -0,0 +1,41 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+/**
+ * An interface to abstract the way the delays of the shortest paths between the nodes of a
+ * network topology are obtained.
+ * 
+ * @since CloudSim Toolkit 4.0
+ * @see DelayMatrix_Float
+ * @see LazyDelayMatrix_Float
+ */
+public interface DelayProviderIF {
+
+	/**
+	 * Gets the delay between two nodes.
+	 * 
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @return the delay between the given two nodes, or {@link Float#MAX_VALUE} if there is no
+	 *         path between them
+	 */
+	float getDelay(int srcID, int destID);
+
+	/**
+	 * Adds a link between two nodes not linked yet to the network topology. The nodes of the link
+	 * that are not in the topology yet are added to it. A link without delay is ignored.
+	 * 
+	 * @param srcID the id of the source node of the link
+	 * @param destID the id of the destination node of the link
+	 * @param delay the delay of the link
+	 */
+	void addLink(int srcID, int destID, float delay);
+
+}
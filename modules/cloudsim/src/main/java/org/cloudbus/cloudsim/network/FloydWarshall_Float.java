@@ -8,9 +8,17 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * FloydWarshall algorithm to calculate the predecessor matrix 
  * and the delay between all pairs of nodes.
+ * <p/>
+ * The delays and predecessors are updated in place in a single pair of matrices: while
+ * iterating over a node k, the row and column of k do not change, so the rows can be updated
+ * in any order. The rows of large matrices are thus updated in parallel by the
+ * {@link ForkJoinPool#commonPool() common fork-join pool}.
  * 
  * @author Rahul Simha
  * @author Weishuai Yang
@@ -19,25 +27,30 @@ package org.cloudbus.cloudsim.network;
  */
 public class FloydWarshall_Float {
 
+	/**
+	 * The minimum number of nodes for the rows to be updated in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 128;
+
+	/**
+	 * The number of rows below which a task updates its rows instead of splitting them.
+	 */
+	private static final int ROWS_PER_TASK = 16;
+
 	/**
 	 * Number of vertices (nodes).
 	 */
 	private int numVertices;
 
 	/**
-	 * Matrices used in dynamic programming.
+	 * The delay matrix. Matrix used by dynamic programming.
 	 */
-	private float[][] Dk, Dk_minus_one;
+	private float[][] Dk;
 
 	/**
 	 * The predecessor matrix. Matrix used by dynamic programming.
 	 */
 	private int[][] Pk;
-        
-        /**
-         * Matrix used by dynamic programming.
-         */
-        private int[][] Pk_minus_one;
 
 	/**
 	 * Initialization the matrix.
@@ -48,20 +61,12 @@ public class FloydWarshall_Float {
 	public void initialize(int numVertices) {
 		this.numVertices = numVertices;
 
-		// Initialize Dk matrices.
+		// Initialize Dk and Pk matrices.
 		Dk = new float[numVertices][];
-		Dk_minus_one = new float[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Dk[i] = new float[numVertices];
-			Dk_minus_one[i] = new float[numVertices];
-		}
-
-		// Initialize Pk matrices.
 		Pk = new int[numVertices][];
-		Pk_minus_one = new int[numVertices][];
 		for (int i = 0; i < numVertices; i++) {
+			Dk[i] = new float[numVertices];
 			Pk[i] = new int[numVertices];
-			Pk_minus_one[i] = new int[numVertices];
 		}
 
 	}
@@ -69,19 +74,22 @@ public class FloydWarshall_Float {
 	/**
 	 * Calculates the delay between all pairs of nodes.
 	 * 
-	 * @param adjMatrix original delay matrix
+	 * @param adjMatrix original delay matrix, where 0 means there is no link between the nodes
 	 * @return the delay matrix
 	 */
 	public float[][] allPairsShortestPaths(float[][] adjMatrix) {
-		// Dk_minus_one = weights when k = -1
+		// Dk = weights when k = -1
 		for (int i = 0; i < numVertices; i++) {
 			for (int j = 0; j < numVertices; j++) {
-				if (adjMatrix[i][j] != 0) {
-					Dk_minus_one[i][j] = adjMatrix[i][j];
-					Pk_minus_one[i][j] = i;
+				if (i == j) {
+					Dk[i][j] = 0;
+					Pk[i][j] = -1;
+				} else if (adjMatrix[i][j] != 0) {
+					Dk[i][j] = adjMatrix[i][j];
+					Pk[i][j] = i;
 				} else {
-					Dk_minus_one[i][j] = Float.MAX_VALUE;
-					Pk_minus_one[i][j] = -1;
+					Dk[i][j] = Float.MAX_VALUE;
+					Pk[i][j] = -1;
 				}
 				// NOTE: we have set the value to infinity and will exploit
 				// this to avoid a comparison.
@@ -90,37 +98,15 @@ public class FloydWarshall_Float {
 
 		// Now iterate over k.
 
+		boolean parallel = numVertices >= PARALLEL_THRESHOLD
+				&& ForkJoinPool.getCommonPoolParallelism() > 1;
 		for (int k = 0; k < numVertices; k++) {
-
-			// Compute Dk[i][j], for each i,j
-
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					if (i != j) {
-
-						// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
-						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
-							Dk[i][j] = Dk_minus_one[i][j];
-							Pk[i][j] = Pk_minus_one[i][j];
-						} else {
-							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
-							Pk[i][j] = Pk_minus_one[k][j];
-						}
-					} else {
-						Pk[i][j] = -1;
-					}
-				}
-			}
-
-			// Now store current Dk into D_k-1
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					Dk_minus_one[i][j] = Dk[i][j];
-					Pk_minus_one[i][j] = Pk[i][j];
-				}
+			if (parallel) {
+				ForkJoinPool.commonPool().invoke(new RowsUpdate(k, 0, numVertices));
+			} else {
+				updateRows(k, 0, numVertices);
 			}
-
-		} // end-outermost-for
+		}
 
 		return Dk;
 
@@ -134,4 +120,65 @@ public class FloydWarshall_Float {
 	public int[][] getPK() {
 		return Pk;
 	}
+
+	/**
+	 * Updates some rows with the paths going through a node.
+	 * 
+	 * @param k the node
+	 * @param from the first row
+	 * @param to the row after the last one
+	 */
+	private void updateRows(int k, int from, int to) {
+		float[] dk = Dk[k];
+		int[] pk = Pk[k];
+		for (int i = from; i < to; i++) {
+			float dik = Dk[i][k];
+			if (dik == Float.MAX_VALUE) {
+				// k cannot be reached from i, so no path through k is shorter
+				continue;
+			}
+			float[] di = Dk[i];
+			int[] pi = Pk[i];
+			for (int j = 0; j < numVertices; j++) {
+				// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j] ).
+				float viaK = dik + dk[j];
+				if (di[j] > viaK) {
+					di[j] = viaK;
+					pi[j] = pk[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates a range of rows with the paths going through a node, splitting the range between
+	 * subtasks.
+	 */
+	private class RowsUpdate extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int k;
+
+		private final int from;
+
+		private final int to;
+
+		RowsUpdate(int k, int from, int to) {
+			this.k = k;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= ROWS_PER_TASK) {
+				updateRows(k, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RowsUpdate(k, from, middle), new RowsUpdate(k, middle, to));
+			}
+		}
+
+	}
 }
@@ -0,0 +1,450 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * This class provides the delay between pairs of nodes inside a network topology without
+ * materializing the delay matrix between every pair of nodes, for topologies too large for
+ * {@link DelayMatrix_Float}. The delays from a node to all the others, a row of the matrix, are
+ * only calculated with Dijkstra's algorithm when a delay from this node is first queried. A
+ * bounded number of rows is kept, the least recently used one being dropped to make room for a
+ * new one.
+ * <p/>
+ * When the nodes whose delays are queried are known, such as the nodes mapped to CloudSim
+ * entities, {@link #precompute(int[])} calculates the delays between all of them at once and
+ * keeps them, whatever the number of rows kept.
+ * <p/>
+ * As for {@link DelayMatrix_Float}, links without delay are ignored, and when nodes are linked
+ * more than once, the last of their links replaces the previous ones, a link without delay
+ * removing them. The delays may differ from the ones of
+ * {@link DelayMatrix_Float} by rounding errors, as they are summed in a different order.
+ * <p/>
+ * As the rows are calculated and dropped while delays are queried, the methods are
+ * synchronized, so that simulations run in parallel threads can share an instance, such as the
+ * one of {@link org.cloudbus.cloudsim.NetworkTopology}.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class LazyDelayMatrix_Float implements DelayProviderIF {
+
+	/**
+	 * Indicates if the links are directed (true) or not (false).
+	 */
+	private final boolean directed;
+
+	/**
+	 * Number of nodes in the topology.
+	 */
+	private int totalNodeNum;
+
+	/**
+	 * The source node, destination node and delay of each link, in the order they were added.
+	 */
+	private int[] linkSrc, linkDest;
+
+	private float[] linkDelay;
+
+	/**
+	 * Number of links in the topology.
+	 */
+	private int linkNum;
+
+	/**
+	 * The index of the link between each pair of linked nodes, by {@link #getPairKey(int, int)}.
+	 */
+	private final Map<Long, Integer> pairLinks = new HashMap<Long, Integer>();
+
+	/**
+	 * The links leaving each node, in compressed sparse row form: the links leaving node i are
+	 * at the indices from adjacencyStart[i] to adjacencyStart[i + 1] of adjacencyNode and
+	 * adjacencyDelay. Null when it has to be built again after adding links.
+	 */
+	private int[] adjacencyStart;
+
+	private int[] adjacencyNode;
+
+	private float[] adjacencyDelay;
+
+	/**
+	 * The rows kept, by slot.
+	 */
+	private final float[][] rows;
+
+	/**
+	 * The node whose row is in each slot, or -1 if the slot is free.
+	 */
+	private final int[] slotNode;
+
+	/**
+	 * The time each slot was last used, to find the least recently used one.
+	 */
+	private final long[] slotLastUse;
+
+	/**
+	 * The slot of the row of each node, or -1 if its row is not kept.
+	 */
+	private int[] nodeSlot;
+
+	/**
+	 * The number of queries so far, used as a clock for the slots.
+	 */
+	private long queries;
+
+	/**
+	 * The nodes whose delays were precomputed, or null.
+	 */
+	private int[] precomputedNodes;
+
+	/**
+	 * The index of each node in {@link #precomputedNodes}, or -1.
+	 */
+	private int[] precomputedIndex;
+
+	/**
+	 * The delays between the precomputed nodes.
+	 */
+	private float[][] precomputedDelays;
+
+	/**
+	 * The delays of the Dijkstra's algorithm being run.
+	 */
+	private float[] distances;
+
+	/**
+	 * The binary heap of the nodes to visit in the Dijkstra's algorithm, ordered by distance,
+	 * and the position of each node in the heap, or -1.
+	 */
+	private int[] heap, heapPosition;
+
+	/**
+	 * Creates a delay provider for a network topology.
+	 *
+	 * @param graph the network topological graph
+	 * @param directed indicates if the links are directed (true) or not (false)
+	 * @param maxRows the maximum number of rows kept
+	 * @throws IllegalArgumentException if maxRows is not positive
+	 */
+	public LazyDelayMatrix_Float(TopologicalGraph graph, boolean directed, int maxRows) {
+		if (maxRows <= 0) {
+			throw new IllegalArgumentException("The maximum number of rows must be positive");
+		}
+		this.directed = directed;
+
+		totalNodeNum = graph.getNumberOfNodes();
+		nodeSlot = new int[totalNodeNum];
+		Arrays.fill(nodeSlot, -1);
+
+		int links = graph.getNumberOfLinks();
+		linkSrc = new int[links];
+		linkDest = new int[links];
+		linkDelay = new float[links];
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			addLinkToList(edge.getSrcNodeID(), edge.getDestNodeID(), edge.getLinkDelay());
+		}
+
+		rows = new float[maxRows][];
+		slotNode = new int[maxRows];
+		Arrays.fill(slotNode, -1);
+		slotLastUse = new long[maxRows];
+	}
+
+	@Override
+	public synchronized float getDelay(int srcID, int destID) {
+		if (srcID >= totalNodeNum || destID >= totalNodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+
+		if (precomputedIndex != null && precomputedIndex[srcID] >= 0 && precomputedIndex[destID] >= 0) {
+			return precomputedDelays[precomputedIndex[srcID]][precomputedIndex[destID]];
+		}
+
+		queries++;
+		int slot = nodeSlot[srcID];
+		if (slot < 0) {
+			slot = computeRow(srcID);
+		}
+		slotLastUse[slot] = queries;
+		return rows[slot][destID];
+	}
+
+	/**
+	 * Adds a link to the network topology. The delays calculated so far are dropped, and the
+	 * delays between the precomputed nodes are calculated again. Unlike
+	 * {@link DelayMatrix_Float#addLink(int, int, float)}, the nodes may be linked already: the
+	 * link replaces their previous one.
+	 *
+	 * @param srcID the id of the source node of the link
+	 * @param destID the id of the destination node of the link
+	 * @param delay the delay of the link
+	 */
+	@Override
+	public synchronized void addLink(int srcID, int destID, float delay) {
+		addLinkToList(srcID, destID, delay);
+
+		Arrays.fill(rows, null);
+		Arrays.fill(slotNode, -1);
+		Arrays.fill(nodeSlot, -1);
+		if (precomputedNodes != null) {
+			precompute(precomputedNodes);
+		}
+	}
+
+	/**
+	 * Calculates the delays between some nodes and keeps them, replacing the ones previously
+	 * precomputed. It takes a run of Dijkstra's algorithm from each node, but keeps only the
+	 * delays between the given nodes, whatever the number of nodes of the topology.
+	 *
+	 * @param nodes the ids of the nodes
+	 */
+	public synchronized void precompute(int[] nodes) {
+		int[] index = new int[totalNodeNum];
+		Arrays.fill(index, -1);
+		for (int i = 0; i < nodes.length; i++) {
+			index[nodes[i]] = i;
+		}
+
+		float[][] delays = new float[nodes.length][nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			float[] row = dijkstra(nodes[i]);
+			for (int j = 0; j < nodes.length; j++) {
+				delays[i][j] = row[nodes[j]];
+			}
+		}
+
+		precomputedNodes = nodes.clone();
+		precomputedIndex = index;
+		precomputedDelays = delays;
+	}
+
+	/**
+	 * Calculates the row of a node and keeps it in the free slot, or in the least recently used
+	 * one.
+	 *
+	 * @param node the node
+	 * @return the slot of the row
+	 */
+	private int computeRow(int node) {
+		int slot = 0;
+		for (int i = 0; i < slotNode.length; i++) {
+			if (slotNode[i] < 0) {
+				slot = i;
+				break;
+			}
+			if (slotLastUse[i] < slotLastUse[slot]) {
+				slot = i;
+			}
+		}
+
+		if (slotNode[slot] >= 0) {
+			nodeSlot[slotNode[slot]] = -1;
+		}
+		float[] row = dijkstra(node);
+		if (rows[slot] == null || rows[slot].length != totalNodeNum) {
+			rows[slot] = new float[totalNodeNum];
+		}
+		System.arraycopy(row, 0, rows[slot], 0, totalNodeNum);
+		slotNode[slot] = node;
+		nodeSlot[node] = slot;
+		return slot;
+	}
+
+	/**
+	 * Calculates the delays from a node to all the others with Dijkstra's algorithm.
+	 *
+	 * @param source the node
+	 * @return the delay to each node, in an array reused by the next run
+	 */
+	private float[] dijkstra(int source) {
+		if (adjacencyStart == null) {
+			buildAdjacency();
+		}
+		if (distances == null || distances.length != totalNodeNum) {
+			distances = new float[totalNodeNum];
+			heap = new int[totalNodeNum];
+			heapPosition = new int[totalNodeNum];
+		}
+		Arrays.fill(distances, Float.MAX_VALUE);
+		Arrays.fill(heapPosition, -1);
+
+		distances[source] = 0;
+		int heapSize = 0;
+		heapPosition[source] = 0;
+		heap[heapSize++] = source;
+		while (heapSize > 0) {
+			int node = heap[0];
+			heapPosition[node] = -1;
+			heapSize--;
+			if (heapSize > 0) {
+				heap[0] = heap[heapSize];
+				heapPosition[heap[0]] = 0;
+				siftDown(0, heapSize);
+			}
+
+			float distance = distances[node];
+			for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+				int next = adjacencyNode[i];
+				float viaNode = distance + adjacencyDelay[i];
+				if (viaNode < distances[next]) {
+					distances[next] = viaNode;
+					if (heapPosition[next] < 0) {
+						heapPosition[next] = heapSize;
+						heap[heapSize++] = next;
+					}
+					siftUp(heapPosition[next]);
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Moves a node of the heap up to its place.
+	 */
+	private void siftUp(int position) {
+		int node = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			if (distances[heap[parent]] <= distances[node]) {
+				break;
+			}
+			heap[position] = heap[parent];
+			heapPosition[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = node;
+		heapPosition[node] = position;
+	}
+
+	/**
+	 * Moves a node of the heap down to its place.
+	 */
+	private void siftDown(int position, int heapSize) {
+		int node = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && distances[heap[child + 1]] < distances[heap[child]]) {
+				child++;
+			}
+			if (distances[node] <= distances[heap[child]]) {
+				break;
+			}
+			heap[position] = heap[child];
+			heapPosition[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = node;
+		heapPosition[node] = position;
+	}
+
+	/**
+	 * Adds a link to the list of links, or replaces the link between its nodes, and adds the
+	 * nodes of the link that are not in the topology yet. A link without delay is kept in the
+	 * list when it replaces another one, but is not followed.
+	 */
+	private void addLinkToList(int srcID, int destID, float delay) {
+		int nodes = Math.max(totalNodeNum, Math.max(srcID, destID) + 1);
+		if (nodes > totalNodeNum) {
+			nodeSlot = Arrays.copyOf(nodeSlot, nodes);
+			Arrays.fill(nodeSlot, totalNodeNum, nodes, -1);
+			if (precomputedIndex != null) {
+				precomputedIndex = Arrays.copyOf(precomputedIndex, nodes);
+				Arrays.fill(precomputedIndex, totalNodeNum, nodes, -1);
+			}
+			totalNodeNum = nodes;
+		}
+
+		if (srcID == destID) {
+			return;
+		}
+		Long pair = getPairKey(srcID, destID);
+		Integer link = pairLinks.get(pair);
+		if (link != null) {
+			linkDelay[link] = delay;
+			adjacencyStart = null;
+			return;
+		}
+		if (delay == 0) {
+			return;
+		}
+		if (linkNum == linkSrc.length) {
+			int capacity = Math.max(16, 2 * linkNum);
+			linkSrc = Arrays.copyOf(linkSrc, capacity);
+			linkDest = Arrays.copyOf(linkDest, capacity);
+			linkDelay = Arrays.copyOf(linkDelay, capacity);
+		}
+		linkSrc[linkNum] = srcID;
+		linkDest[linkNum] = destID;
+		linkDelay[linkNum] = delay;
+		pairLinks.put(pair, linkNum);
+		linkNum++;
+		adjacencyStart = null;
+	}
+
+	/**
+	 * Gets the key of a pair of nodes, the same whatever the order of the nodes when the links
+	 * are not directed.
+	 */
+	private long getPairKey(int srcID, int destID) {
+		if (!directed && srcID > destID) {
+			return ((long) destID << 32) | srcID;
+		}
+		return ((long) srcID << 32) | destID;
+	}
+
+	/**
+	 * Builds the links leaving each node from the list of links.
+	 */
+	private void buildAdjacency() {
+		int[] start = new int[totalNodeNum + 1];
+		for (int i = 0; i < linkNum; i++) {
+			if (linkDelay[i] == 0) {
+				continue;
+			}
+			start[linkSrc[i] + 1]++;
+			if (!directed) {
+				start[linkDest[i] + 1]++;
+			}
+		}
+		for (int node = 0; node < totalNodeNum; node++) {
+			start[node + 1] += start[node];
+		}
+
+		int[] next = Arrays.copyOf(start, totalNodeNum);
+		int[] adjacentNode = new int[start[totalNodeNum]];
+		float[] adjacentDelay = new float[start[totalNodeNum]];
+		for (int i = 0; i < linkNum; i++) {
+			if (linkDelay[i] == 0) {
+				continue;
+			}
+			int index = next[linkSrc[i]]++;
+			adjacentNode[index] = linkDest[i];
+			adjacentDelay[index] = linkDelay[i];
+			if (!directed) {
+				index = next[linkDest[i]]++;
+				adjacentNode[index] = linkSrc[i];
+				adjacentDelay[index] = linkDelay[i];
+			}
+		}
+
+		adjacencyStart = start;
+		adjacencyNode = adjacentNode;
+		adjacencyDelay = adjacentDelay;
+	}
+
+}
@@ -18,11 +18,11 @@ import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.distributions.UniformDistr;
+import org.cloudbus.cloudsim.lists.IdIndex;
 import org.cloudbus.cloudsim.lists.VmList;
 
 /**
@@ -95,6 +95,9 @@ public class NetDatacenterBroker extends SimEntity {
          * is the datacenter id and each value is the datacenter itself. */
 	private Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** The index of {@link #getVmList()} by VM id. */
+	private final IdIndex<Vm> vmListIndex = VmList.createIdIndex();
+
 	public static NetworkDatacenter linkDC;
 
 	public boolean createvmflag = true;
@@ -233,10 +236,10 @@ public class NetDatacenterBroker extends SimEntity {
 	 */
 
 	protected void processResourceCharacteristicsRequest(SimEvent ev) {
-		setDatacenterIdsList(CloudSim.getCloudResourceList());
+		setDatacenterIdsList(getSimulation().getCloudResourceList());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
 
-		Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Cloud Resource List received with ",
+		Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Cloud Resource List received with ",
 				getDatacenterIdsList().size(), " resource(s)");
 
 		for (Integer datacenterId : getDatacenterIdsList()) {
@@ -267,7 +270,7 @@ public class NetDatacenterBroker extends SimEntity {
 		cloudletsSubmitted--;
 		// all cloudlets executed
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && NetworkConstants.iteration > 10) {
-			Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
+			Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
 		} else { // some cloudlets haven't finished yet
@@ -406,7 +409,7 @@ public class NetDatacenterBroker extends SimEntity {
 			// add the VM to the vmList
 			getVmList().add(vm);
 			getVmsToDatacentersMap().put(vmid, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmid));
+			getVmsCreatedList().add(vmListIndex.get(getVmList(), vmid));
 		}
 	}
 
@@ -421,7 +424,7 @@ public class NetDatacenterBroker extends SimEntity {
 	 */
 	protected void clearDatacenters() {
 		for (Vm vm : getVmsCreatedList()) {
-			Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Destroying VM #", vm.getId());
+			Log.printConcatLine(getSimulation().clock(), ": ", getName(), ": Destroying VM #", vm.getId());
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.VM_DESTROY, vm);
 		}
 
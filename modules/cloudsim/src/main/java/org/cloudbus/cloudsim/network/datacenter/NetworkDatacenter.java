@@ -22,7 +22,6 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 
@@ -134,6 +133,7 @@ public class NetworkDatacenter extends Datacenter {
          * @return true if the VW was created successfully, false otherwise
 	 */
 	public boolean processVmCreateNetwork(Vm vm) {
+		updateIdleHosts();
 
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
@@ -143,8 +143,9 @@ public class NetworkDatacenter extends Datacenter {
 			System.out.println(vm.getId() + " VM is created on " + vm.getHost().getId());
 
 			getVmList().add(vm);
+			listenForFinishedCloudlets(vm);
 
-			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
+			vm.updateVmProcessing(getSimulation().clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
 					.getAllocatedMipsForVm(vm));
 		}
 		return result;
@@ -160,7 +161,7 @@ public class NetworkDatacenter extends Datacenter {
 
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
+				String name = getSimulation().getEntityName(cl.getUserId());
 				Log.printConcatLine(getName(), ": Warning - Cloudlet #", cl.getCloudletId(), " owned by ", name,
 						" is already completed/finished.");
 				Log.printLine("Therefore, it is not being executed again");
@@ -200,6 +201,7 @@ public class NetworkDatacenter extends Datacenter {
 			Host host = getVmAllocationPolicy().getHost(vmId, userId);
 			Vm vm = host.getVm(vmId, userId);
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
+			markHostChanged(host);
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
 
 			if (estimatedFinishTime > 0.0) { // if this cloudlet is in the exec
@@ -232,4 +234,15 @@ public class NetworkDatacenter extends Datacenter {
 		checkCloudletCompletion();
 	}
 
+	/**
+	 * Marks a host as changed before a packet is delivered to it. An idle host, which the updates
+	 * of the cloudlet processing skip, is then updated again and moves the packet to its VM.
+	 * 
+	 * @param host the host the packet is delivered to
+	 * @see NetworkHost#canDeferVmsProcessing()
+	 */
+	void markHostReceivingPacket(NetworkHost host) {
+		markHostChanged(host);
+	}
+
 }
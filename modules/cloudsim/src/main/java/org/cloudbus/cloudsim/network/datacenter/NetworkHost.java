@@ -18,6 +18,7 @@ import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.lists.IdIndex;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
@@ -76,6 +77,9 @@ public class NetworkHost extends Host {
          **/
 	public double fintime = 0;
 
+	/** The index of the VM list by VM id. */
+	private final IdIndex<Vm> vmIdIndex = VmList.createIdIndex();
+
 	public NetworkHost(
 			int id,
 			RamProvisioner ramProvisioner,
@@ -91,6 +95,18 @@ public class NetworkHost extends Host {
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The host must also have no packet received that is not moved to its VMs yet. The packets
+	 * sent by the VMs are all moved on each update. The switch that delivers a packet to an idle
+	 * host marks it as changed, so that the host is updated again.
+	 */
+	@Override
+	public boolean canDeferVmsProcessing() {
+		return packetrecieved.isEmpty() && super.canDeferVmsProcessing();
+	}
+
 	@Override
 	public double updateVmsProcessing(double currentTime) {
 		double smallerTime = Double.MAX_VALUE;
@@ -110,6 +126,17 @@ public class NetworkHost extends Host {
 
 	}
 
+	/**
+	 * Gets the first VM of the host with a given id, as {@link VmList#getById(List, int)} does for
+	 * the VM list, without scanning the list.
+	 * 
+	 * @param vmId the VM id
+	 * @return the VM with the given id, or $null if not found
+	 */
+	public Vm getVm(int vmId) {
+		return vmIdIndex.get(getVmList(), vmId);
+	}
+
 	/**
 	 * Receives packets and forward them to the corresponding VM.
 	 */
@@ -118,7 +145,7 @@ public class NetworkHost extends Host {
 			hs.pkt.recievetime = CloudSim.clock();
 
 			// insert the packet in recievedlist of VM
-			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
+			Vm vm = getVm(hs.pkt.reciever);
 			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
 					.get(hs.pkt.sender);
 
@@ -146,7 +173,7 @@ public class NetworkHost extends Host {
                         List<HostPacket> pktlist = es.getValue();
                         for (HostPacket pkt : pktlist) {
                                 NetworkPacket hpkt = new NetworkPacket(getId(), pkt, vm.getId(), pkt.sender);
-                                Vm vm2 = VmList.getById(this.getVmList(), hpkt.recievervmid);
+                                Vm vm2 = getVm(hpkt.recievervmid);
                                 if (vm2 != null) {
                                         packetTosendLocal.add(hpkt);
                                 } else {
@@ -164,7 +191,7 @@ public class NetworkHost extends Host {
                     hs.stime = hs.rtime;
                     hs.pkt.recievetime = CloudSim.clock();
                     // insertthe packet in recievedlist
-                    Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
+                    Vm vm = getVm(hs.pkt.reciever);
 
                     List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
                                     .get(hs.pkt.sender);
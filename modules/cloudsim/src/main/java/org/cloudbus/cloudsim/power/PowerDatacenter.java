@@ -17,7 +17,6 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
@@ -78,16 +77,18 @@ public class PowerDatacenter extends Datacenter {
 
 	@Override
 	protected void updateCloudletProcessing() {
-		if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == CloudSim.clock()) {
-			CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+		if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == getSimulation().clock()) {
+			getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
 			schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			return;
 		}
-		double currentTime = CloudSim.clock();
+		double currentTime = getSimulation().clock();
 
 		// if some time passed since last processing
 		if (currentTime > getLastProcessTime()) {
-			System.out.print(currentTime + " ");
+			if (Log.isLoggable(Log.Level.INFO)) {
+				Log.print(Log.Level.INFO, currentTime + " ");
+			}
 
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -134,7 +135,7 @@ public class PowerDatacenter extends Datacenter {
 
 			// schedules an event to the next time
 			if (minTime != Double.MAX_VALUE) {
-				CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+				getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
 				send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			}
 
@@ -154,7 +155,7 @@ public class PowerDatacenter extends Datacenter {
          * The current method returns 0 by default.
 	 */
 	protected double updateCloudetProcessingWithoutSchedulingFutureEvents() {
-		if (CloudSim.clock() > getLastProcessTime()) {
+		if (getSimulation().clock() > getLastProcessTime()) {
 			return updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 		}
 		return 0;
@@ -167,34 +168,47 @@ public class PowerDatacenter extends Datacenter {
 	 *         {@link Double#MAX_VALUE} if there is no future events expected in this host
 	 */
 	protected double updateCloudetProcessingWithoutSchedulingFutureEventsForce() {
-		double currentTime = CloudSim.clock();
+		double currentTime = getSimulation().clock();
 		double minTime = Double.MAX_VALUE;
 		double timeDiff = currentTime - getLastProcessTime();
 		double timeFrameDatacenterEnergy = 0.0;
 
-		Log.printLine("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		boolean debug = Log.isLoggable(Log.Level.DEBUG);
+		if (debug) {
+			Log.printLine(Log.Level.DEBUG,
+					"\n\n--------------------------------------------------------------\n\n");
+			Log.formatLine(Log.Level.DEBUG, "New resource usage for the time frame starting at %.2f:",
+					currentTime);
+		}
 
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.printLine();
+			if (debug) {
+				Log.printLine(Log.Level.DEBUG);
+			}
 
 			double time = host.updateVmsProcessing(currentTime); // inform VMs to update processing
 			if (time < minTime) {
 				minTime = time;
 			}
 
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			if (debug) {
+				Log.formatLine(
+						Log.Level.DEBUG,
+						"%.2f: [Host #%d] utilization is %.2f%%",
+						currentTime,
+						host.getId(),
+						host.getUtilizationOfCpu() * 100);
+			}
 		}
 
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
+			if (debug) {
+				Log.formatLine(
+						Log.Level.DEBUG,
+						"\nEnergy consumption for the last time frame from %.2f to %.2f:",
+						getLastProcessTime(),
+						currentTime);
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
 				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
@@ -205,25 +219,32 @@ public class PowerDatacenter extends Datacenter {
 						timeDiff);
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
-				Log.printLine();
-				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
-						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+				if (debug) {
+					Log.printLine(Log.Level.DEBUG);
+					Log.formatLine(
+							Log.Level.DEBUG,
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							host.getId(),
+							getLastProcessTime(),
+							previousUtilizationOfCpu * 100,
+							utilizationOfCpu * 100);
+					Log.formatLine(
+							Log.Level.DEBUG,
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							host.getId(),
+							timeFrameHostEnergy);
+				}
+			}
+
+			if (debug) {
 				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
+						Log.Level.DEBUG,
+						"\n%.2f: Data center's energy is %.2f W*sec\n",
 						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						timeFrameDatacenterEnergy);
 			}
-
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
-					currentTime,
-					timeFrameDatacenterEnergy);
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -235,11 +256,13 @@ public class PowerDatacenter extends Datacenter {
 			for (Vm vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForVm(vm);
 				getVmList().remove(vm);
-				Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				Log.printConcatLine("VM #", vm.getId(), " has been deallocated from host #", host.getId());
 			}
 		}
 
-		Log.printLine();
+		if (debug) {
+			Log.printLine(Log.Level.DEBUG);
+		}
 
 		setLastProcessTime(currentTime);
 		return minTime;
@@ -249,8 +272,8 @@ public class PowerDatacenter extends Datacenter {
 	protected void processVmMigrate(SimEvent ev, boolean ack) {
 		updateCloudetProcessingWithoutSchedulingFutureEvents();
 		super.processVmMigrate(ev, ack);
-		SimEvent event = CloudSim.findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
-		if (event == null || event.eventTime() > CloudSim.clock()) {
+		SimEvent event = getSimulation().findFirstDeferred(getId(), new PredicateType(CloudSimTags.VM_MIGRATE));
+		if (event == null || event.eventTime() > getSimulation().clock()) {
 			updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 		}
 	}
@@ -258,7 +281,7 @@ public class PowerDatacenter extends Datacenter {
 	@Override
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 		super.processCloudletSubmit(ev, ack);
-		setCloudletSubmitted(CloudSim.clock());
+		setCloudletSubmitted(getSimulation().clock());
 	}
 
 	/**
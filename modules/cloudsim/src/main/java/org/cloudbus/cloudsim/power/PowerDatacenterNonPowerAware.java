@@ -16,7 +16,6 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
-import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
@@ -61,12 +60,12 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 
 	@Override
 	protected void updateCloudletProcessing() {
-		if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == CloudSim.clock()) {
-			CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+		if (getCloudletSubmitted() == -1 || getCloudletSubmitted() == getSimulation().clock()) {
+			getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
 			schedule(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			return;
 		}
-		double currentTime = CloudSim.clock();
+		double currentTime = getSimulation().clock();
 		double timeframePower = 0.0;
 
 		if (currentTime > getLastProcessTime()) {
@@ -76,7 +75,7 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 			Log.printLine("\n");
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("%.2f: Host #%d", CloudSim.clock(), host.getId());
+				Log.formatLine("%.2f: Host #%d", getSimulation().clock(), host.getId());
 
 				double hostPower = 0.0;
 
@@ -89,22 +88,22 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 
 				Log.formatLine(
 						"%.2f: Host #%d utilization is %.2f%%",
-						CloudSim.clock(),
+						getSimulation().clock(),
 						host.getId(),
 						host.getUtilizationOfCpu() * 100);
 				Log.formatLine(
 						"%.2f: Host #%d energy is %.2f W*sec",
-						CloudSim.clock(),
+						getSimulation().clock(),
 						host.getId(),
 						hostPower);
 			}
 
-			Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", CloudSim.clock(), timeframePower);
+			Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", getSimulation().clock(), timeframePower);
 
 			Log.printLine("\n\n--------------------------------------------------------------\n\n");
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				Log.formatLine("\n%.2f: Host #%d", getSimulation().clock(), host.getId());
 
 				double time = host.updateVmsProcessing(currentTime); // inform VMs to update
 																		// processing
@@ -141,13 +140,13 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 						if (oldHost == null) {
 							Log.formatLine(
 									"%.2f: Migration of VM #%d to Host #%d is started",
-									CloudSim.clock(),
+									getSimulation().clock(),
 									vm.getId(),
 									targetHost.getId());
 						} else {
 							Log.formatLine(
 									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									CloudSim.clock(),
+									getSimulation().clock(),
 									vm.getId(),
 									oldHost.getId(),
 									targetHost.getId());
@@ -168,7 +167,7 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 
 			// schedules an event to the next time
 			if (minTime != Double.MAX_VALUE) {
-				CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+				getSimulation().cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
 				// CloudSim.cancelAll(getId(), CloudSim.SIM_ANY);
 				send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
 			}
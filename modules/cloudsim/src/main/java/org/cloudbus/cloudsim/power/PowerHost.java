@@ -12,6 +12,7 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
@@ -60,6 +61,38 @@ public class PowerHost extends HostDynamicWorkload {
 		setPowerModel(powerModel);
 	}
 
+	/**
+	 * Checks whether a VM can be created in the host, that is, whether the host has enough
+	 * storage for the VM and is suitable for it, without allocating any resource to the VM.
+	 * It lets power-aware allocation policies evaluate a candidate host without creating
+	 * and destroying the VM on it.
+	 * 
+	 * @param vm the VM
+	 * @return true, if the VM can be created in the host; false otherwise
+	 */
+	public boolean canCreateVm(Vm vm) {
+		return getStorage() >= vm.getSize() && isSuitableForVm(vm);
+	}
+
+	/**
+	 * Gets the CPU utilization percentage that the VMs of the host currently request, counting
+	 * a candidate VM as if it was placed on the host. Nothing changes on the host, so
+	 * power-aware allocation policies can evaluate a candidate host with it.
+	 *
+	 * @param candidateVm the candidate VM, or $null to count only the VMs of the host
+	 * @return the requested CPU utilization percentage
+	 */
+	public double getRequestedUtilizationOfCpu(Vm candidateVm) {
+		double totalRequestedMips = 0;
+		for (Vm vm : getVmList()) {
+			totalRequestedMips += vm.getCurrentRequestedTotalMips();
+		}
+		if (candidateVm != null) {
+			totalRequestedMips += candidateVm.getCurrentRequestedTotalMips();
+		}
+		return totalRequestedMips / getTotalMips();
+	}
+
 	/**
 	 * Gets the power. For this moment only consumed by all PEs.
 	 * 
@@ -8,9 +8,11 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
@@ -31,11 +33,41 @@ import org.cloudbus.cloudsim.util.MathUtil;
  * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012</a>
  * </ul>
  * 
+ * <br/>The history of the host is the sum of the histories of its VMs, weighted by their MIPS.
+ * The partial sums of the histories of the first VMs of the host are kept, and checked against
+ * the VMs and the number of values added to their histories, so only the histories of the VMs
+ * that were added or sampled since the last call, and of the VMs after them, are summed again.
+ * Adding the VMs in the same order gives the same sums as going through all of them.
+ * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** The VMs whose histories were summed, in the order of the VM list of the host. */
+	private PowerVm[] summedVms = new PowerVm[4];
+
+	/** The number of values added to the history of each summed VM when it was summed. */
+	private long[] summedAddCounts = new long[4];
+
+	/** The MIPS of each summed VM when it was summed. */
+	private double[] summedMips = new double[4];
+
+	/**
+	 * The partial sums of the VM histories: the entry at position k is the history of the host
+	 * considering only the first k summed VMs.
+	 */
+	private double[][] partialSums = new double[5][];
+
+	/** The number of summed VMs. */
+	private int summedCount;
+
+	/** The total MIPS of the host when the VMs were summed. */
+	private double summedHostMips;
+
+	/** The history of the host with a candidate VM, reused from one what-if query to the next. */
+	private double[] candidateSums;
+
 	/**
 	 * Instantiates a new PowerHostUtilizationHistory.
 	 * 
@@ -64,14 +96,109 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	 * @return the host CPU utilization percentage history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		return getUtilizationHistory(null);
+	}
+
+	/**
+	 * Gets the host CPU utilization percentage history, counting the history of a candidate VM as
+	 * if the VM was placed on the host.
+	 *
+	 * @param candidateVm the candidate VM, or $null to count only the VMs of the host
+	 * @return the host CPU utilization percentage history
+	 */
+	protected double[] getUtilizationHistory(Vm candidateVm) {
+		return MathUtil.trimZeroTail(getUtilizationHistoryValues(candidateVm));
+	}
+
+	/**
+	 * Gets the host CPU utilization percentage history without copying it, counting the history
+	 * of a candidate VM as if the VM was placed on the host. Nothing changes on the host: the
+	 * history of the candidate VM is added to a copy of the sums of the VMs of the host, kept in
+	 * an array reused by the next query.
+	 * <p/>
+	 * The returned array holds {@link PowerVm#HISTORY_LENGTH} values, from the newest to the
+	 * oldest one, and the history ends at the first zero value. It is only valid until the next
+	 * call, and must not be changed.
+	 *
+	 * @param candidateVm the candidate VM, or $null to count only the VMs of the host
+	 * @return the host CPU utilization percentage history, followed by zeros
+	 */
+	protected double[] getUtilizationHistoryValues(Vm candidateVm) {
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
-			}
+		if (hostMips != summedHostMips) {
+			summedHostMips = hostMips;
+			summedCount = 0;
+		}
+		if (partialSums[0] == null) {
+			partialSums[0] = new double[PowerVm.HISTORY_LENGTH];
+		}
+
+		List<PowerVm> vmList = this.<PowerVm> getVmList();
+		int count = 0;
+		while (count < summedCount && count < vmList.size() && isSummed(count, vmList.get(count))) {
+			count++;
+		}
+		summedCount = count;
+		for (; count < vmList.size(); count++) {
+			addToSums(vmList.get(count), hostMips);
+		}
+		if (candidateVm == null) {
+			return partialSums[summedCount];
+		}
+
+		PowerVm vm = (PowerVm) candidateVm;
+		UtilizationHistory history = vm.getUtilizationHistoryBuffer();
+		if (candidateSums == null) {
+			candidateSums = new double[PowerVm.HISTORY_LENGTH];
+		}
+		System.arraycopy(partialSums[summedCount], 0, candidateSums, 0, candidateSums.length);
+		for (int i = 0; i < history.size(); i++) {
+			candidateSums[i] += history.getDouble(i) * vm.getMips() / hostMips;
+		}
+		return candidateSums;
+	}
+
+	/**
+	 * Checks whether the history of a VM was summed at a given position, and has not changed since.
+	 * 
+	 * @param position the position of the VM in the VM list of the host
+	 * @param vm the VM at that position
+	 * @return true, if the sums up to that VM can be kept; false otherwise
+	 */
+	private boolean isSummed(int position, PowerVm vm) {
+		return summedVms[position] == vm
+				&& summedAddCounts[position] == vm.getUtilizationHistoryBuffer().getAddCount()
+				&& summedMips[position] == vm.getMips();
+	}
+
+	/**
+	 * Adds the history of a VM to the sums of the VMs summed so far.
+	 * 
+	 * @param vm the VM following the summed VMs in the VM list of the host
+	 * @param hostMips the total MIPS of the host
+	 */
+	private void addToSums(PowerVm vm, double hostMips) {
+		if (summedCount == summedVms.length) {
+			int capacity = 2 * summedCount;
+			summedVms = Arrays.copyOf(summedVms, capacity);
+			summedAddCounts = Arrays.copyOf(summedAddCounts, capacity);
+			summedMips = Arrays.copyOf(summedMips, capacity);
+			partialSums = Arrays.copyOf(partialSums, capacity + 1);
+		}
+		UtilizationHistory history = vm.getUtilizationHistoryBuffer();
+		double[] sums = partialSums[summedCount + 1];
+		if (sums == null) {
+			sums = new double[PowerVm.HISTORY_LENGTH];
+			partialSums[summedCount + 1] = sums;
+		}
+		System.arraycopy(partialSums[summedCount], 0, sums, 0, sums.length);
+		for (int i = 0; i < history.size(); i++) {
+			sums[i] += history.getDouble(i) * vm.getMips() / hostMips;
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+		summedVms[summedCount] = vm;
+		summedAddCounts[summedCount] = history.getAddCount();
+		summedMips[summedCount] = vm.getMips();
+		summedCount++;
 	}
 
 }
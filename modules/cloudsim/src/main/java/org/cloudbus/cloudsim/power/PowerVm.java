@@ -8,7 +8,6 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
@@ -39,7 +38,7 @@ public class PowerVm extends Vm {
 	public static final int HISTORY_LENGTH = 30;
 
 	/** The CPU utilization percentage history. */
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	private final UtilizationHistory utilizationHistory = new UtilizationHistory(HISTORY_LENGTH);
 
 	/** The previous time that cloudlets were processed. */
 	private double previousTime;
@@ -99,15 +98,17 @@ public class PowerVm extends Vm {
 	 */
 	public double getUtilizationMad() {
 		double mad = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
+		UtilizationHistory history = getUtilizationHistoryBuffer();
+		if (!history.isEmpty()) {
+			int n = history.size();
+			double[] data = new double[n];
+			for (int i = 0; i < n; i++) {
+				data[i] = history.getDouble(i);
 			}
-			double median = MathUtil.median(getUtilizationHistory());
+			double median = MathUtil.median(data);
 			double[] deviationSum = new double[n];
 			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
+				deviationSum[i] = Math.abs(median - data[i]);
 			}
 			mad = MathUtil.median(deviationSum);
 		}
@@ -120,18 +121,7 @@ public class PowerVm extends Vm {
 	 * @return the utilization mean in MIPS
 	 */
 	public double getUtilizationMean() {
-		double mean = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			for (int i = 0; i < n; i++) {
-				mean += getUtilizationHistory().get(i);
-			}
-			mean /= n;
-		}
-		return mean * getMips();
+		return getUtilizationHistoryBuffer().getMean() * getMips();
 	}
 
 	/**
@@ -140,20 +130,7 @@ public class PowerVm extends Vm {
 	 * @return the utilization variance in MIPS
 	 */
 	public double getUtilizationVariance() {
-		double mean = getUtilizationMean();
-		double variance = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			for (int i = 0; i < n; i++) {
-				double tmp = getUtilizationHistory().get(i) * getMips() - mean;
-				variance += tmp * tmp;
-			}
-			variance /= n;
-		}
-		return variance;
+		return getUtilizationHistoryBuffer().getVariance() * getMips() * getMips();
 	}
 
 	/**
@@ -162,14 +139,12 @@ public class PowerVm extends Vm {
 	 * @param utilization the CPU utilization percentage to add
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
-		}
+		getUtilizationHistoryBuffer().addFirst(utilization);
 	}
 
 	/**
-	 * Gets the CPU utilization percentage history.
+	 * Gets the CPU utilization percentage history, from the newest to the oldest value.
+	 * The list can only be changed through {@link #addUtilizationHistoryValue(double)}.
 	 * 
 	 * @return the CPU utilization percentage history
 	 */
@@ -177,6 +152,16 @@ public class PowerVm extends Vm {
 		return utilizationHistory;
 	}
 
+	/**
+	 * Gets the ring buffer of the CPU utilization percentage history, which gives the values
+	 * without boxing them.
+	 * 
+	 * @return the CPU utilization percentage history
+	 */
+	protected UtilizationHistory getUtilizationHistoryBuffer() {
+		return utilizationHistory;
+	}
+
 	/**
 	 * Gets the previous time.
 	 * 
@@ -131,13 +131,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
 		getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
 
-		Log.printLine("Reallocation of VMs from the over-utilized hosts:");
+		Log.printLine(Log.Level.DEBUG, "Reallocation of VMs from the over-utilized hosts:");
 		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
 		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
 				overUtilizedHosts));
 		getExecutionTimeHistoryVmReallocation().add(
 				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
-		Log.printLine();
+		Log.printLine(Log.Level.DEBUG, "");
 
 		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
@@ -182,7 +182,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				break;
 			}
 
-			Log.printConcatLine("Under-utilized host: host #", underUtilizedHost.getId(), "\n");
+			if (Log.isLoggable(Log.Level.DEBUG)) {
+				Log.printConcatLine(Log.Level.DEBUG, "Under-utilized host: host #", underUtilizedHost.getId(),
+						"\n");
+			}
 
 			excludedHostsForFindingUnderUtilizedHost.add(underUtilizedHost);
 			excludedHostsForFindingNewVmPlacement.add(underUtilizedHost);
@@ -192,13 +195,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				continue;
 			}
 
-			Log.print("Reallocation of VMs from the under-utilized host: ");
-			if (!Log.isDisabled()) {
+			if (Log.isLoggable(Log.Level.DEBUG)) {
+				Log.print(Log.Level.DEBUG, "Reallocation of VMs from the under-utilized host: ");
 				for (Vm vm : vmsToMigrateFromUnderUtilizedHost) {
-					Log.print(vm.getId() + " ");
+					Log.printConcat(Log.Level.DEBUG, vm.getId(), " ");
 				}
+				Log.printLine(Log.Level.DEBUG);
 			}
-			Log.printLine();
 
 			List<Map<String, Object>> newVmPlacement = getNewVmPlacementFromUnderUtilizedHost(
 					vmsToMigrateFromUnderUtilizedHost,
@@ -207,7 +210,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			excludedHostsForFindingUnderUtilizedHost.addAll(extractHostListFromMigrationMap(newVmPlacement));
 
 			migrationMap.addAll(newVmPlacement);
-			Log.printLine();
+			Log.printLine(Log.Level.DEBUG, "");
 		}
 
 		return migrationMap;
@@ -219,12 +222,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param overUtilizedHosts the over utilized hosts
 	 */
 	protected void printOverUtilizedHosts(List<PowerHostUtilizationHistory> overUtilizedHosts) {
-		if (!Log.isDisabled()) {
-			Log.printLine("Over-utilized hosts:");
+		if (Log.isLoggable(Log.Level.DEBUG)) {
+			Log.printLine(Log.Level.DEBUG, "Over-utilized hosts:");
 			for (PowerHostUtilizationHistory host : overUtilizedHosts) {
-				Log.printConcatLine("Host #", host.getId());
+				Log.printConcatLine(Log.Level.DEBUG, "Host #", host.getId());
 			}
-			Log.printLine();
+			Log.printLine(Log.Level.DEBUG);
 		}
 	}
 
@@ -233,6 +236,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
          * and that will not be overloaded after placing the VM on it.
          * The selected host will be that one with most efficient
          * power usage for the given VM.
+         * 
+         * <p>Checking whether a host will be over utilized is the costly
+         * part of the search. When the power increase of a host can be
+         * computed first and shows that the host cannot beat the best one
+         * found so far, that check is skipped, as long as it would not add
+         * the first entry of the host to the metric history at the current
+         * time.</p>
 	 * 
 	 * @param vm the VM
 	 * @param excludedHosts the excluded hosts
@@ -247,40 +257,62 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				continue;
 			}
 			if (host.isSuitableForVm(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
-					continue;
-				}
-
-				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
+				double powerDiff = Double.NaN;
+				if (getUtilizationOfCpuMips(host) != 0) {
+					// the power model only accepts utilizations up to 1, so the power is computed
+					// first only when it would also be computed after the over utilization check
+					if (hasHistoryEntry(host) && getMaxUtilizationAfterAllocation(host, vm) <= 1) {
+						powerDiff = getPowerDiffAfterAllocation(host, vm);
+						if (powerDiff >= minPower) {
+							continue;
 						}
 					}
-				} catch (Exception e) {
+					if (isHostOverUtilizedAfterAllocation(host, vm)) {
+						continue;
+					}
+				}
+
+				if (Double.isNaN(powerDiff)) {
+					powerDiff = getPowerDiffAfterAllocation(host, vm);
+				}
+				if (powerDiff < minPower) {
+					minPower = powerDiff;
+					allocatedHost = host;
 				}
 			}
 		}
 		return allocatedHost;
 	}
 
+	/**
+	 * Gets the increase of the power consumption of a host after placement of a candidate VM.
+	 * 
+	 * @param host the host
+	 * @param vm the candidate vm
+	 * @return the power increase, or {@link Double#MAX_VALUE} if it cannot be computed
+	 */
+	private double getPowerDiffAfterAllocation(PowerHost host, Vm vm) {
+		double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+		if (powerAfterAllocation != -1) {
+			return powerAfterAllocation - host.getPower();
+		}
+		return Double.MAX_VALUE;
+	}
+
 	/**
 	 * Checks if a host will be over utilized after placing of a candidate VM.
+         * The VM is not in fact placed at the host: the check is made by
+         * {@link #isHostOverUtilized(PowerHost, Vm)}.
 	 * 
 	 * @param host the host to verify
 	 * @param vm the candidate vm 
 	 * @return true, if the host will be over utilized after VM placement; false otherwise
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
-		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.vmCreate(vm)) {
-			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.vmDestroy(vm);
+		if (!host.canCreateVm(vm)) {
+			return true;
 		}
-		return isHostOverUtilizedAfterAllocation;
+		return isHostOverUtilized(host, vm);
 	}
 
 	@Override
@@ -322,7 +354,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
 				allocatedHost.vmCreate(vm);
-				Log.printConcatLine("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				if (Log.isLoggable(Log.Level.DEBUG)) {
+					Log.printConcatLine(Log.Level.DEBUG, "VM #", vm.getId(), " allocated to host #",
+							allocatedHost.getId());
+				}
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
 				migrate.put("vm", vm);
@@ -349,7 +384,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
 				allocatedHost.vmCreate(vm);
-				Log.printConcatLine("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				if (Log.isLoggable(Log.Level.DEBUG)) {
+					Log.printConcatLine(Log.Level.DEBUG, "VM #", vm.getId(), " allocated to host #",
+							allocatedHost.getId());
+				}
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
 				migrate.put("vm", vm);
@@ -487,6 +525,71 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected abstract boolean isHostOverUtilized(PowerHost host);
 
+	/**
+	 * Checks if a host would be over utilized with a candidate VM placed on it.
+         * The policies of this package answer it from the what-if queries of the host,
+         * such as {@link PowerHost#getRequestedUtilizationOfCpu(Vm)}, without changing
+         * the host. This default implementation, for policies that only implement
+         * {@link #isHostOverUtilized(PowerHost)}, creates the VM on the host for the
+         * time of the check and destroys it afterwards.
+	 * 
+	 * @param host the host
+	 * @param candidateVm the candidate VM, or $null to check the host as it is
+	 * @return true, if the host would be over utilized; false otherwise
+	 */
+	protected boolean isHostOverUtilized(PowerHost host, Vm candidateVm) {
+		if (candidateVm == null) {
+			return isHostOverUtilized(host);
+		}
+		boolean isHostOverUtilized = true;
+		if (host.vmCreate(candidateVm)) {
+			isHostOverUtilized = isHostOverUtilized(host);
+			host.vmDestroy(candidateVm);
+		}
+		return isHostOverUtilized;
+	}
+
+	/**
+	 * Checks whether the class of the policy overrides a method without overriding another method
+	 * of the same name, that is, whether the most derived declaration of the first method is in a
+	 * subclass of the class holding the most derived declaration of the second one. The policies
+	 * of this package use it to find the methods that their what-if checks would skip, such as
+	 * {@link #isHostOverUtilized(PowerHost)} overridden without
+	 * {@link #isHostOverUtilized(PowerHost, Vm)}.
+	 * 
+	 * @param name the name of the methods
+	 * @param parameterTypes the parameter types of the first method
+	 * @param counterpartParameterTypes the parameter types of the second method
+	 * @return true if the first method is overridden without the second one; false otherwise
+	 */
+	protected boolean isOverriddenWithout(String name, Class<?>[] parameterTypes,
+			Class<?>... counterpartParameterTypes) {
+		Class<?> declaringClass = getDeclaringClass(name, parameterTypes);
+		Class<?> counterpartDeclaringClass = getDeclaringClass(name, counterpartParameterTypes);
+		return declaringClass != null && counterpartDeclaringClass != null
+				&& declaringClass != counterpartDeclaringClass
+				&& counterpartDeclaringClass.isAssignableFrom(declaringClass);
+	}
+
+	/**
+	 * Gets the most derived class of the policy that declares a method.
+	 * 
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return the declaring class, or $null if no class of the policy declares the method
+	 */
+	private Class<?> getDeclaringClass(String name, Class<?>... parameterTypes) {
+		for (Class<?> type = getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				type.getDeclaredMethod(name, parameterTypes);
+				return type;
+			} catch (NoSuchMethodException e) {
+				// not declared by this class
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Adds an entry for each history map of a host.
 	 * 
@@ -504,13 +607,26 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		if (!getMetricHistory().containsKey(hostId)) {
 			getMetricHistory().put(hostId, new LinkedList<Double>());
 		}
-		if (!getTimeHistory().get(hostId).contains(CloudSim.clock())) {
+		if (!hasHistoryEntry(host)) {
 			getTimeHistory().get(hostId).add(CloudSim.clock());
 			getUtilizationHistory().get(hostId).add(host.getUtilizationOfCpu());
 			getMetricHistory().get(hostId).add(metric);
 		}
 	}
 
+	/**
+	 * Checks whether the history maps of a host already have an entry for the current time.
+	 * As entries are added in time order, only the last one has to be checked.
+	 * 
+	 * @param host the host
+	 * @return true, if the host has an entry for the current time; false otherwise
+	 */
+	protected boolean hasHistoryEntry(HostDynamicWorkload host) {
+		List<Double> timeHistory = getTimeHistory().get(host.getId());
+		return timeHistory != null && !timeHistory.isEmpty()
+				&& timeHistory.get(timeHistory.size() - 1) == CloudSim.clock();
+	}
+
 	/**
 	 * Updates the list of maps between a VM and the host where it is place.
          * @see #savedAllocation
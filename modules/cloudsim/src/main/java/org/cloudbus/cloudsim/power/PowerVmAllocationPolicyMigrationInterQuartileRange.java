@@ -56,6 +56,12 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
          * data to be computed. */
 	private PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy;
 
+	/**
+	 * Whether a subclass overrides a method that the what-if check of a candidate VM stands for,
+	 * so that the check is made by trial, or $null until checked.
+	 */
+	private Boolean trialNeeded;
+
 	/**
 	 * Instantiates a new PowerVmAllocationPolicyMigrationInterQuartileRange.
 	 * 
@@ -100,22 +106,64 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
+		return checkHostOverUtilized(host, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The check is made by trial, as by the superclass, when a subclass overrides
+	 * {@link #isHostOverUtilized(PowerHost)} or
+	 * {@link #getHostUtilizationIqr(PowerHostUtilizationHistory)} without their what-if counterpart.
+	 */
+	@Override
+	protected boolean isHostOverUtilized(PowerHost host, Vm candidateVm) {
+		if (isTrialNeeded()) {
+			return super.isHostOverUtilized(host, candidateVm);
+		}
+		return checkHostOverUtilized(host, candidateVm);
+	}
+
+	/**
+	 * Checks if a host is over utilized, or would be with a candidate VM placed on it.
+	 * 
+	 * @param host the host
+	 * @param candidateVm the candidate VM, or $null to check the host as it is
+	 * @return true, if the host is over utilized; false otherwise
+	 */
+	private boolean checkHostOverUtilized(PowerHost host, Vm candidateVm) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
 		double upperThreshold = 0;
 		try {
-			upperThreshold = 1 - getSafetyParameter() * getHostUtilizationIqr(_host);
+			double iqr = candidateVm == null
+					? getHostUtilizationIqr(_host)
+					: getHostUtilizationIqr(_host, candidateVm);
+			upperThreshold = 1 - getSafetyParameter() * iqr;
 		} catch (IllegalArgumentException e) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, candidateVm);
 		}
 		addHistoryEntry(host, upperThreshold);
-		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
-			totalRequestedMips += vm.getCurrentRequestedTotalMips();
-		}
-		double utilization = totalRequestedMips / host.getTotalMips();
+		double utilization = host.getRequestedUtilizationOfCpu(candidateVm);
 		return utilization > upperThreshold;
 	}
 
+	/**
+	 * Checks whether the what-if check of a candidate VM must be made by trial, because a subclass
+	 * overrides a method that the check would skip.
+	 * 
+	 * @return true if the check must be made by trial; false otherwise
+	 */
+	private boolean isTrialNeeded() {
+		if (trialNeeded == null) {
+			trialNeeded = isOverriddenWithout("isHostOverUtilized", new Class<?>[] { PowerHost.class },
+					PowerHost.class, Vm.class)
+					|| isOverriddenWithout("getHostUtilizationIqr",
+							new Class<?>[] { PowerHostUtilizationHistory.class },
+							PowerHostUtilizationHistory.class, Vm.class);
+		}
+		return trialNeeded;
+	}
+
 	/**
 	 * Gets the host CPU utilization percentage IQR.
 	 * 
@@ -123,7 +171,20 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	 * @return the host CPU utilization percentage IQR
 	 */
 	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
+		return getHostUtilizationIqr(host, null);
+	}
+
+	/**
+	 * Gets the host CPU utilization percentage IQR, counting a candidate VM as if it was placed on
+	 * the host.
+	 * 
+	 * @param host the host
+	 * @param candidateVm the candidate VM, or $null to count only the VMs of the host
+	 * @return the host CPU utilization percentage IQR
+	 */
+	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host, Vm candidateVm)
+			throws IllegalArgumentException {
+		double[] data = host.getUtilizationHistory(candidateVm);
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
 			return MathUtil.iqr(data);
 		}
@@ -12,6 +12,7 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.util.LocalRegression;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -57,6 +58,21 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
          * data to be computed. */
 	private PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy;
 
+	/**
+	 * Whether a subclass overrides a method that the what-if check of a candidate VM stands for,
+	 * so that the check is made by trial, or $null until checked.
+	 */
+	private Boolean trialNeeded;
+
+	/**
+	 * Whether a subclass overrides {@link #getParameterEstimates(double[])} without
+	 * {@link #getParameterEstimates(double[], int)}, or $null until checked.
+	 */
+	private Boolean reversedEstimatesNeeded;
+
+	/** The local regression of the last length of history used, kept to reuse its weights and buffers. */
+	private LocalRegression localRegression;
+
 	/**
 	 * Instantiates a new PowerVmAllocationPolicyMigrationLocalRegression.
 	 * 
@@ -107,23 +123,60 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
+		return checkHostOverUtilized(host, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The check is made by trial, as by the superclass, when a subclass overrides
+	 * {@link #isHostOverUtilized(PowerHost)} or {@link #getMaximumVmMigrationTime(PowerHost)}
+	 * without their what-if counterpart.
+	 */
+	@Override
+	protected boolean isHostOverUtilized(PowerHost host, Vm candidateVm) {
+		if (isTrialNeeded()) {
+			return super.isHostOverUtilized(host, candidateVm);
+		}
+		return checkHostOverUtilized(host, candidateVm);
+	}
+
+	/**
+	 * Checks if a host is over utilized, or would be with a candidate VM placed on it.
+	 * 
+	 * @param host the host
+	 * @param candidateVm the candidate VM, or $null to check the host as it is
+	 * @return true, if the host is over utilized; false otherwise
+	 */
+	private boolean checkHostOverUtilized(PowerHost host, Vm candidateVm) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
-		double[] utilizationHistory = _host.getUtilizationHistory();
+		double[] utilizationHistory = _host.getUtilizationHistoryValues(candidateVm);
 		int length = 10; // we use 10 to make the regression responsive enough to latest values
-		if (utilizationHistory.length < length) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
-		}
-		double[] utilizationHistoryReversed = new double[length];
-		for (int i = 0; i < length; i++) {
-			utilizationHistoryReversed[i] = utilizationHistory[length - i - 1];
+		if (MathUtil.countNonZeroBeginning(utilizationHistory) < length) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, candidateVm);
 		}
 		double[] estimates = null;
 		try {
-			estimates = getParameterEstimates(utilizationHistoryReversed);
+			if (reversedEstimatesNeeded == null) {
+				reversedEstimatesNeeded = isOverriddenWithout("getParameterEstimates",
+						new Class<?>[] { double[].class }, double[].class, int.class);
+			}
+			if (reversedEstimatesNeeded) {
+				double[] utilizationHistoryReversed = new double[length];
+				for (int i = 0; i < length; i++) {
+					utilizationHistoryReversed[i] = utilizationHistory[length - i - 1];
+				}
+				estimates = getParameterEstimates(utilizationHistoryReversed);
+			} else {
+				estimates = getParameterEstimates(utilizationHistory, length);
+			}
 		} catch (IllegalArgumentException e) {
-			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, candidateVm);
 		}
-		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(_host) / getSchedulingInterval());
+		double maximumVmMigrationTime = candidateVm == null
+				? getMaximumVmMigrationTime(_host)
+				: getMaximumVmMigrationTime(_host, candidateVm);
+		double migrationIntervals = Math.ceil(maximumVmMigrationTime / getSchedulingInterval());
 		double predictedUtilization = estimates[0] + estimates[1] * (length + migrationIntervals);
 		predictedUtilization *= getSafetyParameter();
 
@@ -132,6 +185,22 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return predictedUtilization >= 1;
 	}
 
+	/**
+	 * Checks whether the what-if check of a candidate VM must be made by trial, because a subclass
+	 * overrides a method that the check would skip.
+	 * 
+	 * @return true if the check must be made by trial; false otherwise
+	 */
+	private boolean isTrialNeeded() {
+		if (trialNeeded == null) {
+			trialNeeded = isOverriddenWithout("isHostOverUtilized", new Class<?>[] { PowerHost.class },
+					PowerHost.class, Vm.class)
+					|| isOverriddenWithout("getMaximumVmMigrationTime", new Class<?>[] { PowerHost.class },
+							PowerHost.class, Vm.class);
+		}
+		return trialNeeded;
+	}
+
 	/**
 	 * Gets utilization estimates.
 	 * 
@@ -139,7 +208,34 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 * @return the utilization estimates
 	 */
 	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getLoessParameterEstimates(utilizationHistoryReversed);
+		return getLocalRegression(utilizationHistoryReversed.length).getParameterEstimates(
+				utilizationHistoryReversed);
+	}
+
+	/**
+	 * Gets utilization estimates of the newest values of a utilization history, read in place.
+	 * It is the one used to check if a host is over utilized.
+	 * 
+	 * @param utilizationHistory the utilization history, from the newest to the oldest value
+	 * @param length the number of newest values to use
+	 * @return the utilization estimates
+	 */
+	protected double[] getParameterEstimates(double[] utilizationHistory, int length) {
+		return getLocalRegression(length).getParameterEstimatesFromHistory(utilizationHistory);
+	}
+
+	/**
+	 * Gets the local regression of utilization histories of a given length.
+	 * 
+	 * @param length the length of the utilization histories
+	 * @return the local regression
+	 * @throws IllegalArgumentException if the length is too small for a local regression
+	 */
+	protected LocalRegression getLocalRegression(int length) {
+		if (localRegression == null || localRegression.getLength() != length) {
+			localRegression = new LocalRegression(length);
+		}
+		return localRegression;
 	}
 
 	/**
@@ -149,6 +245,17 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 * @return the maximum vm migration time
 	 */
 	protected double getMaximumVmMigrationTime(PowerHost host) {
+		return getMaximumVmMigrationTime(host, null);
+	}
+
+	/**
+	 * Gets the maximum vm migration time, counting a candidate VM as if it was placed on the host.
+	 * 
+	 * @param host the host
+	 * @param candidateVm the candidate VM, or $null to count only the VMs of the host
+	 * @return the maximum vm migration time
+	 */
+	protected double getMaximumVmMigrationTime(PowerHost host, Vm candidateVm) {
 		int maxRam = Integer.MIN_VALUE;
 		for (Vm vm : host.getVmList()) {
 			int ram = vm.getRam();
@@ -156,6 +263,9 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 				maxRam = ram;
 			}
 		}
+		if (candidateVm != null && candidateVm.getRam() > maxRam) {
+			maxRam = candidateVm.getRam();
+		}
 		return maxRam / ((double) host.getBw() / (2 * 8000));
 	}
 
@@ -11,7 +11,6 @@ package org.cloudbus.cloudsim.power;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
-import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * A VM allocation policy that uses Local Regression Robust (LRR) to predict host utilization (load)
@@ -83,7 +82,20 @@ public class PowerVmAllocationPolicyMigrationLocalRegressionRobust extends
 	 */
 	@Override
 	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getRobustLoessParameterEstimates(utilizationHistoryReversed);
+		return getLocalRegression(utilizationHistoryReversed.length).getRobustParameterEstimates(
+				utilizationHistoryReversed);
+	}
+
+	/**
+	 * Gets the utilization estimates of the newest values of a utilization history.
+	 * 
+	 * @param utilizationHistory the utilization history, from the newest to the oldest value
+	 * @param length the number of newest values to use
+	 * @return the utilization estimates
+	 */
+	@Override
+	protected double[] getParameterEstimates(double[] utilizationHistory, int length) {
+		return getLocalRegression(length).getRobustParameterEstimatesFromHistory(utilizationHistory);
 	}
 
 }
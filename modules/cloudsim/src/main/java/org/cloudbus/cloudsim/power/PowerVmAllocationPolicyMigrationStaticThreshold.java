@@ -37,6 +37,12 @@ public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllo
          * that can be changed when creating an instance of the class. */
 	private double utilizationThreshold = 0.9;
 
+	/**
+	 * Whether a subclass overrides a method that the what-if check of a candidate VM stands for,
+	 * so that the check is made by trial, or $null until checked.
+	 */
+	private Boolean trialNeeded;
+
 	/**
 	 * Instantiates a new PowerVmAllocationPolicyMigrationStaticThreshold.
 	 * 
@@ -60,15 +66,50 @@ public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllo
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
-		addHistoryEntry(host, getUtilizationThreshold());
-		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
-			totalRequestedMips += vm.getCurrentRequestedTotalMips();
+		return checkHostOverUtilized(host, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The check is made by trial, as by the superclass, when a subclass overrides
+	 * {@link #isHostOverUtilized(PowerHost)} without this method.
+	 */
+	@Override
+	protected boolean isHostOverUtilized(PowerHost host, Vm candidateVm) {
+		if (isTrialNeeded()) {
+			return super.isHostOverUtilized(host, candidateVm);
 		}
-		double utilization = totalRequestedMips / host.getTotalMips();
+		return checkHostOverUtilized(host, candidateVm);
+	}
+
+	/**
+	 * Checks if a host is over utilized, or would be with a candidate VM placed on it.
+	 * 
+	 * @param host the host
+	 * @param candidateVm the candidate VM, or $null to check the host as it is
+	 * @return true, if the host is over utilized; false otherwise
+	 */
+	private boolean checkHostOverUtilized(PowerHost host, Vm candidateVm) {
+		addHistoryEntry(host, getUtilizationThreshold());
+		double utilization = host.getRequestedUtilizationOfCpu(candidateVm);
 		return utilization > getUtilizationThreshold();
 	}
 
+	/**
+	 * Checks whether the what-if check of a candidate VM must be made by trial, because a subclass
+	 * overrides a method that the check would skip.
+	 * 
+	 * @return true if the check must be made by trial; false otherwise
+	 */
+	private boolean isTrialNeeded() {
+		if (trialNeeded == null) {
+			trialNeeded = isOverriddenWithout("isHostOverUtilized", new Class<?>[] { PowerHost.class },
+					PowerHost.class, Vm.class);
+		}
+		return trialNeeded;
+	}
+
 	/**
 	 * Sets the utilization threshold.
 	 * 
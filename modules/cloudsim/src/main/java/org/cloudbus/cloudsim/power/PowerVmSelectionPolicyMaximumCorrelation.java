@@ -8,12 +8,11 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.MultipleCorrelation;
 
 /**
  * A VM selection policy that selects for migration the VM with the Maximum Correlation Coefficient (MCC) among 
@@ -38,6 +37,9 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
          * the  Maximum Correlation policy doesn't have data to be computed. */
 	private PowerVmSelectionPolicy fallbackPolicy;
 
+	/** The engine computing the correlation coefficients, reused by each selection. */
+	private final MultipleCorrelation multipleCorrelation = new MultipleCorrelation();
+
 	/**
 	 * Instantiates a new PowerVmSelectionPolicyMaximumCorrelation.
 	 * 
@@ -117,29 +119,17 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 
 	/**
 	 * Gets the correlation coefficients.
+	 * They are the coefficients of determination of the regression of the utilization
+	 * history of each VM on the histories of all the other ones.
 	 * 
 	 * @param data the data
 	 * @return the correlation coefficients
 	 */
 	protected List<Double> getCorrelationCoefficients(final double[][] data) {
-		int n = data.length;
-		int m = data[0].length;
-		List<Double> correlationCoefficients = new LinkedList<Double>();
-		for (int i = 0; i < n; i++) {
-			double[][] x = new double[n - 1][m];
-			int k = 0;
-			for (int j = 0; j < n; j++) {
-				if (j != i) {
-					x[k++] = data[j];
-				}
-			}
-
-			// Transpose the matrix so that it fits the linear model
-			double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
-
-			// RSquare is the "coefficient of determination"
-			correlationCoefficients.add(MathUtil.createLinearRegression(xT,
-					data[i]).calculateRSquared());
+		double[] coefficients = getMultipleCorrelation().getCoefficientsOfDetermination(data);
+		List<Double> correlationCoefficients = new ArrayList<Double>(coefficients.length);
+		for (double coefficient : coefficients) {
+			correlationCoefficients.add(coefficient);
 		}
 		return correlationCoefficients;
 	}
@@ -162,4 +152,13 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		this.fallbackPolicy = fallbackPolicy;
 	}
 
+	/**
+	 * Gets the engine computing the correlation coefficients.
+	 * 
+	 * @return the multiple correlation engine
+	 */
+	protected MultipleCorrelation getMultipleCorrelation() {
+		return multipleCorrelation;
+	}
+
 }
@@ -0,0 +1,166 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * UtilizationHistory is the CPU utilization percentage history of a {@link PowerVm}, holding its
+ * most recent values, from the newest to the oldest one.
+ * <p/>
+ * The values are kept in a ring buffer of primitive doubles, so adding a value and getting any
+ * of them take constant time. The sum of the values is kept as they are added, so the mean of
+ * the history does not have to go through it. The sum is computed again from the values each time
+ * the buffer is filled with new values, so the rounding errors of removing the oldest values do
+ * not build up. The variance goes through the values once the mean is known, since a running sum
+ * of the squares would lose its precision to cancellation.
+ * <p/>
+ * The list can only be changed through {@link #addFirst(double)}.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class UtilizationHistory extends AbstractList<Double> implements RandomAccess {
+
+	/** The values, the newest one being at position {@link #head}. */
+	private final double[] values;
+
+	/** The position of the newest value in {@link #values}. */
+	private int head;
+
+	/** The number of values in the history. */
+	private int size;
+
+	/** The sum of the values. */
+	private double sum;
+
+	/** The number of values added to the history since it was created. */
+	private long addCount;
+
+	/**
+	 * Creates an empty history.
+	 *
+	 * @param capacity the maximum number of values kept
+	 */
+	public UtilizationHistory(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be greater than 0");
+		}
+		values = new double[capacity];
+	}
+
+	@Override
+	public Double get(int index) {
+		return getDouble(index);
+	}
+
+	/**
+	 * Gets a value of the history, without boxing it.
+	 *
+	 * @param index the position of the value, 0 being the newest one
+	 * @return the value
+	 */
+	public double getDouble(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int position = head + index;
+		if (position >= values.length) {
+			position -= values.length;
+		}
+		return values[position];
+	}
+
+	/**
+	 * Adds a value as the newest one of the history, removing the oldest one if the history
+	 * is full.
+	 *
+	 * @param value the value
+	 */
+	public void addFirst(double value) {
+		head = head == 0 ? values.length - 1 : head - 1;
+		if (size == values.length) {
+			sum -= values[head];
+		} else {
+			size++;
+		}
+		values[head] = value;
+		sum += value;
+		addCount++;
+		modCount++;
+		if (head == 0 && size == values.length) {
+			computeSum();
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the maximum number of values kept in the history.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+
+	/**
+	 * Gets the number of values added to the history since it was created, including the ones
+	 * that were removed. It changes each time the history changes.
+	 *
+	 * @return the number of values added
+	 */
+	public long getAddCount() {
+		return addCount;
+	}
+
+	/**
+	 * Gets the mean of the values.
+	 *
+	 * @return the mean, or 0 if the history is empty
+	 */
+	public double getMean() {
+		if (size == 0) {
+			return 0;
+		}
+		return sum / size;
+	}
+
+	/**
+	 * Gets the population variance of the values.
+	 *
+	 * @return the variance, or 0 if the history is empty
+	 */
+	public double getVariance() {
+		if (size == 0) {
+			return 0;
+		}
+		double mean = sum / size;
+		double sumOfSquares = 0;
+		for (int i = 0; i < size; i++) {
+			double deviation = getDouble(i) - mean;
+			sumOfSquares += deviation * deviation;
+		}
+		return sumOfSquares / size;
+	}
+
+	/**
+	 * Computes the sum of the values from the values themselves.
+	 */
+	private void computeSum() {
+		sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += getDouble(i);
+		}
+	}
+
+}
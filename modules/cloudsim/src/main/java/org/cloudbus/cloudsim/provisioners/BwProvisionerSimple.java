@@ -8,10 +8,11 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.lists.VmTable;
 
 /**
  * BwProvisionerSimple is an extension of {@link BwProvisioner} which uses a best-effort policy to
@@ -25,9 +26,11 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class BwProvisionerSimple extends BwProvisioner {
 
-	/** The BW map, where each key is a VM id and each value
-         * is the amount of BW allocated to that VM. */
-	private Map<String, Long> bwTable;
+	/** The VMs BW is allocated to, which are given the handles indexing {@link #allocatedBw}. */
+	private VmTable<Void> bwTable;
+
+	/** The amount of BW allocated to each VM, indexed by the handle of the VM in the {@link #bwTable}. */
+	private long[] allocatedBw;
 
 	/**
 	 * Instantiates a new bw provisioner simple.
@@ -36,7 +39,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 	 */
 	public BwProvisionerSimple(long bw) {
 		super(bw);
-		setBwTable(new HashMap<String, Long>());
+		setBwVmTable(new VmTable<Void>());
 	}
 
 	@Override
@@ -45,7 +48,7 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 		if (getAvailableBw() >= bw) {
 			setAvailableBw(getAvailableBw() - bw);
-			getBwTable().put(vm.getUid(), bw);
+			setAllocatedBw(getBwVmTable().add(vm), bw);
 			vm.setCurrentAllocatedBw(getAllocatedBwForVm(vm));
 			return true;
 		}
@@ -56,16 +59,18 @@ public class BwProvisionerSimple extends BwProvisioner {
 
 	@Override
 	public long getAllocatedBwForVm(Vm vm) {
-		if (getBwTable().containsKey(vm.getUid())) {
-			return getBwTable().get(vm.getUid());
+		int handle = getBwVmTable().getHandle(vm);
+		if (handle >= 0) {
+			return allocatedBw[handle];
 		}
 		return 0;
 	}
 
 	@Override
 	public void deallocateBwForVm(Vm vm) {
-		if (getBwTable().containsKey(vm.getUid())) {
-			long amountFreed = getBwTable().remove(vm.getUid());
+		int handle = getBwVmTable().remove(vm);
+		if (handle >= 0) {
+			long amountFreed = allocatedBw[handle];
 			setAvailableBw(getAvailableBw() + amountFreed);
 			vm.setCurrentAllocatedBw(0);
 		}
@@ -74,36 +79,79 @@ public class BwProvisionerSimple extends BwProvisioner {
 	@Override
 	public void deallocateBwForAllVms() {
 		super.deallocateBwForAllVms();
-		getBwTable().clear();
+		getBwVmTable().clear();
 	}
 
 	@Override
 	public boolean isSuitableForVm(Vm vm, long bw) {
-		long allocatedBw = getAllocatedBwForVm(vm);
-		boolean result = allocateBwForVm(vm, bw);
-		deallocateBwForVm(vm);
-		if (allocatedBw > 0) {
-			allocateBwForVm(vm, allocatedBw);
-		}
-		return result;
+		// same outcome as allocateBwForVm, without allocating and releasing the BW
+		return getAvailableBw() + getAllocatedBwForVm(vm) >= bw;
 	}
 
 	/**
 	 * Gets the map between VMs and allocated bw.
 	 * 
-	 * @return the bw map
+	 * @return a view of the bw table, with the amount of BW allocated to each VM
+	 * @deprecated Use {@link #getBwVmTable()} instead
 	 */
+	@Deprecated
 	protected Map<String, Long> getBwTable() {
-		return bwTable;
+		return new VmTable.UidMap<Long>(getBwVmTable()) {
+
+			@Override
+			protected Long getValue(int handle) {
+				return allocatedBw[handle];
+			}
+
+			@Override
+			protected void setValue(int handle, Long bw) {
+				setAllocatedBw(handle, bw);
+			}
+		};
 	}
 
 	/**
 	 * Sets the map between VMs and allocated bw.
 	 * 
-	 * @param bwTable the bw map
+	 * @param bwTable the bw map, whose entries are copied to the bw table
+	 * @deprecated Use {@link #setBwVmTable(VmTable)} instead
 	 */
+	@Deprecated
 	protected void setBwTable(Map<String, Long> bwTable) {
+		getBwVmTable().clear();
+		getBwTable().putAll(bwTable);
+	}
+
+	/**
+	 * Gets the table of the VMs BW is allocated to.
+	 * 
+	 * @return the bw table
+	 */
+	protected VmTable<Void> getBwVmTable() {
+		return bwTable;
+	}
+
+	/**
+	 * Sets the table of the VMs BW is allocated to.
+	 * 
+	 * @param bwTable the bw table
+	 */
+	protected void setBwVmTable(VmTable<Void> bwTable) {
 		this.bwTable = bwTable;
+		allocatedBw = new long[bwTable.getCapacity()];
+	}
+
+	/**
+	 * Sets the amount of BW allocated to a VM.
+	 * 
+	 * @param handle the handle of the VM in the bw table
+	 * @param bw the amount of BW
+	 */
+	private void setAllocatedBw(int handle, long bw) {
+		if (handle >= allocatedBw.length) {
+			allocatedBw = Arrays.copyOf(allocatedBw, getBwVmTable().getCapacity());
+		}
+		allocatedBw[handle] = bw;
 	}
 
 }
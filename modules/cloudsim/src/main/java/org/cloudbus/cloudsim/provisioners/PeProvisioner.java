@@ -73,7 +73,9 @@ public abstract class PeProvisioner {
 	 * @pre $none
 	 * @post $none
          * @see #allocateMipsForVm(org.cloudbus.cloudsim.Vm, double) 
+	 * @deprecated Use {@link #allocateMipsForVm(Vm, double)} instead
 	 */
+	@Deprecated
 	public abstract boolean allocateMipsForVm(String vmUid, double mips);
 
 	/**
@@ -9,11 +9,12 @@
 package org.cloudbus.cloudsim.provisioners;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.lists.VmTable;
 
 /**
  * PeProvisionerSimple is an extension of {@link PeProvisioner} which uses a best-effort policy to
@@ -26,10 +27,13 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class PeProvisionerSimple extends PeProvisioner {
 
-	/** The PE map, where each key is a VM id and each value
-         * is the list of PEs (in terms of their amount of MIPS) 
-         * allocated to that VM. */
-	private Map<String, List<Double>> peTable;
+	/** The PE table, where each VM is mapped to the MIPS allocated to each of its virtual PEs.
+         * The array of a VM may be longer than its number of virtual PEs, which is kept
+         * in {@link #peCounts}. */
+	private VmTable<double[]> peTable;
+
+	/** The number of virtual PEs of each VM, indexed by the handle of the VM in the {@link #peTable}. */
+	private int[] peCounts;
 
 	/**
 	 * Instantiates a new pe provisioner simple.
@@ -41,33 +45,36 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	public PeProvisionerSimple(double availableMips) {
 		super(availableMips);
-		setPeTable(new HashMap<String, ArrayList<Double>>());
+		setPeVmTable(new VmTable<double[]>());
 	}
 
 	@Override
 	public boolean allocateMipsForVm(Vm vm, double mips) {
-		return allocateMipsForVm(vm.getUid(), mips);
-	}
-
-	@Override
-	public boolean allocateMipsForVm(String vmUid, double mips) {
 		if (getAvailableMips() < mips) {
 			return false;
 		}
 
-		List<Double> allocatedMips;
+		addMips(getPeVmTable().add(vm), mips);
+		return true;
+	}
 
-		if (getPeTable().containsKey(vmUid)) {
-			allocatedMips = getPeTable().get(vmUid);
-		} else {
-			allocatedMips = new ArrayList<Double>();
+	/**
+	 * {@inheritDoc}
+	 * <p/>
+	 * The VM is looked up by its uid among the VMs given PEs so far, and a VM not found
+	 * is not given any MIPS.
+	 *
+	 * @deprecated Use {@link #allocateMipsForVm(Vm, double)} instead
+	 */
+	@Deprecated
+	@Override
+	public boolean allocateMipsForVm(String vmUid, double mips) {
+		int handle = getPeVmTable().getHandle(vmUid);
+		if (handle < 0 || getAvailableMips() < mips) {
+			return false;
 		}
 
-		allocatedMips.add(mips);
-
-		setAvailableMips(getAvailableMips() - mips);
-		getPeTable().put(vmUid, allocatedMips);
-
+		addMips(handle, mips);
 		return true;
 	}
 
@@ -84,7 +91,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 
 		setAvailableMips(getAvailableMips() + getTotalAllocatedMipsForVm(vm) - totalMipsToAllocate);
 
-		getPeTable().put(vm.getUid(), mips);
+		setMips(getPeVmTable().add(vm), mips);
 
 		return true;
 	}
@@ -92,34 +99,35 @@ public class PeProvisionerSimple extends PeProvisioner {
 	@Override
 	public void deallocateMipsForAllVms() {
 		super.deallocateMipsForAllVms();
-		getPeTable().clear();
+		getPeVmTable().clear();
 	}
 
 	@Override
 	public double getAllocatedMipsForVmByVirtualPeId(Vm vm, int peId) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			try {
-				return getPeTable().get(vm.getUid()).get(peId);
-			} catch (Exception e) {
-			}
+		int handle = getPeVmTable().getHandle(vm);
+		if (handle >= 0 && peId >= 0 && peId < peCounts[handle]) {
+			return getPeVmTable().getValue(handle)[peId];
 		}
 		return 0;
 	}
 
 	@Override
 	public List<Double> getAllocatedMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			return getPeTable().get(vm.getUid());
+		int handle = getPeVmTable().getHandle(vm);
+		if (handle >= 0) {
+			return getMips(handle);
 		}
 		return null;
 	}
 
 	@Override
 	public double getTotalAllocatedMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
+		int handle = getPeVmTable().getHandle(vm);
+		if (handle >= 0) {
+			double[] allocatedMips = getPeVmTable().getValue(handle);
 			double totalAllocatedMips = 0.0;
-			for (double mips : getPeTable().get(vm.getUid())) {
-				totalAllocatedMips += mips;
+			for (int i = 0; i < peCounts[handle]; i++) {
+				totalAllocatedMips += allocatedMips[i];
 			}
 			return totalAllocatedMips;
 		}
@@ -128,31 +136,123 @@ public class PeProvisionerSimple extends PeProvisioner {
 
 	@Override
 	public void deallocateMipsForVm(Vm vm) {
-		if (getPeTable().containsKey(vm.getUid())) {
-			for (double mips : getPeTable().get(vm.getUid())) {
-				setAvailableMips(getAvailableMips() + mips);
+		int handle = getPeVmTable().getHandle(vm);
+		if (handle >= 0) {
+			double[] allocatedMips = getPeVmTable().getValue(handle);
+			for (int i = 0; i < peCounts[handle]; i++) {
+				setAvailableMips(getAvailableMips() + allocatedMips[i]);
 			}
-			getPeTable().remove(vm.getUid());
+			getPeVmTable().remove(vm);
 		}
 	}
 
 	/**
 	 * Gets the pe map.
 	 * 
-	 * @return the pe map
+	 * @return a view of the pe table, whose lists are copies to put again once changed
+	 * @deprecated Use {@link #getPeVmTable()} instead
 	 */
+	@Deprecated
 	protected Map<String, List<Double>> getPeTable() {
-		return peTable;
+		return new VmTable.UidMap<List<Double>>(getPeVmTable()) {
+
+			@Override
+			protected List<Double> getValue(int handle) {
+				return getMips(handle);
+			}
+
+			@Override
+			protected void setValue(int handle, List<Double> mips) {
+				setMips(handle, mips);
+			}
+		};
 	}
 
 	/**
 	 * Sets the pe map.
 	 * 
-	 * @param peTable the peTable to set
+	 * @param peTable the peTable to set, whose entries are copied to the pe table
+	 * @deprecated Use {@link #setPeVmTable(VmTable)} instead
 	 */
-	@SuppressWarnings("unchecked")
+	@Deprecated
 	protected void setPeTable(Map<String, ? extends List<Double>> peTable) {
-		this.peTable = (Map<String, List<Double>>) peTable;
+		getPeVmTable().clear();
+		getPeTable().putAll(peTable);
+	}
+
+	/**
+	 * Gets the pe table.
+	 * 
+	 * @return the pe table
+	 */
+	protected VmTable<double[]> getPeVmTable() {
+		return peTable;
+	}
+
+	/**
+	 * Sets the pe table.
+	 * 
+	 * @param peTable the peTable to set
+	 */
+	protected void setPeVmTable(VmTable<double[]> peTable) {
+		this.peTable = peTable;
+		peCounts = new int[peTable.getCapacity()];
+	}
+
+	/**
+	 * Adds a virtual PE to the VM of a handle.
+	 * 
+	 * @param handle the handle of the VM in the pe table
+	 * @param mips the mips of the virtual PE, which are available
+	 */
+	private void addMips(int handle, double mips) {
+		if (handle >= peCounts.length) {
+			peCounts = Arrays.copyOf(peCounts, getPeVmTable().getCapacity());
+		}
+		double[] allocatedMips = getPeVmTable().getValue(handle);
+		if (allocatedMips == null) {
+			allocatedMips = new double[1];
+			peCounts[handle] = 0;
+		} else if (peCounts[handle] == allocatedMips.length) {
+			allocatedMips = Arrays.copyOf(allocatedMips, 2 * allocatedMips.length);
+		}
+		allocatedMips[peCounts[handle]++] = mips;
+		getPeVmTable().setValue(handle, allocatedMips);
+
+		setAvailableMips(getAvailableMips() - mips);
+	}
+
+	/**
+	 * Gets the MIPS of the virtual PEs of the VM of a handle.
+	 * 
+	 * @param handle the handle of the VM in the pe table
+	 * @return the list of MIPS
+	 */
+	private List<Double> getMips(int handle) {
+		double[] allocatedMips = getPeVmTable().getValue(handle);
+		List<Double> list = new ArrayList<Double>(peCounts[handle]);
+		for (int i = 0; i < peCounts[handle]; i++) {
+			list.add(allocatedMips[i]);
+		}
+		return list;
+	}
+
+	/**
+	 * Sets the MIPS of the virtual PEs of the VM of a handle.
+	 * 
+	 * @param handle the handle of the VM in the pe table
+	 * @param mips the list of MIPS
+	 */
+	private void setMips(int handle, List<Double> mips) {
+		double[] allocatedMips = new double[Math.max(mips.size(), 1)];
+		for (int i = 0; i < mips.size(); i++) {
+			allocatedMips[i] = mips.get(i);
+		}
+		getPeVmTable().setValue(handle, allocatedMips);
+		if (handle >= peCounts.length) {
+			peCounts = Arrays.copyOf(peCounts, getPeVmTable().getCapacity());
+		}
+		peCounts[handle] = mips.size();
 	}
 
 }
@@ -8,10 +8,11 @@
 
 package org.cloudbus.cloudsim.provisioners;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.lists.VmTable;
 
 /**
  * RamProvisionerSimple is an extension of {@link RamProvisioner} which uses a best-effort policy to
@@ -24,9 +25,11 @@ import org.cloudbus.cloudsim.Vm;
  */
 public class RamProvisionerSimple extends RamProvisioner {
 
-	/** The RAM map, where each key is a VM id and each value
-         * is the amount of RAM allocated to that VM. */
-	private Map<String, Integer> ramTable;
+	/** The VMs RAM is allocated to, which are given the handles indexing {@link #allocatedRam}. */
+	private VmTable<Void> ramTable;
+
+	/** The amount of RAM allocated to each VM, indexed by the handle of the VM in the {@link #ramTable}. */
+	private int[] allocatedRam;
 
 	/**
 	 * Instantiates a new ram provisioner simple.
@@ -35,7 +38,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 	 */
 	public RamProvisionerSimple(int availableRam) {
 		super(availableRam);
-		setRamTable(new HashMap<String, Integer>());
+		setRamVmTable(new VmTable<Void>());
 	}
 
 	@Override
@@ -52,7 +55,7 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 		if (getAvailableRam() >= ram) {
 			setAvailableRam(getAvailableRam() - ram);
-			getRamTable().put(vm.getUid(), ram);
+			setAllocatedRam(getRamVmTable().add(vm), ram);
 			vm.setCurrentAllocatedRam(getAllocatedRamForVm(vm));
 			return true;
 		}
@@ -64,16 +67,18 @@ public class RamProvisionerSimple extends RamProvisioner {
 
 	@Override
 	public int getAllocatedRamForVm(Vm vm) {
-		if (getRamTable().containsKey(vm.getUid())) {
-			return getRamTable().get(vm.getUid());
+		int handle = getRamVmTable().getHandle(vm);
+		if (handle >= 0) {
+			return allocatedRam[handle];
 		}
 		return 0;
 	}
 
 	@Override
 	public void deallocateRamForVm(Vm vm) {
-		if (getRamTable().containsKey(vm.getUid())) {
-			int amountFreed = getRamTable().remove(vm.getUid());
+		int handle = getRamVmTable().remove(vm);
+		if (handle >= 0) {
+			int amountFreed = allocatedRam[handle];
 			setAvailableRam(getAvailableRam() + amountFreed);
 			vm.setCurrentAllocatedRam(0);
 		}
@@ -82,36 +87,79 @@ public class RamProvisionerSimple extends RamProvisioner {
 	@Override
 	public void deallocateRamForAllVms() {
 		super.deallocateRamForAllVms();
-		getRamTable().clear();
+		getRamVmTable().clear();
 	}
 
 	@Override
 	public boolean isSuitableForVm(Vm vm, int ram) {
-		int allocatedRam = getAllocatedRamForVm(vm);
-		boolean result = allocateRamForVm(vm, ram);
-		deallocateRamForVm(vm);
-		if (allocatedRam > 0) {
-			allocateRamForVm(vm, allocatedRam);
-		}
-		return result;
+		// same outcome as allocateRamForVm, without allocating and releasing the RAM
+		return getAvailableRam() + getAllocatedRamForVm(vm) >= Math.min(ram, vm.getRam());
 	}
 
 	/**
 	 * Gets the map between VMs and allocated ram.
 	 * 
-	 * @return the ram map
+	 * @return a view of the ram table, with the amount of RAM allocated to each VM
+	 * @deprecated Use {@link #getRamVmTable()} instead
 	 */
+	@Deprecated
 	protected Map<String, Integer> getRamTable() {
-		return ramTable;
+		return new VmTable.UidMap<Integer>(getRamVmTable()) {
+
+			@Override
+			protected Integer getValue(int handle) {
+				return allocatedRam[handle];
+			}
+
+			@Override
+			protected void setValue(int handle, Integer ram) {
+				setAllocatedRam(handle, ram);
+			}
+		};
 	}
 
 	/**
 	 * Sets the map between VMs and allocated ram.
 	 * 
-	 * @param ramTable the ram map
+	 * @param ramTable the ram map, whose entries are copied to the ram table
+	 * @deprecated Use {@link #setRamVmTable(VmTable)} instead
 	 */
+	@Deprecated
 	protected void setRamTable(Map<String, Integer> ramTable) {
+		getRamVmTable().clear();
+		getRamTable().putAll(ramTable);
+	}
+
+	/**
+	 * Gets the table of the VMs RAM is allocated to.
+	 * 
+	 * @return the ram table
+	 */
+	protected VmTable<Void> getRamVmTable() {
+		return ramTable;
+	}
+
+	/**
+	 * Sets the table of the VMs RAM is allocated to.
+	 * 
+	 * @param ramTable the ram table
+	 */
+	protected void setRamVmTable(VmTable<Void> ramTable) {
 		this.ramTable = ramTable;
+		allocatedRam = new int[ramTable.getCapacity()];
+	}
+
+	/**
+	 * Sets the amount of RAM allocated to a VM.
+	 * 
+	 * @param handle the handle of the VM in the ram table
+	 * @param ram the amount of RAM
+	 */
+	private void setAllocatedRam(int handle, int ram) {
+		if (handle >= allocatedRam.length) {
+			allocatedRam = Arrays.copyOf(allocatedRam, getRamVmTable().getCapacity());
+		}
+		allocatedRam[handle] = ram;
 	}
 
 }
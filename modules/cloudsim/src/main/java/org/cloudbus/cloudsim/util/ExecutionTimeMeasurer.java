@@ -26,11 +26,20 @@ public class ExecutionTimeMeasurer {
          * Usually, this name is the method/process name, making
          * easy to identify the execution times into the map.
          * 
+         * The map is kept per thread, so that simulations running in parallel
+         * do not mix up the measurements of methods with the same name.
+         * 
          * @todo The name of the attribute doesn't match with what it stores.
          * It in fact stores the method/process start time,
          * no the time it spent executing.
          */
-	private final static Map<String, Long> executionTimes = new HashMap<String, Long>();
+	private final static ThreadLocal<Map<String, Long>> executionTimes = new ThreadLocal<Map<String, Long>>() {
+
+		@Override
+		protected Map<String, Long> initialValue() {
+			return new HashMap<String, Long>();
+		}
+	};
 
 	/**
 	 * Start measuring the execution time of a method/process.
@@ -58,13 +67,13 @@ public class ExecutionTimeMeasurer {
 	}
 
 	/**
-	 * Gets map the execution times.
+	 * Gets map the execution times of the current thread.
 	 * 
 	 * @return the execution times map
          * @see #executionTimes
 	 */
 	public static Map<String, Long> getExecutionTimes() {
-		return executionTimes;
+		return executionTimes.get();
 	}
 
 }
@@ -0,0 +1,315 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * LocalRegression computes the Local Regression (Loess) parameter estimates of a window of
+ * values of a given length, and their robust variant, the same way as
+ * {@link MathUtil#getLoessParameterEstimates(double[])} and
+ * {@link MathUtil#getRobustLoessParameterEstimates(double[])}: the values are regressed on their
+ * positions 1 to n, weighted as done by {@link MathUtil#createWeigthedLinearRegression(double[], double[], double[])}.
+ * <p/>
+ * As the positions and the tricube weights only depend on the length of the window, they are
+ * computed once, along with the square roots of the weights. The least squares fit uses sums
+ * centred on the means of the positions and values, which do not lose their precision to
+ * cancellation. The values can also be read straight from a history that holds them from the
+ * newest to the oldest one, such as the utilization history of a host, without copying them in
+ * reverse order first. The buffers used and the returned estimates are kept from one call to the
+ * next, so nothing is allocated by an estimate, and an instance must not be shared between
+ * threads.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class LocalRegression {
+
+	/** The number of values of the window. */
+	private final int length;
+
+	/** The position of each value, from 1 to {@link #length}. */
+	private final double[] x;
+
+	/** The tricube weights of the values. */
+	private final double[] tricubeWeights;
+
+	/** The square roots of the tricube weights, or $null if they are ignored. */
+	private final double[] rootTricubeWeights;
+
+	/** The residuals of the tricube regression. */
+	private final double[] residuals;
+
+	/** The absolute values of the residuals, sorted to get their median. */
+	private final double[] sortedAbsResiduals;
+
+	/** The bisquare weights of the robust regression. */
+	private final double[] bisquareWeights;
+
+	/** The square roots of the bisquare weights. */
+	private final double[] rootBisquareWeights;
+
+	/** The intercept and slope of the tricube regression. */
+	private final double[] estimates = new double[2];
+
+	/** The intercept and slope of the robust regression. */
+	private final double[] robustEstimates = new double[2];
+
+	/**
+	 * Creates an estimator for windows of a given length.
+	 *
+	 * @param length the number of values of the windows
+	 * @throws IllegalArgumentException if the length is less than 3, as the tricube weights
+	 *             cannot be computed
+	 */
+	public LocalRegression(int length) {
+		if (length < 3) {
+			throw new IllegalArgumentException("The window must have at least 3 values");
+		}
+		this.length = length;
+		x = new double[length];
+		for (int i = 0; i < length; i++) {
+			x[i] = i + 1;
+		}
+		tricubeWeights = MathUtil.getTricubeWeigts(length);
+		if (isWeighted(tricubeWeights)) {
+			rootTricubeWeights = getRoots(tricubeWeights, new double[length]);
+		} else {
+			rootTricubeWeights = null;
+		}
+		residuals = new double[length];
+		sortedAbsResiduals = new double[length];
+		bisquareWeights = new double[length];
+		rootBisquareWeights = new double[length];
+	}
+
+	/**
+	 * Gets the number of values of the windows.
+	 *
+	 * @return the length
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Gets the Loess parameter estimates of a window of values.
+	 *
+	 * @param y the values, from the oldest to the newest one
+	 * @return the intercept and the slope, in an array reused by the next call
+	 */
+	public double[] getParameterEstimates(final double[] y) {
+		checkLength(y);
+		return estimate(y, false);
+	}
+
+	/**
+	 * Gets the Loess parameter estimates of the newest values of a history.
+	 *
+	 * @param history the values, from the newest to the oldest one; only the first
+	 *            {@link #getLength()} ones are used
+	 * @return the intercept and the slope, in an array reused by the next call
+	 */
+	public double[] getParameterEstimatesFromHistory(final double[] history) {
+		checkHistoryLength(history);
+		return estimate(history, true);
+	}
+
+	/**
+	 * Gets the robust Loess parameter estimates of a window of values.
+	 *
+	 * @param y the values, from the oldest to the newest one
+	 * @return the intercept and the slope, in an array reused by the next call
+	 */
+	public double[] getRobustParameterEstimates(final double[] y) {
+		checkLength(y);
+		return estimateRobust(y, false);
+	}
+
+	/**
+	 * Gets the robust Loess parameter estimates of the newest values of a history.
+	 *
+	 * @param history the values, from the newest to the oldest one; only the first
+	 *            {@link #getLength()} ones are used
+	 * @return the intercept and the slope, in an array reused by the next call
+	 */
+	public double[] getRobustParameterEstimatesFromHistory(final double[] history) {
+		checkHistoryLength(history);
+		return estimateRobust(history, true);
+	}
+
+	/**
+	 * Computes the Loess parameter estimates of a window of values.
+	 *
+	 * @param values the values
+	 * @param fromHistory whether the values are in a history, from the newest to the oldest one
+	 * @return the intercept and the slope
+	 */
+	private double[] estimate(double[] values, boolean fromHistory) {
+		regress(values, fromHistory, rootTricubeWeights, estimates);
+		return estimates;
+	}
+
+	/**
+	 * Computes the robust Loess parameter estimates of a window of values.
+	 *
+	 * @param values the values
+	 * @param fromHistory whether the values are in a history, from the newest to the oldest one
+	 * @return the intercept and the slope
+	 */
+	private double[] estimateRobust(double[] values, boolean fromHistory) {
+		double[] tricubeEstimates = estimate(values, fromHistory);
+		for (int i = 0; i < length; i++) {
+			residuals[i] = getValue(values, fromHistory, i)
+					- (tricubeEstimates[0] + tricubeEstimates[1] * x[i]);
+			sortedAbsResiduals[i] = Math.abs(residuals[i]);
+		}
+		Arrays.sort(sortedAbsResiduals);
+		double s6 = median(sortedAbsResiduals) * 6;
+		for (int i = 2; i < length; i++) {
+			double k = Math.pow(1 - Math.pow(residuals[i] / s6, 2), 2);
+			if (k > 0) {
+				bisquareWeights[i] = (1 / k) * tricubeWeights[i];
+			} else {
+				bisquareWeights[i] = Double.MAX_VALUE;
+			}
+		}
+		bisquareWeights[0] = bisquareWeights[1] = bisquareWeights[2];
+
+		if (isWeighted(bisquareWeights)) {
+			regress(values, fromHistory, getRoots(bisquareWeights, rootBisquareWeights), robustEstimates);
+		} else {
+			// the values are regressed as they are, as for the tricube estimates
+			regress(values, fromHistory, null, robustEstimates);
+		}
+		// as in MathUtil#getRobustLoessParameterEstimates, which tests the estimates with Double.isNaN
+		if (Double.isNaN(robustEstimates[0]) || Double.isNaN(robustEstimates[1])) {
+			return estimate(values, fromHistory);
+		}
+		return robustEstimates;
+	}
+
+	/**
+	 * Checks whether weights are applied to the values, which is the case when at least 40% of
+	 * them are not positive, as in {@link MathUtil#createWeigthedLinearRegression(double[], double[], double[])}.
+	 *
+	 * @param weights the weights
+	 * @return true, if the weights are applied; false otherwise
+	 */
+	private boolean isWeighted(double[] weights) {
+		int numZeroWeights = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] <= 0) {
+				numZeroWeights++;
+			}
+		}
+		return numZeroWeights >= 0.4 * weights.length;
+	}
+
+	/**
+	 * Computes the square roots of weights.
+	 *
+	 * @param weights the weights
+	 * @param roots the array where to store the square roots
+	 * @return the square roots
+	 */
+	private static double[] getRoots(double[] weights, double[] roots) {
+		for (int i = 0; i < weights.length; i++) {
+			roots[i] = Math.sqrt(weights[i]);
+		}
+		return roots;
+	}
+
+	/**
+	 * Regresses the values on their positions, both multiplied by the square root of their
+	 * weights, with sums centred on the means of the weighted positions and values.
+	 *
+	 * @param values the values
+	 * @param fromHistory whether the values are in a history, from the newest to the oldest one
+	 * @param rootWeights the square roots of the weights, or $null if the values are not weighted
+	 * @param result the array where to store the intercept and the slope
+	 */
+	private void regress(double[] values, boolean fromHistory, double[] rootWeights, double[] result) {
+		double sx = 0;
+		double sy = 0;
+		for (int i = 0; i < length; i++) {
+			double root = rootWeights == null ? 1 : rootWeights[i];
+			sx += root * x[i];
+			sy += root * getValue(values, fromHistory, i);
+		}
+		double meanX = sx / length;
+		double meanY = sy / length;
+
+		double sxx = 0;
+		double sxy = 0;
+		for (int i = 0; i < length; i++) {
+			double root = rootWeights == null ? 1 : rootWeights[i];
+			double dx = root * x[i] - meanX;
+			double dy = root * getValue(values, fromHistory, i) - meanY;
+			sxx += dx * dx;
+			sxy += dx * dy;
+		}
+		double slope = sxy / sxx;
+		result[0] = meanY - slope * meanX;
+		result[1] = slope;
+	}
+
+	/**
+	 * Gets a value of a window.
+	 *
+	 * @param values the values
+	 * @param fromHistory whether the values are in a history, from the newest to the oldest one
+	 * @param i the position of the value in the window, 0 being the oldest one
+	 * @return the value
+	 */
+	private double getValue(double[] values, boolean fromHistory, int i) {
+		return fromHistory ? values[length - 1 - i] : values[i];
+	}
+
+	/**
+	 * Gets the median of sorted values, as the 50th percentile computed by
+	 * {@link MathUtil#median(double[])}.
+	 *
+	 * @param sorted the sorted values
+	 * @return the median
+	 */
+	private static double median(double[] sorted) {
+		int n = sorted.length;
+		double position = 0.5 * (n + 1);
+		int lower = (int) Math.floor(position);
+		if (lower >= n) {
+			return sorted[n - 1];
+		}
+		double fraction = position - lower;
+		return sorted[lower - 1] + fraction * (sorted[lower] - sorted[lower - 1]);
+	}
+
+	/**
+	 * Checks that a window has the expected number of values.
+	 *
+	 * @param y the values
+	 */
+	private void checkLength(double[] y) {
+		if (y.length != length) {
+			throw new IllegalArgumentException("Expected " + length + " values, got " + y.length);
+		}
+	}
+
+	/**
+	 * Checks that a history has at least the expected number of values.
+	 *
+	 * @param history the values
+	 */
+	private void checkHistoryLength(double[] history) {
+		if (history.length < length) {
+			throw new IllegalArgumentException("Expected at least " + length + " values, got "
+					+ history.length);
+		}
+	}
+
+}
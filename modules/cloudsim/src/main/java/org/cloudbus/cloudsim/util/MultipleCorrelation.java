@@ -0,0 +1,169 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * MultipleCorrelation computes, for each variable of a set, the coefficient of determination
+ * (R<sup>2</sup>) of the linear regression of that variable on all the other ones, with an
+ * intercept. It is used by the maximum correlation VM and container selection policies, where the
+ * variables are the CPU utilization histories of the VMs or containers of a host.
+ * <p/>
+ * Instead of fitting one least squares regression per variable, all the values come from the
+ * inverse of the correlation matrix R of the variables, since the R<sup>2</sup> of variable i is
+ * 1 - 1 / (R<sup>-1</sup>)<sub>ii</sub>. The inverse is obtained from the Cholesky decomposition
+ * of R, and the buffers used are kept from one call to the next, so an instance must not be
+ * shared between threads.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class MultipleCorrelation {
+
+	/**
+	 * The smallest pivot of the Cholesky decomposition of the correlation matrix for it to be
+	 * considered invertible.
+	 */
+	private static final double SINGULARITY_THRESHOLD = 1e-12;
+
+	/** The correlation matrix, whose lower triangle is replaced by its Cholesky factor. */
+	private double[][] matrix = new double[0][];
+
+	/** The mean of each variable. */
+	private double[] means = new double[0];
+
+	/** The square root of the sum of the squared deviations of each variable. */
+	private double[] norms = new double[0];
+
+	/** A column of the inverse of the Cholesky factor. */
+	private double[] column = new double[0];
+
+	/**
+	 * Gets the coefficient of determination of the linear regression of each variable on all the
+	 * other ones, the same as fitting an ordinary least squares regression with an intercept for
+	 * each variable.
+	 *
+	 * @param data the observations of each variable: each row is a variable, and all rows have the
+	 *            same number of observations
+	 * @return the coefficient of determination of each variable
+	 * @throws IllegalArgumentException if there are less than two variables, less observations
+	 *             than variables, a variable that does not vary, or variables that are linearly
+	 *             dependent, as there is then no single regression
+	 */
+	public double[] getCoefficientsOfDetermination(final double[][] data) {
+		int n = data.length;
+		if (n < 2) {
+			throw new IllegalArgumentException("At least two variables are needed");
+		}
+		int m = data[0].length;
+		if (m < n) {
+			throw new IllegalArgumentException("Not enough observations for the number of variables");
+		}
+		ensureCapacity(n);
+
+		for (int i = 0; i < n; i++) {
+			double sum = 0;
+			for (int k = 0; k < m; k++) {
+				sum += data[i][k];
+			}
+			double mean = sum / m;
+			double squares = 0;
+			for (int k = 0; k < m; k++) {
+				double deviation = data[i][k] - mean;
+				squares += deviation * deviation;
+			}
+			if (squares == 0) {
+				throw new IllegalArgumentException("Variable " + i + " does not vary");
+			}
+			means[i] = mean;
+			norms[i] = Math.sqrt(squares);
+		}
+
+		double[] coefficients = new double[n];
+		if (m == n) {
+			// n observations are fitted exactly by a regression with n coefficients
+			for (int i = 0; i < n; i++) {
+				coefficients[i] = 1;
+			}
+			return coefficients;
+		}
+
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				double sum = 0;
+				for (int k = 0; k < m; k++) {
+					sum += (data[i][k] - means[i]) * (data[j][k] - means[j]);
+				}
+				matrix[i][j] = sum / (norms[i] * norms[j]);
+			}
+		}
+
+		decompose(n);
+
+		// the diagonal of the inverse of R = L * L^T is the sum of the squares of each column
+		// of the inverse of L
+		for (int c = 0; c < n; c++) {
+			double inverseDiagonal = 0;
+			for (int i = c; i < n; i++) {
+				double value = i == c ? 1 : 0;
+				for (int k = c; k < i; k++) {
+					value -= matrix[i][k] * column[k];
+				}
+				column[i] = value / matrix[i][i];
+				inverseDiagonal += column[i] * column[i];
+			}
+			coefficients[c] = 1 - 1 / inverseDiagonal;
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Replaces the lower triangle of the correlation matrix by its Cholesky factor L.
+	 *
+	 * @param n the number of variables
+	 * @throws IllegalArgumentException if the matrix is singular
+	 */
+	private void decompose(int n) {
+		for (int j = 0; j < n; j++) {
+			double pivot = matrix[j][j];
+			for (int k = 0; k < j; k++) {
+				pivot -= matrix[j][k] * matrix[j][k];
+			}
+			if (pivot <= SINGULARITY_THRESHOLD) {
+				throw new IllegalArgumentException("The variables are linearly dependent");
+			}
+			double diagonal = Math.sqrt(pivot);
+			matrix[j][j] = diagonal;
+			for (int i = j + 1; i < n; i++) {
+				double value = matrix[i][j];
+				for (int k = 0; k < j; k++) {
+					value -= matrix[i][k] * matrix[j][k];
+				}
+				matrix[i][j] = value / diagonal;
+			}
+		}
+	}
+
+	/**
+	 * Makes sure the buffers can hold a given number of variables.
+	 *
+	 * @param n the number of variables
+	 */
+	private void ensureCapacity(int n) {
+		if (matrix.length >= n) {
+			return;
+		}
+		matrix = new double[n][];
+		for (int i = 0; i < n; i++) {
+			matrix[i] = new double[i + 1];
+		}
+		means = new double[n];
+		norms = new double[n];
+		column = new double[n];
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabMapped;
+
+/**
+ * A compact binary store of a whole day of <a href="https://www.planet-lab.org">PlanetLab</a>
+ * traces. A trace folder, holding one text file per VM with a CPU utilization percentage per line,
+ * is converted once by {@link #convert(String, String)} into a single file, which is then
+ * memory-mapped by {@link #open(String)}. Every utilization model created by the store reads its
+ * samples straight from the mapped file, so loading a day of traces opens a single file and keeps
+ * no per-VM array in the heap.
+ * <p/>
+ * The file starts with a header of four ints: {@link #MAGIC}, {@link #VERSION}, the number of
+ * traces and the number of samples per trace. The samples follow, trace after trace, each one as
+ * an unsigned byte holding the utilization percentage. Traces are stored in the order the files
+ * are listed by {@link File#listFiles()}, which is the order used when creating one
+ * {@link UtilizationModelPlanetLabInMemory} per file of the folder.
+ * <p/>
+ * The mapped buffer is only read with absolute gets, so a store and its utilization models can be
+ * shared by simulations running in parallel.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class PlanetLabTraceStore {
+
+	/** The magic number identifying a trace store file ("CSPL"). */
+	public static final int MAGIC = 0x4353504C;
+
+	/** The version of the file format. */
+	public static final int VERSION = 1;
+
+	/** The size in bytes of the file header. */
+	private static final int HEADER_SIZE = 16;
+
+	/** The number of samples read from each trace file (5 min * 288 = 24 hours). */
+	public static final int DEFAULT_NUMBER_OF_SAMPLES = 288;
+
+	/** The mapped file content. */
+	private final ByteBuffer buffer;
+
+	/** The number of traces. */
+	private final int numberOfTraces;
+
+	/** The number of samples of each trace. */
+	private final int numberOfSamples;
+
+	/**
+	 * Instantiates a new trace store over the content of a trace store file.
+	 *
+	 * @param buffer the file content
+	 * @throws IOException if the content is not a valid trace store
+	 */
+	protected PlanetLabTraceStore(ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a PlanetLab trace store");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported PlanetLab trace store version " + buffer.getInt(4));
+		}
+		numberOfTraces = buffer.getInt(8);
+		numberOfSamples = buffer.getInt(12);
+		if (numberOfTraces < 0 || numberOfSamples < 1
+				|| buffer.capacity() < HEADER_SIZE + (long) numberOfTraces * numberOfSamples) {
+			throw new IOException("Truncated PlanetLab trace store");
+		}
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Memory-maps a trace store file.
+	 *
+	 * @param path the path of the trace store file
+	 * @return the trace store
+	 * @throws IOException if the file cannot be mapped or is not a valid trace store
+	 */
+	public static PlanetLabTraceStore open(String path) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			// The mapping stays valid after the channel is closed
+			return new PlanetLabTraceStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Converts the trace files of a folder into a trace store file, reading
+	 * {@link #DEFAULT_NUMBER_OF_SAMPLES} samples from each trace.
+	 *
+	 * @param inputFolderName the folder of the trace files
+	 * @param outputPath the path of the trace store file to create
+	 * @return the number of traces stored
+	 * @throws IOException if a trace cannot be read or the store cannot be written
+	 */
+	public static int convert(String inputFolderName, String outputPath) throws IOException {
+		return convert(inputFolderName, outputPath, DEFAULT_NUMBER_OF_SAMPLES);
+	}
+
+	/**
+	 * Converts the trace files of a folder into a trace store file.
+	 *
+	 * @param inputFolderName the folder of the trace files
+	 * @param outputPath the path of the trace store file to create
+	 * @param numberOfSamples the number of samples to read from each trace
+	 * @return the number of traces stored
+	 * @throws IOException if a trace cannot be read or the store cannot be written
+	 */
+	public static int convert(String inputFolderName, String outputPath, int numberOfSamples)
+			throws IOException {
+		File[] files = new File(inputFolderName).listFiles();
+		if (files == null) {
+			throw new FileNotFoundException(inputFolderName);
+		}
+
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				outputPath)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(files.length);
+			output.writeInt(numberOfSamples);
+			for (File file : files) {
+				BufferedReader input = new BufferedReader(new FileReader(file));
+				try {
+					for (int i = 0; i < numberOfSamples; i++) {
+						int sample = Integer.valueOf(input.readLine());
+						if (sample < 0 || sample > 255) {
+							throw new IOException("Utilization " + sample + " of " + file
+									+ " does not fit in a byte");
+						}
+						output.writeByte(sample);
+					}
+				} finally {
+					input.close();
+				}
+			}
+		} finally {
+			output.close();
+		}
+		return files.length;
+	}
+
+	/**
+	 * Creates the utilization model of a trace.
+	 *
+	 * @param index the index of the trace
+	 * @param schedulingInterval the interval between two samples
+	 * @return the utilization model
+	 */
+	public UtilizationModel createUtilizationModel(int index, double schedulingInterval) {
+		if (index < 0 || index >= numberOfTraces) {
+			throw new IndexOutOfBoundsException("Trace " + index + " of " + numberOfTraces);
+		}
+		return new UtilizationModelPlanetLabMapped(
+				buffer,
+				HEADER_SIZE + index * numberOfSamples,
+				numberOfSamples,
+				schedulingInterval);
+	}
+
+	/**
+	 * Gets the number of traces.
+	 *
+	 * @return the number of traces
+	 */
+	public int getNumberOfTraces() {
+		return numberOfTraces;
+	}
+
+	/**
+	 * Gets the number of samples of each trace.
+	 *
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return numberOfSamples;
+	}
+
+	/**
+	 * Converts a folder of trace files into a trace store file.
+	 *
+	 * @param args the input folder and the output file
+	 * @throws IOException if a trace cannot be read or the store cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: PlanetLabTraceStore <input folder> <output file>");
+			return;
+		}
+		int traces = convert(args[0], args[1]);
+		System.out.println("Stored " + traces + " traces into " + args[1]);
+	}
+
+}
@@ -0,0 +1,298 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of a simulation run, read from a file written by {@link ResultFileWriter}. All the
+ * tables of the file are loaded, each column into an array of doubles.
+ * <p/>
+ * The tables written by the helper methods of {@link ResultFileWriter} are named by the constants
+ * of this class. Each table can be converted into a CSV file by {@link #writeCsv(String, String)}.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class ResultFile {
+
+	/** The magic number identifying a result file ("CSRF"). */
+	public static final int MAGIC = 0x43535246;
+
+	/** The version of the file format. */
+	public static final int VERSION = 1;
+
+	/** The type of the record marking the end of the file. */
+	static final int END = 0;
+
+	/** The type of the record adding a table. */
+	static final int TABLE = 1;
+
+	/** The type of the record holding rows of a table. */
+	static final int CHUNK = 2;
+
+	/** The table of the state histories of the hosts. */
+	public static final String HOST_STATE = "host_state";
+
+	/** The table of the state histories of the VMs. */
+	public static final String VM_STATE = "vm_state";
+
+	/** The table of the state histories of the containers. */
+	public static final String CONTAINER_STATE = "container_state";
+
+	/** The table of the times the migrations of the VMs started. */
+	public static final String VM_MIGRATION = "vm_migration";
+
+	/** The table of the times the migrations of the containers started. */
+	public static final String CONTAINER_MIGRATION = "container_migration";
+
+	/** The table of the utilization and overload metric histories of the hosts. */
+	public static final String HOST_METRIC = "host_metric";
+
+	/** The table of the energy consumed by the datacenter. */
+	public static final String ENERGY = "energy";
+
+	/**
+	 * The columns of the state tables. The last one is 1 if the host is active, or the VM or
+	 * container is in migration, and 0 otherwise.
+	 */
+	public static final String[] STATE_COLUMNS = { "id", "time", "allocated_mips", "requested_mips",
+			"flag" };
+
+	/** The columns of the migration tables. */
+	public static final String[] MIGRATION_COLUMNS = { "id", "time" };
+
+	/** The columns of the metric table. */
+	public static final String[] METRIC_COLUMNS = { "id", "time", "utilization", "metric" };
+
+	/** The columns of the energy table. */
+	public static final String[] ENERGY_COLUMNS = { "time", "energy" };
+
+	/** The names of the columns of each table, in the order the tables were added. */
+	private final Map<String, String[]> columnNames = new LinkedHashMap<String, String[]>();
+
+	/** The values of each column of each table. */
+	private final Map<String, double[][]> values = new LinkedHashMap<String, double[][]>();
+
+	/** The number of rows of each table. */
+	private final Map<String, Integer> rowCounts = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * Reads a result file.
+	 *
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be read or is not a valid result file
+	 */
+	public ResultFile(String path) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(path),
+				1 << 16));
+		try {
+			read(input);
+		} catch (EOFException e) {
+			throw new IOException("Truncated result file " + path);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gets the names of the tables, in the order they were written.
+	 *
+	 * @return the names of the tables
+	 */
+	public List<String> getTableNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(columnNames.keySet()));
+	}
+
+	/**
+	 * Checks whether the file has a table.
+	 *
+	 * @param table the name of the table
+	 * @return true, if the file has the table; false otherwise
+	 */
+	public boolean hasTable(String table) {
+		return columnNames.containsKey(table);
+	}
+
+	/**
+	 * Gets the names of the columns of a table.
+	 *
+	 * @param table the name of the table
+	 * @return the names of its columns
+	 */
+	public List<String> getColumnNames(String table) {
+		return Collections.unmodifiableList(Arrays.asList(getTable(table)));
+	}
+
+	/**
+	 * Gets the number of rows of a table.
+	 *
+	 * @param table the name of the table
+	 * @return the number of rows
+	 */
+	public int getRowCount(String table) {
+		getTable(table);
+		return rowCounts.get(table);
+	}
+
+	/**
+	 * Gets the values of a column of a table. The returned array is the one held by the result
+	 * file, so it must not be changed.
+	 *
+	 * @param table the name of the table
+	 * @param column the name of the column
+	 * @return the value of the column in each row
+	 * @throws IllegalArgumentException if there is no such table or column
+	 */
+	public double[] getColumn(String table, String column) {
+		int index = Arrays.asList(getTable(table)).indexOf(column);
+		if (index < 0) {
+			throw new IllegalArgumentException("No column " + column + " in table " + table);
+		}
+		return values.get(table)[index];
+	}
+
+	/**
+	 * Writes a table into a CSV file, with a header line giving the names of the columns.
+	 * Integral values are written without a fractional part.
+	 *
+	 * @param table the name of the table
+	 * @param outputPath the path of the CSV file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeCsv(String table, String outputPath) throws IOException {
+		String[] columns = getTable(table);
+		double[][] tableValues = values.get(table);
+		int rows = rowCounts.get(table);
+		BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath));
+		try {
+			for (int column = 0; column < columns.length; column++) {
+				if (column > 0) {
+					writer.write(',');
+				}
+				writer.write(columns[column]);
+			}
+			writer.write('\n');
+			for (int row = 0; row < rows; row++) {
+				for (int column = 0; column < columns.length; column++) {
+					if (column > 0) {
+						writer.write(',');
+					}
+					double value = tableValues[column][row];
+					if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+						writer.write(Long.toString((long) value));
+					} else {
+						writer.write(Double.toString(value));
+					}
+				}
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Gets the names of the columns of a table.
+	 *
+	 * @param table the name of the table
+	 * @return the names of its columns
+	 * @throws IllegalArgumentException if there is no such table
+	 */
+	private String[] getTable(String table) {
+		String[] columns = columnNames.get(table);
+		if (columns == null) {
+			throw new IllegalArgumentException("No table " + table);
+		}
+		return columns;
+	}
+
+	/**
+	 * Reads the content of a result file.
+	 *
+	 * @param input the file content
+	 * @throws IOException if the content cannot be read or is not a valid result file
+	 */
+	private void read(DataInputStream input) throws IOException {
+		if (input.readInt() != MAGIC) {
+			throw new IOException("Not a result file");
+		}
+		int version = input.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported result file version " + version);
+		}
+
+		List<String> tables = new ArrayList<String>();
+		while (true) {
+			int type = input.readByte();
+			if (type == END) {
+				break;
+			} else if (type == TABLE) {
+				int id = input.readInt();
+				String name = input.readUTF();
+				String[] columns = new String[input.readInt()];
+				for (int column = 0; column < columns.length; column++) {
+					columns[column] = input.readUTF();
+				}
+				if (id != tables.size() || columnNames.containsKey(name)) {
+					throw new IOException("Invalid table " + name);
+				}
+				tables.add(name);
+				columnNames.put(name, columns);
+				values.put(name, new double[columns.length][0]);
+				rowCounts.put(name, 0);
+			} else if (type == CHUNK) {
+				int id = input.readInt();
+				int rows = input.readInt();
+				if (id < 0 || id >= tables.size() || rows < 0) {
+					throw new IOException("Invalid chunk of table " + id);
+				}
+				String name = tables.get(id);
+				double[][] tableValues = values.get(name);
+				int size = rowCounts.get(name);
+				for (int column = 0; column < tableValues.length; column++) {
+					double[] columnValues = tableValues[column];
+					if (columnValues.length < size + rows) {
+						columnValues = Arrays.copyOf(columnValues, Math.max(size + rows,
+								columnValues.length * 2));
+						tableValues[column] = columnValues;
+					}
+					for (int row = 0; row < rows; row++) {
+						columnValues[size + row] = input.readDouble();
+					}
+				}
+				rowCounts.put(name, size + rows);
+			} else {
+				throw new IOException("Invalid record type " + type);
+			}
+		}
+
+		for (Map.Entry<String, double[][]> entry : values.entrySet()) {
+			double[][] tableValues = entry.getValue();
+			int size = rowCounts.get(entry.getKey());
+			for (int column = 0; column < tableValues.length; column++) {
+				if (tableValues[column].length != size) {
+					tableValues[column] = Arrays.copyOf(tableValues[column], size);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,327 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.VmStateHistoryEntry;
+
+/**
+ * Writes the results of a simulation run into a single binary file, read back by
+ * {@link ResultFile}. The results are tables of named columns of doubles, such as the state
+ * histories of all the hosts or all the VMs, each row starting with the id of the entity it
+ * belongs to.
+ * <p/>
+ * The rows of each table are buffered and written by chunks of {@link #CHUNK_SIZE} rows, column
+ * after column, so a column is read back with a few bulk reads instead of parsing text. The file
+ * starts with {@link ResultFile#MAGIC} and {@link ResultFile#VERSION}, followed by records, each
+ * one starting with a byte giving its type:
+ * <ul>
+ * <li>{@link ResultFile#TABLE}: the table id, its name and its number of columns, as ints and
+ * UTF strings, then the name of each column;</li>
+ * <li>{@link ResultFile#CHUNK}: the table id and the number of rows, then the values of each
+ * column;</li>
+ * <li>{@link ResultFile#END}: the end of the file, written by {@link #close()}.</li>
+ * </ul>
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class ResultFileWriter implements Closeable {
+
+	/** The maximum number of rows of a chunk. */
+	public static final int CHUNK_SIZE = 4096;
+
+	/** The file content. */
+	private final DataOutputStream output;
+
+	/** The tables, in the order they were added. */
+	private final List<Table> tables = new ArrayList<Table>();
+
+	/** The tables by name. */
+	private final Map<String, Table> tablesByName = new HashMap<String, Table>();
+
+	/**
+	 * Creates a result file, replacing the file if it exists.
+	 *
+	 * @param path the path of the file
+	 * @throws IOException if the file cannot be created
+	 */
+	public ResultFileWriter(String path) throws IOException {
+		output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+		output.writeInt(ResultFile.MAGIC);
+		output.writeInt(ResultFile.VERSION);
+	}
+
+	/**
+	 * Adds a table to the file, or gets it if it was already added with the same columns.
+	 *
+	 * @param name the name of the table
+	 * @param columns the names of its columns
+	 * @return the id of the table, used to add rows
+	 * @throws IOException if the table cannot be written
+	 * @throws IllegalArgumentException if the table was already added with other columns
+	 */
+	public int addTable(String name, String... columns) throws IOException {
+		Table table = tablesByName.get(name);
+		if (table != null) {
+			if (!Arrays.equals(table.columns, columns)) {
+				throw new IllegalArgumentException("Table " + name + " already has other columns");
+			}
+			return table.id;
+		}
+		if (columns.length == 0) {
+			throw new IllegalArgumentException("Table " + name + " has no column");
+		}
+		table = new Table(tables.size(), columns.clone());
+		tables.add(table);
+		tablesByName.put(name, table);
+
+		output.writeByte(ResultFile.TABLE);
+		output.writeInt(table.id);
+		output.writeUTF(name);
+		output.writeInt(columns.length);
+		for (String column : columns) {
+			output.writeUTF(column);
+		}
+		return table.id;
+	}
+
+	/**
+	 * Adds a row to a table.
+	 *
+	 * @param tableId the id of the table
+	 * @param values the value of each column
+	 * @throws IOException if a chunk cannot be written
+	 * @throws IllegalArgumentException if the number of values is not the number of columns
+	 */
+	public void addRow(int tableId, double... values) throws IOException {
+		Table table = tables.get(tableId);
+		if (values.length != table.columns.length) {
+			throw new IllegalArgumentException("Expected " + table.columns.length + " values, got "
+					+ values.length);
+		}
+		for (int column = 0; column < values.length; column++) {
+			table.values[column][table.size] = values[column];
+		}
+		rowAdded(table);
+	}
+
+	/**
+	 * Writes the state history of a host into the {@link ResultFile#HOST_STATE} table.
+	 *
+	 * @param hostId the id of the host
+	 * @param history the state history of the host
+	 * @throws IOException if the rows cannot be written
+	 */
+	public void writeHostStateHistory(int hostId, List<HostStateHistoryEntry> history)
+			throws IOException {
+		Table table = tables.get(addTable(ResultFile.HOST_STATE, ResultFile.STATE_COLUMNS));
+		for (HostStateHistoryEntry entry : history) {
+			addStateRow(table, hostId, entry.getTime(), entry.getAllocatedMips(),
+					entry.getRequestedMips(), entry.isActive());
+		}
+	}
+
+	/**
+	 * Writes the state history of a VM into the {@link ResultFile#VM_STATE} table, and the times
+	 * its migrations started into the {@link ResultFile#VM_MIGRATION} table.
+	 *
+	 * @param vmId the id of the VM
+	 * @param history the state history of the VM
+	 * @throws IOException if the rows cannot be written
+	 */
+	public void writeVmStateHistory(int vmId, List<VmStateHistoryEntry> history) throws IOException {
+		writeStateHistory(ResultFile.VM_STATE, ResultFile.VM_MIGRATION, vmId, history);
+	}
+
+	/**
+	 * Writes the state history of a container into the {@link ResultFile#CONTAINER_STATE} table,
+	 * and the times its migrations started into the {@link ResultFile#CONTAINER_MIGRATION} table.
+	 *
+	 * @param containerId the id of the container
+	 * @param history the state history of the container
+	 * @throws IOException if the rows cannot be written
+	 */
+	public void writeContainerStateHistory(int containerId, List<VmStateHistoryEntry> history)
+			throws IOException {
+		writeStateHistory(ResultFile.CONTAINER_STATE, ResultFile.CONTAINER_MIGRATION, containerId,
+				history);
+	}
+
+	/**
+	 * Writes the utilization and overload metric history of a host, as kept by the migration VM
+	 * allocation policies, into the {@link ResultFile#HOST_METRIC} table.
+	 *
+	 * @param hostId the id of the host
+	 * @param time the times of the history
+	 * @param utilization the utilization at each time
+	 * @param metric the metric at each time
+	 * @throws IOException if the rows cannot be written
+	 */
+	public void writeMetricHistory(
+			int hostId,
+			List<Double> time,
+			List<Double> utilization,
+			List<Double> metric) throws IOException {
+		Table table = tables.get(addTable(ResultFile.HOST_METRIC, ResultFile.METRIC_COLUMNS));
+		for (int i = 0; i < time.size(); i++) {
+			table.values[0][table.size] = hostId;
+			table.values[1][table.size] = time.get(i);
+			table.values[2][table.size] = utilization.get(i);
+			table.values[3][table.size] = metric.get(i);
+			rowAdded(table);
+		}
+	}
+
+	/**
+	 * Writes an energy sample into the {@link ResultFile#ENERGY} table.
+	 *
+	 * @param time the time of the sample
+	 * @param energy the energy consumed, in W*sec
+	 * @throws IOException if the row cannot be written
+	 */
+	public void writeEnergy(double time, double energy) throws IOException {
+		addRow(addTable(ResultFile.ENERGY, ResultFile.ENERGY_COLUMNS), time, energy);
+	}
+
+	/**
+	 * Writes the rows still buffered and the end of the file, and closes it.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			for (Table table : tables) {
+				writeChunk(table);
+			}
+			output.writeByte(ResultFile.END);
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a state history into a state table, and the times the migrations started into a
+	 * migration table.
+	 *
+	 * @param stateTableName the name of the state table
+	 * @param migrationTableName the name of the migration table
+	 * @param id the id of the VM or container
+	 * @param history its state history, from the oldest to the newest entry
+	 * @throws IOException if the rows cannot be written
+	 */
+	private void writeStateHistory(
+			String stateTableName,
+			String migrationTableName,
+			int id,
+			List<VmStateHistoryEntry> history) throws IOException {
+		Table stateTable = tables.get(addTable(stateTableName, ResultFile.STATE_COLUMNS));
+		Table migrationTable = tables.get(addTable(migrationTableName, ResultFile.MIGRATION_COLUMNS));
+		boolean previousIsInMigration = false;
+		for (VmStateHistoryEntry entry : history) {
+			addStateRow(stateTable, id, entry.getTime(), entry.getAllocatedMips(),
+					entry.getRequestedMips(), entry.isInMigration());
+			if (entry.isInMigration() && !previousIsInMigration) {
+				migrationTable.values[0][migrationTable.size] = id;
+				migrationTable.values[1][migrationTable.size] = entry.getTime();
+				rowAdded(migrationTable);
+			}
+			previousIsInMigration = entry.isInMigration();
+		}
+	}
+
+	/**
+	 * Adds a row to a state table.
+	 */
+	private void addStateRow(
+			Table table,
+			int id,
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean flag) throws IOException {
+		table.values[0][table.size] = id;
+		table.values[1][table.size] = time;
+		table.values[2][table.size] = allocatedMips;
+		table.values[3][table.size] = requestedMips;
+		table.values[4][table.size] = flag ? 1 : 0;
+		rowAdded(table);
+	}
+
+	/**
+	 * Counts the row just set in the buffer of a table, writing the chunk if it is full.
+	 *
+	 * @param table the table
+	 * @throws IOException if the chunk cannot be written
+	 */
+	private void rowAdded(Table table) throws IOException {
+		table.size++;
+		if (table.size == CHUNK_SIZE) {
+			writeChunk(table);
+		}
+	}
+
+	/**
+	 * Writes the rows buffered for a table as a chunk.
+	 *
+	 * @param table the table
+	 * @throws IOException if the chunk cannot be written
+	 */
+	private void writeChunk(Table table) throws IOException {
+		if (table.size == 0) {
+			return;
+		}
+		output.writeByte(ResultFile.CHUNK);
+		output.writeInt(table.id);
+		output.writeInt(table.size);
+		for (double[] column : table.values) {
+			for (int row = 0; row < table.size; row++) {
+				output.writeDouble(column[row]);
+			}
+		}
+		table.size = 0;
+	}
+
+	/**
+	 * A table of the file, with the rows not written yet.
+	 */
+	private static class Table {
+
+		/** The id of the table. */
+		final int id;
+
+		/** The names of the columns. */
+		final String[] columns;
+
+		/** The values of the rows not written yet, by column. */
+		final double[][] values;
+
+		/** The number of rows not written yet. */
+		int size;
+
+		Table(int id, String[] columns) {
+			this.id = id;
+			this.columns = columns;
+			values = new double[columns.length][CHUNK_SIZE];
+		}
+
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of parsed utilization traces, such as the
+ * <a href="https://www.planet-lab.org">PlanetLab</a> ones, where each line of a trace file holds
+ * a utilization percentage. Every utilization model reading the same trace gets the same array,
+ * so repeated or parallel experiments in one JVM keep a single copy of each trace. The arrays are
+ * shared and must not be modified.
+ * <p/>
+ * The cache holds at most {@link #getMaxSize()} traces and evicts the least recently used one
+ * when it is full. An evicted trace stays alive as long as some utilization model refers to it,
+ * but it is parsed again the next time it is requested.
+ *
+ * @since CloudSim Toolkit 4.0
+ */
+public class UtilizationTraceCache {
+
+	/** The default maximum number of cached traces (about ten days of PlanetLab traces). */
+	public static final int DEFAULT_MAX_SIZE = 16384;
+
+	/** The maximum number of cached traces. */
+	private static int maxSize = DEFAULT_MAX_SIZE;
+
+	/** The cached traces, from the least to the most recently used, keyed by path and length. */
+	private static final LinkedHashMap<String, double[]> traces = new LinkedHashMap<String, double[]>(
+			16,
+			0.75f,
+			true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+			return size() > maxSize;
+		}
+	};
+
+	/**
+	 * Gets a trace, parsing and caching it if it is not cached yet. The first
+	 * <tt>dataSamples - 1</tt> lines of the file are read as percentages, and the last of them is
+	 * repeated at the end of the trace. The trace does not depend on the scheduling interval of the
+	 * model reading it, thus models with different intervals share it.
+	 *
+	 * @param inputPath the path of the trace file
+	 * @param dataSamples the number of samples of the trace
+	 * @return the shared trace, which must not be modified
+	 * @throws NumberFormatException if a line is not an integer
+	 * @throws IOException if the trace file cannot be read
+	 */
+	public static double[] getTrace(String inputPath, int dataSamples) throws NumberFormatException, IOException {
+		String key = new File(inputPath).getAbsolutePath() + ":" + dataSamples;
+		synchronized (traces) {
+			double[] data = traces.get(key);
+			if (data != null) {
+				return data;
+			}
+		}
+
+		// Parse outside of the lock, so that threads can load different traces at the same time
+		double[] data = readTrace(inputPath, dataSamples);
+		synchronized (traces) {
+			double[] cached = traces.get(key);
+			if (cached != null) {
+				return cached;
+			}
+			traces.put(key, data);
+		}
+		return data;
+	}
+
+	/**
+	 * Parses a trace file.
+	 *
+	 * @param inputPath the path of the trace file
+	 * @param dataSamples the number of samples of the trace
+	 * @return the trace
+	 * @throws NumberFormatException if a line is not an integer
+	 * @throws IOException if the trace file cannot be read
+	 */
+	protected static double[] readTrace(String inputPath, int dataSamples) throws NumberFormatException,
+			IOException {
+		double[] data = new double[dataSamples];
+		BufferedReader input = new BufferedReader(new FileReader(inputPath));
+		try {
+			int n = data.length;
+			for (int i = 0; i < n - 1; i++) {
+				data[i] = Integer.valueOf(input.readLine()) / 100.0;
+			}
+			data[n - 1] = data[n - 2];
+		} finally {
+			input.close();
+		}
+		return data;
+	}
+
+	/**
+	 * Removes all the cached traces.
+	 */
+	public static void clear() {
+		synchronized (traces) {
+			traces.clear();
+		}
+	}
+
+	/**
+	 * Gets the number of cached traces.
+	 *
+	 * @return the number of cached traces
+	 */
+	public static int size() {
+		synchronized (traces) {
+			return traces.size();
+		}
+	}
+
+	/**
+	 * Gets the maximum number of cached traces.
+	 *
+	 * @return the maximum number of cached traces
+	 */
+	public static int getMaxSize() {
+		synchronized (traces) {
+			return maxSize;
+		}
+	}
+
+	/**
+	 * Sets the maximum number of cached traces, evicting the least recently used traces if the
+	 * cache holds more. A maximum size of 0 disables the cache.
+	 *
+	 * @param maxSize the maximum number of cached traces
+	 */
+	public static void setMaxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("The maximum size cannot be negative");
+		}
+		synchronized (traces) {
+			UtilizationTraceCache.maxSize = maxSize;
+			while (traces.size() > maxSize) {
+				traces.remove(traces.keySet().iterator().next());
+			}
+		}
+	}
+
+}
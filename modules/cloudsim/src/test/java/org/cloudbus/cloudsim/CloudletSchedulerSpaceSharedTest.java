@@ -0,0 +1,126 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class CloudletSchedulerSpaceSharedTest {
+
+	private static final long CLOUDLET_FILE_SIZE = 300;
+	private static final long CLOUDLET_OUTPUT_SIZE = 300;
+
+	private static final List<Double> MIPS_SHARE = Arrays.asList(1000.0, 1000.0);
+
+	private CloudletSchedulerSpaceShared scheduler;
+
+	private List<Integer> finishedIds;
+
+	@Before
+	public void setUp() {
+		scheduler = new CloudletSchedulerSpaceShared();
+		finishedIds = new ArrayList<Integer>();
+		scheduler.setCloudletFinishListener(new CloudletFinishListener() {
+
+			@Override
+			public void cloudletFinished(ResCloudlet rcl) {
+				finishedIds.add(rcl.getCloudletId());
+			}
+		});
+		assertEquals(0, scheduler.updateVmProcessing(0, MIPS_SHARE), 0);
+	}
+
+	private static Cloudlet createCloudlet(int id, long length, int pes) {
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, length, pes, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModel, utilizationModel, utilizationModel);
+		cloudlet.setResourceParameter(0, 0);
+		return cloudlet;
+	}
+
+	private static List<Integer> ids(List<? extends ResCloudlet> cloudlets) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (ResCloudlet rcl : cloudlets) {
+			ids.add(rcl.getCloudletId());
+		}
+		return ids;
+	}
+
+	@Test
+	public void testWaitingCloudletStartsWhenPeIsFree() {
+		assertEquals(10, scheduler.cloudletSubmit(createCloudlet(0, 10000, 1)), 0);
+		assertEquals(20, scheduler.cloudletSubmit(createCloudlet(1, 20000, 1)), 0);
+		assertEquals(0, scheduler.cloudletSubmit(createCloudlet(2, 5000, 1)), 0);
+		assertEquals(Cloudlet.QUEUED, scheduler.getCloudletStatus(2));
+		assertEquals(2, scheduler.usedPes);
+		assertEquals(10, scheduler.updateVmProcessing(0, MIPS_SHARE), 0);
+
+		assertEquals(15, scheduler.updateVmProcessing(10, MIPS_SHARE), 0);
+		assertEquals(Arrays.asList(0), finishedIds);
+		assertEquals(Arrays.asList(1, 2), ids(scheduler.getCloudletExecList()));
+		assertTrue(scheduler.getCloudletWaitingList().isEmpty());
+		assertEquals(Cloudlet.INEXEC, scheduler.getCloudletStatus(2));
+		assertEquals(2, scheduler.usedPes);
+		assertEquals(2, scheduler.getExecutionQueue().size());
+
+		assertEquals(20, scheduler.updateVmProcessing(15, MIPS_SHARE), 0);
+		assertEquals(Arrays.asList(0, 2), finishedIds);
+		assertEquals(Arrays.asList(0, 2), ids(scheduler.getCloudletFinishedList()));
+		assertEquals(1, scheduler.usedPes);
+	}
+
+	@Test
+	public void testCloudletsFinishingTogether() {
+		scheduler.cloudletSubmit(createCloudlet(0, 20000, 1));
+		scheduler.cloudletSubmit(createCloudlet(1, 10000, 1));
+		scheduler.cloudletSubmit(createCloudlet(2, 10000, 2));
+		scheduler.cloudletSubmit(createCloudlet(3, 10000, 1));
+		assertEquals(10, scheduler.updateVmProcessing(0, MIPS_SHARE), 0);
+
+		// the cloudlet after the one waiting for two PEs takes the only free PE
+		assertEquals(20, scheduler.updateVmProcessing(10, MIPS_SHARE), 0);
+		assertEquals(Arrays.asList(1), finishedIds);
+		assertEquals(Arrays.asList(0, 3), ids(scheduler.getCloudletExecList()));
+		assertEquals(Arrays.asList(2), ids(scheduler.getCloudletWaitingList()));
+
+		assertEquals(30, scheduler.updateVmProcessing(20, MIPS_SHARE), 0);
+		assertEquals(Arrays.asList(1, 0, 3), finishedIds);
+		assertEquals(Arrays.asList(2), ids(scheduler.getCloudletExecList()));
+		assertEquals(2, scheduler.usedPes);
+	}
+
+	@Test
+	public void testMigrateAndCancel() {
+		scheduler.cloudletSubmit(createCloudlet(0, 10000, 1));
+		scheduler.cloudletSubmit(createCloudlet(1, 20000, 1));
+		scheduler.cloudletSubmit(createCloudlet(2, 5000, 2));
+
+		assertEquals(0, scheduler.migrateCloudlet().getCloudletId());
+		assertEquals(1, scheduler.usedPes);
+		assertEquals(1, scheduler.getExecutionQueue().size());
+
+		assertEquals(Cloudlet.CANCELED, scheduler.cloudletCancel(2).getCloudletStatus());
+		assertTrue(scheduler.getCloudletWaitingList().isEmpty());
+		assertEquals(Cloudlet.CANCELED, scheduler.cloudletCancel(1).getCloudletStatus());
+		assertEquals(0, scheduler.getExecutionQueue().size());
+		assertEquals(0, scheduler.updateVmProcessing(10, MIPS_SHARE), 0);
+		assertTrue(finishedIds.isEmpty());
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class CloudletSchedulerTimeSharedTest {
+
+	private static final long CLOUDLET_FILE_SIZE = 300;
+	private static final long CLOUDLET_OUTPUT_SIZE = 300;
+
+	private static final List<Double> MIPS_SHARE = Arrays.asList(1000.0, 1000.0, 1000.0, 1000.0);
+
+	private CloudletSchedulerTimeShared scheduler;
+
+	private List<Integer> finishedIds;
+
+	@Before
+	public void setUp() {
+		scheduler = new CloudletSchedulerTimeShared();
+		finishedIds = new ArrayList<Integer>();
+		scheduler.setCloudletFinishListener(new CloudletFinishListener() {
+
+			@Override
+			public void cloudletFinished(ResCloudlet rcl) {
+				finishedIds.add(rcl.getCloudletId());
+			}
+		});
+		assertEquals(0, scheduler.updateVmProcessing(0, MIPS_SHARE), 0);
+	}
+
+	private static Cloudlet createCloudlet(int id, long length, int pes) {
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, length, pes, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModel, utilizationModel, utilizationModel);
+		cloudlet.setResourceParameter(0, 0);
+		return cloudlet;
+	}
+
+	@Test
+	public void testFinishTimes() {
+		assertEquals(20, scheduler.cloudletSubmit(createCloudlet(0, 20000, 1)), 0);
+		assertEquals(10, scheduler.cloudletSubmit(createCloudlet(1, 10000, 2)), 0);
+		assertEquals(10, scheduler.cloudletSubmit(createCloudlet(2, 10000, 1)), 0);
+		assertEquals(4, scheduler.pesInUse);
+		assertEquals(10, scheduler.updateVmProcessing(0, MIPS_SHARE), 0);
+
+		// cloudlets of different sizes finishing together are reported in submission order
+		assertEquals(20, scheduler.updateVmProcessing(10, MIPS_SHARE), 0);
+		assertEquals(Arrays.asList(1, 2), finishedIds);
+		assertEquals(1, scheduler.pesInUse);
+		assertEquals(1, scheduler.runningCloudlets());
+		assertEquals(1, scheduler.getExecutionQueue().size());
+		assertEquals(10000, scheduler.getCloudletExecList().get(0).getRemainingCloudletLength());
+
+		assertEquals(1, scheduler.getNextFinishedCloudlet().getCloudletId());
+		assertEquals(2, scheduler.getNextFinishedCloudlet().getCloudletId());
+		assertNull(scheduler.getNextFinishedCloudlet());
+	}
+
+	@Test
+	public void testSharedPes() {
+		scheduler.cloudletSubmit(createCloudlet(0, 10000, 2));
+		scheduler.cloudletSubmit(createCloudlet(1, 10000, 2));
+		// six PEs in use share the four PEs of the VM
+		assertEquals(15, scheduler.cloudletSubmit(createCloudlet(2, 10000, 2)), 1e-9);
+		assertEquals(15, scheduler.updateVmProcessing(0, MIPS_SHARE), 1e-9);
+
+		// the new MIPS share applies to the time since the previous update
+		assertEquals(20, scheduler.updateVmProcessing(7.5, Arrays.asList(1000.0, 1000.0, 1000.0, 0.0)), 1e-9);
+		assertTrue(finishedIds.isEmpty());
+		assertEquals(12500, scheduler.getCloudletExecList().get(0).getRemainingCloudletLength());
+	}
+
+	@Test
+	public void testRemoveFromExecListKeepsOrder() {
+		for (int id = 0; id < 5; id++) {
+			scheduler.cloudletSubmit(createCloudlet(id, 10000, 1));
+		}
+		List<ResCloudlet> execList = scheduler.getCloudletExecList();
+		scheduler.removeFromExecList(Arrays.asList(execList.get(3), execList.get(1)));
+
+		List<Integer> ids = new ArrayList<Integer>();
+		for (ResCloudlet rcl : execList) {
+			ids.add(rcl.getCloudletId());
+		}
+		assertEquals(Arrays.asList(0, 2, 4), ids);
+		assertEquals(3, scheduler.pesInUse);
+		assertEquals(3, scheduler.getExecutionQueue().size());
+	}
+
+	@Test
+	public void testPauseAndResume() {
+		scheduler.cloudletSubmit(createCloudlet(0, 10000, 1));
+		scheduler.updateVmProcessing(5, MIPS_SHARE);
+		assertTrue(scheduler.cloudletPause(0));
+		assertEquals(0, scheduler.pesInUse);
+		assertEquals(0, scheduler.getExecutionQueue().size());
+		assertEquals(Cloudlet.PAUSED, scheduler.getCloudletStatus(0));
+
+		// the paused cloudlet does not progress
+		assertEquals(0, scheduler.updateVmProcessing(8, MIPS_SHARE), 0);
+		assertEquals(CloudSim.clock() + 5, scheduler.cloudletResume(0), 1e-9);
+		assertEquals(13, scheduler.updateVmProcessing(8, MIPS_SHARE), 1e-9);
+		scheduler.updateVmProcessing(13, MIPS_SHARE);
+		assertEquals(Arrays.asList(0), finishedIds);
+		assertEquals(0, scheduler.pesInUse);
+	}
+
+	@Test
+	public void testCancelUnknownCloudlet() {
+		scheduler.cloudletSubmit(createCloudlet(0, 10000, 1));
+		assertNull(scheduler.cloudletCancel(1));
+		assertEquals(1, scheduler.pesInUse);
+		assertEquals(0, scheduler.cloudletCancel(0).getCloudletId());
+		assertEquals(0, scheduler.pesInUse);
+		assertEquals(0, scheduler.getExecutionQueue().size());
+	}
+
+}
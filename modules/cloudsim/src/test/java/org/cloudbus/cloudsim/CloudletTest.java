@@ -13,9 +13,12 @@ package org.cloudbus.cloudsim;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Calendar;
 import java.util.LinkedList;
 
+import org.cloudbus.cloudsim.core.CloudSim;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -92,4 +95,83 @@ public class CloudletTest {
 		testGetUtilizationOfBw();
 	}
 
+	@Test
+	public void testCloudletHistory() throws Exception {
+		assertEquals("No history is recorded for Cloudlet #0", cloudlet.getCloudletHistory());
+
+		cloudlet = new Cloudlet(0, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw, true);
+		cloudlet.setResourceParameter(5, 0.5);
+		cloudlet.setSubmissionTime(1.25);
+		cloudlet.setExecStartTime(2);
+		cloudlet.setCloudletFinishedSoFar(300);
+		cloudlet.setCloudletStatus(Cloudlet.INEXEC);
+		cloudlet.setResourceParameter(6, 0.25);
+		cloudlet.setExecParam(10.5, 8.125);
+		cloudlet.write("Custom message");
+
+		String newline = System.getProperty("line.separator");
+		String time = "0.00   ";
+		assertEquals("Time below denotes the simulation time." + newline
+				+ "Time (sec)       Description Cloudlet #0" + newline
+				+ "------------------------------------------" + newline
+				+ time + "Creates Cloudlet ID #0" + newline
+				+ time + "Allocates this Cloudlet to null (ID #5) with cost = $0.5/sec" + newline
+				+ time + "Sets the submission time to 1.25" + newline
+				+ time + "Sets the execution start time to 2.00" + newline
+				+ time + "Sets the length's finished so far to 300" + newline
+				+ time + "Sets Cloudlet status from Created to InExec" + newline
+				+ time + "Moves Cloudlet from null (ID #5) to null (ID #6) with cost = $0.25/sec" + newline
+				+ time + "Sets the wall clock time to 10.50 and the actual CPU time to 8.125" + newline
+				+ time + "Custom message" + newline,
+				cloudlet.getCloudletHistory());
+	}
+
+	@Test
+	public void testCloudletHistoryCapacity() {
+		assertEquals(Cloudlet.DEFAULT_HISTORY_CAPACITY, cloudlet.getHistoryCapacity());
+		cloudlet = new Cloudlet(0, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw, true, 3);
+		assertEquals(3, cloudlet.getHistoryCapacity());
+		cloudlet.setResourceParameter(5, 0.5);
+		for (int length = 1; length <= 5; length++) {
+			cloudlet.setCloudletFinishedSoFar(length);
+		}
+
+		String newline = System.getProperty("line.separator");
+		String history = cloudlet.getCloudletHistory();
+		assertTrue(history.endsWith("0.00   Creates Cloudlet ID #0" + newline
+				+ "3 older transactions are not kept" + newline
+				+ "0.00   Sets the length's finished so far to 3" + newline
+				+ "0.00   Sets the length's finished so far to 4" + newline
+				+ "0.00   Sets the length's finished so far to 5" + newline));
+	}
+
+	@Test
+	public void testCloudletHistoryKeepsUserName() throws Exception {
+		DatacenterBroker broker;
+		Log.disable();
+		try {
+			CloudSim.init(1, Calendar.getInstance(), false);
+			broker = new DatacenterBroker("Broker");
+			cloudlet = new Cloudlet(0, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+					utilizationModelCpu, utilizationModelRam, utilizationModelBw, true);
+			cloudlet.setUserId(broker.getId());
+
+			// the entities of the simulation are gone once another one starts
+			CloudSim.init(1, Calendar.getInstance(), false);
+		} finally {
+			Log.enable();
+		}
+		String newline = System.getProperty("line.separator");
+		assertTrue(cloudlet.getCloudletHistory().endsWith(
+				"0.00   Assigns the Cloudlet to Broker (ID #" + broker.getId() + ")" + newline));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCloudletHistoryWithoutCapacity() {
+		new Cloudlet(0, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw, true, 0);
+	}
+
 }
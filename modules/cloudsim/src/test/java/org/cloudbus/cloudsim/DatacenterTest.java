@@ -0,0 +1,235 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class DatacenterTest {
+
+	/** A broker that submits some of its cloudlets later than the others. */
+	private static class DelayingBroker extends DatacenterBroker {
+
+		/** The delay of the submission of each cloudlet, by cloudlet id. */
+		private final Map<Integer, Double> delays = new HashMap<Integer, Double>();
+
+		public DelayingBroker(String name) throws Exception {
+			super(name);
+		}
+
+		@Override
+		protected void submitCloudlets() {
+			for (Cloudlet cloudlet : getCloudletList()) {
+				Double delay = delays.get(cloudlet.getCloudletId());
+				send(getVmsToDatacentersMap().get(cloudlet.getVmId()), delay == null ? 0 : delay,
+						CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+				cloudletsSubmitted++;
+				getCloudletSubmittedList().add(cloudlet);
+			}
+			getCloudletList().clear();
+		}
+	}
+
+	private List<Host> hostList;
+
+	private Datacenter datacenter;
+
+	private DelayingBroker broker;
+
+	@Before
+	public void setUp() throws Exception {
+		CloudSim.setSimulation(new Simulation());
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		// two hosts of one PE, each given one VM of one PE
+		hostList = new ArrayList<Host>();
+		for (int i = 0; i < 2; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			hostList.add(new Host(i, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+					peList, new VmSchedulerTimeShared(peList)));
+		}
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		datacenter = new Datacenter("Datacenter_0", characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), 0);
+
+		broker = new DelayingBroker("Broker");
+		List<Vm> vmList = new ArrayList<Vm>();
+		for (int i = 0; i < 2; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+		}
+		broker.submitVmList(vmList);
+	}
+
+	@After
+	public void tearDown() {
+		Log.enable();
+		CloudSim.setSimulation(null);
+	}
+
+	private Cloudlet createCloudlet(int id, long length, int vmId, double delay) {
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, length, 1, 300, 300, utilizationModel, utilizationModel,
+				utilizationModel);
+		cloudlet.setUserId(broker.getId());
+		cloudlet.setVmId(vmId);
+		if (delay > 0) {
+			broker.delays.put(id, delay);
+		}
+		return cloudlet;
+	}
+
+	private List<Cloudlet> run(Cloudlet... cloudlets) {
+		broker.submitCloudletList(Arrays.asList(cloudlets));
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+		return broker.getCloudletReceivedList();
+	}
+
+	private static List<Integer> ids(List<Cloudlet> cloudlets) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Cloudlet cloudlet : cloudlets) {
+			ids.add(cloudlet.getCloudletId());
+		}
+		return ids;
+	}
+
+	@Test
+	public void testFinishTimes() {
+		List<Cloudlet> received = run(
+				createCloudlet(0, 10000, 0, 0),
+				createCloudlet(1, 20000, 0, 0),
+				createCloudlet(2, 10000, 1, 0));
+		assertEquals(Arrays.asList(2, 0, 1), ids(received));
+		// the two cloudlets of the first VM share its PE
+		assertEquals(10, received.get(0).getActualCPUTime(), 0.01);
+		assertEquals(20, received.get(1).getActualCPUTime(), 0.01);
+		assertEquals(30, received.get(2).getActualCPUTime(), 0.01);
+		for (Cloudlet cloudlet : received) {
+			assertEquals(Cloudlet.SUCCESS, cloudlet.getCloudletStatus());
+		}
+	}
+
+	@Test
+	public void testIdleHostBroughtUpToDate() {
+		// the second host stays idle until its cloudlet arrives
+		List<Cloudlet> received = run(
+				createCloudlet(0, 10000, 0, 0),
+				createCloudlet(1, 10000, 1, 500),
+				createCloudlet(2, 10000, 0, 500));
+		// the cloudlets finishing together are returned in the order of their hosts
+		assertEquals(Arrays.asList(0, 2, 1), ids(received));
+		assertEquals(received.get(1).getFinishTime(), received.get(2).getFinishTime(), 0);
+		for (Cloudlet cloudlet : received.subList(1, 3)) {
+			assertTrue(cloudlet.getExecStartTime() >= 500);
+			assertEquals(10, cloudlet.getActualCPUTime(), 0.01);
+		}
+	}
+
+	@Test
+	public void testHostAddedAfterStart() {
+		run(createCloudlet(0, 10000, 0, 0));
+		List<Pe> peList = new ArrayList<Pe>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		Host host = new Host(2, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+				peList, new VmSchedulerTimeShared(peList));
+		hostList.add(host);
+		datacenter.updateIdleHosts();
+		datacenter.markHostChanged(host);
+		datacenter.markHostChanged(hostList.get(0));
+	}
+
+	@Test
+	public void testBatchReturns() {
+		datacenter.setBatchCloudletReturns(true);
+		List<Cloudlet> received = run(
+				createCloudlet(0, 10000, 0, 0),
+				createCloudlet(1, 10000, 1, 0),
+				createCloudlet(2, 10000, 1, 100));
+		assertEquals(Arrays.asList(0, 1, 2), ids(received));
+		assertEquals(received.get(0).getFinishTime(), received.get(1).getFinishTime(), 0);
+		for (Cloudlet cloudlet : received) {
+			assertEquals(10, cloudlet.getActualCPUTime(), 0.01);
+		}
+	}
+
+	@Test
+	public void testVmCreateBatchSupported() throws Exception {
+		assertTrue(datacenter.isVmCreateBatchSupported());
+
+		// a datacenter that does not support batches gets one create event per VM
+		CloudSim.setSimulation(new Simulation());
+		CloudSim.init(1, Calendar.getInstance(), false);
+		final List<Integer> createdIds = new ArrayList<Integer>();
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		new Datacenter("Datacenter_1", characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<Storage>(), 0) {
+
+			@Override
+			protected void processVmCreate(SimEvent ev, boolean ack) {
+				createdIds.add(((Vm) ev.getData()).getId());
+				super.processVmCreate(ev, ack);
+			}
+
+			@Override
+			protected boolean isVmCreateBatchSupported() {
+				return false;
+			}
+		};
+		broker = new DelayingBroker("Broker_1");
+		List<Vm> vmList = new ArrayList<Vm>();
+		for (int i = 0; i < 2; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+		}
+		broker.submitVmList(vmList);
+		assertEquals(1, run(createCloudlet(0, 10000, 1, 0)).size());
+		assertEquals(Arrays.asList(0, 1), createdIds);
+	}
+
+	@Test
+	public void testCanDeferVmsProcessing() {
+		Host host = hostList.get(0);
+		assertTrue(host.canDeferVmsProcessing());
+
+		Vm vm = new Vm(5, broker.getId(), 500, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared());
+		assertTrue(host.vmCreate(vm));
+		assertTrue(host.canDeferVmsProcessing());
+
+		vm.getCloudletScheduler().updateVmProcessing(0, Arrays.asList(500.0));
+		vm.getCloudletScheduler().cloudletSubmit(createCloudlet(0, 10000, 5, 0));
+		assertFalse(host.canDeferVmsProcessing());
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class FreePesListTest {
+
+	@Test
+	public void testEmpty() {
+		FreePesList freePes = new FreePesList();
+		assertEquals(0, freePes.size());
+		assertEquals(-1, freePes.getMostFreeIndex());
+	}
+
+	@Test
+	public void testFirstOfTies() {
+		FreePesList freePes = new FreePesList(Arrays.asList(2, 4, 1, 4, 4));
+		assertEquals(1, freePes.getMostFreeIndex());
+		freePes.exclude(1);
+		assertEquals(3, freePes.getMostFreeIndex());
+		freePes.exclude(3);
+		freePes.exclude(4);
+		assertEquals(0, freePes.getMostFreeIndex());
+		freePes.includeAll();
+		assertEquals(1, freePes.getMostFreeIndex());
+		freePes.set(1, 3);
+		assertEquals(3, freePes.getMostFreeIndex());
+		assertEquals(Arrays.asList(2, 3, 1, 4, 4), freePes);
+	}
+
+	@Test
+	public void testAllExcluded() {
+		FreePesList freePes = new FreePesList(Arrays.asList(3, 5));
+		freePes.exclude(1);
+		freePes.exclude(1);
+		freePes.exclude(0);
+		assertEquals(-1, freePes.getMostFreeIndex());
+		freePes.includeAll();
+		assertEquals(1, freePes.getMostFreeIndex());
+	}
+
+	@Test
+	public void testSetWhileExcluded() {
+		FreePesList freePes = new FreePesList(Arrays.asList(3, 5, 1));
+		freePes.exclude(0);
+		assertEquals(Integer.valueOf(3), freePes.set(0, 9));
+		assertEquals(1, freePes.getMostFreeIndex());
+		assertEquals(9, freePes.getInt(0));
+		freePes.includeAll();
+		assertEquals(0, freePes.getMostFreeIndex());
+	}
+
+	@Test
+	public void testNegativeValues() {
+		FreePesList freePes = new FreePesList(Arrays.asList(-2, -1, -3));
+		assertEquals(1, freePes.getMostFreeIndex());
+		freePes.exclude(1);
+		assertEquals(0, freePes.getMostFreeIndex());
+	}
+
+	@Test
+	public void testAddAfterExclude() {
+		FreePesList freePes = new FreePesList(Arrays.asList(4));
+		freePes.exclude(0);
+		freePes.add(2);
+		assertEquals(1, freePes.getMostFreeIndex());
+		freePes.add(4);
+		assertEquals(2, freePes.getMostFreeIndex());
+		freePes.includeAll();
+		assertEquals(0, freePes.getMostFreeIndex());
+	}
+
+	@Test
+	public void testGrowKeepsExcluded() {
+		FreePesList freePes = new FreePesList();
+		for (int i = 0; i < 40; i++) {
+			freePes.add(i % 10);
+		}
+		assertEquals(9, freePes.getMostFreeIndex());
+		freePes.exclude(9);
+		freePes.exclude(19);
+		freePes.add(8);
+		assertEquals(29, freePes.getMostFreeIndex());
+		for (int i = 0; i < 100; i++) {
+			freePes.add(0);
+		}
+		assertEquals(141, freePes.size());
+		assertEquals(29, freePes.getMostFreeIndex());
+		freePes.includeAll();
+		assertEquals(9, freePes.getMostFreeIndex());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testAddInTheMiddle() {
+		new FreePesList(Arrays.asList(1, 2)).add(0, 3);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testExcludeOutOfBounds() {
+		new FreePesList(Arrays.asList(1, 2)).exclude(2);
+	}
+
+}
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -16,6 +17,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
+import java.util.function.Supplier;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -39,18 +41,22 @@ public class LogTest {
 	@Test
 	public void testPrint() throws IOException {
 		Log.print("test test");
+		Log.flush();
 		assertEquals("test test", OUTPUT.toString());
 		OUTPUT.reset();
 
 		Log.print(123);
+		Log.flush();
 		assertEquals("123", OUTPUT.toString());
 		OUTPUT.reset();
 
 		Log.print(123L);
+		Log.flush();
 		assertEquals("123", OUTPUT.toString());
 		OUTPUT.reset();
 
 		Log.print(123.0);
+		Log.flush();
 		assertEquals("123.0", OUTPUT.toString());
 		OUTPUT.reset();
 	}
@@ -77,18 +83,22 @@ public class LogTest {
 	@Test
 	public void testFormat() throws IOException {
 		Log.format("test %s test", "test");
+		Log.flush();
 		assertEquals("test test test", OUTPUT.toString());
 		OUTPUT.reset();
 
 		Log.format("%d", 123);
+		Log.flush();
 		assertEquals("123", OUTPUT.toString());
 		OUTPUT.reset();
 
 		Log.format("%d", 123L);
+		Log.flush();
 		assertEquals("123", OUTPUT.toString());
 		OUTPUT.reset();
 
 		Log.format("%.2f", 123.01);
+		Log.flush();
 		assertEquals("123"+dfs.getDecimalSeparator()+"01", OUTPUT.toString());
 		OUTPUT.reset();
 	}
@@ -119,6 +129,7 @@ public class LogTest {
 		assertFalse(Log.isDisabled());
 
 		Log.print("test test");
+		Log.flush();
 		assertEquals("test test", OUTPUT.toString());
 		OUTPUT.reset();
 
@@ -127,6 +138,7 @@ public class LogTest {
 		OUTPUT.reset();
 
 		Log.format("test %s test", "test");
+		Log.flush();
 		assertEquals("test test test", OUTPUT.toString());
 		OUTPUT.reset();
 
@@ -159,6 +171,7 @@ public class LogTest {
 		assertFalse(Log.isDisabled());
 
 		Log.print("test test");
+		Log.flush();
 		assertEquals("test test", OUTPUT.toString());
 		OUTPUT.reset();
 
@@ -167,6 +180,7 @@ public class LogTest {
 		OUTPUT.reset();
 
 		Log.format("test %s test", "test");
+		Log.flush();
 		assertEquals("test test test", OUTPUT.toString());
 		OUTPUT.reset();
 
@@ -175,4 +189,193 @@ public class LogTest {
 		OUTPUT.reset();
 	}
 
+	@Test
+	public void testLevel() throws IOException {
+		OUTPUT.reset();
+		assertEquals(Log.Level.DEBUG, Log.getLevel());
+		try {
+			Log.printLine(Log.Level.DEBUG, "debug");
+			Log.printConcat(Log.Level.DEBUG, "debug", 1);
+			Log.printLine(Log.Level.DEBUG);
+			Log.printLine("info");
+			assertEquals("debug" + LINE_SEPARATOR + "debug1" + LINE_SEPARATOR + "info" + LINE_SEPARATOR,
+					OUTPUT.toString());
+			OUTPUT.reset();
+
+			Log.setLevel(Log.Level.INFO);
+			assertFalse(Log.isLoggable(Log.Level.DEBUG));
+			assertTrue(Log.isLoggable(Log.Level.WARNING));
+			Log.printLine(Log.Level.DEBUG, "debug");
+			Log.formatLine(Log.Level.DEBUG, "%d", 1);
+			Log.printConcatLine(Log.Level.DEBUG, "debug", 1);
+			Log.printConcat(Log.Level.DEBUG, "debug", 1);
+			Log.printLine(Log.Level.DEBUG);
+			Log.printLine(Log.Level.WARNING, "warning");
+			Log.printLine("info");
+			assertEquals("warning" + LINE_SEPARATOR + "info" + LINE_SEPARATOR, OUTPUT.toString());
+			OUTPUT.reset();
+
+			Log.setLevel(Log.Level.WARNING);
+			Log.printLine("info");
+			Log.formatLine("%d", 1);
+			assertEquals("", OUTPUT.toString());
+
+			Log.disable();
+			assertFalse(Log.isLoggable(Log.Level.ERROR));
+		} finally {
+			Log.enable();
+			Log.setLevel(Log.Level.DEBUG);
+			OUTPUT.reset();
+		}
+	}
+
+	@Test
+	public void testSupplierOnlyCalledWhenPrinted() throws IOException {
+		OUTPUT.reset();
+		final int[] calls = new int[1];
+		Supplier<String> message = new Supplier<String>() {
+			@Override
+			public String get() {
+				calls[0]++;
+				return "lazy";
+			}
+		};
+		try {
+			Log.printLine(Log.Level.DEBUG, message);
+			assertEquals("lazy" + LINE_SEPARATOR, OUTPUT.toString());
+			assertEquals(1, calls[0]);
+			OUTPUT.reset();
+
+			Log.setLevel(Log.Level.INFO);
+			Log.printLine(Log.Level.DEBUG, message);
+			assertEquals("", OUTPUT.toString());
+			assertEquals(1, calls[0]);
+		} finally {
+			Log.setLevel(Log.Level.DEBUG);
+			OUTPUT.reset();
+		}
+	}
+
+	@Test
+	public void testEncoding() throws IOException {
+		OUTPUT.reset();
+		StringBuilder longMessage = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			longMessage.append("message ").append(i);
+		}
+		Log.printLine(longMessage.toString());
+		assertEquals(longMessage + LINE_SEPARATOR, OUTPUT.toString());
+		OUTPUT.reset();
+
+		Log.printConcatLine("caf\u00e9 #", 1);
+		assertArrayEquals(("caf\u00e9 #1" + LINE_SEPARATOR).getBytes(), OUTPUT.toByteArray());
+		OUTPUT.reset();
+
+		Log.printLine((String) null);
+		assertEquals("null" + LINE_SEPARATOR, OUTPUT.toString());
+		OUTPUT.reset();
+	}
+
+	@Test
+	public void testFlush() throws IOException {
+		OUTPUT.reset();
+		Log.print("test ");
+		Log.format("%d ", 1);
+		Log.printConcat("test", 2);
+		assertEquals("", OUTPUT.toString());
+		Log.printLine();
+		assertEquals("test 1 test2" + LINE_SEPARATOR, OUTPUT.toString());
+		OUTPUT.reset();
+
+		Log.print("test");
+		Log.flush();
+		assertEquals("test", OUTPUT.toString());
+		Log.flush();
+		assertEquals("test", OUTPUT.toString());
+		OUTPUT.reset();
+
+		ByteArrayOutputStream otherOutput = new ByteArrayOutputStream();
+		try {
+			Log.print("test");
+			Log.setOutput(otherOutput);
+			assertEquals("test", OUTPUT.toString());
+			Log.printLine("other");
+			assertEquals("other" + LINE_SEPARATOR, otherOutput.toString());
+		} finally {
+			Log.setOutput(OUTPUT);
+			OUTPUT.reset();
+		}
+	}
+
+	@Test
+	public void testThreadsDoNotMixLines() throws Exception {
+		OUTPUT.reset();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final int id = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 100; j++) {
+						Log.print("thread ");
+						Log.print(id);
+						Log.formatLine(" line %d", j);
+					}
+				}
+			};
+		}
+		try {
+			for (Thread thread : threads) {
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			String[] lines = OUTPUT.toString().split(LINE_SEPARATOR);
+			assertEquals(threads.length * 100, lines.length);
+			int[] next = new int[threads.length];
+			for (String line : lines) {
+				String[] words = line.split(" ");
+				int id = Integer.parseInt(words[1]);
+				assertEquals("thread " + id + " line " + next[id], line);
+				next[id]++;
+			}
+		} finally {
+			OUTPUT.reset();
+		}
+	}
+
+	@Test
+	public void testThreadSettings() throws Exception {
+		OUTPUT.reset();
+		final ByteArrayOutputStream threadOutput = new ByteArrayOutputStream();
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				Log.setThreadOutput(threadOutput);
+				Log.printLine("thread");
+				Log.setThreadDisabled(true);
+				Log.printLine("disabled");
+				Log.setThreadDisabled(null);
+				Log.setThreadOutput(null);
+				Log.printLine("global");
+			}
+		};
+		try {
+			Log.setThreadDisabled(true);
+			assertTrue(Log.isDisabled());
+			Log.printLine("disabled");
+			thread.start();
+			thread.join();
+			assertEquals("thread" + LINE_SEPARATOR, threadOutput.toString());
+			assertEquals("global" + LINE_SEPARATOR, OUTPUT.toString());
+
+			Log.setThreadDisabled(null);
+			assertFalse(Log.isDisabled());
+		} finally {
+			Log.setThreadDisabled(null);
+			OUTPUT.reset();
+		}
+	}
+
 }
@@ -8,10 +8,13 @@
 package org.cloudbus.cloudsim;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.lists.PeList;
@@ -159,4 +162,26 @@ public class VmSchedulerTimeSharedTest {
 		assertEquals(0, vmScheduler.getTotalAllocatedMipsForVm(vm2), 0);
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedViews() {
+		vmScheduler.getVmsMigratingIn().add(vm1.getUid());
+		assertTrue(vmScheduler.allocatePesForVm(vm1, Arrays.asList(MIPS / 4)));
+		assertTrue(vmScheduler.allocatePesForVm(vm2, Arrays.asList(MIPS / 2, MIPS / 8)));
+
+		// the destination host only experience 10% of the migrating VM's MIPS
+		assertEquals(0.1 * MIPS / 4, vmScheduler.getTotalAllocatedMipsForVm(vm1), 0);
+		assertEquals(Arrays.asList(0.1 * MIPS / 4), vmScheduler.getMipsMap().get(vm1.getUid()));
+		assertEquals(Arrays.asList(vm1.getUid(), vm2.getUid()), new ArrayList<String>(vmScheduler.getPeMap().keySet()));
+
+		vmScheduler.getMipsMap().put(vm2.getUid(), Arrays.asList(MIPS / 4));
+		assertEquals(MIPS / 4, vmScheduler.getTotalAllocatedMipsForVm(vm2), 0);
+		assertEquals(Arrays.asList(MIPS / 8), vmScheduler.getMipsMapRequested().get(vm2.getUid()).subList(1, 2));
+
+		vmScheduler.getVmsMigratingIn().remove(vm1.getUid());
+		assertFalse(vmScheduler.getVmsMigratingInTable().contains(vm1));
+		vmScheduler.getPeMap().remove(vm2.getUid());
+		assertNull(vmScheduler.getPesAllocatedForVM(vm2));
+	}
+
 }
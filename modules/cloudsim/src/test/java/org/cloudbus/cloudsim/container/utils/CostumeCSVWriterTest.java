@@ -0,0 +1,114 @@
+package org.cloudbus.cloudsim.container.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class CostumeCSVWriterTest {
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = File.createTempFile("csv", "");
+        folder.delete();
+        folder.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    private void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), Charset.defaultCharset());
+    }
+
+    @Test
+    public void testFlushWritesAllRowsInOrder() throws IOException {
+        File file = new File(folder, "energy/run/run_1.csv");
+        CostumeCSVWriter writer = new CostumeCSVWriter(file.getPath());
+        for (int i = 0; i < 1000; i++) {
+            writer.writeTofile(new String[] {Integer.toString(i), Double.toString(i * 0.5)});
+        }
+        writer.flush();
+
+        List<String> lines = readLines(file);
+        assertEquals(1000, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + "," + (i * 0.5), lines.get(i));
+        }
+        writer.close();
+    }
+
+    @Test
+    public void testCloseThenWriteAppends() throws IOException {
+        File file = new File(folder, "migrations.csv");
+        CostumeCSVWriter writer = new CostumeCSVWriter(file.getPath());
+        writer.writeTofile(new String[] {"1.0", "3"});
+        writer.close();
+        assertEquals(1, readLines(file).size());
+
+        writer.writeTofile(new String[] {"2.0", "4"});
+        writer.close();
+        List<String> lines = readLines(file);
+        assertEquals(2, lines.size());
+        assertEquals("2.0,4", lines.get(1));
+    }
+
+    @Test
+    public void testCloseWithoutRows() throws IOException {
+        File file = new File(folder, "empty.csv");
+        CostumeCSVWriter writer = new CostumeCSVWriter(file.getPath());
+        writer.flush();
+        writer.close();
+        assertEquals(0, readLines(file).size());
+    }
+
+    @Test
+    public void testWriteErrorIsThrownByEveryLaterCall() throws IOException {
+        File full = new File("/dev/full");
+        assumeTrue(full.canWrite());
+        CostumeCSVWriter writer = new CostumeCSVWriter(full.getPath());
+        writer.writeTofile(new String[] {"1.0", "3"});
+        try {
+            writer.flush();
+            fail("The row could not be written");
+        } catch (IOException e) {
+        }
+        try {
+            writer.writeTofile(new String[] {"2.0", "4"});
+            fail("The row must be rejected");
+        } catch (IOException e) {
+        }
+        try {
+            writer.close();
+            fail("The error must be thrown again");
+        } catch (IOException e) {
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class DeferredQueueTest {
+
+	private static SimEvent event(double time, int tag) {
+		return new SimEvent(SimEvent.SEND, time, 0, 1, tag, null);
+	}
+
+	@Test
+	public void testAddEventKeepsTimeOrder() {
+		DeferredQueue queue = new DeferredQueue();
+		SimEvent a = event(1, 1);
+		SimEvent b = event(3, 2);
+		SimEvent c = event(2, 3);
+		SimEvent d = event(2, 4);
+		queue.addEvent(a);
+		queue.addEvent(b);
+		queue.addEvent(c);
+		queue.addEvent(d);
+
+		Iterator<SimEvent> it = queue.iterator();
+		assertSame(a, it.next());
+		assertSame(c, it.next());
+		assertSame(d, it.next());
+		assertSame(b, it.next());
+	}
+
+	@Test
+	public void testSelect() {
+		DeferredQueue queue = new DeferredQueue();
+		for (int i = 0; i < 100; i++) {
+			queue.addEvent(event(i, i % 3));
+		}
+		assertEquals(100, queue.count(CloudSim.SIM_ANY));
+		assertEquals(33, queue.count(new PredicateType(2)));
+		assertNull(queue.findFirst(new PredicateType(5)));
+		assertNull(queue.removeFirst(new PredicateType(5)));
+
+		for (int i = 2; i < 100; i += 3) {
+			SimEvent ev = queue.removeFirst(new PredicateType(2));
+			assertEquals(i, ev.eventTime(), 0);
+		}
+		assertEquals(67, queue.size());
+		for (int i = 0; i < 100; i++) {
+			if (i % 3 != 2) {
+				assertEquals(i, queue.removeFirst(CloudSim.SIM_ANY).eventTime(), 0);
+			}
+		}
+		assertEquals(0, queue.size());
+		assertNull(queue.findFirst(CloudSim.SIM_ANY));
+	}
+
+}
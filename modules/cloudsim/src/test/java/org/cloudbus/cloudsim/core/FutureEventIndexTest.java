@@ -0,0 +1,77 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class FutureEventIndexTest {
+
+	private static SimEvent event(double time, int src, int tag) {
+		return new SimEvent(SimEvent.SEND, time, src, 0, tag, null);
+	}
+
+	@Test
+	public void testFind() {
+		FutureEventIndex index = new FutureEventIndex();
+		FutureEventQueue queue = new HeapFutureQueue();
+		List<SimEvent> matching = new ArrayList<SimEvent>();
+		for (int i = 0; i < 1000; i++) {
+			SimEvent ev = event(1000 - i, i % 10, i % 7);
+			queue.addEvent(ev);
+			index.add(ev);
+			if (i % 10 == 3 && i % 7 == 5) {
+				matching.add(ev);
+			}
+		}
+
+		List<SimEvent> found = new ArrayList<SimEvent>();
+		assertEquals(matching.size(), index.find(3, 5, found));
+		assertTrue(found.containsAll(matching));
+		assertEquals(0, index.find(3, 100, found));
+		assertNull(index.findFirst(11, 5));
+
+		SimEvent first = matching.get(matching.size() - 1);
+		assertSame(first, index.findFirst(3, 5));
+		assertTrue(index.remove(first));
+		assertFalse(index.remove(first));
+		assertSame(matching.get(matching.size() - 2), index.findFirst(3, 5));
+
+		found.clear();
+		assertEquals(matching.size() - 1, index.find(3, 5, found));
+		assertFalse(found.contains(first));
+	}
+
+	@Test
+	public void testNegativeTags() {
+		FutureEventIndex index = new FutureEventIndex();
+		SimEvent a = event(1, 2, -1);
+		SimEvent b = event(1, -1, 2);
+		index.add(a);
+		index.add(b);
+		assertSame(a, index.findFirst(2, -1));
+		assertSame(b, index.findFirst(-1, 2));
+		assertNull(index.findFirst(2, 2));
+		index.clear();
+		assertNull(index.findFirst(2, -1));
+		assertEquals(-1, a.getIndexSlot());
+	}
+
+}
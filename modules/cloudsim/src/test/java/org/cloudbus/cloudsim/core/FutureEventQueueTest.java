@@ -0,0 +1,145 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that all the {@link FutureEventQueue} implementations return events in the same
+ * (time, serial) order.
+ * 
+ * @since CloudSim Toolkit 4.0
+ */
+public class FutureEventQueueTest {
+
+	private static final int EVENTS = 5000;
+
+	private static FutureEventQueue[] createQueues() {
+		return new FutureEventQueue[] { new FutureQueue(), new HeapFutureQueue(2),
+				new CalendarFutureQueue() };
+	}
+
+	private static SimEvent event(double time, int tag) {
+		return new SimEvent(SimEvent.SEND, time, 0, 0, tag, null);
+	}
+
+	@Test
+	public void testSameTimeKeepsInsertionOrder() {
+		for (FutureEventQueue queue : createQueues()) {
+			SimEvent a = event(1, 1);
+			SimEvent b = event(1, 2);
+			SimEvent c = event(1, 3);
+			SimEvent first = event(1, 4);
+			SimEvent earlier = event(0.5, 5);
+			queue.addEvent(a);
+			queue.addEvent(b);
+			queue.addEvent(c);
+			queue.addEventFirst(first);
+			queue.addEvent(earlier);
+
+			assertSame(earlier, queue.poll());
+			assertSame(first, queue.peek());
+			List<SimEvent> batch = new ArrayList<SimEvent>();
+			assertEquals(4, queue.pollAll(1, batch));
+			assertSame(first, batch.get(0));
+			assertSame(a, batch.get(1));
+			assertSame(b, batch.get(2));
+			assertSame(c, batch.get(3));
+			assertNull(queue.poll());
+			assertEquals(0, queue.size());
+		}
+	}
+
+	@Test
+	public void testRandomOrderMatchesTreeSet() {
+		FutureEventQueue[] queues = createQueues();
+		Random random = new Random(42);
+		List<List<Integer>> polled = new ArrayList<List<Integer>>();
+		for (int q = 0; q < queues.length; q++) {
+			polled.add(new ArrayList<Integer>());
+		}
+
+		double clock = 0;
+		int tag = 0;
+		for (int step = 0; step < EVENTS; step++) {
+			// Schedule events at discrete delays so that many of them share the same time
+			int toAdd = random.nextInt(3);
+			double[] delays = new double[toAdd];
+			for (int i = 0; i < toAdd; i++) {
+				delays[i] = random.nextInt(4) == 0 ? random.nextInt(1000) : random.nextInt(10) * 0.5;
+			}
+			for (int q = 0; q < queues.length; q++) {
+				for (int i = 0; i < toAdd; i++) {
+					queues[q].addEvent(event(clock + delays[i], tag + i));
+				}
+			}
+			tag += toAdd;
+
+			for (int q = 0; q < queues.length; q++) {
+				SimEvent ev = queues[q].poll();
+				if (ev != null) {
+					polled.get(q).add(ev.getTag());
+					if (q == 0) {
+						clock = ev.eventTime();
+					}
+				}
+			}
+		}
+		for (int q = 0; q < queues.length; q++) {
+			SimEvent ev;
+			while ((ev = queues[q].poll()) != null) {
+				polled.get(q).add(ev.getTag());
+			}
+		}
+
+		for (int q = 1; q < queues.length; q++) {
+			assertEquals(polled.get(0), polled.get(q));
+		}
+	}
+
+	@Test
+	public void testRemove() {
+		for (FutureEventQueue queue : createQueues()) {
+			List<SimEvent> events = new ArrayList<SimEvent>();
+			for (int i = 0; i < 100; i++) {
+				SimEvent ev = event(i % 7, i);
+				events.add(ev);
+				queue.addEvent(ev);
+			}
+			for (int i = 0; i < 100; i += 3) {
+				assertTrue(queue.remove(events.get(i)));
+				assertFalse(queue.remove(events.get(i)));
+			}
+
+			SimEvent previous = null;
+			int count = 0;
+			SimEvent ev;
+			while ((ev = queue.poll()) != null) {
+				assertTrue(ev.getTag() % 3 != 0);
+				if (previous != null) {
+					assertTrue(previous.compareTo(ev) < 0);
+				}
+				previous = ev;
+				count++;
+			}
+			assertEquals(66, count);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class SimulationTest {
+
+	private static final int TICK = 1;
+
+	/** An entity that sends itself a number of events, one every given period. */
+	private static class Ticker extends SimEntity {
+
+		private final double period;
+
+		private int remaining;
+
+		private boolean clockConsistent = true;
+
+		public Ticker(String name, double period, int count) {
+			super(name);
+			this.period = period;
+			this.remaining = count;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), period, TICK);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			// The static facade has to refer to the simulation running this entity
+			clockConsistent &= CloudSim.clock() == getSimulation().clock();
+			if (--remaining > 0) {
+				schedule(getId(), period, TICK);
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+	}
+
+	private static Callable<Double> simulation(final double period, final int count) {
+		return new Callable<Double>() {
+
+			@Override
+			public Double call() {
+				Simulation simulation = new Simulation();
+				assertNull(CloudSim.setSimulation(simulation));
+				try {
+					CloudSim.init(1, Calendar.getInstance(), false);
+					Ticker ticker = new Ticker("Ticker", period, count);
+					assertSame(simulation, ticker.getSimulation());
+					assertEquals(3, CloudSim.getNumEntities());
+					double clock = CloudSim.startSimulation();
+					assertTrue(ticker.clockConsistent);
+					assertEquals(0, ticker.remaining);
+					return clock;
+				} finally {
+					CloudSim.setSimulation(null);
+				}
+			}
+		};
+	}
+
+	@Test
+	public void testSetSimulation() {
+		Simulation defaultSimulation = CloudSim.getSimulation();
+		Simulation simulation = new Simulation();
+		assertNull(CloudSim.setSimulation(simulation));
+		assertSame(simulation, CloudSim.getSimulation());
+		assertSame(simulation, CloudSim.setSimulation(null));
+		assertSame(defaultSimulation, CloudSim.getSimulation());
+	}
+
+	@Test
+	public void testParallelSimulations() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<Double> a = executor.submit(simulation(1.5, 2000));
+			Future<Double> b = executor.submit(simulation(2.0, 3000));
+			Future<Double> c = executor.submit(simulation(0.5, 5000));
+			Future<Double> d = executor.submit(simulation(3.0, 1000));
+			assertEquals(3000.0, a.get(), 1e-6);
+			assertEquals(6000.0, b.get(), 1e-6);
+			assertEquals(2500.0, c.get(), 1e-6);
+			assertEquals(3000.0, d.get(), 1e-6);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
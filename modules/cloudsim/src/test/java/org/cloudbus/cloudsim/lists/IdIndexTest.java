@@ -0,0 +1,162 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Vm;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class IdIndexTest {
+
+	@Test
+	public void testSameAsScan() {
+		Random random = new Random(1);
+		List<Vm> vmList = new ArrayList<Vm>();
+		IdIndex<Vm> index = VmList.createIdIndex();
+		IdIndex<Vm> userIndex = VmList.createIdAndUserIdIndex();
+		for (int step = 0; step < 3000; step++) {
+			int change = random.nextInt(10);
+			if (change < 4 || vmList.isEmpty()) {
+				vmList.add(createVm(random.nextInt(200), random.nextInt(3)));
+			} else if (change < 5) {
+				vmList.add(random.nextInt(vmList.size()), createVm(random.nextInt(200), random.nextInt(3)));
+			} else if (change < 7) {
+				vmList.remove(random.nextInt(vmList.size()));
+			} else if (change < 8) {
+				vmList.set(random.nextInt(vmList.size()), createVm(random.nextInt(200), random.nextInt(3)));
+			}
+
+			int id = random.nextInt(200);
+			int userId = random.nextInt(3);
+			Vm expected = VmList.getById(vmList, id);
+			Vm actual = index.get(vmList, id);
+			if (expected == null) {
+				assertNull(actual);
+			} else {
+				// with duplicated ids, the first one when the index was built
+				assertEquals(id, actual.getId());
+				assertTrue(vmList.contains(actual));
+			}
+			Vm expectedForUser = VmList.getByIdAndUserId(vmList, id, userId);
+			Vm actualForUser = userIndex.get(vmList, IdIndex.getKey(userId, id));
+			if (expectedForUser == null) {
+				assertNull(actualForUser);
+			} else {
+				assertEquals(id, actualForUser.getId());
+				assertEquals(userId, actualForUser.getUserId());
+				assertTrue(vmList.contains(actualForUser));
+			}
+		}
+	}
+
+	@Test
+	public void testFirstOfDuplicates() {
+		List<Vm> vmList = new ArrayList<Vm>();
+		Vm vm1 = createVm(3, 0);
+		Vm vm2 = createVm(3, 1);
+		vmList.add(vm1);
+		vmList.add(vm2);
+		IdIndex<Vm> index = VmList.createIdIndex();
+		assertSame(vm1, index.get(vmList, 3));
+
+		vmList.remove(0);
+		assertSame(vm2, index.get(vmList, 3));
+
+		vmList.add(vm1);
+		assertSame(vm2, index.get(vmList, 3));
+	}
+
+	@Test
+	public void testUniqueIds() {
+		List<Vm> vmList = new ArrayList<Vm>();
+		IdIndex<Vm> index = VmList.createIdIndex();
+		for (int id = 0; id < 1000; id++) {
+			vmList.add(createVm(id, 0));
+			assertSame(vmList.get(id / 2), index.get(vmList, id / 2));
+		}
+		for (int id = 999; id >= 0; id -= 3) {
+			vmList.remove(id);
+		}
+		for (Vm vm : vmList) {
+			assertSame(vm, index.get(vmList, vm.getId()));
+		}
+		assertNull(index.get(vmList, 999));
+		assertNull(index.get(vmList, -1));
+		assertNull(index.get(new ArrayList<Vm>(), 0));
+	}
+
+	@Test
+	public void testLinkedList() {
+		List<Vm> vmList = new LinkedList<Vm>();
+		IdIndex<Vm> index = VmList.createIdIndex();
+		for (int id = 0; id < 100; id++) {
+			vmList.add(createVm(id, 0));
+		}
+		assertSame(vmList.get(42), index.get(vmList, 42));
+
+		vmList.remove(42);
+		assertNull(index.get(vmList, 42));
+		assertSame(vmList.get(42), index.get(vmList, 43));
+
+		Vm vm = createVm(500, 0);
+		vmList.add(0, vm);
+		assertSame(vm, index.get(vmList, 500));
+		assertSame(vmList.get(10), index.get(vmList, 9));
+	}
+
+	@Test
+	public void testModCountListMissWithoutScan() {
+		final int[] keysRead = new int[1];
+		IdIndex<Vm> index = new IdIndex<Vm>() {
+
+			@Override
+			protected long getKey(Vm vm) {
+				keysRead[0]++;
+				return vm.getId();
+			}
+		};
+		List<Vm> vmList = new ModCountList<Vm>();
+		for (int id = 0; id < 100; id++) {
+			vmList.add(createVm(id, 0));
+		}
+		assertSame(vmList.get(7), index.get(vmList, 7));
+
+		keysRead[0] = 0;
+		assertNull(index.get(vmList, 500));
+		assertSame(vmList.get(8), index.get(vmList, 8));
+		assertEquals(0, keysRead[0]);
+
+		// a replaced element is seen, though the size of the list did not change
+		Vm vm = createVm(500, 0);
+		vmList.set(8, vm);
+		assertSame(vm, index.get(vmList, 500));
+		assertNull(index.get(vmList, 8));
+
+		vmList.subList(0, 10).clear();
+		assertNull(index.get(vmList, 500));
+		assertSame(vmList.get(0), index.get(vmList, 10));
+	}
+
+	private static Vm createVm(int id, int userId) {
+		return new Vm(id, userId, 0, 1, 0, 0, 0, "", null);
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Vm;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class VmTableTest {
+
+	@Test
+	public void testSameAsMap() {
+		Random random = new Random(1);
+		VmTable<String> table = new VmTable<String>();
+		Map<String, String> map = new LinkedHashMap<String, String>();
+		int maxSize = 0;
+		for (int step = 0; step < 20000; step++) {
+			Vm vm = createVm(random.nextInt(100), random.nextInt(3));
+			int change = random.nextInt(10);
+			if (change < 4) {
+				String value = "value" + step;
+				table.put(vm, value);
+				map.put(vm.getUid(), value);
+			} else if (change < 8) {
+				int handle = table.remove(vm);
+				assertEquals(map.containsKey(vm.getUid()), handle >= 0);
+				map.remove(vm.getUid());
+			} else if (change < 9) {
+				assertEquals(map.containsKey(vm.getUid()), table.contains(vm));
+			} else if (random.nextInt(100) == 0) {
+				table.clear();
+				map.clear();
+			}
+			maxSize = Math.max(maxSize, map.size());
+
+			assertEquals(map.size(), table.size());
+			assertEquals(map.get(vm.getUid()), table.get(vm));
+
+			List<String> uids = new ArrayList<String>();
+			for (int handle = table.first(); handle >= 0; handle = table.next(handle)) {
+				assertTrue(handle < table.getCapacity());
+				Vm tableVm = table.getVm(handle);
+				assertEquals(handle, table.getHandle(tableVm));
+				assertEquals(map.get(tableVm.getUid()), table.getValue(handle));
+				uids.add(tableVm.getUid());
+			}
+			// the VMs are iterated in the order they were added
+			assertEquals(new ArrayList<String>(map.keySet()), uids);
+		}
+		// the handles of the removed VMs are given again
+		assertTrue(table.getCapacity() <= 2 * maxSize);
+	}
+
+	@Test
+	public void testUidMapOrderSameAsHashMap() {
+		Random random = new Random(2);
+		VmTable<String> table = new VmTable<String>();
+		Map<String, String> map = new HashMap<String, String>();
+		for (int step = 0; step < 5000; step++) {
+			Vm vm = createVm(random.nextInt(60), random.nextInt(3));
+			if (random.nextInt(3) > 0) {
+				table.put(vm, "value" + step);
+				map.put(vm.getUid(), "value" + step);
+			} else {
+				table.remove(vm);
+				map.remove(vm.getUid());
+			}
+			if (random.nextInt(500) == 0) {
+				table.clear();
+				map.clear();
+			}
+
+			List<String> uids = new ArrayList<String>();
+			for (int handle : table.getHandlesInUidMapOrder()) {
+				uids.add(table.getVm(handle).getUid());
+			}
+			assertEquals(new ArrayList<String>(map.keySet()), uids);
+			assertEquals(new ArrayList<String>(map.keySet()), new ArrayList<String>(table.getUidMap().keySet()));
+		}
+	}
+
+	@Test
+	public void testVmsWithSameIds() {
+		VmTable<String> table = new VmTable<String>();
+		Vm vm = createVm(1, 2);
+		int handle = table.put(vm, "value");
+		assertEquals(handle, table.add(createVm(1, 2)));
+		assertSame(vm, table.getVm(handle));
+		assertEquals("value", table.get(createVm(1, 2)));
+		assertFalse(table.contains(createVm(2, 1)));
+		assertNull(table.get(createVm(1, 3)));
+		assertEquals(-1, table.remove(createVm(2, 1)));
+		assertEquals(handle, table.remove(createVm(1, 2)));
+		assertTrue(table.isEmpty());
+		assertEquals(-1, table.first());
+	}
+
+	@Test
+	public void testUidViews() {
+		VmTable<String> table = new VmTable<String>();
+		List<String> uids = table.getUids();
+		Map<String, String> uidMap = table.getUidMap();
+		table.put(createVm(1, 2), "a");
+		table.put(createVm(3, 2), "b");
+		table.put(createVm(5, 2), "c");
+		table.remove(createVm(3, 2));
+
+		assertEquals(Arrays.asList("2-1", "2-5"), uids);
+		assertTrue(uids.contains("2-5"));
+		assertFalse(uids.contains("2-3"));
+		assertEquals(2, uidMap.size());
+		assertEquals("c", uidMap.get("2-5"));
+		assertNull(uidMap.get("2-3"));
+	}
+
+	@Test
+	public void testChangesThroughUidViews() {
+		VmTable<String> table = new VmTable<String>();
+		List<String> uids = table.getUids();
+		Map<String, String> uidMap = table.getUidMap();
+		Vm vm = createVm(1, 2);
+		assertTrue(uids.add("2-3"));
+		assertFalse(uids.add("2-3"));
+		assertNull(uidMap.put("2-3", "b"));
+		table.put(vm, "c");
+		uidMap.put("-1-4", "d");
+
+		assertEquals(Arrays.asList("2-3", "2-1", "-1-4"), uids);
+		assertEquals(1, uids.indexOf("2-1"));
+		assertNull(table.getVm(table.getHandle("2-3")));
+		assertEquals("b", table.getValue(table.getHandle("2-3")));
+		assertTrue(table.contains(createVm(4, -1)));
+		assertNull(table.getVm(table.getHandle("-1-4")));
+		table.add(createVm(4, -1));
+		assertEquals(4, table.getVm(table.getHandle("-1-4")).getId());
+
+		assertEquals("2-3", uids.remove(0));
+		assertTrue(uids.remove("-1-4"));
+		assertEquals("c", uidMap.remove("2-1"));
+		assertTrue(table.isEmpty());
+		assertFalse(uids.remove("2-"));
+		assertEquals(-1, table.getHandle("02-1"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddNoUid() {
+		new VmTable<String>().getUids().add("vm-1");
+	}
+
+	private static Vm createVm(int id, int userId) {
+		return new Vm(id, userId, 1000, 1, 512, 1000, 10000, "Xen", null);
+	}
+
+}
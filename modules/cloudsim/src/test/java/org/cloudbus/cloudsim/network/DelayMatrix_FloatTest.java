@@ -0,0 +1,168 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class DelayMatrix_FloatTest {
+
+	@Test
+	public void testFloydWarshallSameAsTwoMatrices() {
+		Random random = new Random(3);
+		for (int nodes : new int[] { 10, 200 }) {
+			float[][] adjMatrix = new float[nodes][nodes];
+			for (int link = 0; link < 3 * nodes; link++) {
+				adjMatrix[random.nextInt(nodes)][random.nextInt(nodes)] = random.nextFloat() * 10;
+			}
+
+			FloydWarshall_Float floyd = new FloydWarshall_Float();
+			floyd.initialize(nodes);
+			float[][] delays = floyd.allPairsShortestPaths(adjMatrix);
+
+			float[][] expectedDelays = new float[nodes][nodes];
+			int[][] expectedPredecessors = new int[nodes][nodes];
+			twoMatricesFloydWarshall(adjMatrix, expectedDelays, expectedPredecessors);
+			for (int i = 0; i < nodes; i++) {
+				for (int j = 0; j < nodes; j++) {
+					assertEquals(expectedDelays[i][j], delays[i][j], 0);
+				}
+				assertArrayEquals(expectedPredecessors[i], floyd.getPK()[i]);
+			}
+		}
+	}
+
+	@Test
+	public void testAddLinkSameAsNewMatrix() {
+		Random random = new Random(5);
+		int nodes = 60;
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int node = 0; node < nodes; node++) {
+			graph.addNode(new TopologicalNode(node));
+		}
+		DelayMatrix_Float matrix = new DelayMatrix_Float(graph, false);
+		Set<Integer> pairs = new HashSet<Integer>();
+		for (int link = 0; link < 150; link++) {
+			int src = random.nextInt(nodes);
+			int dest = random.nextInt(nodes);
+			if (!pairs.add(Math.min(src, dest) * nodes + Math.max(src, dest))) {
+				// a new matrix keeps the last link between two nodes rather than the shortest
+				continue;
+			}
+			// integral delays, so the sums do not depend on the order of the additions
+			float delay = 1 + random.nextInt(20);
+			graph.addLink(new TopologicalLink(src, dest, delay, 10));
+			matrix.addLink(src, dest, delay);
+
+			if (link % 10 == 0) {
+				assertSameDelays(new DelayMatrix_Float(graph, false), matrix, nodes);
+			}
+		}
+		assertSameDelays(new DelayMatrix_Float(graph, false), matrix, nodes);
+	}
+
+	@Test
+	public void testAddLinkWithNewNodes() {
+		TopologicalGraph graph = new TopologicalGraph();
+		graph.addNode(new TopologicalNode(0));
+		graph.addNode(new TopologicalNode(1));
+		graph.addLink(new TopologicalLink(0, 1, 2, 10));
+		DelayMatrix_Float matrix = new DelayMatrix_Float(graph, false);
+
+		matrix.addLink(1, 5, 3);
+		assertEquals(5, matrix.getDelay(0, 5), 0);
+		assertEquals(5, matrix.getDelay(5, 0), 0);
+		assertEquals(0, matrix.getDelay(4, 4), 0);
+		assertEquals(Float.MAX_VALUE, matrix.getDelay(0, 4), 0);
+
+		matrix.addLink(4, 0, 1);
+		assertEquals(6, matrix.getDelay(4, 5), 0);
+
+		// a shorter link between linked nodes replaces the path through the other nodes
+		matrix.addLink(4, 5, 1);
+		assertEquals(1, matrix.getDelay(4, 5), 0);
+		assertEquals(2, matrix.getDelay(0, 5), 0);
+		assertEquals(2, matrix.getDelay(0, 1), 0);
+	}
+
+	@Test
+	public void testAddLinkDirected() {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int node = 0; node < 3; node++) {
+			graph.addNode(new TopologicalNode(node));
+		}
+		DelayMatrix_Float matrix = new DelayMatrix_Float(graph, true);
+
+		matrix.addLink(0, 1, 1);
+		matrix.addLink(1, 2, 2);
+		assertEquals(3, matrix.getDelay(0, 2), 0);
+		assertEquals(Float.MAX_VALUE, matrix.getDelay(2, 0), 0);
+		assertEquals(Float.MAX_VALUE, matrix.getDelay(1, 0), 0);
+	}
+
+	private static void assertSameDelays(DelayMatrix_Float expected, DelayMatrix_Float actual, int nodes) {
+		for (int i = 0; i < nodes; i++) {
+			for (int j = 0; j < nodes; j++) {
+				assertEquals(expected.getDelay(i, j), actual.getDelay(i, j), 0);
+			}
+		}
+	}
+
+	/**
+	 * The Floyd-Warshall algorithm as implemented before, with a pair of matrices for each
+	 * iteration.
+	 */
+	private static void twoMatricesFloydWarshall(float[][] adjMatrix, float[][] Dk, int[][] Pk) {
+		int n = adjMatrix.length;
+		float[][] Dk_minus_one = new float[n][n];
+		int[][] Pk_minus_one = new int[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (adjMatrix[i][j] != 0) {
+					Dk_minus_one[i][j] = adjMatrix[i][j];
+					Pk_minus_one[i][j] = i;
+				} else {
+					Dk_minus_one[i][j] = Float.MAX_VALUE;
+					Pk_minus_one[i][j] = -1;
+				}
+			}
+		}
+		for (int k = 0; k < n; k++) {
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					if (i != j) {
+						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
+							Dk[i][j] = Dk_minus_one[i][j];
+							Pk[i][j] = Pk_minus_one[i][j];
+						} else {
+							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
+							Pk[i][j] = Pk_minus_one[k][j];
+						}
+					} else {
+						Pk[i][j] = -1;
+					}
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				Dk_minus_one[i] = Dk[i].clone();
+				Pk_minus_one[i] = Pk[i].clone();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class LazyDelayMatrix_FloatTest {
+
+	private static final int NODES = 50;
+
+	@Test
+	public void testSameAsDelayMatrix() {
+		for (boolean directed : new boolean[] { false, true }) {
+			TopologicalGraph graph = createGraph(new Random(7), 120);
+			DelayMatrix_Float expected = new DelayMatrix_Float(graph, directed);
+			// few rows, so most queries compute a row again
+			LazyDelayMatrix_Float lazy = new LazyDelayMatrix_Float(graph, directed, 3);
+
+			Random random = new Random(11);
+			for (int query = 0; query < 2000; query++) {
+				int src = random.nextInt(NODES);
+				int dest = random.nextInt(NODES);
+				assertEquals(expected.getDelay(src, dest), lazy.getDelay(src, dest), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testPrecompute() {
+		TopologicalGraph graph = createGraph(new Random(3), 80);
+		DelayMatrix_Float expected = new DelayMatrix_Float(graph, false);
+		LazyDelayMatrix_Float lazy = new LazyDelayMatrix_Float(graph, false, 1);
+
+		int[] nodes = { 4, 17, 0, 42 };
+		lazy.precompute(nodes);
+		for (int src = 0; src < NODES; src++) {
+			for (int dest = 0; dest < NODES; dest++) {
+				assertEquals(expected.getDelay(src, dest), lazy.getDelay(src, dest), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testAddLink() {
+		TopologicalGraph graph = createGraph(new Random(5), 40);
+		LazyDelayMatrix_Float lazy = new LazyDelayMatrix_Float(graph, false, 4);
+		lazy.precompute(new int[] { 1, 2, 3 });
+		assertEquals(0, lazy.getDelay(2, 2), 0);
+		lazy.getDelay(5, 6);
+
+		// a new node, then a link making its path to node 2 shorter
+		lazy.addLink(2, NODES, 100);
+		graph.addNode(new TopologicalNode(NODES));
+		graph.addLink(new TopologicalLink(2, NODES, 100, 10));
+		lazy.addLink(NODES, 3, 1);
+		graph.addLink(new TopologicalLink(NODES, 3, 1, 10));
+
+		DelayMatrix_Float expected = new DelayMatrix_Float(graph, false);
+		for (int src = 0; src <= NODES; src++) {
+			for (int dest = 0; dest <= NODES; dest++) {
+				assertEquals(expected.getDelay(src, dest), lazy.getDelay(src, dest), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testUnreachable() {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int node = 0; node < 3; node++) {
+			graph.addNode(new TopologicalNode(node));
+		}
+		graph.addLink(new TopologicalLink(0, 1, 2, 10));
+		LazyDelayMatrix_Float lazy = new LazyDelayMatrix_Float(graph, false, 2);
+		assertEquals(2, lazy.getDelay(1, 0), 0);
+		assertEquals(Float.MAX_VALUE, lazy.getDelay(0, 2), 0);
+		assertEquals(Float.MAX_VALUE, lazy.getDelay(2, 1), 0);
+	}
+
+	@Test
+	public void testLastLinkReplacesPrevious() {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int node = 0; node < 3; node++) {
+			graph.addNode(new TopologicalNode(node));
+		}
+		graph.addLink(new TopologicalLink(0, 1, 2, 10));
+		graph.addLink(new TopologicalLink(1, 0, 5, 10));
+		graph.addLink(new TopologicalLink(1, 2, 1, 10));
+		LazyDelayMatrix_Float lazy = new LazyDelayMatrix_Float(graph, false, 2);
+		assertEquals(new DelayMatrix_Float(graph, false).getDelay(0, 1), lazy.getDelay(0, 1), 0);
+		assertEquals(5, lazy.getDelay(0, 1), 0);
+
+		lazy.addLink(2, 1, 3);
+		assertEquals(8, lazy.getDelay(0, 2), 0);
+
+		// a link without delay removes the previous one
+		lazy.addLink(0, 1, 0);
+		assertEquals(Float.MAX_VALUE, lazy.getDelay(0, 2), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoRow() {
+		new LazyDelayMatrix_Float(new TopologicalGraph(), false, 0);
+	}
+
+	/**
+	 * Creates a graph with integral delays, so the sums do not depend on the order of the
+	 * additions, and at most one link between two nodes.
+	 */
+	private static TopologicalGraph createGraph(Random random, int links) {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int node = 0; node < NODES; node++) {
+			graph.addNode(new TopologicalNode(node));
+		}
+		Set<Integer> pairs = new HashSet<Integer>();
+		for (int link = 0; link < links; link++) {
+			int src = random.nextInt(NODES);
+			int dest = random.nextInt(NODES);
+			if (src != dest && pairs.add(Math.min(src, dest) * NODES + Math.max(src, dest))) {
+				graph.addLink(new TopologicalLink(src, dest, 1 + random.nextInt(20), 10));
+			}
+		}
+		return graph;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class PowerHostUtilizationHistoryTest {
+
+	/** The host has two PEs of 1860 MIPS. */
+	private static PowerHostUtilizationHistory createHost() {
+		return (PowerHostUtilizationHistory) PowerVmAllocationPolicyMigrationAbstractTest.createHostList(1).get(0);
+	}
+
+	private static PowerVm createVm(int id, double mips, double... history) {
+		PowerVm vm = new PowerVm(id, 0, mips, 1, 512, 1000, 2500, 1, "Xen",
+				new CloudletSchedulerDynamicWorkload(mips, 1), 300);
+		for (double utilization : history) {
+			vm.addUtilizationHistoryValue(utilization);
+		}
+		return vm;
+	}
+
+	@Test
+	public void testEmptyHost() {
+		// the trimmed history of zeros keeps its first value
+		assertArrayEquals(new double[] { 0 }, createHost().getUtilizationHistory(), 0);
+	}
+
+	@Test
+	public void testVmsAddedAndRemoved() {
+		PowerHostUtilizationHistory host = createHost();
+		PowerVm vm1 = createVm(1, 1860, 0.4, 0.2);
+		PowerVm vm2 = createVm(2, 930, 0.8);
+		host.getVmList().add(vm1);
+		assertArrayEquals(new double[] { 0.1, 0.2 }, host.getUtilizationHistory(), 1e-12);
+
+		host.getVmList().add(vm2);
+		assertArrayEquals(new double[] { 0.3, 0.2 }, host.getUtilizationHistory(), 1e-12);
+
+		// a new value of a VM already summed is seen
+		vm1.addUtilizationHistoryValue(1.0);
+		assertArrayEquals(new double[] { 0.7, 0.1, 0.2 }, host.getUtilizationHistory(), 1e-12);
+
+		host.getVmList().remove(vm2);
+		assertArrayEquals(new double[] { 0.5, 0.1, 0.2 }, host.getUtilizationHistory(), 1e-12);
+
+		// the VMs after a removed one are summed again
+		host.getVmList().add(vm2);
+		host.getVmList().remove(vm1);
+		assertArrayEquals(new double[] { 0.2 }, host.getUtilizationHistory(), 1e-12);
+
+		host.getVmList().clear();
+		assertArrayEquals(new double[] { 0 }, host.getUtilizationHistory(), 0);
+	}
+
+	@Test
+	public void testCandidateVm() {
+		PowerHostUtilizationHistory host = createHost();
+		host.getVmList().add(createVm(1, 1860, 0.4, 0.2));
+		PowerVm candidate = createVm(2, 930, 0.4, 0.4, 0.8);
+		assertArrayEquals(new double[] { 0.3, 0.3, 0.1 }, host.getUtilizationHistory(candidate), 1e-12);
+		assertArrayEquals(new double[] { 0.1, 0.2 }, host.getUtilizationHistory(), 1e-12);
+	}
+
+	@Test
+	public void testZeroTailTrimmed() {
+		PowerHostUtilizationHistory host = createHost();
+		host.getVmList().add(createVm(1, 1860, 0, 0, 0.4, 0));
+		assertArrayEquals(new double[] { 0, 0.2 }, host.getUtilizationHistory(), 1e-12);
+	}
+
+}
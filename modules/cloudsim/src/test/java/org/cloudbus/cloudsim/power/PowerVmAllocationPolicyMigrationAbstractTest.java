@@ -0,0 +1,213 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class PowerVmAllocationPolicyMigrationAbstractTest {
+
+	/** The first host has two PEs of 1860 MIPS, the second one two PEs of 2660 MIPS. */
+	private List<PowerHost> hostList;
+
+	private PowerHost host;
+
+	private Set<PowerHost> otherHost;
+
+	/**
+	 * Creates hosts of the two kinds used in the PlanetLab power experiments.
+	 */
+	static List<PowerHost> createHostList(int hosts) {
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < hosts; i++) {
+			int mips = i % 2 == 0 ? 1860 : 2660;
+			List<Pe> peList = new ArrayList<Pe>();
+			peList.add(new Pe(0, new PeProvisionerSimple(mips)));
+			peList.add(new Pe(1, new PeProvisionerSimple(mips)));
+			hostList.add(new PowerHostUtilizationHistory(i, new RamProvisionerSimple(4096),
+					new BwProvisionerSimple(1000000), 1000000, peList,
+					new VmSchedulerTimeSharedOverSubscription(peList),
+					i % 2 == 0
+							? new PowerModelSpecPowerHpProLiantMl110G4Xeon3040()
+							: new PowerModelSpecPowerHpProLiantMl110G5Xeon3075()));
+		}
+		return hostList;
+	}
+
+	/**
+	 * Creates a VM being instantiated, which requests all its MIPS, with a utilization history.
+	 */
+	private static PowerVm createVm(int id, double mips, double... history) {
+		PowerVm vm = new PowerVm(id, 0, mips, 1, 512, 1000, 2500, 1, "Xen",
+				new CloudletSchedulerDynamicWorkload(mips, 1), 300);
+		for (double utilization : history) {
+			vm.addUtilizationHistoryValue(utilization);
+		}
+		return vm;
+	}
+
+	/**
+	 * Creates a full utilization history, alternating between two values.
+	 */
+	private static double[] alternate(double first, double second) {
+		double[] history = new double[PowerVm.HISTORY_LENGTH];
+		for (int i = 0; i < history.length; i++) {
+			history[i] = i % 2 == 0 ? first : second;
+		}
+		return history;
+	}
+
+	@Before
+	public void setUp() {
+		CloudSim.setSimulation(new Simulation());
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		hostList = createHostList(2);
+		host = hostList.get(0);
+		otherHost = Collections.singleton(hostList.get(1));
+		// the host requests 2000 of its 3720 MIPS
+		assertTrue(host.vmCreate(createVm(0, 1000, alternate(0.5, 0.5))));
+		assertTrue(host.vmCreate(createVm(1, 1000, alternate(0.5, 0.5))));
+	}
+
+	@After
+	public void tearDown() {
+		Log.enable();
+		CloudSim.setSimulation(null);
+	}
+
+	private PowerVmAllocationPolicyMigrationAbstract createStaticThresholdPolicy() {
+		return new PowerVmAllocationPolicyMigrationStaticThreshold(hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(), 0.8);
+	}
+
+	private PowerVmAllocationPolicyMigrationAbstract createMadPolicy() {
+		return new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(), 2.5, createStaticThresholdPolicy());
+	}
+
+	@Test
+	public void testStaticThreshold() {
+		PowerVmAllocationPolicyMigrationAbstract policy = createStaticThresholdPolicy();
+		// 2500 of 3720 MIPS requested
+		assertSame(host, policy.findHostForVm(createVm(2, 500), otherHost));
+		// 3000 of 3720 MIPS requested, over the threshold of 0.8
+		assertNull(policy.findHostForVm(createVm(2, 1000), otherHost));
+		assertSame(hostList.get(1), policy.findHostForVm(createVm(2, 1000), Collections.<Host> emptySet()));
+	}
+
+	@Test
+	public void testCandidateVmNotPlaced() {
+		PowerVmAllocationPolicyMigrationAbstract policy = createStaticThresholdPolicy();
+		PowerVm vm = createVm(2, 500);
+		double availableMips = host.getAvailableMips();
+		assertSame(host, policy.findHostForVm(vm, otherHost));
+		assertEquals(2, host.getVmList().size());
+		assertEquals(availableMips, host.getAvailableMips(), 0);
+		assertNull(vm.getHost());
+		assertTrue(hostList.get(1).getVmList().isEmpty());
+		// the host was checked once at the current time
+		assertEquals(1, policy.getTimeHistory().get(host.getId()).size());
+	}
+
+	@Test
+	public void testMadOfSteadyHost() {
+		// a steady history gives a threshold of 1, over the static one
+		PowerVm vm = createVm(2, 1000, alternate(0.5, 0.5));
+		assertSame(host, createMadPolicy().findHostForVm(vm, otherHost));
+		assertNull(createStaticThresholdPolicy().findHostForVm(vm, otherHost));
+	}
+
+	@Test
+	public void testMadCountsCandidateHistory() {
+		// the host history alternates between 1000 and 2000 of 3720 MIPS with the candidate,
+		// giving a threshold of 1 - 2.5 * 500 / 3720, below the 3000 of 3720 MIPS requested
+		PowerVm vm = createVm(2, 1000, alternate(0, 1));
+		PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation policy =
+				(PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation) createMadPolicy();
+		assertEquals(500 / 3720.0,
+				policy.getHostUtilizationMad((PowerHostUtilizationHistory) host, vm), 1e-12);
+		assertNull(policy.findHostForVm(vm, otherHost));
+		assertEquals(0, policy.getHostUtilizationMad((PowerHostUtilizationHistory) host), 0);
+	}
+
+	@Test
+	public void testMadFallsBackWithShortHistory() {
+		PowerHost emptyHost = hostList.get(1);
+		Set<PowerHost> firstHost = Collections.singleton(host);
+		assertTrue(emptyHost.vmCreate(createVm(3, 2000, 0.5)));
+		// 4500 of 5320 MIPS requested, over the threshold of the fallback policy
+		assertNull(createMadPolicy().findHostForVm(createVm(2, 2500, 0.5), firstHost));
+		// the history of the candidate is long enough for the MAD, which is 0
+		assertSame(emptyHost, createMadPolicy().findHostForVm(createVm(2, 2500, alternate(0.5, 0.5)), firstHost));
+	}
+
+	@Test
+	public void testOverriddenCheckMadeByTrial() {
+		PowerVmAllocationPolicyMigrationAbstract policy = new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+				hostList, new PowerVmSelectionPolicyMinimumMigrationTime(), 2.5, createStaticThresholdPolicy()) {
+
+			@Override
+			protected boolean isHostOverUtilized(PowerHost host) {
+				return host.getVmList().size() > 2;
+			}
+		};
+		PowerVm vm = createVm(2, 500, alternate(0.5, 0.5));
+		// the candidate VM is placed on the host for the check, which finds three VMs
+		assertNull(policy.findHostForVm(vm, otherHost));
+		assertEquals(2, host.getVmList().size());
+		assertNull(vm.getHost());
+	}
+
+	@Test
+	public void testOverriddenMadUsed() {
+		PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation policy = new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+				hostList, new PowerVmSelectionPolicyMinimumMigrationTime(), 2.5, createStaticThresholdPolicy()) {
+
+			@Override
+			protected double getHostUtilizationMad(PowerHostUtilizationHistory host) {
+				return 0.2;
+			}
+		};
+		// 2000 of 3720 MIPS requested, over the threshold of 1 - 2.5 * 0.2
+		assertTrue(policy.isHostOverUtilized(host));
+		PowerVm vm = createVm(2, 500, alternate(0.5, 0.5));
+		assertNull(policy.findHostForVm(vm, otherHost));
+		assertSame(host, createMadPolicy().findHostForVm(vm, otherHost));
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class UtilizationHistoryTest {
+
+	@Test
+	public void testNewestFirst() {
+		UtilizationHistory history = new UtilizationHistory(3);
+		assertEquals(0, history.size());
+		assertEquals(0, history.getMean(), 0);
+		history.addFirst(0.1);
+		history.addFirst(0.2);
+		assertEquals(Arrays.asList(0.2, 0.1), history);
+		history.addFirst(0.3);
+		history.addFirst(0.4);
+		assertEquals(Arrays.asList(0.4, 0.3, 0.2), history);
+		assertEquals(0.4, history.getDouble(0), 0);
+		assertEquals(4, history.getAddCount());
+		assertEquals(0.3, history.getMean(), 1e-12);
+		assertEquals(0.02 / 3, history.getVariance(), 1e-12);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetOutOfHistory() {
+		UtilizationHistory history = new UtilizationHistory(3);
+		history.addFirst(0.1);
+		history.getDouble(1);
+	}
+
+	@Test
+	public void testWrapAround() {
+		UtilizationHistory history = new UtilizationHistory(2);
+		for (int i = 1; i <= 5; i++) {
+			history.addFirst(i);
+		}
+		assertEquals(Arrays.asList(5.0, 4.0), history);
+		assertEquals(2, history.getCapacity());
+		assertEquals(5, history.getAddCount());
+		assertEquals(4.5, history.getMean(), 0);
+		assertEquals(0.25, history.getVariance(), 0);
+	}
+
+	@Test
+	public void testSumComputedAgainWhenFilled() {
+		UtilizationHistory history = new UtilizationHistory(2);
+		// the running sum loses the small values next to the big one
+		history.addFirst(1e16);
+		history.addFirst(1);
+		history.addFirst(1);
+		history.addFirst(1);
+		assertEquals(Arrays.asList(1.0, 1.0), history);
+		assertEquals(1, history.getMean(), 0);
+		assertEquals(0, history.getVariance(), 0);
+	}
+
+	@Test
+	public void testVarianceOfCloseValues() {
+		UtilizationHistory history = new UtilizationHistory(3);
+		// a running sum of the squares would cancel out to nothing here
+		history.addFirst(1e8 + 0.1);
+		history.addFirst(1e8 + 0.2);
+		history.addFirst(1e8 + 0.3);
+		assertEquals(0.02 / 3, history.getVariance(), 1e-8);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeroCapacity() {
+		new UtilizationHistory(0);
+	}
+
+}
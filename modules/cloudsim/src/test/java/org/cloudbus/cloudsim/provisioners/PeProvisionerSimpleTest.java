@@ -192,4 +192,23 @@ public class PeProvisionerSimpleTest {
 		assertEquals(MIPS, peProvisioner.getAvailableMips(), 0);
 	}
 
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testAllocateMipsForVmUid() {
+		Vm vm1 = new Vm(0, 2, MIPS / 2, 1, 0, 0, 0, "", null);
+		Vm vm2 = new Vm(10, 2, MIPS / 2, 2, 0, 0, 0, "", null);
+
+		assertTrue(peProvisioner.allocateMipsForVm(vm1, MIPS / 4));
+		assertTrue(peProvisioner.allocateMipsForVm(vm1.getUid(), MIPS / 8));
+		assertFalse(peProvisioner.allocateMipsForVm(vm2.getUid(), MIPS / 4));
+		assertTrue(peProvisioner.allocateMipsForVm(vm2, MIPS / 4));
+		assertTrue(peProvisioner.allocateMipsForVm(vm2.getUid(), MIPS / 4));
+		assertFalse(peProvisioner.allocateMipsForVm(vm2.getUid(), MIPS / 4));
+
+		assertEquals(MIPS * 3 / 8, peProvisioner.getTotalAllocatedMipsForVm(vm1), 0);
+		assertEquals(MIPS / 8, peProvisioner.getAllocatedMipsForVmByVirtualPeId(vm1, 1), 0);
+		assertEquals(MIPS / 2, peProvisioner.getTotalAllocatedMipsForVm(vm2), 0);
+		assertEquals(MIPS / 8, peProvisioner.getAvailableMips(), 0);
+	}
+
 }
@@ -0,0 +1,122 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class LocalRegressionTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void testSameAsMathUtil() {
+		Random random = new Random(7);
+		for (int length = 3; length <= 20; length++) {
+			LocalRegression localRegression = new LocalRegression(length);
+			for (int test = 0; test < 50; test++) {
+				double[] y = new double[length];
+				for (int i = 0; i < length; i++) {
+					y[i] = random.nextDouble();
+				}
+				assertEstimates(MathUtil.getLoessParameterEstimates(y), localRegression.getParameterEstimates(y));
+				assertEstimates(
+						MathUtil.getRobustLoessParameterEstimates(y),
+						localRegression.getRobustParameterEstimates(y));
+			}
+		}
+	}
+
+	@Test
+	public void testRobustWithOutliers() {
+		LocalRegression localRegression = new LocalRegression(10);
+		double[][] histories = {
+				{ 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0 },
+				{ 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 0.1 },
+				{ 0.5, 0.5, 0.5, 0.5, 0.9, 0.5, 0.5, 0.5, 0.5, 0.5 },
+				{ 0.2, 0.2, 0.2, 0.2, 0.2, 0.2, 0.2, 0.2, 0.2, 0.2 },
+				{ 0.1, 0.9, 0.1, 0.9, 0.1, 0.9, 0.1, 0.9, 0.1, 0.9 } };
+		for (double[] y : histories) {
+			assertEstimates(
+					MathUtil.getRobustLoessParameterEstimates(y),
+					localRegression.getRobustParameterEstimates(y));
+		}
+	}
+
+	@Test
+	public void testRobustWithZeroMedianResidual() {
+		LocalRegression localRegression = new LocalRegression(10);
+		double[][] histories = {
+				{ 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 },
+				{ 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 },
+				{ 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 1.0 } };
+		for (double[] y : histories) {
+			assertEstimates(
+					MathUtil.getRobustLoessParameterEstimates(y),
+					localRegression.getRobustParameterEstimates(y));
+		}
+	}
+
+	@Test
+	public void testLinearValues() {
+		double[] estimates = new LocalRegression(10).getParameterEstimates(
+				new double[] { 3, 5, 7, 9, 11, 13, 15, 17, 19, 21 });
+		assertEquals(1, estimates[0], DELTA);
+		assertEquals(2, estimates[1], DELTA);
+	}
+
+	@Test
+	public void testLinearValuesFarFromZero() {
+		double[] estimates = new LocalRegression(10).getParameterEstimates(
+				new double[] { 1e12 + 2, 1e12 + 4, 1e12 + 6, 1e12 + 8, 1e12 + 10,
+						1e12 + 12, 1e12 + 14, 1e12 + 16, 1e12 + 18, 1e12 + 20 });
+		assertEquals(1e12, estimates[0], 1e-6);
+		assertEquals(2, estimates[1], 1e-6);
+	}
+
+	@Test
+	public void testFromHistory() {
+		LocalRegression localRegression = new LocalRegression(4);
+		double[] history = { 0.9, 0.2, 0.4, 0.1, 0.7, 0 };
+		double[] window = { 0.1, 0.4, 0.2, 0.9 };
+		assertEstimates(
+				localRegression.getParameterEstimates(window).clone(),
+				localRegression.getParameterEstimatesFromHistory(history));
+		assertEstimates(
+				localRegression.getRobustParameterEstimates(window).clone(),
+				localRegression.getRobustParameterEstimatesFromHistory(history));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooShortHistory() {
+		new LocalRegression(10).getParameterEstimatesFromHistory(new double[9]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooShortWindow() {
+		new LocalRegression(2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongNumberOfValues() {
+		new LocalRegression(10).getParameterEstimates(new double[9]);
+	}
+
+	private static void assertEstimates(double[] expected, double[] actual) {
+		assertEquals(expected[0], actual[0], DELTA);
+		assertEquals(expected[1], actual[1], DELTA);
+	}
+
+}
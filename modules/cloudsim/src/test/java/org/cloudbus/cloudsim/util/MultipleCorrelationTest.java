@@ -0,0 +1,140 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class MultipleCorrelationTest {
+
+	/**
+	 * Gets the coefficient of determination of the least squares regression, with an intercept, of
+	 * a variable on all the other ones, solving the normal equations.
+	 */
+	private static double regressionRSquared(double[][] data, int variable) {
+		int n = data.length;
+		int m = data[0].length;
+		// the columns of the design matrix are the intercept and the other variables
+		double[][] x = new double[m][n];
+		for (int k = 0; k < m; k++) {
+			x[k][0] = 1;
+			int column = 1;
+			for (int j = 0; j < n; j++) {
+				if (j != variable) {
+					x[k][column++] = data[j][k];
+				}
+			}
+		}
+		double[][] a = new double[n][n + 1];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				for (int k = 0; k < m; k++) {
+					a[i][j] += x[k][i] * x[k][j];
+				}
+			}
+			for (int k = 0; k < m; k++) {
+				a[i][n] += x[k][i] * data[variable][k];
+			}
+		}
+		for (int c = 0; c < n; c++) {
+			int pivot = c;
+			for (int i = c + 1; i < n; i++) {
+				if (Math.abs(a[i][c]) > Math.abs(a[pivot][c])) {
+					pivot = i;
+				}
+			}
+			double[] row = a[c];
+			a[c] = a[pivot];
+			a[pivot] = row;
+			for (int i = 0; i < n; i++) {
+				if (i != c) {
+					double factor = a[i][c] / a[c][c];
+					for (int j = c; j <= n; j++) {
+						a[i][j] -= factor * a[c][j];
+					}
+				}
+			}
+		}
+
+		double mean = 0;
+		for (int k = 0; k < m; k++) {
+			mean += data[variable][k];
+		}
+		mean /= m;
+		double residualSquares = 0;
+		double totalSquares = 0;
+		for (int k = 0; k < m; k++) {
+			double fitted = 0;
+			for (int j = 0; j < n; j++) {
+				fitted += x[k][j] * a[j][n] / a[j][j];
+			}
+			double residual = data[variable][k] - fitted;
+			residualSquares += residual * residual;
+			totalSquares += (data[variable][k] - mean) * (data[variable][k] - mean);
+		}
+		return 1 - residualSquares / totalSquares;
+	}
+
+	@Test
+	public void testSameAsRegressions() {
+		Random random = new Random(13);
+		MultipleCorrelation multipleCorrelation = new MultipleCorrelation();
+		for (int test = 0; test < 200; test++) {
+			int n = 2 + random.nextInt(8);
+			int m = n + 1 + random.nextInt(30);
+			double[][] data = new double[n][m];
+			for (int k = 0; k < m; k++) {
+				double common = random.nextDouble();
+				for (int i = 0; i < n; i++) {
+					data[i][k] = random.nextDouble() * (i + 1) * 0.2 + common;
+				}
+			}
+			double[] coefficients = multipleCorrelation.getCoefficientsOfDetermination(data);
+			assertEquals(n, coefficients.length);
+			for (int i = 0; i < n; i++) {
+				assertEquals(regressionRSquared(data, i), coefficients[i], 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testExactFit() {
+		double[][] data = { { 1, 2, 4 }, { 3, 1, 2 }, { 0, 5, 1 } };
+		assertArrayEquals(new double[] { 1, 1, 1 }, new MultipleCorrelation().getCoefficientsOfDetermination(data), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSingleVariable() {
+		new MultipleCorrelation().getCoefficientsOfDetermination(new double[][] { { 1, 2, 3 } });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotEnoughObservations() {
+		new MultipleCorrelation().getCoefficientsOfDetermination(new double[][] { { 1, 2 }, { 3, 1 }, { 0, 5 } });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstantVariable() {
+		new MultipleCorrelation().getCoefficientsOfDetermination(new double[][] { { 1, 2, 3, 5 }, { 2, 2, 2, 2 } });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLinearlyDependentVariables() {
+		double[][] data = { { 1, 2, 3, 5, 8 }, { 2, 4, 6, 10, 16 }, { 0, 3, 1, 4, 1 } };
+		new MultipleCorrelation().getCoefficientsOfDetermination(data);
+	}
+
+}
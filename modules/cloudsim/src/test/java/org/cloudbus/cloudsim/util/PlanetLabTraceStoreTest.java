@@ -0,0 +1,100 @@
+package org.cloudbus.cloudsim.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemoryTest;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabMapped;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class PlanetLabTraceStoreTest {
+
+	private static final double SCHEDULING_INTERVAL = UtilizationModelPlanetLabInMemoryTest.SCHEDULING_INTERVAL;
+
+	private File folder;
+
+	private File store;
+
+	@Before
+	public void setUp() throws Exception {
+		folder = File.createTempFile("planetlab", "");
+		folder.delete();
+		folder.mkdir();
+		store = File.createTempFile("planetlab", ".trace");
+	}
+
+	@After
+	public void tearDown() {
+		for (File file : folder.listFiles()) {
+			file.delete();
+		}
+		folder.delete();
+		store.delete();
+	}
+
+	private File writeTrace(String name, int first) throws IOException {
+		File file = new File(folder, name);
+		PrintStream output = new PrintStream(new FileOutputStream(file));
+		for (int i = 0; i < PlanetLabTraceStore.DEFAULT_NUMBER_OF_SAMPLES; i++) {
+			output.println((first + i) % 101);
+		}
+		output.close();
+		return file;
+	}
+
+	@Test
+	public void testSameUtilizationAsInMemory() throws Exception {
+		File[] files = { writeTrace("a", 0), writeTrace("b", 40), writeTrace("c", 99) };
+		assertEquals(3, PlanetLabTraceStore.convert(folder.getPath(), store.getPath()));
+
+		PlanetLabTraceStore traceStore = PlanetLabTraceStore.open(store.getPath());
+		assertEquals(3, traceStore.getNumberOfTraces());
+		assertEquals(PlanetLabTraceStore.DEFAULT_NUMBER_OF_SAMPLES, traceStore.getNumberOfSamples());
+
+		// The traces are stored in the order they are listed
+		File[] listed = folder.listFiles();
+		for (int i = 0; i < listed.length; i++) {
+			UtilizationModelPlanetLabInMemory expected = new UtilizationModelPlanetLabInMemory(
+					listed[i].getPath(),
+					SCHEDULING_INTERVAL);
+			UtilizationModel actual = traceStore.createUtilizationModel(i, SCHEDULING_INTERVAL);
+			assertArrayEquals(expected.getData(), ((UtilizationModelPlanetLabMapped) actual).getData(), 0);
+			for (double time = 0; time <= 288 * SCHEDULING_INTERVAL; time += 37.5) {
+				assertEquals(expected.getUtilization(time), actual.getUtilization(time), 0);
+			}
+		}
+		assertEquals(files.length, listed.length);
+	}
+
+	@Test(expected = IOException.class)
+	public void testUtilizationOutOfRange() throws Exception {
+		File file = new File(folder, "a");
+		PrintStream output = new PrintStream(new FileOutputStream(file));
+		for (int i = 0; i < PlanetLabTraceStore.DEFAULT_NUMBER_OF_SAMPLES; i++) {
+			output.println(256);
+		}
+		output.close();
+		PlanetLabTraceStore.convert(folder.getPath(), store.getPath());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotATraceStore() throws Exception {
+		PrintStream output = new PrintStream(new FileOutputStream(store));
+		output.println("not a trace store");
+		output.close();
+		PlanetLabTraceStore.open(store.getPath());
+	}
+
+}
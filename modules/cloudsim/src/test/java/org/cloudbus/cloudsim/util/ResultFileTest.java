@@ -0,0 +1,157 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.VmStateHistoryEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class ResultFileTest {
+
+	private File file;
+
+	private File csv;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("results", ".bin");
+		csv = File.createTempFile("results", ".csv");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+		csv.delete();
+	}
+
+	@Test
+	public void testRoundTripAcrossChunks() throws IOException {
+		int rows = ResultFileWriter.CHUNK_SIZE * 2 + 17;
+		ResultFileWriter writer = new ResultFileWriter(file.getPath());
+		int squares = writer.addTable("squares", "x", "y");
+		int cubes = writer.addTable("cubes", "x", "y");
+		for (int i = 0; i < rows; i++) {
+			writer.addRow(squares, i, i * i);
+			if (i % 3 == 0) {
+				writer.addRow(cubes, i, (double) i * i * i);
+			}
+		}
+		writer.close();
+
+		ResultFile resultFile = new ResultFile(file.getPath());
+		assertEquals(Arrays.asList("squares", "cubes"), resultFile.getTableNames());
+		assertEquals(Arrays.asList("x", "y"), resultFile.getColumnNames("squares"));
+		assertEquals(rows, resultFile.getRowCount("squares"));
+		assertEquals((rows + 2) / 3, resultFile.getRowCount("cubes"));
+		double[] x = resultFile.getColumn("squares", "x");
+		double[] y = resultFile.getColumn("squares", "y");
+		assertEquals(rows, x.length);
+		for (int i = 0; i < rows; i++) {
+			assertEquals(i, x[i], 0);
+			assertEquals(i * i, y[i], 0);
+		}
+		double[] cubeValues = resultFile.getColumn("cubes", "y");
+		for (int i = 0; i < cubeValues.length; i++) {
+			assertEquals(Math.pow(3 * i, 3), cubeValues[i], 0);
+		}
+	}
+
+	@Test
+	public void testStateHistories() throws IOException {
+		List<HostStateHistoryEntry> hostHistory = new ArrayList<HostStateHistoryEntry>();
+		hostHistory.add(new HostStateHistoryEntry(0, 100, 150, true));
+		hostHistory.add(new HostStateHistoryEntry(300, 0, 0, false));
+		List<VmStateHistoryEntry> vmHistory = new ArrayList<VmStateHistoryEntry>();
+		vmHistory.add(new VmStateHistoryEntry(0, 100, 100, false));
+		vmHistory.add(new VmStateHistoryEntry(300, 90, 100, true));
+		vmHistory.add(new VmStateHistoryEntry(600, 90, 100, true));
+		vmHistory.add(new VmStateHistoryEntry(900, 100, 100, false));
+		vmHistory.add(new VmStateHistoryEntry(1200, 90, 100, true));
+
+		ResultFileWriter writer = new ResultFileWriter(file.getPath());
+		writer.writeHostStateHistory(4, hostHistory);
+		writer.writeVmStateHistory(7, vmHistory);
+		writer.writeEnergy(1200, 5000);
+		writer.close();
+
+		ResultFile resultFile = new ResultFile(file.getPath());
+		assertArrayEquals(new double[] { 4, 4 }, resultFile.getColumn(ResultFile.HOST_STATE, "id"), 0);
+		assertArrayEquals(new double[] { 150, 0 },
+				resultFile.getColumn(ResultFile.HOST_STATE, "requested_mips"), 0);
+		assertArrayEquals(new double[] { 1, 0 }, resultFile.getColumn(ResultFile.HOST_STATE, "flag"), 0);
+		assertEquals(5, resultFile.getRowCount(ResultFile.VM_STATE));
+		assertArrayEquals(new double[] { 300, 1200 },
+				resultFile.getColumn(ResultFile.VM_MIGRATION, "time"), 0);
+		assertArrayEquals(new double[] { 5000 }, resultFile.getColumn(ResultFile.ENERGY, "energy"), 0);
+		assertFalse(resultFile.hasTable(ResultFile.CONTAINER_STATE));
+	}
+
+	@Test
+	public void testWriteCsv() throws IOException {
+		ResultFileWriter writer = new ResultFileWriter(file.getPath());
+		int table = writer.addTable("samples", "id", "value");
+		writer.addRow(table, 1, 0.5);
+		writer.addRow(table, 2, 3);
+		writer.close();
+
+		new ResultFile(file.getPath()).writeCsv("samples", csv.getPath());
+		assertEquals(Arrays.asList("id,value", "1,0.5", "2,3"),
+				Files.readAllLines(csv.toPath(), Charset.defaultCharset()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTableWithOtherColumns() throws IOException {
+		ResultFileWriter writer = new ResultFileWriter(file.getPath());
+		try {
+			writer.addTable("samples", "id", "value");
+			writer.addTable("samples", "id");
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedFile() throws IOException {
+		ResultFileWriter writer = new ResultFileWriter(file.getPath());
+		writer.addRow(writer.addTable("samples", "value"), 1);
+		writer.close();
+		byte[] content = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(content, content.length - 1));
+		new ResultFile(file.getPath());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotAResultFile() throws IOException {
+		DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
+		output.writeInt(ResultFile.MAGIC + 1);
+		output.writeInt(ResultFile.VERSION);
+		output.close();
+		new ResultFile(file.getPath());
+	}
+
+}
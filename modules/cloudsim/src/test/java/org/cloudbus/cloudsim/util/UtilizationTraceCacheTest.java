@@ -0,0 +1,106 @@
+package org.cloudbus.cloudsim.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @since CloudSim Toolkit 4.0
+ */
+public class UtilizationTraceCacheTest {
+
+	private static final int SAMPLES = 5;
+
+	private File a;
+
+	private File b;
+
+	@Before
+	public void setUp() throws Exception {
+		UtilizationTraceCache.clear();
+		a = createTrace(10);
+		b = createTrace(20);
+	}
+
+	@After
+	public void tearDown() {
+		UtilizationTraceCache.setMaxSize(UtilizationTraceCache.DEFAULT_MAX_SIZE);
+		UtilizationTraceCache.clear();
+		a.delete();
+		b.delete();
+	}
+
+	private static File createTrace(int first) throws IOException {
+		File file = File.createTempFile("trace", ".dat");
+		PrintStream output = new PrintStream(new FileOutputStream(file));
+		for (int i = 0; i < SAMPLES - 1; i++) {
+			output.println(first + i);
+		}
+		output.close();
+		return file;
+	}
+
+	@Test
+	public void testGetTrace() throws Exception {
+		double[] trace = UtilizationTraceCache.getTrace(a.getPath(), SAMPLES);
+		assertEquals(SAMPLES, trace.length);
+		assertEquals(0.10, trace[0], 0);
+		assertEquals(0.13, trace[3], 0);
+		assertEquals(0.13, trace[4], 0);
+		assertSame(trace, UtilizationTraceCache.getTrace(a.getPath(), SAMPLES));
+		assertEquals(1, UtilizationTraceCache.size());
+	}
+
+	@Test
+	public void testModelsShareTrace() throws Exception {
+		UtilizationModelPlanetLabInMemory model1 = new UtilizationModelPlanetLabInMemory(a.getPath(), 300, SAMPLES);
+		UtilizationModelPlanetLabInMemory model2 = new UtilizationModelPlanetLabInMemory(a.getPath(), 60, SAMPLES);
+		assertEquals(1, UtilizationTraceCache.size());
+		assertArrayEquals(model1.getData(), model2.getData(), 0);
+
+		// the data handed out is a copy, so it does not change the shared trace
+		model1.getData()[1] = 1;
+		assertEquals(0.11, model2.getSample(1), 0);
+		assertEquals(0.11, model1.getUtilization(300), 0);
+		assertEquals(0.11, model2.getUtilization(60), 0);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() throws Exception {
+		UtilizationTraceCache.setMaxSize(1);
+		double[] traceA = UtilizationTraceCache.getTrace(a.getPath(), SAMPLES);
+		UtilizationTraceCache.getTrace(b.getPath(), SAMPLES);
+		assertEquals(1, UtilizationTraceCache.size());
+		double[] reloadedA = UtilizationTraceCache.getTrace(a.getPath(), SAMPLES);
+		assertNotSame(traceA, reloadedA);
+		assertSame(reloadedA, UtilizationTraceCache.getTrace(a.getPath(), SAMPLES));
+
+		UtilizationTraceCache.setMaxSize(2);
+		double[] traceB = UtilizationTraceCache.getTrace(b.getPath(), SAMPLES);
+		UtilizationTraceCache.getTrace(a.getPath(), SAMPLES);
+		UtilizationTraceCache.setMaxSize(1);
+		// b is now the least recently used trace
+		assertSame(reloadedA, UtilizationTraceCache.getTrace(a.getPath(), SAMPLES));
+		assertNotSame(traceB, UtilizationTraceCache.getTrace(b.getPath(), SAMPLES));
+	}
+
+	@Test
+	public void testDisabled() throws Exception {
+		UtilizationTraceCache.setMaxSize(0);
+		double[] trace = UtilizationTraceCache.getTrace(a.getPath(), SAMPLES);
+		assertNotSame(trace, UtilizationTraceCache.getTrace(a.getPath(), SAMPLES));
+		assertEquals(0, UtilizationTraceCache.size());
+	}
+
+}